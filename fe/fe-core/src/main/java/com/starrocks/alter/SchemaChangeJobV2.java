@@ -608,7 +608,7 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
     }
 
     private Set<String> getModifiedColumns(OlapTable tbl) {
-        if (tbl.getRelatedMaterializedViews().isEmpty()) {
+        if (tbl.getAllRelatedMaterializedViews().isEmpty()) {
             return Sets.newHashSet();
         }
         Set<String> modifiedColumns = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
@@ -627,7 +627,7 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
             return;
         }
         Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
-        for (MvId mvId : tbl.getRelatedMaterializedViews()) {
+        for (MvId mvId : tbl.getAllRelatedMaterializedViews()) {
             MaterializedView mv = (MaterializedView) db.getTable(mvId.getId());
             if (mv == null) {
                 LOG.warn("Ignore materialized view {} does not exists", mvId);
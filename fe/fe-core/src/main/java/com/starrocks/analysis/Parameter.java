@@ -0,0 +1,80 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.analysis;
+
+import com.starrocks.sql.ast.AstVisitor;
+
+import java.util.Objects;
+
+// The '?' placeholder of a prepared statement.
+// The statement is parsed once, and the parameters are bound to literals before every execution,
+// then it is analyzed and translated as the bound literal.
+public class Parameter extends Expr {
+    // position of the placeholder in the statement, start from 0
+    private final int slotId;
+    // shared by the clones made by the analyzer, so a value bound to an analyzed statement reaches all of them
+    private final Binding binding;
+
+    public Parameter(int slotId) {
+        this.slotId = slotId;
+        this.binding = new Binding();
+    }
+
+    protected Parameter(Parameter other) {
+        super(other);
+        this.slotId = other.slotId;
+        this.binding = other.binding;
+    }
+
+    public int getSlotId() {
+        return slotId;
+    }
+
+    public LiteralExpr getValue() {
+        return binding.value;
+    }
+
+    public void setValue(LiteralExpr value) {
+        binding.value = value;
+    }
+
+    @Override
+    protected String toSqlImpl() {
+        return binding.value == null ? "?" : binding.value.toSql();
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitParameter(this, context);
+    }
+
+    @Override
+    public Expr clone() {
+        return new Parameter(this);
+    }
+
+    @Override
+    public int hashCode() {
+        // the value may be bound again after the parameter is put into a hash map of the analyzed statement
+        return Objects.hash(super.hashCode(), slotId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        Parameter that = (Parameter) o;
+        return slotId == that.slotId && Objects.equals(binding.value, that.binding.value);
+    }
+
+    private static class Binding {
+        private LiteralExpr value;
+    }
+}
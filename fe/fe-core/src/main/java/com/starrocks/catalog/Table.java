@@ -523,6 +523,16 @@ public class Table extends MetaObject implements Writable {
         return relatedMaterializedViews;
     }
 
+    /**
+     * The materialized views are registered to their base tables after all the databases of a lazily loaded
+     * image are loaded, so wait for them before changing the materialized views by the relation. A query only
+     * misses a rewrite without waiting, it uses {@link #getRelatedMaterializedViews}.
+     */
+    public Set<MvId> getAllRelatedMaterializedViews() {
+        GlobalStateMgr.getCurrentState().getLocalMetastore().waitForLazyDbs();
+        return relatedMaterializedViews;
+    }
+
     public boolean isUnPartitioned() {
         return true;
     }
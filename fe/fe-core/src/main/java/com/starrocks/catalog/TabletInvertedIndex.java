@@ -100,6 +100,13 @@ public class TabletInvertedIndex {
         this.lock.writeLock().unlock();
     }
 
+    // The tablets of a database loaded lazily from the image are added when the database is loaded, wait for all
+    // the databases to be loaded before a lookup is missed or all the tablets of a backend are visited.
+    // Must not be called with the lock held, the loading threads add the tablets under the lock.
+    private static boolean waitForLazyDbs() {
+        return GlobalStateMgr.getCurrentState().getLocalMetastore().waitForLazyDbs();
+    }
+
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
                              final HashMap<Long, TStorageMedium> storageMediumMap,
                              ListMultimap<Long, Long> tabletSyncMap,
@@ -112,6 +119,8 @@ public class TabletInvertedIndex {
                              ListMultimap<Long, Long> transactionsToClear,
                              ListMultimap<Long, Long> tabletRecoveryMap,
                              Set<Pair<Long, Integer>> tabletWithoutPartitionId) {
+        // a tablet not found in the inverted index is deleted from the backend
+        waitForLazyDbs();
 
         for (TTablet backendTablet : backendTablets.values()) {
             for (TTabletInfo tabletInfo : backendTablet.tablet_infos) {
@@ -285,6 +294,14 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
+        Long tabletId = getTabletIdByReplicaNoWait(replicaId);
+        if (tabletId == null && waitForLazyDbs()) {
+            tabletId = getTabletIdByReplicaNoWait(replicaId);
+        }
+        return tabletId;
+    }
+
+    private Long getTabletIdByReplicaNoWait(long replicaId) {
         readLock();
         try {
             return replicaToTabletMap.get(replicaId);
@@ -294,6 +311,14 @@ public class TabletInvertedIndex {
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
+        TabletMeta tabletMeta = getTabletMetaNoWait(tabletId);
+        if (tabletMeta == null && waitForLazyDbs()) {
+            tabletMeta = getTabletMetaNoWait(tabletId);
+        }
+        return tabletMeta;
+    }
+
+    private TabletMeta getTabletMetaNoWait(long tabletId) {
         readLock();
         try {
             return tabletMetaMap.get(tabletId);
@@ -303,6 +328,14 @@ public class TabletInvertedIndex {
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
+        List<TabletMeta> tabletMetaList = getTabletMetaListNoWait(tabletIdList);
+        if (tabletMetaList.contains(NOT_EXIST_TABLET_META) && waitForLazyDbs()) {
+            tabletMetaList = getTabletMetaListNoWait(tabletIdList);
+        }
+        return tabletMetaList;
+    }
+
+    private List<TabletMeta> getTabletMetaListNoWait(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
         readLock();
         try {
@@ -472,6 +505,9 @@ public class TabletInvertedIndex {
     }
 
     public Replica getReplica(long tabletId, long backendId) {
+        if (getTabletMetaNoWait(tabletId) == null) {
+            waitForLazyDbs();
+        }
         readLock();
         try {
             Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
@@ -482,6 +518,9 @@ public class TabletInvertedIndex {
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
+        if (getTabletMetaNoWait(tabletId) == null) {
+            waitForLazyDbs();
+        }
         readLock();
         try {
             if (replicaMetaTable.containsRow(tabletId)) {
@@ -501,6 +540,7 @@ public class TabletInvertedIndex {
      * @return list of replica or null if backend not found
      */
     public List<Replica> getReplicasOnBackendByTabletIds(List<Long> tabletIds, long backendId) {
+        waitForLazyDbs();
         readLock();
         try {
             Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
@@ -518,6 +558,7 @@ public class TabletInvertedIndex {
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
+        waitForLazyDbs();
         List<Long> tabletIds = Lists.newArrayList();
         readLock();
         try {
@@ -532,6 +573,7 @@ public class TabletInvertedIndex {
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
+        waitForLazyDbs();
         List<Long> tabletIds = Lists.newArrayList();
         readLock();
         try {
@@ -547,6 +589,7 @@ public class TabletInvertedIndex {
     }
 
     public long getTabletNumByBackendId(long backendId) {
+        waitForLazyDbs();
         readLock();
         try {
             Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
@@ -560,6 +603,7 @@ public class TabletInvertedIndex {
     }
 
     public long getTabletNumByBackendIdAndPathHash(long backendId, long pathHash) {
+        waitForLazyDbs();
         readLock();
         try {
             Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
@@ -573,6 +617,7 @@ public class TabletInvertedIndex {
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
+        waitForLazyDbs();
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
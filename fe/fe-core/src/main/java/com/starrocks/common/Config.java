@@ -117,6 +117,31 @@ public class Config extends ConfigBase {
     @ConfField
     public static String audit_log_delete_age = "30d";
 
+    /**
+     * The format of the query audit log, "text" or "binary".
+     * The binary audit log is written to fe.audit.bin in audit_log_dir in compressed columnar blocks, and it's
+     * read by AuditLogBinaryReader. It's rolled if the size exceeds audit_log_binary_roll_size_mb, and at most
+     * audit_log_roll_num rolled files are kept. The slow query log and big query log are always in text.
+     */
+    @ConfField(mutable = true)
+    public static String audit_log_format = "text";
+
+    @ConfField(mutable = true)
+    public static long audit_log_binary_roll_size_mb = 1024;
+
+    /**
+     * Capacity of the buffer of audit events which are not processed by audit plugins,
+     * the events are dropped if the buffer is full.
+     */
+    @ConfField
+    public static int audit_event_queue_capacity = 65536;
+
+    /**
+     * Max number of audit events delivered to audit plugins in one batch.
+     */
+    @ConfField(mutable = true)
+    public static int audit_event_batch_size = 1024;
+
     @ConfField(mutable = true)
     public static long slow_lock_threshold_ms = 3000L;
 
@@ -303,6 +328,46 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * Save the image in independent sections with a table of contents, so that the databases can be loaded
+     * concurrently and the checksum of each section is verified separately when FE starts.
+     * The image in either format can be loaded, but the FE of an older version can't load a sectioned image.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_sectioned_image = false;
+
+    /**
+     * Number of threads to load the databases of a sectioned image.
+     */
+    @ConfField
+    public static int image_load_parallelism = 8;
+
+    /**
+     * If true, a follower or an observer loads the databases of a sectioned image on demand from the
+     * memory-mapped image at startup, and the others in the background, by image_load_parallelism threads.
+     * The journal is replayed and the FE may become the leader while the databases are still loading: a lookup
+     * by name or id loads the database it needs, and only the lookups across databases, i.e. the tablet inverted
+     * index and tablet reports, and the materialized views related to a table, wait for all the databases if
+     * they miss.
+     */
+    @ConfField
+    public static boolean enable_lazy_load_image = false;
+
+    /**
+     * If true, the checkpoint saves a sectioned image as a delta image of the latest image: the sections not
+     * changed since then, e.g. the databases not changed, refer to the bytes in the older images instead of being
+     * saved and sent to the other FEs again. It takes effect only if enable_sectioned_image is true.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_delta_image = false;
+
+    /**
+     * A full image is saved instead of a delta image if the latest image already refers to this number of older
+     * images, which compacts the chain of delta images and lets the older images be deleted.
+     */
+    @ConfField(mutable = true)
+    public static int delta_image_max_num = 10;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -602,6 +667,15 @@ public class Config extends ConfigBase {
     @ConfField
     public static boolean mysql_service_nio_enabled = true;
 
+    /**
+     * Run the command loop of every mysql connection on its own virtual thread, instead of the nio task pool
+     * or connect-scheduler-pool, so idle connections don't occupy platform threads.
+     * Only works when FE runs on a JDK that supports virtual threads, otherwise it falls back to
+     * `mysql_service_nio_enabled`.
+     */
+    @ConfField
+    public static boolean mysql_service_virtual_thread_enabled = false;
+
     /**
      * num of thread to handle io events in mysql.
      */
@@ -952,6 +1026,13 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_connection_scheduler_threads_num = 4096;
 
+    /**
+     * Number of threads to serialize and send the fragment instances of queries to backends in parallel.
+     * If it's not positive, the requests are serialized and sent one by one on the coordinator thread.
+     */
+    @ConfField
+    public static int query_deliver_threads_num = 16;
+
     /**
      * Used to limit element num of InPredicate in delete statement.
      */
@@ -1388,6 +1469,65 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long max_planner_scalar_rewrite_num = 100000;
 
+    /**
+     * Number of threads shared by all queries to run join reorder algorithms concurrently,
+     * only works when `cbo_enable_parallel_join_reorder` is on
+     */
+    @ConfField
+    public static int parallel_join_reorder_thread_num = 8;
+
+    /**
+     * Collect the actual time and rows of operators from the profile of executed queries, fit the weights
+     * of cpu, memory and network cost, and save them as the global `cbo_*_cost_weight` variables.
+     * Only the queries with profile are collected, and only the leader FE updates the weights.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_cost_model_calibration = false;
+
+    /**
+     * Number of queries collected before fitting the cost weights once
+     */
+    @ConfField(mutable = true)
+    public static int cost_model_calibration_min_queries = 100;
+
+    /**
+     * Max number of optimized plans kept in the FE plan cache, only works when `enable_plan_cache` is on
+     */
+    @ConfField
+    public static long plan_cache_max_entries = 4096;
+
+    /**
+     * A cached plan is dropped after this many seconds even if no invalidation is observed,
+     * because column statistics are refreshed asynchronously
+     */
+    @ConfField
+    public static long plan_cache_expire_sec = 10 * 60;
+
+    /**
+     * Max bytes of the query results kept in the FE result cache, only works when `enable_result_cache` is on
+     */
+    @ConfField
+    public static long result_cache_max_bytes = 256L * 1024 * 1024;
+
+    /**
+     * The result of a query is not cached if it's larger than this
+     */
+    @ConfField(mutable = true)
+    public static long result_cache_entry_max_bytes = 4L * 1024 * 1024;
+
+    /**
+     * Fetch the next result batch from BE while the current one is being sent to the client.
+     * At most one fetch is in flight, so a slow client stops the fetching.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_result_prefetch = true;
+
+    /**
+     * Max number of statements prepared by COM_STMT_PREPARE in one connection
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_stmt_count_per_connection = 1024;
+
     /**
      * statistic collect flag
      */
@@ -1430,6 +1570,20 @@ public class Config extends ConfigBase {
     @ConfField
     public static long statistic_dict_columns = 100000;
 
+    /**
+     * When the new data of a column has strings not in its global dict, or the dict is out of date,
+     * collect the dict of the changed partitions and merge it into the cached dict instead of
+     * reloading the dict of the whole table. Fall back to full reload if the merged dict is too large.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_incremental_dict_refresh = true;
+
+    /**
+     * The number of threads to collect and merge the global dicts of low cardinality columns
+     */
+    @ConfField
+    public static int dict_collect_threads_num = 4;
+
     /**
      * The column statistic cache update interval
      */
@@ -1819,6 +1973,29 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int metadata_journal_max_batch_cnt = 100;
 
+    /**
+     * Write the journals by pipelined group commit: a batch is committed in the background, and the next batch
+     * keeps taking journals from the queue until the previous one is committed, i.e. replicated to the followers.
+     * The batch size adapts to the observed commit latency, between metadata_journal_max_batch_cnt and
+     * metadata_journal_pipelined_max_batch_cnt.
+     **/
+    @ConfField(mutable = true)
+    public static boolean metadata_journal_pipelined_commit = false;
+
+    /**
+     * The maxium number of journal entity to write as a batch by pipelined group commit
+     **/
+    @ConfField(mutable = true)
+    public static int metadata_journal_pipelined_max_batch_cnt = 1000;
+
+    /**
+     * Write the frequent journals, i.e. transaction states, replica infos and batch modify partitions infos,
+     * in a compact binary encoding, which is smaller and faster to replay.
+     * Only set it after all the FEs are upgraded, because an FE of an older version can't replay them.
+     **/
+    @ConfField(mutable = true)
+    public static boolean metadata_journal_compact_encoding = false;
+
     /**
      * jaeger tracing endpoint, empty thing disables tracing
      */
@@ -1871,6 +2048,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int profile_info_reserved_num = 500;
 
+    /**
+     * Max total bytes of the profiles reserved by `ProfileManager`, the profiles are kept in the compact
+     * encoded form, and the oldest ones are evicted if it's exceeded.
+     */
+    @ConfField(mutable = true)
+    public static long profile_info_reserved_bytes = 256L * 1024 * 1024;
+
     /**
      * Max number of roles that can be granted to user including all direct roles and all parent roles
      * Used in new RBAC framework after 3.0 released
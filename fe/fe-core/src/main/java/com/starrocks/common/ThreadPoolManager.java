@@ -30,8 +30,11 @@ import com.starrocks.metric.MetricRepo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
@@ -55,6 +58,8 @@ import java.util.concurrent.TimeUnit;
  * Wrapper over ThreadPoolExecutor, user can use it to construct thread pool more flexibly.
  * 4. newDaemonScheduledThreadPool
  * Wrapper over ScheduledThreadPoolExecutor, but without delay task num limit and thread num limit now(NOTICE).
+ * 5. newVirtualThreadPerTaskExecutor
+ * Start a virtual thread for each task, only available on the JDK that supports virtual threads.
  * <p>
  * All thread pool constructed by ThreadPoolManager will be added to the nameToThreadPoolMap,
  * so the thread pool name in fe must be unique.
@@ -63,6 +68,7 @@ import java.util.concurrent.TimeUnit;
  */
 
 public class ThreadPoolManager {
+    private static final Logger LOG = LogManager.getLogger(ThreadPoolManager.class);
 
     private static Map<String, ThreadPoolExecutor> nameToThreadPoolMap = Maps.newConcurrentMap();
 
@@ -166,6 +172,25 @@ public class ThreadPoolManager {
         return scheduledThreadPoolExecutor;
     }
 
+    /**
+     * Create an executor that starts a new virtual thread named poolName-ID for each task,
+     * return null if virtual threads are not supported by the running JDK.
+     * FE is compiled for java 8, so the API is called by reflection.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String poolName) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, poolName + "-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.info("virtual thread is not supported by current jdk: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Create a thread factory that names threads with a prefix and also sets the threads to daemon.
      */
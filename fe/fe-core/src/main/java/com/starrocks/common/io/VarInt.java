@@ -0,0 +1,82 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Variable-length encoding of integers and strings, used by the compact binary encoding of the journals.
+ * A VLong is an unsigned LEB128 varint, 7 bits a byte. A ZLong is zigzag encoded before written as a VLong, so
+ * that a small negative value like -1 takes one byte as well.
+ */
+public class VarInt {
+    private VarInt() {
+    }
+
+    public static void writeVLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    public static void writeVInt(DataOutput out, int value) throws IOException {
+        writeVLong(out, value & 0xFFFFFFFFL);
+    }
+
+    public static int readVInt(DataInput in) throws IOException {
+        long value = readVLong(in);
+        if ((value >>> 32) != 0) {
+            throw new IOException("varint overflows int: " + value);
+        }
+        return (int) value;
+    }
+
+    public static void writeZLong(DataOutput out, long value) throws IOException {
+        writeVLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readZLong(DataInput in) throws IOException {
+        long value = readVLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * utf-8 bytes prefixed by the length plus 1, null is encoded as 0
+     */
+    public static void writeString(DataOutput out, String str) throws IOException {
+        if (str == null) {
+            writeVInt(out, 0);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = readVInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
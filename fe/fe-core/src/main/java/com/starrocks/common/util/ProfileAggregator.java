@@ -0,0 +1,261 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.thrift.TCounter;
+import com.starrocks.thrift.TRuntimeProfileNode;
+import com.starrocks.thrift.TRuntimeProfileTree;
+import com.starrocks.thrift.TUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ProfileAggregator merges the isomorphic profiles of the fragment instances as soon as they are reported,
+ * instead of keeping the profile tree of every instance and merging them at the end of the query by
+ * {@link RuntimeProfile#mergeIsomorphicProfiles}.
+ * <p>
+ * It keeps one node for each node of the isomorphic profile trees, and the counters of a node are
+ * accumulated in primitive arrays indexed by the counter name. The merged profile is built on demand, and
+ * it's the same as the profile of the first instance merged by {@link RuntimeProfile#mergeIsomorphicProfiles}:
+ * the value of a counter is the sum, or the average for time counters, of all the instances, and the min and
+ * max values are attached as its __MIN_OF_ and __MAX_OF_ child counters.
+ * The children are matched by name, and the info strings are taken from the first reported instance.
+ */
+public class ProfileAggregator {
+    private static final Logger LOG = LogManager.getLogger(ProfileAggregator.class);
+
+    private static final String ROOT_COUNTER = "";
+    private static final String TOTAL_TIME = "TotalTime";
+    private static final String MERGED_INFO_PREFIX_MIN = "__MIN_OF_";
+    private static final String MERGED_INFO_PREFIX_MAX = "__MAX_OF_";
+
+    private final Node root = new Node("");
+    private final Set<String> addresses = Sets.newHashSet();
+    private int numProfiles = 0;
+
+    public synchronized void add(TRuntimeProfileTree thriftProfile, String address) {
+        int[] idx = new int[] {0};
+        root.add(thriftProfile.nodes, idx);
+        Preconditions.checkState(idx[0] == thriftProfile.nodes.size());
+        if (address != null) {
+            addresses.add(address);
+        }
+        numProfiles++;
+    }
+
+    public synchronized int getNumProfiles() {
+        return numProfiles;
+    }
+
+    public synchronized Set<String> getAddresses() {
+        return Sets.newHashSet(addresses);
+    }
+
+    // Build the merged profile, the profile of the root node of the reported trees is named as the given name
+    public synchronized RuntimeProfile build(String name) {
+        return root.build(name);
+    }
+
+    private static class Node {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final String name;
+        private final Map<String, String> infoStrings = Maps.newLinkedHashMap();
+        private final Map<String, Node> children = Maps.newLinkedHashMap();
+        private int numProfiles = 0;
+
+        // The counters, the index of a counter is in counterIndexes
+        private final Map<String, Integer> counterIndexes = Maps.newHashMap();
+        private int numCounters = 0;
+        private String[] names = new String[INITIAL_CAPACITY];
+        private String[] parents = new String[INITIAL_CAPACITY];
+        private TUnit[] types = new TUnit[INITIAL_CAPACITY];
+        private boolean[] skipMerges = new boolean[INITIAL_CAPACITY];
+        // number of the instances which have this counter
+        private int[] nums = new int[INITIAL_CAPACITY];
+        private long[] firstValues = new long[INITIAL_CAPACITY];
+        private long[] sums = new long[INITIAL_CAPACITY];
+        private long[] mins = new long[INITIAL_CAPACITY];
+        private long[] maxs = new long[INITIAL_CAPACITY];
+        // min and max of the __MIN_OF_ and __MAX_OF_ counters reported by BE, which are merged by BE already
+        private boolean[] hasMergedMins = new boolean[INITIAL_CAPACITY];
+        private boolean[] hasMergedMaxs = new boolean[INITIAL_CAPACITY];
+        private long[] mergedMins = new long[INITIAL_CAPACITY];
+        private long[] mergedMaxs = new long[INITIAL_CAPACITY];
+
+        private Node(String name) {
+            this.name = name;
+            // every profile has the counter of total time
+            indexOf(TOTAL_TIME, TUnit.TIME_NS, ROOT_COUNTER);
+        }
+
+        // preorder traversal, idx is modified in the traversal process
+        private void add(List<TRuntimeProfileNode> nodes, int[] idx) {
+            TRuntimeProfileNode node = nodes.get(idx[0]);
+            boolean isFirst = numProfiles == 0;
+            numProfiles++;
+
+            if (isFirst && node.info_strings_display_order != null) {
+                for (String key : node.info_strings_display_order) {
+                    String value = node.info_strings.get(key);
+                    Preconditions.checkState(value != null);
+                    infoStrings.put(key, value);
+                }
+            }
+
+            boolean hasTotalTime = false;
+            if (node.counters != null) {
+                Map<String, String> child2ParentMap = Maps.newHashMap();
+                if (node.child_counters_map != null) {
+                    for (Map.Entry<String, Set<String>> entry : node.child_counters_map.entrySet()) {
+                        for (String childName : entry.getValue()) {
+                            child2ParentMap.put(childName, entry.getKey());
+                        }
+                    }
+                }
+                List<TCounter> mergedInfoCounters = Lists.newArrayList();
+                for (TCounter tcounter : node.counters) {
+                    if (tcounter.name.startsWith(MERGED_INFO_PREFIX_MIN) ||
+                            tcounter.name.startsWith(MERGED_INFO_PREFIX_MAX)) {
+                        mergedInfoCounters.add(tcounter);
+                        continue;
+                    }
+                    hasTotalTime |= TOTAL_TIME.equals(tcounter.name);
+                    String parentName = child2ParentMap.getOrDefault(tcounter.name, ROOT_COUNTER);
+                    int i = indexOf(tcounter.name, tcounter.type, parentName);
+                    if (types[i] != tcounter.type) {
+                        LOG.warn("find non-isomorphic counter, profileName={}, counterName={}, existType={}, " +
+                                "anotherType={}", name, tcounter.name, types[i], tcounter.type);
+                        continue;
+                    }
+                    if (tcounter.skip_merge) {
+                        skipMerges[i] = true;
+                    }
+                    update(i, tcounter.value);
+                }
+                // the __MIN_OF_ and __MAX_OF_ counters are not merged as the other counters
+                for (TCounter tcounter : mergedInfoCounters) {
+                    boolean isMin = tcounter.name.startsWith(MERGED_INFO_PREFIX_MIN);
+                    String counterName = tcounter.name.substring(
+                            isMin ? MERGED_INFO_PREFIX_MIN.length() : MERGED_INFO_PREFIX_MAX.length());
+                    Integer i = counterIndexes.get(counterName);
+                    if (i == null) {
+                        continue;
+                    }
+                    if (isMin) {
+                        mergedMins[i] = hasMergedMins[i] ? Math.min(mergedMins[i], tcounter.value) : tcounter.value;
+                        hasMergedMins[i] = true;
+                    } else {
+                        mergedMaxs[i] = hasMergedMaxs[i] ? Math.max(mergedMaxs[i], tcounter.value) : tcounter.value;
+                        hasMergedMaxs[i] = true;
+                    }
+                }
+            }
+            if (!hasTotalTime) {
+                update(counterIndexes.get(TOTAL_TIME), 0);
+            }
+
+            idx[0]++;
+            for (int i = 0; i < node.num_children; i++) {
+                String childName = nodes.get(idx[0]).name;
+                children.computeIfAbsent(childName, Node::new).add(nodes, idx);
+            }
+        }
+
+        private int indexOf(String counterName, TUnit type, String parentName) {
+            Integer index = counterIndexes.get(counterName);
+            if (index != null) {
+                return index;
+            }
+            if (numCounters == names.length) {
+                grow(numCounters * 2);
+            }
+            int i = numCounters++;
+            names[i] = counterName;
+            parents[i] = parentName;
+            types[i] = type;
+            mins[i] = Long.MAX_VALUE;
+            maxs[i] = Long.MIN_VALUE;
+            counterIndexes.put(counterName, i);
+            return i;
+        }
+
+        private void update(int i, long value) {
+            if (nums[i] == 0) {
+                firstValues[i] = value;
+            }
+            nums[i]++;
+            sums[i] += value;
+            mins[i] = Math.min(mins[i], value);
+            maxs[i] = Math.max(maxs[i], value);
+        }
+
+        private void grow(int capacity) {
+            names = Arrays.copyOf(names, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            types = Arrays.copyOf(types, capacity);
+            skipMerges = Arrays.copyOf(skipMerges, capacity);
+            nums = Arrays.copyOf(nums, capacity);
+            firstValues = Arrays.copyOf(firstValues, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+            hasMergedMins = Arrays.copyOf(hasMergedMins, capacity);
+            hasMergedMaxs = Arrays.copyOf(hasMergedMaxs, capacity);
+            mergedMins = Arrays.copyOf(mergedMins, capacity);
+            mergedMaxs = Arrays.copyOf(mergedMaxs, capacity);
+        }
+
+        private RuntimeProfile build(String profileName) {
+            RuntimeProfile profile = new RuntimeProfile(profileName);
+            infoStrings.forEach(profile::addInfoString);
+
+            boolean[] added = new boolean[numCounters];
+            for (int i = 0; i < numCounters; i++) {
+                addCounter(profile, i, added);
+            }
+
+            for (Node child : children.values()) {
+                profile.addChild(child.build(child.name));
+            }
+            return profile;
+        }
+
+        // add the parent counter first
+        private void addCounter(RuntimeProfile profile, int i, boolean[] added) {
+            if (added[i] || nums[i] == 0) {
+                return;
+            }
+            added[i] = true;
+            String parentName = parents[i];
+            Integer parent = counterIndexes.get(parentName);
+            if (parent != null) {
+                addCounter(profile, parent, added);
+            }
+            if (profile.getCounter(parentName) == null) {
+                parentName = ROOT_COUNTER;
+            }
+
+            Counter counter = profile.addCounter(names[i], types[i], parentName);
+            if (skipMerges[i]) {
+                counter.setSkipMerge(true);
+                counter.setValue(firstValues[i]);
+                return;
+            }
+            counter.setValue(Counter.isAverageType(types[i]) ? sums[i] / nums[i] : sums[i]);
+            profile.addCounter(MERGED_INFO_PREFIX_MIN + names[i], types[i], names[i])
+                    .setValue(hasMergedMins[i] ? mergedMins[i] : mins[i]);
+            profile.addCounter(MERGED_INFO_PREFIX_MAX + names[i], types[i], names[i])
+                    .setValue(hasMergedMaxs[i] ? mergedMaxs[i] : maxs[i]);
+        }
+    }
+}
@@ -49,6 +49,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * why the element in the finished profile arary is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator)
  *
+ * The profile is kept in the compact form encoded by RuntimeProfileCodec, and it's decoded and printed
+ * only when it's shown. The oldest profiles are evicted if the number of profiles exceeds
+ * `profile_info_reserved_num`, or the total size of them exceeds `profile_info_reserved_bytes`.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
@@ -74,6 +77,10 @@ public class ProfileManager {
     private class ProfileElement {
         public Map<String, String> infoStrings = Maps.newHashMap();
         public byte[] profileContent;
+
+        public long getBytes() {
+            return profileContent == null ? 0 : profileContent.length;
+        }
     }
 
     // only protect profileDeque; profileMap is concurrent, no need to protect
@@ -83,6 +90,8 @@ public class ProfileManager {
 
     private Deque<ProfileElement> profileDeque;
     private Map<String, ProfileElement> profileMap; // from QueryId to RuntimeProfile
+    // total bytes of the profile contents in profileDeque, protected by lock
+    private long profileBytes = 0;
 
     public static ProfileManager getInstance() {
         if (INSTANCE == null) {
@@ -99,27 +108,26 @@ public class ProfileManager {
         profileMap = new ConcurrentHashMap<String, ProfileElement>();
     }
 
-    public ProfileElement createElement(RuntimeProfile summaryProfile, String profileString) {
+    public ProfileElement createElement(RuntimeProfile profile) {
         ProfileElement element = new ProfileElement();
+        RuntimeProfile summaryProfile = profile.getChildList().get(0).first;
         for (String header : PROFILE_HEADERS) {
             element.infoStrings.put(header, summaryProfile.getInfoString(header));
         }
         try {
-            element.profileContent = CompressionUtils.gzipCompressString(profileString);
+            element.profileContent = RuntimeProfileCodec.encode(profile);
         } catch (IOException e) {
-            LOG.warn("Compress profile string failed, length: {}, reason: {}",
-                    profileString.length(), e.getMessage());
+            LOG.warn("Encode profile failed, reason: {}", e.getMessage());
         }
         return element;
     }
 
-    public String pushProfile(RuntimeProfile profile) {
+    public void pushProfile(RuntimeProfile profile) {
         if (profile == null) {
-            return "";
+            return;
         }
 
-        String profileString = profile.toString();
-        ProfileElement element = createElement(profile.getChildList().get(0).first, profileString);
+        ProfileElement element = createElement(profile);
         String queryId = element.infoStrings.get(ProfileManager.QUERY_ID);
         // check when push in, which can ensure every element in the list has QUERY_ID column,
         // so there is no need to check when remove element from list.
@@ -131,16 +139,27 @@ public class ProfileManager {
         profileMap.put(queryId, element);
         writeLock.lock();
         try {
-            if (profileDeque.size() >= Config.profile_info_reserved_num) {
-                profileMap.remove(profileDeque.getFirst().infoStrings.get(QUERY_ID));
-                profileDeque.removeFirst();
+            while (!profileDeque.isEmpty() && (profileDeque.size() >= Config.profile_info_reserved_num ||
+                    profileBytes + element.getBytes() > Config.profile_info_reserved_bytes)) {
+                ProfileElement removed = profileDeque.removeFirst();
+                // the profile of the query may be pushed again, e.g. by a retried query
+                profileMap.remove(removed.infoStrings.get(QUERY_ID), removed);
+                profileBytes -= removed.getBytes();
             }
             profileDeque.addLast(element);
+            profileBytes += element.getBytes();
         } finally {
             writeLock.unlock();
         }
+    }
 
-        return profileString;
+    public long getProfileBytes() {
+        readLock.lock();
+        try {
+            return profileBytes;
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public List<List<String>> getAllQueries() {
@@ -165,21 +184,16 @@ public class ProfileManager {
     }
 
     public String getProfile(String queryID) {
-        ProfileElement element = new ProfileElement();
-        readLock.lock();
+        ProfileElement element = profileMap.get(queryID);
+        if (element == null || element.profileContent == null) {
+            return null;
+        }
         try {
-            element = profileMap.get(queryID);
-            if (element == null) {
-                return null;
-            }
-
-            return CompressionUtils.gzipDecompressString(element.profileContent);
+            return RuntimeProfileCodec.decode(element.profileContent).toString();
         } catch (IOException e) {
-            LOG.warn("Decompress profile content failed, length: {}, reason: {}",
+            LOG.warn("Decode profile content failed, length: {}, reason: {}",
                     element.profileContent.length, e.getMessage());
             return null;
-        } finally {
-            readLock.unlock();
         }
     }
 }
@@ -53,7 +53,7 @@ import java.util.stream.Collectors;
 public class RuntimeProfile {
 
     private static final Logger LOG = LogManager.getLogger(RuntimeProfile.class);
-    private static final String ROOT_COUNTER = "";
+    static final String ROOT_COUNTER = "";
     private static final String MERGED_INFO_PREFIX_MIN = "__MIN_OF_";
     private static final String MERGED_INFO_PREFIX_MAX = "__MAX_OF_";
 
@@ -86,6 +86,23 @@ public class RuntimeProfile {
         return counterTotalTime;
     }
 
+    double getLocalTimePercent() {
+        return localTimePercent;
+    }
+
+    void setLocalTimePercent(double localTimePercent) {
+        this.localTimePercent = localTimePercent;
+    }
+
+    Map<String, String> getInfoStrings() {
+        return infoStrings;
+    }
+
+    // Returns the names of the child counters of the given counter, or null if it has no child counter
+    Set<String> getChildCounterNames(String parentName) {
+        return childCounterMap.get(parentName);
+    }
+
     public Map<String, Counter> getCounterMap() {
         return counterMap.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().first));
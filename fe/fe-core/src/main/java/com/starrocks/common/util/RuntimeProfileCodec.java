@@ -0,0 +1,192 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.Pair;
+import com.starrocks.common.io.VarInt;
+import com.starrocks.thrift.TUnit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * RuntimeProfileCodec encodes a RuntimeProfile to a compact binary form, which is kept by ProfileManager
+ * instead of the pretty printed text of the profile, and decodes it only when the profile is shown.
+ * <p>
+ * All the names, info strings and counter names are interned in a string table, which is written before the
+ * profile tree, so a counter repeated in all the operators costs only a varint index. The counters of a node are
+ * written by column: names, types, parents and values, and the values are zigzag varints. The whole content is
+ * compressed by gzip.
+ * <p>
+ * Only the counters reachable from the root counter are encoded, they are the counters printed by
+ * {@link RuntimeProfile#prettyPrint}, so the decoded profile prints the same text as the original one.
+ */
+public class RuntimeProfileCodec {
+    private static final int VERSION = 1;
+
+    private RuntimeProfileCodec() {
+    }
+
+    public static byte[] encode(RuntimeProfile profile) throws IOException {
+        Map<String, Integer> stringTable = Maps.newLinkedHashMap();
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        encodeNode(profile, body, stringTable);
+        body.flush();
+
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(outBytes))) {
+            VarInt.writeVLong(out, VERSION);
+            VarInt.writeVLong(out, stringTable.size());
+            for (String str : stringTable.keySet()) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                VarInt.writeVLong(out, bytes.length);
+                out.write(bytes);
+            }
+            bodyBytes.writeTo(out);
+        }
+        return outBytes.toByteArray();
+    }
+
+    public static RuntimeProfile decode(byte[] content) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(content)))) {
+            long version = VarInt.readVLong(in);
+            if (version != VERSION) {
+                throw new IOException("unknown version of encoded profile: " + version);
+            }
+            String[] stringTable = new String[(int) VarInt.readVLong(in)];
+            for (int i = 0; i < stringTable.length; i++) {
+                byte[] bytes = new byte[(int) VarInt.readVLong(in)];
+                in.readFully(bytes);
+                stringTable[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return decodeNode(in, stringTable);
+        }
+    }
+
+    // name, local time percent, total time, info strings, counters, children
+    private static void encodeNode(RuntimeProfile profile, DataOutputStream out, Map<String, Integer> stringTable)
+            throws IOException {
+        writeString(out, profile.getName(), stringTable);
+        out.writeDouble(profile.getLocalTimePercent());
+        VarInt.writeZLong(out, profile.getCounterTotalTime().getValue());
+
+        List<Map.Entry<String, String>> infoStrings;
+        synchronized (profile.getInfoStrings()) {
+            infoStrings = Lists.newArrayList(profile.getInfoStrings().entrySet());
+        }
+        VarInt.writeVLong(out, infoStrings.size());
+        for (Map.Entry<String, String> entry : infoStrings) {
+            writeString(out, entry.getKey(), stringTable);
+            writeString(out, entry.getValue(), stringTable);
+        }
+
+        // level order, the parent of a counter is written before it, and referenced by its position
+        List<Pair<String, Integer>> counterNames = Lists.newArrayList();
+        List<Counter> counters = Lists.newArrayList();
+        Set<String> visited = Sets.newHashSet();
+        int parentIdx = -1;
+        String parentName = RuntimeProfile.ROOT_COUNTER;
+        while (true) {
+            Set<String> childNames = profile.getChildCounterNames(parentName);
+            if (childNames != null) {
+                for (String childName : childNames) {
+                    Counter counter = profile.getCounter(childName);
+                    if (counter != null && visited.add(childName)) {
+                        counterNames.add(Pair.create(childName, parentIdx));
+                        counters.add(counter);
+                    }
+                }
+            }
+            if (++parentIdx >= counterNames.size()) {
+                break;
+            }
+            parentName = counterNames.get(parentIdx).first;
+        }
+        VarInt.writeVLong(out, counters.size());
+        for (Pair<String, Integer> counterName : counterNames) {
+            writeString(out, counterName.first, stringTable);
+        }
+        for (Counter counter : counters) {
+            VarInt.writeVLong(out, counter.getType().getValue());
+        }
+        for (Pair<String, Integer> counterName : counterNames) {
+            VarInt.writeVLong(out, counterName.second + 1);
+        }
+        for (Counter counter : counters) {
+            VarInt.writeZLong(out, counter.getValue());
+        }
+
+        List<Pair<RuntimeProfile, Boolean>> children = profile.getChildList();
+        VarInt.writeVLong(out, children.size());
+        for (Pair<RuntimeProfile, Boolean> child : children) {
+            encodeNode(child.first, out, stringTable);
+        }
+    }
+
+    private static RuntimeProfile decodeNode(DataInputStream in, String[] stringTable) throws IOException {
+        RuntimeProfile profile = new RuntimeProfile(readString(in, stringTable));
+        profile.setLocalTimePercent(in.readDouble());
+        profile.getCounterTotalTime().setValue(VarInt.readZLong(in));
+
+        int numInfoStrings = (int) VarInt.readVLong(in);
+        for (int i = 0; i < numInfoStrings; i++) {
+            profile.addInfoString(readString(in, stringTable), readString(in, stringTable));
+        }
+
+        int numCounters = (int) VarInt.readVLong(in);
+        String[] names = new String[numCounters];
+        TUnit[] types = new TUnit[numCounters];
+        for (int i = 0; i < numCounters; i++) {
+            names[i] = readString(in, stringTable);
+        }
+        for (int i = 0; i < numCounters; i++) {
+            types[i] = TUnit.findByValue((int) VarInt.readVLong(in));
+        }
+        for (int i = 0; i < numCounters; i++) {
+            int parentIdx = (int) VarInt.readVLong(in) - 1;
+            profile.addCounter(names[i], types[i], parentIdx < 0 ? RuntimeProfile.ROOT_COUNTER : names[parentIdx]);
+        }
+        for (int i = 0; i < numCounters; i++) {
+            profile.getCounter(names[i]).setValue(VarInt.readZLong(in));
+        }
+
+        int numChildren = (int) VarInt.readVLong(in);
+        for (int i = 0; i < numChildren; i++) {
+            profile.addChild(decodeNode(in, stringTable));
+        }
+        return profile;
+    }
+
+    private static void writeString(DataOutputStream out, String str, Map<String, Integer> stringTable)
+            throws IOException {
+        // null is encoded as 0
+        if (str == null) {
+            VarInt.writeVLong(out, 0);
+            return;
+        }
+        Integer idx = stringTable.get(str);
+        if (idx == null) {
+            idx = stringTable.size();
+            stringTable.put(str, idx);
+        }
+        VarInt.writeVLong(out, idx + 1);
+    }
+
+    private static String readString(DataInputStream in, String[] stringTable) throws IOException {
+        int idx = (int) VarInt.readVLong(in);
+        return idx == 0 ? null : stringTable[idx - 1];
+    }
+}
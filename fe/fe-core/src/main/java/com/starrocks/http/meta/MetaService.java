@@ -43,7 +43,6 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.OutputStream;
 
 public class MetaService {
     private static final int TIMEOUT_SECOND = 10;
@@ -222,23 +221,21 @@ public class MetaService {
                 return;
             }
 
-            String url = "http://" + machine + ":" + portStr
-                    + "/image?version=" + versionStr + "&subdir=" + subDirStr;
             String filename = Storage.IMAGE + "." + versionStr;
 
             String realDir = GlobalStateMgr.getCurrentState().getImageDir() + subDirStr;
             File dir = new File(realDir);
             try {
-                OutputStream out = MetaHelper.getOutputStream(filename, dir);
-                MetaHelper.getRemoteFile(url, TIMEOUT_SECOND * 1000, out);
-                MetaHelper.complete(filename, dir);
+                // the images referred by a delta image are downloaded too if they don't exist
+                MetaHelper.downloadImage(machine, Integer.parseInt(portStr), subDirStr, version, dir,
+                        TIMEOUT_SECOND * 1000);
                 writeResponse(request, response);
             } catch (FileNotFoundException e) {
                 LOG.warn("file not found. file: {}", filename, e);
                 writeResponse(request, response, HttpResponseStatus.NOT_FOUND);
                 return;
             } catch (IOException e) {
-                LOG.warn("failed to get remote file. url: {}", url, e);
+                LOG.warn("failed to get remote image {} from {}:{}", filename, machine, portStr, e);
                 writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
                 return;
             }
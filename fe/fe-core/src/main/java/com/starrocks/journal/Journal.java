@@ -20,6 +20,8 @@ package com.starrocks.journal;
 import com.starrocks.common.io.DataOutputBuffer;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 public interface Journal {
 
@@ -59,6 +61,14 @@ public interface Journal {
     // persist current batch
     public void batchWriteCommit() throws InterruptedException, JournalException;
 
+    // persist current batch in the background, the next batch can be begun and appended before the returned future
+    // is done, but it must not be committed before that, and the journal must not be rolled before that.
+    // the batch is persisted synchronously by default.
+    default Future<Void> batchWriteCommitAsync() throws InterruptedException, JournalException {
+        batchWriteCommit();
+        return CompletableFuture.completedFuture(null);
+    }
+
     // abort current batch
     public void batchWriteAbort() throws InterruptedException, JournalException;
 
@@ -253,6 +253,11 @@ public class JournalEntity implements Writable {
                 isRead = true;
                 break;
             }
+            case OperationType.OP_BATCH_MODIFY_PARTITION_COMPACT: {
+                data = BatchModifyPartitionsInfo.readCompact(in);
+                isRead = true;
+                break;
+            }
             case OperationType.OP_RECOVER_DB:
             case OperationType.OP_RECOVER_TABLE:
             case OperationType.OP_RECOVER_PARTITION: {
@@ -335,6 +340,13 @@ public class JournalEntity implements Writable {
                 isRead = true;
                 break;
             }
+            case OperationType.OP_ADD_REPLICA_COMPACT:
+            case OperationType.OP_UPDATE_REPLICA_COMPACT:
+            case OperationType.OP_DELETE_REPLICA_COMPACT: {
+                data = ReplicaPersistInfo.readCompact(in);
+                isRead = true;
+                break;
+            }
             case OperationType.OP_ADD_BACKEND:
             case OperationType.OP_DROP_BACKEND:
             case OperationType.OP_BACKEND_STATE_CHANGE: {
@@ -438,6 +450,13 @@ public class JournalEntity implements Writable {
                 isRead = true;
                 break;
             }
+            case OperationType.OP_UPSERT_TRANSACTION_STATE_COMPACT:
+            case OperationType.OP_DELETE_TRANSACTION_STATE_COMPACT: {
+                data = new TransactionState();
+                ((TransactionState) data).readFieldsCompact(in);
+                isRead = true;
+                break;
+            }
             case OperationType.OP_CREATE_REPOSITORY: {
                 data = Repository.read(in);
                 isRead = true;
@@ -3,6 +3,7 @@
 package com.starrocks.journal;
 
 import com.starrocks.common.io.DataOutputBuffer;
+import com.starrocks.persist.OperationType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.CountDownLatch;
@@ -21,10 +22,13 @@ public class JournalTask implements Future<Boolean> {
     protected CountDownLatch latch;
     // JournalWrite will commit immediately if received a log with betterCommitBeforeTime > now
     protected long betterCommitBeforeTime;
+    // used to measure the latency from submitting to committing
+    private final long createTimeNano;
 
     public JournalTask(DataOutputBuffer buffer, long maxWaitIntervalMs) {
         this.buffer = buffer;
         this.latch = new CountDownLatch(1);
+        this.createTimeNano = System.nanoTime();
         if (maxWaitIntervalMs > 0) {
             this.betterCommitBeforeTime = System.currentTimeMillis() + maxWaitIntervalMs;
         } else {
@@ -55,6 +59,21 @@ public class JournalTask implements Future<Boolean> {
         return buffer;
     }
 
+    public long getCreateTimeNano() {
+        return createTimeNano;
+    }
+
+    /**
+     * op code of the serialized JournalEntity, which begins with it
+     */
+    public short getOpCode() {
+        if (buffer.getLength() < 2) {
+            return OperationType.OP_INVALID;
+        }
+        byte[] data = buffer.getData();
+        return (short) ((data[0] << 8) | (data[1] & 0xFF));
+    }
+
     @Override
     public boolean isDone() {
         return latch.getCount() == 0;
@@ -12,15 +12,24 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An independent thread to write journals by batch asynchronously.
  * Each thread that needs to write a log can put the log in a blocking queue, while JournalWriter constantly gets as
  * many logs as possible from the queue and write them all in one batch.
  * After committing, JournalWriter will notify the caller thread for consistency.
+ * If metadata_journal_pipelined_commit is set, a batch is committed in the background while the next batch is
+ * written, see writeOneBatchPipelined().
  */
 public class JournalWriter {
     public static final Logger LOG = LogManager.getLogger(JournalWriter.class);
+    // wait for the next journal by this interval while the previous batch is being committed
+    private static final long PIPELINE_POLL_INTERVAL_MS = 1;
+    // weight of the latest value of the moving averages
+    private static final double EWMA_ALPHA = 0.2;
     // other threads can put log to this queue by calling Editlog.logEdit()
     private BlockingQueue<JournalTask> journalQueue;
     private Journal journal;
@@ -41,6 +50,16 @@ public class JournalWriter {
     // batch size in bytes
     private long uncommittedEstimatedBytes;
 
+    // belows are variables of pipelined group commit
+    // the batch being committed in the background
+    private CommittingBatch committingBatch = null;
+    // max number of journals of a batch, adapted to the commit latency
+    protected int adaptiveBatchCnt = Config.metadata_journal_max_batch_cnt;
+    // moving averages of the commit latency and of the journals submitted per nanosecond
+    private double avgCommitNano = 0;
+    private double avgJournalsPerNano = 0;
+    private long lastCommitStartNano = 0;
+
     public JournalWriter(Journal journal, BlockingQueue<JournalTask> journalQueue) {
         this.journal = journal;
         this.journalQueue = journalQueue;
@@ -75,6 +94,13 @@ public class JournalWriter {
     }
 
     protected void writeOneBatch() throws InterruptedException {
+        if (Config.metadata_journal_pipelined_commit) {
+            writeOneBatchPipelined();
+            return;
+        }
+        // in case pipelined group commit is just switched off
+        finishCommittingBatch();
+
         // waiting if necessary until an element becomes available
         currentJournal = journalQueue.take();
         long nextJournalId = nextVisibleJournalId;
@@ -104,7 +130,7 @@ public class JournalWriter {
                 journal.batchWriteCommit();
                 LOG.debug("batch write commit success, from {} - {}", nextVisibleJournalId, nextJournalId);
                 nextVisibleJournalId = nextJournalId;
-                markCurrentBatchSucceed();
+                markBatchSucceed(currentBatchTasks);
             } catch (JournalException e) {
                 // abort
                 LOG.warn("failed to commit batch, will abort current {} journals.",
@@ -114,13 +140,135 @@ public class JournalWriter {
                 } catch (JournalException e2) {
                     LOG.warn("failed to abort batch, will ignore and continue.", e);
                 }
-                abortCurrentBatch(e.getMessage());
+                abortBatch(currentBatchTasks, e.getMessage());
+            }
+        }
+
+        rollJournalCounter += currentBatchTasks.size();
+        rollJournalIfNeeded();
+
+        updateBatchMetrics(currentBatchTasks, startTimeNano, uncommittedEstimatedBytes);
+    }
+
+    /**
+     * Pipelined group commit.
+     * A batch is handed over to the journal to be committed in the background, and the next batch is begun and
+     * appended while the previous one is being committed. The next batch keeps taking journals until the previous
+     * one is committed, then it's handed over at once, so the batch size follows the commit latency. There's at
+     * most one batch being committed, so the batches are committed in order.
+     */
+    protected void writeOneBatchPipelined() throws InterruptedException {
+        if (committingBatch != null && journalQueue.peek() == null) {
+            // don't keep the callers of the committing batch waiting for the next journal
+            finishCommittingBatch();
+        }
+        currentJournal = journalQueue.take();
+        long nextJournalId = committingBatch == null ? nextVisibleJournalId : committingBatch.nextJournalId;
+        initBatch();
+
+        try {
+            this.journal.batchWriteBegin();
+
+            while (true) {
+                journal.batchWriteAppend(nextJournalId, currentJournal.getBuffer());
+                currentBatchTasks.add(currentJournal);
+                nextJournalId += 1;
+
+                if (reachBatchLimit(adaptiveBatchCnt, true)) {
+                    break;
+                }
+
+                currentJournal = pollWhileCommitting();
+                if (currentJournal == null) {
+                    break;
+                }
+            }
+        } catch (JournalException e) {
+            // abort current task
+            LOG.warn("failed to write batch, will abort current journal {} and commit", currentJournal, e);
+            abortJournalTask(currentJournal, e.getMessage());
+        }
+
+        // the previous batch must be committed before this one
+        finishCommittingBatch();
+        try {
+            Future<Void> future = journal.batchWriteCommitAsync();
+            committingBatch = new CommittingBatch(future, new ArrayList<>(currentBatchTasks), nextJournalId,
+                    startTimeNano, uncommittedEstimatedBytes);
+        } catch (JournalException e) {
+            // abort
+            LOG.warn("failed to commit batch, will abort current {} journals.", currentBatchTasks.size(), e);
+            try {
+                journal.batchWriteAbort();
+            } catch (JournalException e2) {
+                LOG.warn("failed to abort batch, will ignore and continue.", e);
             }
+            abortBatch(currentBatchTasks, e.getMessage());
+        }
+
+        // journal can't be rolled while a batch is being committed
+        if (rollJournalCounter + currentBatchTasks.size() >= Config.edit_log_roll_num) {
+            finishCommittingBatch();
+            rollJournalIfNeeded();
+        }
+    }
+
+    /**
+     * take the next journal, wait for it while the previous batch is being committed
+     * return null if there's no journal and the previous batch is committed
+     */
+    private JournalTask pollWhileCommitting() throws InterruptedException {
+        JournalTask task = journalQueue.poll();
+        while (task == null && committingBatch != null && !committingBatch.future.isDone()) {
+            task = journalQueue.poll(PIPELINE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
         }
+        return task;
+    }
 
-        rollJournalAfterBatch();
+    /**
+     * wait for the batch being committed in the background, and notify its callers
+     */
+    private void finishCommittingBatch() throws InterruptedException {
+        if (committingBatch == null) {
+            return;
+        }
+        CommittingBatch batch = committingBatch;
+        committingBatch = null;
+        try {
+            batch.future.get();
+        } catch (ExecutionException e) {
+            LOG.warn("failed to commit batch, will abort current {} journals.", batch.tasks.size(), e.getCause());
+            abortBatch(batch.tasks, e.getCause().getMessage());
+            return;
+        }
+        LOG.debug("batch write commit success, from {} - {}", nextVisibleJournalId, batch.nextJournalId);
+        nextVisibleJournalId = batch.nextJournalId;
+        markBatchSucceed(batch.tasks);
+        rollJournalCounter += batch.tasks.size();
+        adaptBatchCnt(batch);
+        updateBatchMetrics(batch.tasks, batch.startTimeNano, batch.estimatedBytes);
+    }
+
+    /**
+     * Adapt the max number of journals of a batch to the journals submitted during a commit, so that a batch can
+     * take all the journals submitted while the previous batch is being committed.
+     */
+    private void adaptBatchCnt(CommittingBatch batch) {
+        avgCommitNano = ewma(avgCommitNano, System.nanoTime() - batch.commitStartNano);
+        // the journals of a batch are mostly submitted since the previous batch is handed over
+        if (lastCommitStartNano > 0 && batch.commitStartNano > lastCommitStartNano) {
+            avgJournalsPerNano = ewma(avgJournalsPerNano,
+                    (double) batch.tasks.size() / (batch.commitStartNano - lastCommitStartNano));
+        }
+        lastCommitStartNano = batch.commitStartNano;
+        // twice of the expected number, to take a burst by one batch
+        long expected = (long) (2 * avgJournalsPerNano * avgCommitNano);
+        adaptiveBatchCnt = (int) Math.max(Config.metadata_journal_max_batch_cnt,
+                Math.min(expected, Config.metadata_journal_pipelined_max_batch_cnt));
+    }
 
-        updateBatchMetrics();
+    private static double ewma(double avg, double value) {
+        return avg == 0 ? value : avg + EWMA_ALPHA * (value - avg);
     }
 
     private void initBatch() {
@@ -129,14 +277,14 @@ public class JournalWriter {
         currentBatchTasks.clear();
     }
 
-    private void markCurrentBatchSucceed() {
-        for (JournalTask t : currentBatchTasks) {
+    private void markBatchSucceed(List<JournalTask> tasks) {
+        for (JournalTask t : tasks) {
             t.markSucceed();
         }
     }
 
-    private void abortCurrentBatch(String errMsg) {
-        for (JournalTask t : currentBatchTasks) {
+    private void abortBatch(List<JournalTask> tasks, String errMsg) {
+        for (JournalTask t : tasks) {
             abortJournalTask(t, errMsg);
         }
     }
@@ -156,6 +304,19 @@ public class JournalWriter {
     }
 
     private boolean shouldCommitNow() {
+        if (reachBatchLimit(Config.metadata_journal_max_batch_cnt, false)) {
+            return true;
+        }
+
+        // 4. no more journal in queue
+        return journalQueue.peek() == null;
+    }
+
+    /**
+     * @param adaptive whether maxBatchCnt is the adaptive batch count of the pipelined commit, a pipelined
+     *                 batch reaches it normally, so it's not warned
+     */
+    private boolean reachBatchLimit(int maxBatchCnt, boolean adaptive) {
         // 1. check if is an emergency journal
         if (currentJournal.getBetterCommitBeforeTime() > 0) {
             long delayMillis = (System.nanoTime() - currentJournal.getBetterCommitBeforeTime()) / 1000000;
@@ -167,9 +328,13 @@ public class JournalWriter {
         }
 
         // 2. check uncommitted journal by count
-        if (currentBatchTasks.size() >= Config.metadata_journal_max_batch_cnt) {
-            LOG.warn("uncommitted journal {} >= {}, will commit now",
-                    currentBatchTasks.size(), Config.metadata_journal_max_batch_cnt);
+        if (currentBatchTasks.size() >= maxBatchCnt) {
+            if (!adaptive) {
+                LOG.warn("uncommitted journal {} >= {}, will commit now", currentBatchTasks.size(), maxBatchCnt);
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug("uncommitted journal {} >= adaptive batch count {}, will commit now",
+                        currentBatchTasks.size(), maxBatchCnt);
+            }
             return true;
         }
 
@@ -180,24 +345,25 @@ public class JournalWriter {
                     uncommittedEstimatedBytes, Config.metadata_journal_max_batch_size_mb);
             return true;
         }
-
-        // 4. no more journal in queue
-        return journalQueue.peek() == null;
+        return false;
     }
 
     /**
      * update all metrics after batch write
      */
-    private void updateBatchMetrics() {
+    private void updateBatchMetrics(List<JournalTask> tasks, long batchStartTimeNano, long estimatedBytes) {
         if (MetricRepo.isInit) {
-            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) currentBatchTasks.size());
-            MetricRepo.HISTO_JOURNAL_WRITE_LATENCY.update((System.nanoTime() - startTimeNano) / 1000000);
-            MetricRepo.HISTO_JOURNAL_WRITE_BATCH.update(currentBatchTasks.size());
-            MetricRepo.HISTO_JOURNAL_WRITE_BYTES.update(uncommittedEstimatedBytes);
+            long now = System.nanoTime();
+            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) tasks.size());
+            MetricRepo.HISTO_JOURNAL_WRITE_LATENCY.update((now - batchStartTimeNano) / 1000000);
+            MetricRepo.HISTO_JOURNAL_WRITE_BATCH.update(tasks.size());
+            MetricRepo.HISTO_JOURNAL_WRITE_BYTES.update(estimatedBytes);
             MetricRepo.GAUGE_STACKED_JOURNAL_NUM.setValue((long) journalQueue.size());
 
-            for (JournalTask e : currentBatchTasks) {
+            for (JournalTask e : tasks) {
                 MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase(e.estimatedSizeByte());
+                MetricRepo.updateJournalOpMetrics(e.getOpCode(), e.estimatedSizeByte(),
+                        (now - e.getCreateTimeNano()) / 1000000);
             }
         }
         if (journalQueue.size() > Config.metadata_journal_max_batch_cnt) {
@@ -205,8 +371,7 @@ public class JournalWriter {
         }
     }
 
-    private void rollJournalAfterBatch() {
-        rollJournalCounter += currentBatchTasks.size();
+    private void rollJournalIfNeeded() {
         if (rollJournalCounter >= Config.edit_log_roll_num) {
             try {
                 journal.rollJournal(nextVisibleJournalId);
@@ -222,4 +387,24 @@ public class JournalWriter {
             rollJournalCounter = 0;
         }
     }
+
+    private static class CommittingBatch {
+        private final Future<Void> future;
+        private final List<JournalTask> tasks;
+        // next journal id after this batch
+        private final long nextJournalId;
+        private final long startTimeNano;
+        private final long commitStartNano;
+        private final long estimatedBytes;
+
+        CommittingBatch(Future<Void> future, List<JournalTask> tasks, long nextJournalId, long startTimeNano,
+                        long estimatedBytes) {
+            this.future = future;
+            this.tasks = tasks;
+            this.nextJournalId = nextJournalId;
+            this.startTimeNano = startTimeNano;
+            this.commitStartNano = System.nanoTime();
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
 }
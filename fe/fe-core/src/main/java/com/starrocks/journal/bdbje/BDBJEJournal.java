@@ -29,6 +29,7 @@ import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.Transaction;
 import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.io.DataOutputBuffer;
 import com.starrocks.journal.Journal;
 import com.starrocks.journal.JournalCursor;
@@ -41,6 +42,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /*
  * This is the bdb implementation of Journal interface.
@@ -62,6 +65,8 @@ public class BDBJEJournal implements Journal {
 
     // store uncommitted kv, used for rebuilding txn on commit fails
     private List<Pair<DatabaseEntry, DatabaseEntry>> uncommitedDatas = new ArrayList<>();
+    // commit the transactions handed over by batchWriteCommitAsync in order, created on first use
+    private ExecutorService committer = null;
 
     @VisibleForTesting
     public BDBJEJournal(BDBEnvironment bdbEnvironment, CloseSafeDatabase currentJournalDB) {
@@ -151,6 +156,10 @@ public class BDBJEJournal implements Journal {
 
     @Override
     public void close() {
+        if (committer != null) {
+            committer.shutdown();
+            committer = null;
+        }
         if (currentJournalDB != null) {
             currentJournalDB.close();
             currentJournalDB = null;
@@ -375,66 +384,94 @@ public class BDBJEJournal implements Journal {
         if (currentTrasaction == null) {
             throw new JournalException("failed to commit because no running txn!");
         }
+        Transaction txn = currentTrasaction;
+        List<Pair<DatabaseEntry, DatabaseEntry>> datas = uncommitedDatas;
+        // always reset current txn
+        currentTrasaction = null;
+        uncommitedDatas = new ArrayList<>();
+        commitTransaction(txn, datas);
+    }
 
-        JournalException exception = null;
-        try {
-            for (int i = 0; i < RETRY_TIME; i++) {
-                // retry cleanups
-                if (i != 0) {
-                    Thread.sleep(SLEEP_INTERVAL_SEC * 1000);
+    /**
+     * persist current batch in the background
+     * for bdb: hand over current transaction to the committer thread, a new transaction can be begun at once and
+     * its puts are done while the previous one is being committed, i.e. replicated to the followers.
+     */
+    @Override
+    public Future<Void> batchWriteCommitAsync() throws InterruptedException, JournalException {
+        if (currentTrasaction == null) {
+            throw new JournalException("failed to commit because no running txn!");
+        }
+        Transaction txn = currentTrasaction;
+        List<Pair<DatabaseEntry, DatabaseEntry>> datas = uncommitedDatas;
+        currentTrasaction = null;
+        uncommitedDatas = new ArrayList<>();
+        if (committer == null) {
+            committer = ThreadPoolManager.newDaemonFixedThreadPool(1, Integer.MAX_VALUE, "bdb-journal-committer",
+                    false);
+        }
+        return committer.submit(() -> {
+            commitTransaction(txn, datas);
+            return null;
+        });
+    }
 
-                    if (currentTrasaction == null || !currentTrasaction.isValid()) {
-                        try {
-                            rebuildCurrentTransaction();
-                        } catch (JournalException e) {
-                            // failed to rebuild txn, will continune to next attempt
-                            LOG.warn("failed to commit journal after retried {} times! failed to rebuild txn",
-                                    i + 1, e);
-                            currentTrasaction = null;
-                            exception = e;
-                            continue;
-                        }
+    private void commitTransaction(Transaction txn, List<Pair<DatabaseEntry, DatabaseEntry>> datas)
+            throws InterruptedException, JournalException {
+        JournalException exception = null;
+        for (int i = 0; i < RETRY_TIME; i++) {
+            // retry cleanups
+            if (i != 0) {
+                Thread.sleep(SLEEP_INTERVAL_SEC * 1000);
+
+                if (txn == null || !txn.isValid()) {
+                    try {
+                        txn = rebuildTransaction(datas);
+                    } catch (JournalException e) {
+                        // failed to rebuild txn, will continune to next attempt
+                        LOG.warn("failed to commit journal after retried {} times! failed to rebuild txn",
+                                i + 1, e);
+                        txn = null;
+                        exception = e;
+                        continue;
                     }
-                } // if i != 0
-
-                // commit
-                try {
-                    currentTrasaction.commit();
-                    return;
-                } catch (DatabaseException e) {
-                    String errMsg = String.format("failed to commit journal after retried %d times! txn[%s] db[%s]",
-                            i + 1, currentTrasaction, currentJournalDB);
-                    LOG.error(errMsg, e);
-                    exception = new JournalException(errMsg);
-                    exception.initCause(e);
                 }
+            } // if i != 0
+
+            // commit
+            try {
+                txn.commit();
+                return;
+            } catch (DatabaseException e) {
+                String errMsg = String.format("failed to commit journal after retried %d times! txn[%s] db[%s]",
+                        i + 1, txn, currentJournalDB);
+                LOG.error(errMsg, e);
+                exception = new JournalException(errMsg);
+                exception.initCause(e);
             }
-            // failed after retried
-            throw exception;
-        } finally {
-            // always reset current txn
-            currentTrasaction = null;
-            uncommitedDatas.clear();
         }
+        // failed after retried
+        throw exception;
     }
 
     /**
      * txn can be invalid if commit fails on exception
-     * in this case, we rebuild the current transaction with `uncommitedDatas`
+     * in this case, we rebuild the transaction with the uncommitted kvs
      * there's no need to retry while we were rebuilding since we have retried outside this function
      */
-    private void rebuildCurrentTransaction() throws JournalException {
-        LOG.warn("transaction is invalid, rebuild the txn with {} kvs", uncommitedDatas.size());
+    private Transaction rebuildTransaction(List<Pair<DatabaseEntry, DatabaseEntry>> datas) throws JournalException {
+        LOG.warn("transaction is invalid, rebuild the txn with {} kvs", datas.size());
 
+        Transaction txn = null;
         try {
             //  begin transaction
-            currentTrasaction = currentJournalDB.getDb().getEnvironment().beginTransaction(
+            txn = currentJournalDB.getDb().getEnvironment().beginTransaction(
                     null, bdbEnvironment.getTxnConfig());
             // append
-            for (Pair<DatabaseEntry, DatabaseEntry> kvPair : uncommitedDatas) {
+            for (Pair<DatabaseEntry, DatabaseEntry> kvPair : datas) {
                 DatabaseEntry theKey = kvPair.first;
                 DatabaseEntry theData = kvPair.second;
-                OperationStatus status = currentJournalDB.put(currentTrasaction, theKey, theData);
+                OperationStatus status = currentJournalDB.put(txn, theKey, theData);
                 if (status != OperationStatus.SUCCESS) {
                     String msg = String.format(
                             "failed to append journal! status[%s] db[%s] key[%s] data[%s]",
@@ -443,9 +480,10 @@ public class BDBJEJournal implements Journal {
                     throw new JournalException(msg);
                 }
             }
-            LOG.info("rebuild txn succeed. new txn {}", currentTrasaction);
+            LOG.info("rebuild txn succeed. new txn {}", txn);
+            return txn;
         } catch (DatabaseException e) {
-            String errMsg = String.format("failed to rebuild txn! txn[%s] db[%s]", currentTrasaction, currentJournalDB);
+            String errMsg = String.format("failed to rebuild txn! txn[%s] db[%s]", txn, currentJournalDB);
             LOG.error(errMsg, e);
             JournalException exception = new JournalException(errMsg);
             exception.initCause(e);
@@ -5,6 +5,8 @@ package com.starrocks.lake.compaction;
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,6 +33,16 @@ public class Quantiles implements Comparable<Quantiles> {
         return new Quantiles(avg, p50, max);
     }
 
+    /**
+     * Read the avg, p50 and max written as three doubles, used by the compact encoding of PartitionCommitInfo
+     */
+    public static Quantiles read(DataInput in) throws IOException {
+        double avg = in.readDouble();
+        double p50 = in.readDouble();
+        double max = in.readDouble();
+        return new Quantiles(avg, p50, max);
+    }
+
     private Quantiles(double avg, double p50, double max) {
         this.avg = avg;
         this.p50 = p50;
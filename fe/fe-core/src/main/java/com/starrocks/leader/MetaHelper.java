@@ -22,7 +22,11 @@
 package com.starrocks.leader;
 
 import com.starrocks.common.io.IOUtils;
+import com.starrocks.persist.Storage;
+import com.starrocks.persist.metablock.SRImageReader;
 import com.starrocks.server.GlobalStateMgr;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.BufferedInputStream;
 import java.io.File;
@@ -32,8 +36,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Set;
 
 public class MetaHelper {
+    private static final Logger LOG = LogManager.getLogger(MetaHelper.class);
     private static final String PART_SUFFIX = ".part";
     public static final String X_IMAGE_SIZE = "X-Image-Size";
     private static final int BUFFER_BYTES = 8 * 1024;
@@ -64,6 +70,36 @@ public class MetaHelper {
         return new FileOutputStream(file);
     }
 
+    /**
+     * Download image.{version} in subDir from the given node to dir. If it's a delta image, the images referred by
+     * it are downloaded too, unless they're already in dir and hold the same bytes. The referred images are
+     * completed before the image itself, so the latest image in dir can always be loaded.
+     */
+    public static void downloadImage(String host, int port, String subDir, long version, File dir, int timeout)
+            throws IOException {
+        String filename = Storage.IMAGE + "." + version;
+        getRemoteFile(getImageUrl(host, port, subDir, version), timeout, getOutputStream(filename, dir));
+        File partFile = new File(dir, filename + PART_SUFFIX);
+        if (SRImageReader.isSectionedImage(partFile)) {
+            Set<Long> referredVersions;
+            try (SRImageReader reader = new SRImageReader(partFile)) {
+                referredVersions = reader.getInvalidReferredVersions();
+            }
+            for (long referredVersion : referredVersions) {
+                String referredFilename = Storage.IMAGE + "." + referredVersion;
+                LOG.info("download {} referred by {} from {}", referredFilename, filename, host);
+                getRemoteFile(getImageUrl(host, port, subDir, referredVersion), timeout,
+                        getOutputStream(referredFilename, dir));
+                complete(referredFilename, dir);
+            }
+        }
+        complete(filename, dir);
+    }
+
+    private static String getImageUrl(String host, int port, String subDir, long version) {
+        return "http://" + host + ":" + port + "/image?version=" + version + "&subdir=" + subDir;
+    }
+
     // download file from remote node
     public static void getRemoteFile(String urlStr, int timeout, OutputStream out)
             throws IOException {
@@ -46,10 +46,15 @@ import com.starrocks.metric.Metric.MetricType;
 import com.starrocks.metric.Metric.MetricUnit;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
+import com.starrocks.persist.OperationType;
 import com.starrocks.proto.PKafkaOffsetProxyRequest;
 import com.starrocks.proto.PKafkaOffsetProxyResult;
+import com.starrocks.qe.AuditEventProcessor;
+import com.starrocks.qe.ResultCache;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.server.LazyDatabaseLoader;
 import com.starrocks.service.ExecuteEnv;
+import com.starrocks.sql.optimizer.statistics.IDictManager;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
 import org.apache.logging.log4j.LogManager;
@@ -59,6 +64,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -96,12 +102,16 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_PAUSED;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_HIT;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_MISS;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
     public static Histogram HISTO_JOURNAL_WRITE_LATENCY;
     public static Histogram HISTO_JOURNAL_WRITE_BATCH;
     public static Histogram HISTO_JOURNAL_WRITE_BYTES;
+    public static Histogram HISTO_GLOBAL_DICT_FULL_REBUILD_LATENCY;
+    public static Histogram HISTO_GLOBAL_DICT_INCREMENTAL_REFRESH_LATENCY;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -120,6 +130,11 @@ public final class MetricRepo {
 
     public static List<GaugeMetricImpl<Long>> GAUGE_ROUTINE_LOAD_LAGS;
 
+    // journals written by op code, registered on the first journal of an op code
+    private static final Map<Short, LongCounterMetric> COUNTER_JOURNAL_OP_WRITE = new ConcurrentHashMap<>();
+    private static final Map<Short, LongCounterMetric> COUNTER_JOURNAL_OP_BYTES = new ConcurrentHashMap<>();
+    private static final Map<Short, LongCounterMetric> COUNTER_JOURNAL_OP_LATENCY_MS = new ConcurrentHashMap<>();
+
     private static final ScheduledThreadPoolExecutor METRIC_TIMER =
             ThreadPoolManager.newDaemonScheduledThreadPool(1, "Metric-Timer-Pool", true);
     private static final MetricCalculator METRIC_CALCULATOR = new MetricCalculator();
@@ -233,6 +248,113 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // low cardinality global dicts
+        GaugeMetric<Long> globalDictColumns = new GaugeMetric<Long>(
+                "global_dict_columns", MetricUnit.NOUNIT, "number of cached low cardinality global dicts") {
+            @Override
+            public Long getValue() {
+                return IDictManager.getInstance().getDictColumnNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictColumns);
+        GaugeMetric<Long> globalDictMemory = new GaugeMetric<Long>(
+                "global_dict_memory_bytes", MetricUnit.BYTES, "estimated heap bytes of cached global dicts") {
+            @Override
+            public Long getValue() {
+                return IDictManager.getInstance().getDictMemoryUsage();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictMemory);
+        GaugeMetric<Long> staleGlobalDicts = new GaugeMetric<Long>(
+                "global_dict_stale_columns", MetricUnit.NOUNIT, "number of out of date global dicts being reloaded") {
+            @Override
+            public Long getValue() {
+                return IDictManager.getInstance().getStaleDictColumnNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(staleGlobalDicts);
+        GaugeMetric<Long> globalDictStaleness = new GaugeMetric<Long>(
+                "global_dict_max_staleness_ms", MetricUnit.MILLISECONDS, "longest time a global dict is out of date") {
+            @Override
+            public Long getValue() {
+                return IDictManager.getInstance().getMaxDictStalenessMs();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(globalDictStaleness);
+
+        // query result cache
+        GaugeMetric<Double> resultCacheHitRatio = new GaugeMetric<Double>(
+                "result_cache_hit_ratio", MetricUnit.PERCENT, "hit ratio of cacheable queries in result cache") {
+            @Override
+            public Double getValue() {
+                return ResultCache.getInstance().getStats().hitRate();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(resultCacheHitRatio);
+        GaugeMetric<Long> resultCacheBytes = new GaugeMetric<Long>(
+                "result_cache_bytes", MetricUnit.BYTES, "bytes of the query results in result cache") {
+            @Override
+            public Long getValue() {
+                return ResultCache.getInstance().getUsedBytes();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(resultCacheBytes);
+        GaugeMetric<Long> resultCacheEvictions = new GaugeMetric<Long>(
+                "result_cache_evictions", MetricUnit.NOUNIT, "number of results evicted from result cache") {
+            @Override
+            public Long getValue() {
+                return ResultCache.getInstance().getStats().evictionCount();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(resultCacheEvictions);
+
+        // audit events
+        GaugeMetric<Long> auditEventDropped = new GaugeMetric<Long>(
+                "audit_event_dropped", MetricUnit.NOUNIT, "number of audit events dropped as the buffer is full") {
+            @Override
+            public Long getValue() {
+                AuditEventProcessor processor = GlobalStateMgr.getCurrentAuditEventProcessor();
+                return processor == null ? 0L : processor.getNumDroppedEvents();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(auditEventDropped);
+        GaugeMetric<Long> auditEventPending = new GaugeMetric<Long>(
+                "audit_event_pending", MetricUnit.NOUNIT, "number of audit events waiting to be delivered") {
+            @Override
+            public Long getValue() {
+                AuditEventProcessor processor = GlobalStateMgr.getCurrentAuditEventProcessor();
+                return processor == null ? 0L : processor.getNumPendingEvents();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(auditEventPending);
+        GaugeMetric<Long> auditEventLag = new GaugeMetric<Long>(
+                "audit_event_lag_ms", MetricUnit.MILLISECONDS, "delay of the last batch of audit events") {
+            @Override
+            public Long getValue() {
+                AuditEventProcessor processor = GlobalStateMgr.getCurrentAuditEventProcessor();
+                return processor == null ? 0L : processor.getLastBatchLagMs();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(auditEventLag);
+
+        // databases loaded lazily from image
+        GaugeMetric<Long> imageLazyLoadedBytes = new GaugeMetric<Long>(
+                "image_lazy_loaded_bytes", MetricUnit.BYTES, "bytes of the databases loaded lazily from image") {
+            @Override
+            public Long getValue() {
+                return LazyDatabaseLoader.LOADED_BYTES.get();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(imageLazyLoadedBytes);
+        GaugeMetric<Long> imageLazyPendingDbs = new GaugeMetric<Long>(
+                "image_lazy_pending_dbs", MetricUnit.NOUNIT, "number of the databases not loaded from image yet") {
+            @Override
+            public Long getValue() {
+                return LazyDatabaseLoader.PENDING_DBS.get();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(imageLazyPendingDbs);
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = GlobalStateMgr.getCurrentState().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -372,6 +494,13 @@ public final class MetricRepo {
                 "total error rows of routine load");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ROUTINE_LOAD_ERROR_ROWS);
 
+        COUNTER_PLAN_CACHE_HIT =
+                new LongCounterMetric("plan_cache_hit", MetricUnit.REQUESTS, "counter of queries served by plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_HIT);
+        COUNTER_PLAN_CACHE_MISS = new LongCounterMetric("plan_cache_miss", MetricUnit.REQUESTS,
+                "counter of cacheable queries not found in plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_MISS);
+
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY =
@@ -382,6 +511,12 @@ public final class MetricRepo {
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "batch"));
         HISTO_JOURNAL_WRITE_BYTES =
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "bytes"));
+        HISTO_GLOBAL_DICT_FULL_REBUILD_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("global_dict", "full_rebuild", "latency", "ms"));
+        HISTO_GLOBAL_DICT_INCREMENTAL_REFRESH_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("global_dict", "incremental_refresh", "latency", "ms"));
+        METRIC_REGISTER.register(MetricRegistry.name("image", "lazy_load", "first_access", "latency", "ms"),
+                LazyDatabaseLoader.FIRST_ACCESS_LATENCY_MS);
 
         // init system metrics
         initSystemMetrics();
@@ -564,6 +699,28 @@ public final class MetricRepo {
         GAUGE_ROUTINE_LOAD_LAGS = routineLoadLags;
     }
 
+    /**
+     * Count a journal written by op code, the latency is from submitting the journal to committing it.
+     */
+    public static void updateJournalOpMetrics(short opCode, long bytes, long latencyMs) {
+        getJournalOpCounter(COUNTER_JOURNAL_OP_WRITE, opCode, "journal_op_write", MetricUnit.OPERATIONS,
+                "counter of journal write by op code").increase(1L);
+        getJournalOpCounter(COUNTER_JOURNAL_OP_BYTES, opCode, "journal_op_write_bytes", MetricUnit.BYTES,
+                "bytes of journal write by op code").increase(bytes);
+        getJournalOpCounter(COUNTER_JOURNAL_OP_LATENCY_MS, opCode, "journal_op_write_latency_ms",
+                MetricUnit.MILLISECONDS, "total latency of journal write by op code").increase(latencyMs);
+    }
+
+    private static LongCounterMetric getJournalOpCounter(Map<Short, LongCounterMetric> counters, short opCode,
+                                                         String name, MetricUnit unit, String description) {
+        return counters.computeIfAbsent(opCode, op -> {
+            LongCounterMetric counter = new LongCounterMetric(name, unit, description);
+            counter.addLabel(new MetricLabel("op", OperationType.getOpName(op)));
+            STARROCKS_METRIC_REGISTER.addMetric(counter);
+            return counter;
+        });
+    }
+
     public static synchronized String getMetric(MetricVisitor visitor, boolean collectTableMetrics,
                                                 boolean minifyTableMetrics) {
         if (!isInit) {
@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 public class ResourceGroupMetricMgr {
@@ -30,6 +31,16 @@ public class ResourceGroupMetricMgr {
     private static final ConcurrentHashMap<String, LongCounterMetric> RESOURCE_GROUP_QUERY_ERR_COUNTER_MAP
             = new ConcurrentHashMap<>();
 
+    private static final String QUERY_RESOURCE_GROUP_QUEUE_PENDING = "query_resource_group_queue_pending";
+    private static final String QUERY_RESOURCE_GROUP_QUEUE_WAIT = "query_resource_group_queue_wait";
+    private static final String QUERY_RESOURCE_GROUP_QUEUE_REJECTED = "query_resource_group_queue_rejected";
+    private static final ConcurrentHashMap<String, AtomicLong> RESOURCE_GROUP_QUEUE_PENDING_MAP
+            = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, QueryResourceGroupLatencyMetrics> RESOURCE_GROUP_QUEUE_WAIT_MAP
+            = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LongCounterMetric> RESOURCE_GROUP_QUEUE_REJECTED_COUNTER_MAP
+            = new ConcurrentHashMap<>();
+
     //starrocks_fe_query_resource_group
     public static void increaseQuery(ConnectContext ctx, Long num) {
         LongCounterMetric metrics =
@@ -55,6 +66,52 @@ public class ResourceGroupMetricMgr {
             QueryResourceGroupLatencyMetrics metrics = RESOURCE_GROUP_QUERY_LATENCY_MAP.get(resourceGroupName);
             metrics.update();
         }
+        for (QueryResourceGroupLatencyMetrics metrics : RESOURCE_GROUP_QUEUE_WAIT_MAP.values()) {
+            metrics.update();
+        }
+    }
+
+    //starrocks_fe_query_resource_group_queue_pending
+    public static void updateQueuePending(ConnectContext ctx, long delta) {
+        String resourceGroupName = checkAndGetWorkGroupName(ctx);
+        if (resourceGroupName == null || resourceGroupName.isEmpty()) {
+            return;
+        }
+        RESOURCE_GROUP_QUEUE_PENDING_MAP.computeIfAbsent(resourceGroupName, name -> {
+            AtomicLong numPending = new AtomicLong(0);
+            GaugeMetric<Long> metric = new GaugeMetric<Long>(QUERY_RESOURCE_GROUP_QUEUE_PENDING,
+                    Metric.MetricUnit.REQUESTS, "pending queries of resource group in query queue") {
+                @Override
+                public Long getValue() {
+                    return numPending.get();
+                }
+            };
+            metric.addLabel(new MetricLabel("name", name));
+            MetricRepo.addMetric(metric);
+            LOG.info("Add {} metric, resource group name is {}", QUERY_RESOURCE_GROUP_QUEUE_PENDING, name);
+            return numPending;
+        }).addAndGet(delta);
+    }
+
+    //starrocks_fe_query_resource_group_queue_wait
+    public static void updateQueueWaitTime(ConnectContext ctx, long waitMs) {
+        String resourceGroupName = checkAndGetWorkGroupName(ctx);
+        if (resourceGroupName == null || resourceGroupName.isEmpty()) {
+            return;
+        }
+        RESOURCE_GROUP_QUEUE_WAIT_MAP.computeIfAbsent(resourceGroupName,
+                name -> new QueryResourceGroupLatencyMetrics(QUERY_RESOURCE_GROUP_QUEUE_WAIT, name,
+                        "resource group query queue wait time")).histogram.update(waitMs);
+    }
+
+    //starrocks_fe_query_resource_group_queue_rejected
+    public static void increaseQueueRejected(ConnectContext ctx) {
+        LongCounterMetric metrics =
+                createQeuryResourceGroupMetrics(RESOURCE_GROUP_QUEUE_REJECTED_COUNTER_MAP,
+                        QUERY_RESOURCE_GROUP_QUEUE_REJECTED, "rejected queries of resource group in query queue", ctx);
+        if (metrics != null) {
+            metrics.increase(1L);
+        }
     }
 
     //starrocks_fe_query_resource_group_latency
@@ -108,7 +165,8 @@ public class ResourceGroupMetricMgr {
             new Function<String, QueryResourceGroupLatencyMetrics>() {
                 @Override
                 public QueryResourceGroupLatencyMetrics apply(String resourceGroupName) {
-                    return new QueryResourceGroupLatencyMetrics(QUERY_RESOURCE_GROUP_LATENCY, resourceGroupName);
+                    return new QueryResourceGroupLatencyMetrics(QUERY_RESOURCE_GROUP_LATENCY, resourceGroupName,
+                            "resource group query latency");
                 }
             };
 
@@ -121,7 +179,7 @@ public class ResourceGroupMetricMgr {
         private List<GaugeMetricImpl> metricsList;
         private String metricsName;
 
-        private QueryResourceGroupLatencyMetrics(String metricsName, String resourceGroupName) {
+        private QueryResourceGroupLatencyMetrics(String metricsName, String resourceGroupName, String description) {
             this.metricsName = metricsName;
             this.metricRegistry = new MetricRegistry();
             initHistogram(metricsName);
@@ -129,12 +187,12 @@ public class ResourceGroupMetricMgr {
             for (String label : QUERY_LATENCY_LABLE) {
                 GaugeMetricImpl<Double> metrics =
                         new GaugeMetricImpl<>(metricsName, Metric.MetricUnit.MILLISECONDS,
-                                label + " of resource group query latency");
+                                label + " of " + description);
                 metrics.addLabel(new MetricLabel("type", label));
                 metrics.addLabel(new MetricLabel("name", resourceGroupName));
                 metrics.setValue(0.0);
                 MetricRepo.addMetric(metrics);
-                LOG.info("Add {} metric, resource group name is {}", QUERY_RESOURCE_GROUP_LATENCY, resourceGroupName);
+                LOG.info("Add {} metric, resource group name is {}", metricsName, resourceGroupName);
                 this.metricsList.add(metrics);
             }
         }
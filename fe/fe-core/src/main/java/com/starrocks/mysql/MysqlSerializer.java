@@ -28,6 +28,7 @@ import com.starrocks.catalog.Type;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 // used for serialize memory data to byte stream of MySQL protocol
 public class MysqlSerializer {
@@ -219,4 +220,199 @@ public class MysqlSerializer {
         // filler: two byte integer
         writeInt2(0);
     }
+
+    /**
+     * Convert a row of text protocol, which is sent by BE, to a row of binary protocol for COM_STMT_EXECUTE.
+     * https://dev.mysql.com/doc/internals/en/binary-protocol-resultset-row.html
+     * The values of text row are length encoded strings, and 0xfb for NULL.
+     */
+    public void writeBinaryRow(ByteBuffer textRow, List<Type> types) {
+        ByteBuffer row = textRow.duplicate();
+        int start = row.position();
+        int numColumns = types.size();
+        // the offset of null bitmap is 2 for binary result set row
+        byte[] nullBitmap = new byte[(numColumns + 7 + 2) / 8];
+        for (int i = 0; i < numColumns; i++) {
+            if ((row.get(row.position()) & 0xFF) == 0xFB) {
+                row.get();
+                int bit = i + 2;
+                nullBitmap[bit / 8] |= (byte) (1 << (bit % 8));
+            } else {
+                int length = (int) MysqlProto.readVInt(row);
+                row.position(row.position() + length);
+            }
+        }
+
+        writeInt1(0x00);
+        writeBytes(nullBitmap);
+        // the values are converted from the bytes of the text row, without decoding them to strings
+        row.position(start);
+        for (int i = 0; i < numColumns; i++) {
+            if ((row.get(row.position()) & 0xFF) == 0xFB) {
+                row.get();
+                continue;
+            }
+            int length = (int) MysqlProto.readVInt(row);
+            writeBinaryValue(row, row.position(), length, types.get(i).getMysqlResultType());
+            row.position(row.position() + length);
+        }
+    }
+
+    private void writeBinaryValue(ByteBuffer row, int offset, int length, MysqlColType type) {
+        switch (type) {
+            case MYSQL_TYPE_TINY:
+                writeInt1((int) parseLong(row, offset, offset + length));
+                break;
+            case MYSQL_TYPE_SHORT:
+            case MYSQL_TYPE_YEAR:
+                writeInt2((int) parseLong(row, offset, offset + length));
+                break;
+            case MYSQL_TYPE_LONG:
+            case MYSQL_TYPE_INT24:
+                writeInt4((int) parseLong(row, offset, offset + length));
+                break;
+            case MYSQL_TYPE_LONGLONG:
+                writeInt8(parseLong(row, offset, offset + length));
+                break;
+            case MYSQL_TYPE_FLOAT:
+                writeInt4(Float.floatToIntBits(Float.parseFloat(toString(row, offset, length))));
+                break;
+            case MYSQL_TYPE_DOUBLE:
+                writeInt8(Double.doubleToLongBits(Double.parseDouble(toString(row, offset, length))));
+                break;
+            case MYSQL_TYPE_DATE:
+            case MYSQL_TYPE_DATETIME:
+            case MYSQL_TYPE_TIMESTAMP:
+                writeBinaryDatetime(row, offset, length);
+                break;
+            case MYSQL_TYPE_TIME:
+                writeBinaryTime(row, offset, offset + length);
+                break;
+            default:
+                // the length encoded string of text row is the same in binary row
+                writeVInt(length);
+                if (row.hasArray()) {
+                    writeBytes(row.array(), row.arrayOffset() + offset, length);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        writeByte(row.get(offset + i));
+                    }
+                }
+                break;
+        }
+    }
+
+    // value is like "2022-01-01", "2022-01-01 10:00:00" or "2022-01-01 10:00:00.123456"
+    private void writeBinaryDatetime(ByteBuffer row, int offset, int length) {
+        int year = (int) parseLong(row, offset, offset + 4);
+        int month = (int) parseLong(row, offset + 5, offset + 7);
+        int day = (int) parseLong(row, offset + 8, offset + 10);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 19) {
+            hour = (int) parseLong(row, offset + 11, offset + 13);
+            minute = (int) parseLong(row, offset + 14, offset + 16);
+            second = (int) parseLong(row, offset + 17, offset + 19);
+        }
+        if (length > 20) {
+            microsecond = parseMicrosecond(row, offset + 20, offset + length);
+        }
+
+        if (microsecond != 0) {
+            writeInt1(11);
+        } else if (hour != 0 || minute != 0 || second != 0) {
+            writeInt1(7);
+        } else {
+            writeInt1(4);
+        }
+        writeInt2(year);
+        writeInt1(month);
+        writeInt1(day);
+        if (microsecond != 0 || hour != 0 || minute != 0 || second != 0) {
+            writeInt1(hour);
+            writeInt1(minute);
+            writeInt1(second);
+        }
+        if (microsecond != 0) {
+            writeInt4(microsecond);
+        }
+    }
+
+    // value is like "10:00:00", "-838:59:59" or "10:00:00.123456"
+    private void writeBinaryTime(ByteBuffer row, int from, int to) {
+        boolean negative = from < to && row.get(from) == '-';
+        int pos = negative ? from + 1 : from;
+        int[] parts = new int[3];
+        int numParts = 0;
+        int microsecond = 0;
+        while (pos < to && numParts < parts.length) {
+            int end = pos;
+            while (end < to && row.get(end) != ':' && row.get(end) != '.') {
+                end++;
+            }
+            parts[numParts++] = (int) parseLong(row, pos, end);
+            if (end < to && row.get(end) == '.') {
+                microsecond = parseMicrosecond(row, end + 1, to);
+                break;
+            }
+            pos = end + 1;
+        }
+        int hours = parts[0];
+        int minute = parts[1];
+        int second = parts[2];
+
+        if (hours == 0 && minute == 0 && second == 0 && microsecond == 0) {
+            writeInt1(0);
+            return;
+        }
+        writeInt1(microsecond != 0 ? 12 : 8);
+        writeInt1(negative ? 1 : 0);
+        writeInt4(hours / 24);
+        writeInt1(hours % 24);
+        writeInt1(minute);
+        writeInt1(second);
+        if (microsecond != 0) {
+            writeInt4(microsecond);
+        }
+    }
+
+    // parse the ascii digits in [from, to) with an optional sign
+    private static long parseLong(ByteBuffer row, int from, int to) {
+        boolean negative = from < to && row.get(from) == '-';
+        int pos = negative || (from < to && row.get(from) == '+') ? from + 1 : from;
+        if (pos >= to) {
+            throw new NumberFormatException("Invalid number in result row");
+        }
+        long value = 0;
+        for (; pos < to; pos++) {
+            int digit = row.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number in result row");
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    private static int parseMicrosecond(ByteBuffer row, int from, int to) {
+        int end = Math.min(to, from + 6);
+        int value = (int) parseLong(row, from, end);
+        for (int i = end - from; i < 6; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static String toString(ByteBuffer row, int offset, int length) {
+        if (row.hasArray()) {
+            return new String(row.array(), row.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = row.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
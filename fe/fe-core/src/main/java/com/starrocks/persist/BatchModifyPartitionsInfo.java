@@ -19,12 +19,14 @@ package com.starrocks.persist;
 
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.common.io.Text;
+import com.starrocks.common.io.VarInt;
 import com.starrocks.common.io.Writable;
 import com.starrocks.persist.gson.GsonUtils;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -32,6 +34,9 @@ import java.util.List;
  */
 
 public class BatchModifyPartitionsInfo implements Writable {
+    // version of the compact encoding, see writeCompact()
+    private static final int COMPACT_VERSION = 1;
+
     @SerializedName(value = "infos")
     private List<ModifyPartitionInfo> infos;
 
@@ -49,6 +54,31 @@ public class BatchModifyPartitionsInfo implements Writable {
         return GsonUtils.GSON.fromJson(json, BatchModifyPartitionsInfo.class);
     }
 
+    /**
+     * Write the infos in a compact binary encoding instead of json, which is journaled by
+     * OP_BATCH_MODIFY_PARTITION_COMPACT. Ids are zigzag varints and the storage medium is its thrift value.
+     */
+    public void writeCompact(DataOutput out) throws IOException {
+        out.writeByte(COMPACT_VERSION);
+        VarInt.writeVInt(out, infos.size());
+        for (ModifyPartitionInfo info : infos) {
+            info.writeCompact(out);
+        }
+    }
+
+    public static BatchModifyPartitionsInfo readCompact(DataInput in) throws IOException {
+        int version = in.readByte();
+        if (version != COMPACT_VERSION) {
+            throw new IOException("unknown version of compact batch modify partitions info: " + version);
+        }
+        int size = VarInt.readVInt(in);
+        List<ModifyPartitionInfo> infos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            infos.add(ModifyPartitionInfo.readCompact(in));
+        }
+        return new BatchModifyPartitionsInfo(infos);
+    }
+
     public List<ModifyPartitionInfo> getModifyPartitionInfos() {
         return infos;
     }
@@ -239,7 +239,8 @@ public class EditLog {
                     globalStateMgr.getAlterInstance().replayModifyPartition(info);
                     break;
                 }
-                case OperationType.OP_BATCH_MODIFY_PARTITION: {
+                case OperationType.OP_BATCH_MODIFY_PARTITION:
+                case OperationType.OP_BATCH_MODIFY_PARTITION_COMPACT: {
                     BatchModifyPartitionsInfo info = (BatchModifyPartitionsInfo) journal.getData();
                     for (ModifyPartitionInfo modifyPartitionInfo : info.getModifyPartitionInfos()) {
                         globalStateMgr.getAlterInstance().replayModifyPartition(modifyPartitionInfo);
@@ -365,17 +366,20 @@ public class EditLog {
                     deleteHandler.replayMultiDelete(info, globalStateMgr);
                     break;
                 }
-                case OperationType.OP_ADD_REPLICA: {
+                case OperationType.OP_ADD_REPLICA:
+                case OperationType.OP_ADD_REPLICA_COMPACT: {
                     ReplicaPersistInfo info = (ReplicaPersistInfo) journal.getData();
                     globalStateMgr.replayAddReplica(info);
                     break;
                 }
-                case OperationType.OP_UPDATE_REPLICA: {
+                case OperationType.OP_UPDATE_REPLICA:
+                case OperationType.OP_UPDATE_REPLICA_COMPACT: {
                     ReplicaPersistInfo info = (ReplicaPersistInfo) journal.getData();
                     globalStateMgr.replayUpdateReplica(info);
                     break;
                 }
-                case OperationType.OP_DELETE_REPLICA: {
+                case OperationType.OP_DELETE_REPLICA:
+                case OperationType.OP_DELETE_REPLICA_COMPACT: {
                     ReplicaPersistInfo info = (ReplicaPersistInfo) journal.getData();
                     globalStateMgr.replayDeleteReplica(info);
                     break;
@@ -513,13 +517,15 @@ public class EditLog {
                     globalStateMgr.replayUpdateClusterAndBackends(info);
                     break;
                 }
-                case OperationType.OP_UPSERT_TRANSACTION_STATE: {
+                case OperationType.OP_UPSERT_TRANSACTION_STATE:
+                case OperationType.OP_UPSERT_TRANSACTION_STATE_COMPACT: {
                     final TransactionState state = (TransactionState) journal.getData();
                     GlobalStateMgr.getCurrentGlobalTransactionMgr().replayUpsertTransactionState(state);
                     LOG.debug("opcode: {}, tid: {}", opCode, state.getTransactionId());
                     break;
                 }
-                case OperationType.OP_DELETE_TRANSACTION_STATE: {
+                case OperationType.OP_DELETE_TRANSACTION_STATE:
+                case OperationType.OP_DELETE_TRANSACTION_STATE_COMPACT: {
                     final TransactionState state = (TransactionState) journal.getData();
                     GlobalStateMgr.getCurrentGlobalTransactionMgr().replayDeleteTransactionState(state);
                     LOG.debug("opcode: {}, tid: {}", opCode, state.getTransactionId());
@@ -1101,7 +1107,11 @@ public class EditLog {
     }
 
     public void logBatchModifyPartition(BatchModifyPartitionsInfo info) {
-        logEdit(OperationType.OP_BATCH_MODIFY_PARTITION, info);
+        if (Config.metadata_journal_compact_encoding) {
+            logEdit(OperationType.OP_BATCH_MODIFY_PARTITION_COMPACT, info::writeCompact);
+        } else {
+            logEdit(OperationType.OP_BATCH_MODIFY_PARTITION, info);
+        }
     }
 
     public void logDropTable(DropInfo info) {
@@ -1166,15 +1176,27 @@ public class EditLog {
     }
 
     public void logAddReplica(ReplicaPersistInfo info) {
-        logEdit(OperationType.OP_ADD_REPLICA, info);
+        if (Config.metadata_journal_compact_encoding) {
+            logEdit(OperationType.OP_ADD_REPLICA_COMPACT, info::writeCompact);
+        } else {
+            logEdit(OperationType.OP_ADD_REPLICA, info);
+        }
     }
 
     public void logUpdateReplica(ReplicaPersistInfo info) {
-        logEdit(OperationType.OP_UPDATE_REPLICA, info);
+        if (Config.metadata_journal_compact_encoding) {
+            logEdit(OperationType.OP_UPDATE_REPLICA_COMPACT, info::writeCompact);
+        } else {
+            logEdit(OperationType.OP_UPDATE_REPLICA, info);
+        }
     }
 
     public void logDeleteReplica(ReplicaPersistInfo info) {
-        logEdit(OperationType.OP_DELETE_REPLICA, info);
+        if (Config.metadata_journal_compact_encoding) {
+            logEdit(OperationType.OP_DELETE_REPLICA_COMPACT, info::writeCompact);
+        } else {
+            logEdit(OperationType.OP_DELETE_REPLICA, info);
+        }
     }
 
     public void logTimestamp(Timestamp stamp) {
@@ -1296,11 +1318,19 @@ public class EditLog {
 
     // for TransactionState
     public void logInsertTransactionState(TransactionState transactionState) {
-        logEdit(OperationType.OP_UPSERT_TRANSACTION_STATE, transactionState);
+        if (Config.metadata_journal_compact_encoding) {
+            logEdit(OperationType.OP_UPSERT_TRANSACTION_STATE_COMPACT, transactionState::writeCompact);
+        } else {
+            logEdit(OperationType.OP_UPSERT_TRANSACTION_STATE, transactionState);
+        }
     }
 
     public void logDeleteTransactionState(TransactionState transactionState) {
-        logEdit(OperationType.OP_DELETE_TRANSACTION_STATE, transactionState);
+        if (Config.metadata_journal_compact_encoding) {
+            logEdit(OperationType.OP_DELETE_TRANSACTION_STATE_COMPACT, transactionState::writeCompact);
+        } else {
+            logEdit(OperationType.OP_DELETE_TRANSACTION_STATE, transactionState);
+        }
     }
 
     public void logBackupJob(BackupJob job) {
@@ -21,11 +21,13 @@
 
 package com.starrocks.persist;
 
+import com.starrocks.persist.metablock.SRImageReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Set;
 
 public class MetaCleaner {
     private static final Logger LOG = LogManager.getLogger(MetaCleaner.class);
@@ -43,6 +45,8 @@ public class MetaCleaner {
 
         File currentImage = storage.getImageFile(currentVersion);
         if (currentImage.exists()) {
+            // the images referred by the current delta image are still used
+            Set<Long> referredVersions = SRImageReader.getReferredVersions(currentImage);
             File metaDir = new File(imageDir);
             File[] children = metaDir.listFiles();
 
@@ -60,7 +64,7 @@ public class MetaCleaner {
                     }
                     long version = Long.parseLong(filename.substring(filename.lastIndexOf('.') + 1));
 
-                    if (version < imageDeleteVersion) {
+                    if (version < imageDeleteVersion && !referredVersions.contains(version)) {
                         if (file.delete()) {
                             LOG.info(file.getAbsoluteFile() + " deleted.");
                         } else {
@@ -24,8 +24,10 @@ package com.starrocks.persist;
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.catalog.DataProperty;
 import com.starrocks.common.FeMetaVersion;
+import com.starrocks.common.io.VarInt;
 import com.starrocks.common.io.Writable;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.thrift.TStorageMedium;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -122,6 +124,39 @@ public class ModifyPartitionInfo implements Writable {
         out.writeBoolean(isInMemory);
     }
 
+    // part of the compact encoding of BatchModifyPartitionsInfo
+    void writeCompact(DataOutput out) throws IOException {
+        VarInt.writeZLong(out, dbId);
+        VarInt.writeZLong(out, tableId);
+        VarInt.writeZLong(out, partitionId);
+        if (dataProperty == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            VarInt.writeVInt(out, dataProperty.getStorageMedium().getValue());
+            VarInt.writeZLong(out, dataProperty.getCooldownTimeMs());
+        }
+        VarInt.writeZLong(out, replicationNum);
+        out.writeBoolean(isInMemory);
+    }
+
+    static ModifyPartitionInfo readCompact(DataInput in) throws IOException {
+        ModifyPartitionInfo info = new ModifyPartitionInfo();
+        info.dbId = VarInt.readZLong(in);
+        info.tableId = VarInt.readZLong(in);
+        info.partitionId = VarInt.readZLong(in);
+        if (in.readBoolean()) {
+            TStorageMedium medium = TStorageMedium.findByValue(VarInt.readVInt(in));
+            if (medium == null) {
+                throw new IOException("could not parse storage medium from modify partition info");
+            }
+            info.dataProperty = new DataProperty(medium, VarInt.readZLong(in));
+        }
+        info.replicationNum = (short) VarInt.readZLong(in);
+        info.isInMemory = in.readBoolean();
+        return info;
+    }
+
     public void readFields(DataInput in) throws IOException {
         dbId = in.readLong();
         tableId = in.readLong();
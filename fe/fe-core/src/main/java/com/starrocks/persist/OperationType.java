@@ -21,6 +21,11 @@
 
 package com.starrocks.persist;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
 //NOTICE new added type starts from 10000, to avoid conflicting with community added type
 public class OperationType {
     public static final short OP_INVALID = -1;
@@ -282,4 +287,33 @@ public class OperationType {
 
     // stream load
     public static final short OP_CREATE_STREAM_LOAD_TASK = 11020;
+
+    // compact binary encoding of the frequent journals, written if Config.metadata_journal_compact_encoding is set
+    public static final short OP_UPSERT_TRANSACTION_STATE_COMPACT = 11200;
+    public static final short OP_DELETE_TRANSACTION_STATE_COMPACT = 11201;
+    public static final short OP_ADD_REPLICA_COMPACT = 11202;
+    public static final short OP_UPDATE_REPLICA_COMPACT = 11203;
+    public static final short OP_DELETE_REPLICA_COMPACT = 11204;
+    public static final short OP_BATCH_MODIFY_PARTITION_COMPACT = 11205;
+
+    // names of the op codes, used as labels of the journal metrics
+    private static final Map<Short, String> OP_NAMES = new HashMap<>();
+
+    static {
+        for (Field field : OperationType.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == short.class) {
+                try {
+                    // the first one if some op codes are the same
+                    OP_NAMES.putIfAbsent(field.getShort(null), field.getName());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    public static String getOpName(short opCode) {
+        String name = OP_NAMES.get(opCode);
+        return name == null ? String.valueOf(opCode) : name;
+    }
 }
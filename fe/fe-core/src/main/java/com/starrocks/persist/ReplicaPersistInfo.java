@@ -22,6 +22,7 @@
 package com.starrocks.persist;
 
 import com.starrocks.common.FeMetaVersion;
+import com.starrocks.common.io.VarInt;
 import com.starrocks.common.io.Writable;
 import com.starrocks.server.GlobalStateMgr;
 
@@ -30,6 +31,8 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 public class ReplicaPersistInfo implements Writable {
+    // version of the compact encoding, see writeCompact()
+    private static final int COMPACT_VERSION = 1;
 
     public enum ReplicaOperationType {
         ADD(0),
@@ -349,6 +352,56 @@ public class ReplicaPersistInfo implements Writable {
         }
     }
 
+    /**
+     * Write the same fields as write() in a compact encoding, which is journaled by the compact op codes, e.g.
+     * OP_UPDATE_REPLICA_COMPACT. All the fields are zigzag varints, so the unset ones, i.e. -1, take one byte.
+     */
+    public void writeCompact(DataOutput out) throws IOException {
+        out.writeByte(COMPACT_VERSION);
+        VarInt.writeVInt(out, opType.value);
+        VarInt.writeZLong(out, dbId);
+        VarInt.writeZLong(out, tableId);
+        VarInt.writeZLong(out, partitionId);
+        VarInt.writeZLong(out, indexId);
+        VarInt.writeZLong(out, tabletId);
+        VarInt.writeZLong(out, backendId);
+        VarInt.writeZLong(out, replicaId);
+        VarInt.writeZLong(out, version);
+        VarInt.writeZLong(out, dataSize);
+        VarInt.writeZLong(out, rowCount);
+        VarInt.writeZLong(out, lastFailedVersion);
+        VarInt.writeZLong(out, minReadableVersion);
+        VarInt.writeZLong(out, lastSuccessVersion);
+        VarInt.writeZLong(out, schemaHash);
+    }
+
+    public static ReplicaPersistInfo readCompact(DataInput in) throws IOException {
+        int version = in.readByte();
+        if (version != COMPACT_VERSION) {
+            throw new IOException("unknown version of compact replica info: " + version);
+        }
+        ReplicaPersistInfo info = new ReplicaPersistInfo();
+        info.opType = ReplicaOperationType.findByValue(VarInt.readVInt(in));
+        if (info.opType == null) {
+            throw new IOException("could not parse operation type from replica info");
+        }
+        info.dbId = VarInt.readZLong(in);
+        info.tableId = VarInt.readZLong(in);
+        info.partitionId = VarInt.readZLong(in);
+        info.indexId = VarInt.readZLong(in);
+        info.tabletId = VarInt.readZLong(in);
+        info.backendId = VarInt.readZLong(in);
+        info.replicaId = VarInt.readZLong(in);
+        info.version = VarInt.readZLong(in);
+        info.dataSize = VarInt.readZLong(in);
+        info.rowCount = VarInt.readZLong(in);
+        info.lastFailedVersion = VarInt.readZLong(in);
+        info.minReadableVersion = VarInt.readZLong(in);
+        info.lastSuccessVersion = VarInt.readZLong(in);
+        info.schemaHash = (int) VarInt.readZLong(in);
+        return info;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) {
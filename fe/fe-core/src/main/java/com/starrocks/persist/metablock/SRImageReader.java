@@ -0,0 +1,375 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.DdlException;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.Storage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Load the image saved by {@link SRImageWriter}. The sections are read by positional reads of the file channel,
+ * so they can be loaded by different threads at the same time. The checksum of a section is verified after it's
+ * loaded, and the bytes not consumed by the loader are skipped, for an image saved by a higher version.
+ *
+ * If the image is opened with mmap, a section is mapped when it's decoded and its checksum is verified before
+ * decoding, so the pages of the sections never decoded are not read at all, see {@code LazyDatabaseLoader}.
+ *
+ * The sections referred by a delta image are read from the images holding them, which are in the same directory.
+ */
+public class SRImageReader implements Closeable {
+    private static final Logger LOG = LogManager.getLogger(SRImageReader.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public interface SectionLoader {
+        void load(DataInputStream dis) throws IOException, DdlException;
+    }
+
+    public interface SectionDecoder<T> {
+        T decode(DataInputStream dis) throws IOException, DdlException;
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final List<SRImageSection> sections;
+    private final boolean mmap;
+    // image version -> channel of the images referred by this image
+    private final Map<Long, FileChannel> referredChannels = Maps.newHashMap();
+
+    public SRImageReader(File file) throws IOException {
+        this(file, false);
+    }
+
+    public SRImageReader(File file, boolean mmap) throws IOException {
+        this.file = file;
+        this.mmap = mmap;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.sections = readToc();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static boolean isSectionedImage(File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            return dis.readInt() == SRImageWriter.MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private List<SRImageSection> readToc() throws IOException {
+        long size = channel.size();
+        ByteBuffer footer = ByteBuffer.allocate(12);
+        if (size < 4 + footer.capacity() || channel.read(footer, size - footer.capacity()) != footer.capacity()) {
+            throw new IOException("invalid sectioned image " + file + ", size: " + size);
+        }
+        footer.flip();
+        long tocOffset = footer.getLong();
+        if (footer.getInt() != SRImageWriter.MAGIC || tocOffset < 4 || tocOffset > size - footer.capacity()) {
+            throw new IOException("invalid footer of sectioned image " + file);
+        }
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(new ChannelInputStream(channel, tocOffset, size - footer.capacity())))) {
+            SRMetaBlockReader reader = new SRMetaBlockReader(dis, SRImageWriter.TOC_BLOCK_NAME);
+            SRImageWriter.Toc toc = (SRImageWriter.Toc) reader.readJson(SRImageWriter.Toc.class);
+            reader.close();
+            return toc.sections;
+        } catch (SRMetaBlockException | SRMetaBlockEOFException e) {
+            throw new IOException("invalid table of contents of sectioned image " + file, e);
+        }
+    }
+
+    public List<SRImageSection> getSections() {
+        return sections;
+    }
+
+    public List<SRImageSection> getSections(String name) {
+        return sections.stream().filter(s -> s.getName().equals(name)).collect(Collectors.toList());
+    }
+
+    /**
+     * Versions of the images referred by this image, they're empty if it's not a delta image.
+     */
+    public Set<Long> getReferredVersions() {
+        return sections.stream().filter(SRImageSection::isReferred).map(SRImageSection::getImageVersion)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Return the versions of the referred images which do not exist, or whose sections referred by this image
+     * do not match the checksums, e.g. the image of the same version is saved by another leader. They must be
+     * downloaded again before this image is used.
+     */
+    public Set<Long> getInvalidReferredVersions() {
+        Set<Long> invalid = Sets.newHashSet();
+        for (SRImageSection section : sections) {
+            if (!section.isReferred() || invalid.contains(section.getImageVersion())) {
+                continue;
+            }
+            try {
+                CheckedInputStream in = new CheckedInputStream(new ChannelInputStream(getChannel(section),
+                        section.getOffset(), section.getOffset() + section.getLength()), new CRC32());
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long length = 0;
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    length += n;
+                }
+                if (length != section.getLength() || in.getChecksum().getValue() != section.getChecksum()) {
+                    invalid.add(section.getImageVersion());
+                }
+            } catch (IOException e) {
+                LOG.warn("failed to read section {} referred by image {}", section, file, e);
+                invalid.add(section.getImageVersion());
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Versions of the images referred by the image file, or empty if it's not a sectioned image.
+     */
+    public static Set<Long> getReferredVersions(File file) throws IOException {
+        if (!isSectionedImage(file)) {
+            return Sets.newHashSet();
+        }
+        try (SRImageReader reader = new SRImageReader(file)) {
+            return reader.getReferredVersions();
+        }
+    }
+
+    private synchronized FileChannel getChannel(SRImageSection section) throws IOException {
+        if (!section.isReferred()) {
+            return channel;
+        }
+        FileChannel referredChannel = referredChannels.get(section.getImageVersion());
+        if (referredChannel == null) {
+            File referredFile = Storage.getImageFile(file.getAbsoluteFile().getParentFile(),
+                    section.getImageVersion());
+            referredChannel = FileChannel.open(referredFile.toPath(), StandardOpenOption.READ);
+            referredChannels.put(section.getImageVersion(), referredChannel);
+        }
+        return referredChannel;
+    }
+
+    /**
+     * Load the only section of the given name, the section is skipped if it does not exist, which means the image
+     * is saved by a lower version.
+     */
+    public void loadSection(String name, SectionLoader loader) throws IOException, DdlException {
+        List<SRImageSection> found = getSections(name);
+        if (found.isEmpty()) {
+            LOG.warn("section {} does not exist in image {}, skip it", name, file);
+            return;
+        }
+        if (found.size() > 1) {
+            throw new IOException("duplicated section " + name + " in image " + file);
+        }
+        decodeSection(found.get(0), dis -> {
+            loader.load(dis);
+            return null;
+        });
+    }
+
+    /**
+     * Decode all the sections of the given name by the executor, the decoder is called with the meta context of
+     * the current thread. The futures are in the order of the sections in the image.
+     */
+    public <T> List<Future<T>> submitSections(String name, ExecutorService executor, SectionDecoder<T> decoder) {
+        List<Future<T>> futures = Lists.newArrayList();
+        for (SRImageSection section : getSections(name)) {
+            futures.add(executor.submit(newDecodeTask(section, decoder)));
+        }
+        return futures;
+    }
+
+    /**
+     * Return a task decoding the section, which can be called by any thread with the meta context of the current
+     * thread.
+     */
+    public <T> Callable<T> newDecodeTask(SRImageSection section, SectionDecoder<T> decoder) {
+        MetaContext metaContext = MetaContext.get();
+        return () -> {
+            MetaContext oldContext = MetaContext.get();
+            if (metaContext != null) {
+                metaContext.setThreadLocalInfo();
+            }
+            try {
+                return decodeSection(section, decoder);
+            } finally {
+                if (oldContext != null) {
+                    oldContext.setThreadLocalInfo();
+                } else {
+                    MetaContext.remove();
+                }
+            }
+        };
+    }
+
+    public <T> T decodeSection(SRImageSection section, SectionDecoder<T> decoder)
+            throws IOException, DdlException {
+        if (mmap) {
+            return decodeMappedSection(section, decoder);
+        }
+        long end = section.getOffset() + section.getLength();
+        CheckedInputStream checkedInputStream = new CheckedInputStream(
+                new ChannelInputStream(getChannel(section), section.getOffset(), end), new CRC32());
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(checkedInputStream, BUFFER_SIZE));
+        T result;
+        try {
+            result = decoder.decode(dis);
+        } catch (EOFException e) {
+            throw new IOException("unexpected end of section " + section + " in image " + file, e);
+        }
+        // skip the rest for compatibility, and they are included in the checksum
+        byte[] skipBuffer = new byte[BUFFER_SIZE];
+        long skipped = 0;
+        int n;
+        while ((n = dis.read(skipBuffer)) > 0) {
+            skipped += n;
+        }
+        if (skipped > 0) {
+            LOG.warn("skip {} bytes at the end of section {} in image {}", skipped, section, file);
+        }
+        long checksum = checkedInputStream.getChecksum().getValue();
+        if (checksum != section.getChecksum()) {
+            throw new IOException(String.format("checksum mismatch of section %s in image %s, expect %d actual %d",
+                    section, file, section.getChecksum(), checksum));
+        }
+        return result;
+    }
+
+    private <T> T decodeMappedSection(SRImageSection section, SectionDecoder<T> decoder)
+            throws IOException, DdlException {
+        MappedByteBuffer buffer = getChannel(section).map(FileChannel.MapMode.READ_ONLY, section.getOffset(),
+                section.getLength());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != section.getChecksum()) {
+            throw new IOException(String.format("checksum mismatch of section %s in image %s, expect %d actual %d",
+                    section, file, section.getChecksum(), crc.getValue()));
+        }
+        DataInputStream dis = new DataInputStream(new ByteBufferInputStream(buffer));
+        T result;
+        try {
+            result = decoder.decode(dis);
+        } catch (EOFException e) {
+            throw new IOException("unexpected end of section " + section + " in image " + file, e);
+        }
+        if (buffer.hasRemaining()) {
+            LOG.warn("skip {} bytes at the end of section {} in image {}", buffer.remaining(), section, file);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel referredChannel : referredChannels.values()) {
+            referredChannel.close();
+        }
+        referredChannels.clear();
+        channel.close();
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    // read [position, end) of the channel, it does not change the position of the channel
+    private static class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        ChannelInputStream(FileChannel channel, long position, long end) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == 1 ? (b[0] & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, end - position);
+            int n = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (n < 0) {
+                throw new EOFException("unexpected end of file at " + position);
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
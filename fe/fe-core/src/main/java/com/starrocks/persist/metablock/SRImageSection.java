@@ -0,0 +1,89 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist.metablock;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * An entry of the table of contents of a sectioned image, see {@link SRImageWriter}.
+ */
+public class SRImageSection {
+    @SerializedName(value = "n")
+    private String name;
+    // id and key of the object saved in the section, e.g. id and name of a database, they're used to find the
+    // section without loading it
+    @SerializedName(value = "id")
+    private long id;
+    @SerializedName(value = "k")
+    private String key;
+    @SerializedName(value = "o")
+    private long offset;
+    @SerializedName(value = "l")
+    private long length;
+    @SerializedName(value = "c")
+    private long checksum;
+    // murmur3 128 of the bytes, used to find the sections not changed since the base image of a delta image
+    @SerializedName(value = "h")
+    private String digest;
+    // version of the image file holding the bytes if it's not this image, i.e. it's referred by a delta image
+    @SerializedName(value = "v")
+    private long imageVersion;
+
+    public SRImageSection(String name, long id, String key, long offset, long length, long checksum) {
+        this(name, id, key, offset, length, checksum, null, 0);
+    }
+
+    public SRImageSection(String name, long id, String key, long offset, long length, long checksum,
+                          String digest, long imageVersion) {
+        this.name = name;
+        this.id = id;
+        this.key = key;
+        this.offset = offset;
+        this.length = length;
+        this.checksum = checksum;
+        this.digest = digest;
+        this.imageVersion = imageVersion;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getImageVersion() {
+        return imageVersion;
+    }
+
+    public boolean isReferred() {
+        return imageVersion != 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[offset=" + offset + ", length=" + length
+                + (isReferred() ? ", image=" + imageVersion : "") + "]";
+    }
+}
@@ -0,0 +1,208 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Save the image as independent sections followed by a table of contents, so that the sections can be verified
+ * and loaded separately, and the sections of different databases can be loaded concurrently.
+ *
+ * +------------------+
+ * |      magic       | int
+ * +------------------+
+ * |    section 1     | written by the save method of a manager, e.g. {@code NodeMgr#saveFrontends}
+ * +------------------+
+ * |      ...         |
+ * +------------------+
+ * |    section N     |
+ * +------------------+
+ * | table of content | a meta block of SRImageSections: {"n": "Database", "id": 10001, "k": "db1", "o": offset,
+ * |                  |     "l": length, "c": crc32, "h": murmur3 128, "v": version of the image holding the bytes}
+ * +------------------+
+ * |    toc offset    | long
+ * +------------------+
+ * |      magic       | int
+ * +------------------+
+ *
+ * If a base image is given, the image is saved as a delta image: a section whose bytes are the same as the section
+ * of the same name, id and key in the base image is not saved again, its entry in the table of contents refers to
+ * the bytes in the image holding them instead. So a delta image only holds the sections changed since the base,
+ * and it refers to a chain of older images, which must be kept as long as the delta image is used.
+ *
+ * Usage see com.starrocks.persist.metablock.SRImageTest
+ */
+public class SRImageWriter implements Closeable {
+    // positive, so that an FE not knowing this format fails on the meta version check of the image header
+    public static final int MAGIC = 0x53524D49;
+    static final String TOC_BLOCK_NAME = "ImageTOC";
+
+    public interface SectionSaver {
+        void save(DataOutputStream dos) throws IOException;
+    }
+
+    static class Toc {
+        @SerializedName(value = "s")
+        List<SRImageSection> sections = Lists.newArrayList();
+    }
+
+    private final FileOutputStream fileOut;
+    private final SectionOutputStream out;
+    private final Toc toc = new Toc();
+    // sections of the base image which can be referred, grouped by name, id and key
+    private final Map<String, Deque<SRImageSection>> baseSections = Maps.newHashMap();
+    private long referredBytes = 0;
+    private boolean closed = false;
+
+    public SRImageWriter(File file) throws IOException {
+        this.fileOut = new FileOutputStream(file);
+        this.out = new SectionOutputStream(new BufferedOutputStream(fileOut));
+        new DataOutputStream(out).writeInt(MAGIC);
+    }
+
+    /**
+     * Save a delta image of the base image, whose version is baseVersion.
+     */
+    public SRImageWriter(File file, SRImageReader base, long baseVersion) throws IOException {
+        this(file);
+        for (SRImageSection section : base.getSections()) {
+            if (section.getDigest() == null) {
+                continue;
+            }
+            long imageVersion = section.isReferred() ? section.getImageVersion() : baseVersion;
+            baseSections.computeIfAbsent(sectionKey(section.getName(), section.getId(), section.getKey()),
+                    k -> new ArrayDeque<>()).add(new SRImageSection(section.getName(), section.getId(),
+                    section.getKey(), section.getOffset(), section.getLength(), section.getChecksum(),
+                    section.getDigest(), imageVersion));
+        }
+    }
+
+    private static String sectionKey(String name, long id, String key) {
+        return name + "/" + id + "/" + key;
+    }
+
+    public void writeSection(String name, SectionSaver saver) throws IOException {
+        writeSection(name, 0, null, saver);
+    }
+
+    public void writeSection(String name, long id, String key, SectionSaver saver) throws IOException {
+        Preconditions.checkState(!closed);
+        long offset = out.position;
+        CRC32 crc = new CRC32();
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        out.crc = crc;
+        out.hasher = hasher;
+        DataOutputStream dos = new DataOutputStream(out);
+        saver.save(dos);
+        dos.flush();
+        out.crc = null;
+        out.hasher = null;
+        long length = out.position - offset;
+        String digest = hasher.hash().toString();
+
+        Deque<SRImageSection> candidates = baseSections.get(sectionKey(name, id, key));
+        SRImageSection base = candidates == null ? null : candidates.poll();
+        if (base != null && base.getLength() == length && base.getChecksum() == crc.getValue()
+                && base.getDigest().equals(digest)) {
+            // not changed, drop the bytes just written and refer to the base
+            fileOut.getChannel().truncate(offset);
+            fileOut.getChannel().position(offset);
+            out.position = offset;
+            referredBytes += length;
+            toc.sections.add(base);
+        } else {
+            toc.sections.add(new SRImageSection(name, id, key, offset, length, crc.getValue(), digest, 0));
+        }
+    }
+
+    public List<SRImageSection> getSections() {
+        return toc.sections;
+    }
+
+    // bytes of the sections referred to the base image
+    public long getReferredBytes() {
+        return referredBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long tocOffset = out.position;
+            DataOutputStream dos = new DataOutputStream(out);
+            SRMetaBlockWriter writer = new SRMetaBlockWriter(dos, TOC_BLOCK_NAME, 1);
+            writer.writeJson(toc);
+            writer.close();
+            dos.writeLong(tocOffset);
+            dos.writeInt(MAGIC);
+            dos.flush();
+        } catch (SRMetaBlockException e) {
+            throw new IOException(e);
+        } finally {
+            out.close();
+        }
+    }
+
+    // count the bytes written, and update the checksum and the digest of the current section
+    private static class SectionOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long position = 0;
+        private CRC32 crc;
+        private Hasher hasher;
+
+        SectionOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+            if (crc != null) {
+                crc.update(b);
+                hasher.putByte((byte) b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+            if (crc != null) {
+                crc.update(b, off, len);
+                hasher.putBytes(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -17,6 +17,8 @@
 
 package com.starrocks.plugin;
 
+import java.util.List;
+
 /**
  * Audit plugin interface describe.
  */
@@ -32,4 +34,16 @@ public interface AuditPlugin {
      * Because it will be called after each query. So it must be efficient.
      */
     public void exec(AuditEvent event);
+
+    /**
+     * process a batch of events, the events which are not accepted by eventFilter should be skipped.
+     * The list is reused after this method returns, so it should not be kept by the plugin.
+     */
+    default void exec(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            if (eventFilter(event.type)) {
+                exec(event);
+            }
+        }
+    }
 }
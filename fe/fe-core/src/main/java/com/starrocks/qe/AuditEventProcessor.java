@@ -17,7 +17,8 @@
 
 package com.starrocks.qe;
 
-import com.google.common.collect.Queues;
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
 import com.starrocks.plugin.AuditEvent;
 import com.starrocks.plugin.AuditPlugin;
 import com.starrocks.plugin.Plugin;
@@ -27,24 +28,35 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Class for processing all audit events.
  * It will receive audit events and handle them to all AUDIT type plugins.
+ * <p>
+ * The events are buffered in a lock-free ring buffer, and the worker delivers them to the plugins in batch.
+ * An event is dropped if the buffer is full, instead of blocking the connection thread. The idle worker parks
+ * until an event is offered, or IDLE_WAIT_NS elapses to refresh the plugins.
  */
 public class AuditEventProcessor {
     private static final Logger LOG = LogManager.getLogger(AuditEventProcessor.class);
     private static final long UPDATE_PLUGIN_INTERVAL_MS = 60 * 1000; // 1min
+    private static final long IDLE_WAIT_NS = TimeUnit.SECONDS.toNanos(5);
 
     private PluginMgr pluginMgr;
 
     private List<Plugin> auditPlugins;
     private long lastUpdateTime = 0;
 
-    private BlockingQueue<AuditEvent> eventQueue = Queues.newLinkedBlockingDeque(10000);
-    private Thread workerThread;
+    private final AuditEventRingBuffer eventBuffer = new AuditEventRingBuffer(Config.audit_event_queue_capacity);
+    private final AtomicLong numDroppedEvents = new AtomicLong(0);
+    // the time between the first event of the last batch is offered and the batch is delivered
+    private volatile long lastBatchLagMs = 0;
+    private volatile Thread workerThread;
+    // set by the worker before it parks on an empty buffer, so a producer knows it should unpark the worker
+    private volatile boolean isWorkerIdle = false;
 
     private volatile boolean isStopped = false;
 
@@ -61,6 +73,7 @@ public class AuditEventProcessor {
     public void stop() {
         isStopped = true;
         if (workerThread != null) {
+            LockSupport.unpark(workerThread);
             try {
                 workerThread.join();
             } catch (InterruptedException e) {
@@ -70,17 +83,34 @@ public class AuditEventProcessor {
     }
 
     public void handleAuditEvent(AuditEvent auditEvent) {
-        try {
-            eventQueue.put(auditEvent);
-        } catch (InterruptedException e) {
-            LOG.debug("encounter exception when handle audit event, ignore", e);
+        if (!eventBuffer.offer(auditEvent)) {
+            if (numDroppedEvents.incrementAndGet() % 1000 == 1) {
+                LOG.warn("audit event buffer is full, {} events are dropped", numDroppedEvents.get());
+            }
+            return;
+        }
+        if (isWorkerIdle) {
+            isWorkerIdle = false;
+            LockSupport.unpark(workerThread);
         }
     }
 
+    public long getNumDroppedEvents() {
+        return numDroppedEvents.get();
+    }
+
+    public long getNumPendingEvents() {
+        return eventBuffer.size();
+    }
+
+    public long getLastBatchLagMs() {
+        return lastBatchLagMs;
+    }
+
     public class Worker implements Runnable {
         @Override
         public void run() {
-            AuditEvent auditEvent;
+            List<AuditEvent> batch = Lists.newArrayList();
             while (!isStopped) {
                 // update audit plugin list every UPDATE_PLUGIN_INTERVAL_MS.
                 // because some of plugins may be installed or uninstalled at runtime.
@@ -90,25 +120,27 @@ public class AuditEventProcessor {
                     LOG.debug("update audit plugins. num: {}", auditPlugins.size());
                 }
 
-                try {
-                    auditEvent = eventQueue.poll(5, TimeUnit.SECONDS);
-                    if (auditEvent == null) {
-                        continue;
+                long offerTimeMs = eventBuffer.drainTo(batch, Math.max(1, Config.audit_event_batch_size));
+                if (batch.isEmpty()) {
+                    isWorkerIdle = true;
+                    // check again after the flag is set, an event offered before the producer sees the flag
+                    // is seen here
+                    if (eventBuffer.size() == 0 && !isStopped) {
+                        LockSupport.parkNanos(IDLE_WAIT_NS);
                     }
-                } catch (InterruptedException e) {
-                    LOG.debug("encounter exception when getting audit event from queue, ignore", e);
+                    isWorkerIdle = false;
                     continue;
                 }
 
-                try {
-                    for (Plugin plugin : auditPlugins) {
-                        if (((AuditPlugin) plugin).eventFilter(auditEvent.type)) {
-                            ((AuditPlugin) plugin).exec(auditEvent);
-                        }
+                for (Plugin plugin : auditPlugins) {
+                    try {
+                        ((AuditPlugin) plugin).exec(batch);
+                    } catch (Exception e) {
+                        LOG.debug("encounter exception when processing audit event.", e);
                     }
-                } catch (Exception e) {
-                    LOG.debug("encounter exception when processing audit event.", e);
                 }
+                lastBatchLagMs = System.currentTimeMillis() - offerTimeMs;
+                batch.clear();
             }
         }
 
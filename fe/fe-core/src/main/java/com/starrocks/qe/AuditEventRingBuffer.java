@@ -0,0 +1,104 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.base.Preconditions;
+import com.starrocks.plugin.AuditEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free ring buffer of audit events, written by all the connection threads and read by the
+ * single audit worker.
+ * <p>
+ * Every slot has a sequence number. A producer claims the slot at `tail` by CAS, and publishes the event by
+ * setting the sequence of the slot to `tail + 1`. The consumer takes the events at `head` whose sequence is
+ * `head + 1` in batch, and releases the slot by setting its sequence to `head + capacity`, so the slots are
+ * reused without allocation. An event is rejected instead of blocking the connection thread if the buffer is full.
+ */
+public class AuditEventRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<AuditEvent> slots;
+    private final AtomicLongArray sequences;
+    // the time when the event is offered, it's published by the sequence of the slot
+    private final long[] offerTimesMs;
+
+    private final AtomicLong tail = new AtomicLong(0);
+    // only modified by the consumer
+    private volatile long head = 0;
+
+    public AuditEventRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.offerTimesMs = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Offer an event, return false if the buffer is full.
+     */
+    public boolean offer(AuditEvent event) {
+        while (true) {
+            long pos = tail.get();
+            int idx = (int) (pos & mask);
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(idx, event);
+                    offerTimesMs[idx] = System.currentTimeMillis();
+                    sequences.set(idx, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // the slot has not been consumed since the last round
+                return false;
+            }
+            // else the slot is claimed by another producer, retry with the new tail
+        }
+    }
+
+    /**
+     * Move at most maxEvents published events to the given list, return the offer time of the first one,
+     * or -1 if there is no event. It must be called by one consumer thread.
+     */
+    public long drainTo(List<AuditEvent> events, int maxEvents) {
+        long firstOfferTimeMs = -1;
+        long pos = head;
+        for (int i = 0; i < maxEvents; i++, pos++) {
+            int idx = (int) (pos & mask);
+            if (sequences.get(idx) != pos + 1) {
+                break;
+            }
+            if (firstOfferTimeMs < 0) {
+                firstOfferTimeMs = offerTimesMs[idx];
+            }
+            events.add(slots.get(idx));
+            slots.set(idx, null);
+            sequences.set(idx, pos + capacity);
+        }
+        head = pos;
+        return firstOfferTimeMs;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // number of the events claimed but not consumed
+    public long size() {
+        return Math.max(0, tail.get() - head);
+    }
+}
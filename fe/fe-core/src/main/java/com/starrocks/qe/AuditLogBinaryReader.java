@@ -0,0 +1,152 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.io.VarInt;
+import com.starrocks.plugin.AuditEvent;
+import com.starrocks.plugin.AuditEvent.EventType;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+
+import static com.starrocks.qe.AuditLogBinaryWriter.COLUMN_BY_NAME;
+import static com.starrocks.qe.AuditLogBinaryWriter.MAGIC;
+import static com.starrocks.qe.AuditLogBinaryWriter.TYPE_BOOLEAN;
+import static com.starrocks.qe.AuditLogBinaryWriter.TYPE_DOUBLE;
+import static com.starrocks.qe.AuditLogBinaryWriter.TYPE_INT;
+import static com.starrocks.qe.AuditLogBinaryWriter.TYPE_LONG;
+import static com.starrocks.qe.AuditLogBinaryWriter.TYPE_STRING;
+import static com.starrocks.qe.AuditLogBinaryWriter.readString;
+
+/**
+ * Read the audit events written by {@link AuditLogBinaryWriter} block by block. The columns unknown to
+ * this version of AuditEvent are skipped, and the reading stops at a truncated or corrupted block, which may
+ * be the last block written when FE exits.
+ */
+public class AuditLogBinaryReader implements Closeable {
+    private final DataInputStream in;
+
+    public AuditLogBinaryReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
+
+    /**
+     * Return the events of the next block, or null if there is no more complete block.
+     */
+    public List<AuditEvent> readBlock() throws IOException {
+        byte[] body;
+        try {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            body = new byte[length];
+            in.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+        return decodeBlock(body);
+    }
+
+    static List<AuditEvent> decodeBlock(byte[] body) throws IOException {
+        try (DataInputStream block = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(body)))) {
+            int numRows = (int) VarInt.readVLong(block);
+            List<AuditEvent> events = Lists.newArrayListWithCapacity(numRows);
+            for (int i = 0; i < numRows; i++) {
+                AuditEvent event = new AuditEvent();
+                event.type = EventType.AFTER_QUERY;
+                events.add(event);
+            }
+            int numColumns = (int) VarInt.readVLong(block);
+            for (int c = 0; c < numColumns; c++) {
+                String name = readString(block);
+                byte type = block.readByte();
+                Field field = COLUMN_BY_NAME.get(name);
+                if (field != null && AuditLogBinaryWriter.typeOf(field) != type) {
+                    field = null;
+                }
+                readColumn(block, field, type, events);
+            }
+            return events;
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // the values are skipped if field is null
+    private static void readColumn(DataInputStream in, Field field, byte type, List<AuditEvent> events)
+            throws IOException, IllegalAccessException {
+        if (type == TYPE_STRING) {
+            String[] dict = new String[(int) VarInt.readVLong(in) + 1];
+            for (int i = 1; i < dict.length; i++) {
+                dict[i] = readString(in);
+            }
+            for (AuditEvent event : events) {
+                String value = dict[(int) VarInt.readVLong(in)];
+                if (field != null) {
+                    field.set(event, value);
+                }
+            }
+            return;
+        }
+        for (AuditEvent event : events) {
+            switch (type) {
+                case TYPE_LONG: {
+                    long value = VarInt.readZLong(in);
+                    if (field != null) {
+                        field.setLong(event, value);
+                    }
+                    break;
+                }
+                case TYPE_INT: {
+                    int value = (int) VarInt.readZLong(in);
+                    if (field != null) {
+                        field.setInt(event, value);
+                    }
+                    break;
+                }
+                case TYPE_DOUBLE: {
+                    double value = in.readDouble();
+                    if (field != null) {
+                        field.setDouble(event, value);
+                    }
+                    break;
+                }
+                case TYPE_BOOLEAN: {
+                    boolean value = in.readBoolean();
+                    if (field != null) {
+                        field.setBoolean(event, value);
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("unknown column type " + type);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
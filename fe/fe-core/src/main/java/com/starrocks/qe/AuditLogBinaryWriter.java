@@ -0,0 +1,229 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.common.io.VarInt;
+import com.starrocks.plugin.AuditEvent;
+import com.starrocks.plugin.AuditEvent.AuditField;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * AuditLogBinaryWriter writes the audit events to fe.audit.bin in compressed columnar blocks, which are read by
+ * {@link AuditLogBinaryReader}.
+ * <p>
+ * A block is: magic(4), length of the compressed body(4), crc32 of the compressed body(4), compressed body.
+ * The body is: number of rows, number of columns, and every column: name, type, values of all the rows.
+ * A string column is dictionary encoded, the other columns are zigzag varints, except that double values are
+ * 8 bytes. The columns are all the fields of AuditEvent annotated by AuditField, and named by the annotation.
+ */
+public class AuditLogBinaryWriter implements Closeable {
+    private static final Logger LOG = LogManager.getLogger(AuditLogBinaryWriter.class);
+
+    public static final String FILE_NAME = "fe.audit.bin";
+    static final int MAGIC = 0x53524131;
+
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_INT = 2;
+    static final byte TYPE_DOUBLE = 3;
+    static final byte TYPE_BOOLEAN = 4;
+    static final byte TYPE_STRING = 5;
+
+    static final List<Field> COLUMNS;
+    static final Map<String, Field> COLUMN_BY_NAME;
+
+    static {
+        List<Field> columns = Lists.newArrayList();
+        Map<String, Field> columnByName = Maps.newHashMap();
+        for (Field field : AuditEvent.class.getFields()) {
+            AuditField af = field.getAnnotation(AuditField.class);
+            if (af != null && typeOf(field) != 0) {
+                columns.add(field);
+                columnByName.put(af.value(), field);
+            }
+        }
+        COLUMNS = Collections.unmodifiableList(columns);
+        COLUMN_BY_NAME = Collections.unmodifiableMap(columnByName);
+    }
+
+    private final File dir;
+    private File file;
+    private DataOutputStream out;
+    private long fileBytes;
+
+    public AuditLogBinaryWriter(String dir) {
+        this.dir = new File(dir);
+    }
+
+    static byte typeOf(Field field) {
+        Class<?> type = field.getType();
+        if (type == long.class) {
+            return TYPE_LONG;
+        } else if (type == int.class) {
+            return TYPE_INT;
+        } else if (type == double.class) {
+            return TYPE_DOUBLE;
+        } else if (type == boolean.class) {
+            return TYPE_BOOLEAN;
+        } else if (type == String.class) {
+            return TYPE_STRING;
+        }
+        return 0;
+    }
+
+    public synchronized void write(List<AuditEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+        byte[] body = encodeBlock(events);
+        maybeRoll();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        out.writeInt(MAGIC);
+        out.writeInt(body.length);
+        out.writeInt((int) crc.getValue());
+        out.write(body);
+        out.flush();
+        fileBytes += 12 + body.length;
+    }
+
+    static byte[] encodeBlock(List<AuditEvent> events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream body = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            VarInt.writeVLong(body, events.size());
+            VarInt.writeVLong(body, COLUMNS.size());
+            for (Field field : COLUMNS) {
+                writeString(body, field.getAnnotation(AuditField.class).value());
+                byte type = typeOf(field);
+                body.writeByte(type);
+                writeColumn(body, field, type, events);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeColumn(DataOutput out, Field field, byte type, List<AuditEvent> events)
+            throws IOException, IllegalAccessException {
+        if (type == TYPE_STRING) {
+            // dictionary, then the index of every row, 0 is null
+            Map<String, Integer> dict = Maps.newLinkedHashMap();
+            int[] indexes = new int[events.size()];
+            for (int i = 0; i < events.size(); i++) {
+                String value = (String) field.get(events.get(i));
+                indexes[i] = value == null ? 0 : dict.computeIfAbsent(value, k -> dict.size() + 1);
+            }
+            VarInt.writeVLong(out, dict.size());
+            for (String value : dict.keySet()) {
+                writeString(out, value);
+            }
+            for (int index : indexes) {
+                VarInt.writeVLong(out, index);
+            }
+            return;
+        }
+        for (AuditEvent event : events) {
+            switch (type) {
+                case TYPE_LONG:
+                    VarInt.writeZLong(out, field.getLong(event));
+                    break;
+                case TYPE_INT:
+                    VarInt.writeZLong(out, field.getInt(event));
+                    break;
+                case TYPE_DOUBLE:
+                    out.writeDouble(field.getDouble(event));
+                    break;
+                default:
+                    out.writeBoolean(field.getBoolean(event));
+                    break;
+            }
+        }
+    }
+
+    private void maybeRoll() throws IOException {
+        if (out != null && fileBytes < Config.audit_log_binary_roll_size_mb * 1024 * 1024) {
+            return;
+        }
+        if (out != null) {
+            out.close();
+            out = null;
+            String suffix = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            File rolled = new File(dir, FILE_NAME + "." + suffix);
+            for (int i = 1; rolled.exists(); i++) {
+                rolled = new File(dir, FILE_NAME + "." + suffix + "-" + i);
+            }
+            if (!file.renameTo(rolled)) {
+                LOG.warn("failed to roll binary audit log {} to {}", file, rolled);
+            }
+            deleteOldFiles();
+        }
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("failed to create audit log dir " + dir);
+        }
+        file = new File(dir, FILE_NAME);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        fileBytes = file.length();
+    }
+
+    private void deleteOldFiles() {
+        File[] rolledFiles = dir.listFiles((d, name) -> name.startsWith(FILE_NAME + "."));
+        if (rolledFiles == null || rolledFiles.length <= Config.audit_log_roll_num) {
+            return;
+        }
+        // the name of a rolled file ends with the time it's rolled
+        Arrays.sort(rolledFiles);
+        for (int i = 0; i < rolledFiles.length - Config.audit_log_roll_num; i++) {
+            if (!rolledFiles[i].delete()) {
+                LOG.warn("failed to delete binary audit log {}", rolledFiles[i]);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        VarInt.writeVLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[(int) VarInt.readVLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -21,6 +21,7 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Lists;
 import com.starrocks.common.AuditLog;
 import com.starrocks.common.Config;
 import com.starrocks.common.util.DigitalVersion;
@@ -35,15 +36,46 @@ import com.starrocks.plugin.PluginMgr;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
 
 // A builtin Audit plugin, registered when FE start.
-// it will receive "AFTER_QUERY" AuditEventy and print it as a log in fe.audit.log
+// it will receive "AFTER_QUERY" AuditEventy and print it as a log in fe.audit.log,
+// or write it to fe.audit.bin if audit_log_format is binary.
 public class AuditLogBuilder extends Plugin implements AuditPlugin {
     private static final Logger LOG = LogManager.getLogger(AuditLogBuilder.class);
 
+    // the fields with annotation "AuditField" written to the text audit log, resolved once
+    private static final List<Field> LOG_FIELDS;
+    private static final int MAX_REUSED_BUILDER_CAPACITY = 64 * 1024;
+
+    static {
+        List<Field> fields = Lists.newArrayList();
+        for (Field f : AuditEvent.class.getFields()) {
+            AuditField af = f.getAnnotation(AuditField.class);
+            if (af == null || af.value().equals("Timestamp")) {
+                continue;
+            }
+            // fields related to big queries are not written into audit log by default,
+            // they will be written into big query log.
+            if (af.value().equals("BigQueryLogCPUSecondThreshold") ||
+                    af.value().equals("BigQueryLogScanBytesThreshold") ||
+                    af.value().equals("BigQueryLogScanRowsThreshold")) {
+                continue;
+            }
+            fields.add(f);
+        }
+        LOG_FIELDS = fields;
+    }
+
     private final PluginInfo pluginInfo;
 
+    private StringBuilder logBuilder = new StringBuilder();
+    private final List<AuditEvent> binaryEvents = Lists.newArrayList();
+    private AuditLogBinaryWriter binaryWriter;
+
     public AuditLogBuilder() {
         pluginInfo = new PluginInfo(PluginMgr.BUILTIN_PLUGIN_PREFIX + "AuditLogBuilder", PluginType.AUDIT,
                 "builtin audit logger", DigitalVersion.fromString("0.12.0"),
@@ -62,72 +94,122 @@ public class AuditLogBuilder extends Plugin implements AuditPlugin {
     @Override
     public void exec(AuditEvent event) {
         try {
-            StringBuilder sb = new StringBuilder();
-            long queryTime = 0;
-            // get each field with annotation "AuditField" in AuditEvent
-            // and assemble them into a string.
-            Field[] fields = event.getClass().getFields();
-            for (Field f : fields) {
-                AuditField af = f.getAnnotation(AuditField.class);
-                if (af == null) {
-                    continue;
-                }
+            if (isBinaryFormat()) {
+                writeBinary(Collections.singletonList(event));
+            }
+            log(event, new StringBuilder());
+        } catch (Exception e) {
+            LOG.debug("failed to process audit event", e);
+        }
+    }
 
-                if (af.value().equals("Timestamp")) {
-                    continue;
+    @Override
+    public void exec(List<AuditEvent> events) {
+        // only called by the audit worker, so the builders are reused between batches
+        try {
+            if (isBinaryFormat()) {
+                binaryEvents.clear();
+                for (AuditEvent event : events) {
+                    if (eventFilter(event.type)) {
+                        binaryEvents.add(event);
+                    }
                 }
+                writeBinary(binaryEvents);
+                binaryEvents.clear();
+            }
+        } catch (Exception e) {
+            LOG.debug("failed to write binary audit log", e);
+        }
+        for (AuditEvent event : events) {
+            if (!eventFilter(event.type)) {
+                continue;
+            }
+            try {
+                logBuilder.setLength(0);
+                log(event, logBuilder);
+            } catch (Exception e) {
+                LOG.debug("failed to process audit event", e);
+            }
+        }
+        if (logBuilder.capacity() > MAX_REUSED_BUILDER_CAPACITY) {
+            logBuilder = new StringBuilder();
+        }
+    }
 
-                // fields related to big queries are not written into audit log by default,
-                // they will be written into big query log.
-                if (af.value().equals("BigQueryLogCPUSecondThreshold") ||
-                        af.value().equals("BigQueryLogScanBytesThreshold") ||
-                        af.value().equals("BigQueryLogScanRowsThreshold")) {
-                    continue;
-                }
+    private static boolean isBinaryFormat() {
+        return "binary".equalsIgnoreCase(Config.audit_log_format);
+    }
 
-                if (af.value().equals("Time")) {
-                    queryTime = (long) f.get(event);
-                }
+    private synchronized void writeBinary(List<AuditEvent> events) throws IOException {
+        if (binaryWriter == null) {
+            binaryWriter = new AuditLogBinaryWriter(Config.audit_log_dir);
+        }
+        binaryWriter.write(events);
+    }
 
-                // Ignore -1 by default, ignore 0 if annotated with ignore_zero
-                Object value = f.get(event);
-                if (value instanceof Long) {
-                    long longValue = (Long) value;
-                    if (longValue == -1 || (longValue == 0 && af.ignore_zero())) {
-                        continue;
-                    }
+    // the query audit is written in text only if the format is not binary, slow query and big query are always text
+    private void log(AuditEvent event, StringBuilder sb) throws IllegalAccessException {
+        long queryTime = 0;
+        // get each field with annotation "AuditField" in AuditEvent
+        // and assemble them into a string.
+        for (Field f : LOG_FIELDS) {
+            AuditField af = f.getAnnotation(AuditField.class);
+            if (af.value().equals("Time")) {
+                queryTime = (long) f.get(event);
+            }
+
+            // Ignore -1 by default, ignore 0 if annotated with ignore_zero
+            Object value = f.get(event);
+            if (value instanceof Long) {
+                long longValue = (Long) value;
+                if (longValue == -1 || (longValue == 0 && af.ignore_zero())) {
+                    continue;
                 }
-                if (value instanceof Integer) {
-                    int intValue = (Integer) value;
-                    if (intValue == -1 || (intValue == 0 && af.ignore_zero())) {
-                        continue;
-                    }
+            }
+            if (value instanceof Integer) {
+                int intValue = (Integer) value;
+                if (intValue == -1 || (intValue == 0 && af.ignore_zero())) {
+                    continue;
                 }
-                if (value instanceof Double) {
-                    double doubleValue = (Double) value;
-                    if (doubleValue == -1 || (doubleValue == 0 && af.ignore_zero())) {
-                        continue;
-                    }
+            }
+            if (value instanceof Double) {
+                double doubleValue = (Double) value;
+                if (doubleValue == -1 || (doubleValue == 0 && af.ignore_zero())) {
+                    continue;
                 }
-                sb.append("|").append(af.value()).append("=").append(value);
             }
+            sb.append("|").append(af.value()).append("=").append(value);
+        }
 
-            String auditLog = sb.toString();
+        boolean isSlowQuery = queryTime > Config.qe_slow_log_ms;
+        boolean isBigQuery = isBigQuery(event);
+        if (isBinaryFormat() && !isSlowQuery && !isBigQuery) {
+            return;
+        }
+        String auditLog = sb.toString();
+        if (!isBinaryFormat()) {
             AuditLog.getQueryAudit().log(auditLog);
-            // slow query
-            if (queryTime > Config.qe_slow_log_ms) {
-                AuditLog.getSlowAudit().log(auditLog);
-            }
+        }
+        // slow query
+        if (isSlowQuery) {
+            AuditLog.getSlowAudit().log(auditLog);
+        }
 
-            if (isBigQuery(event)) {
-                sb.append("|bigQueryLogCPUSecondThreshold=").append(event.bigQueryLogCPUSecondThreshold);
-                sb.append("|bigQueryLogScanBytesThreshold=").append(event.bigQueryLogScanBytesThreshold);
-                sb.append("|bigQueryLogScanRowsThreshold=").append(event.bigQueryLogScanRowsThreshold);
-                String bigQueryLog = sb.toString();
-                AuditLog.getBigQueryAudit().log(bigQueryLog);
-            }
-        } catch (Exception e) {
-            LOG.debug("failed to process audit event", e);
+        if (isBigQuery) {
+            sb.append("|bigQueryLogCPUSecondThreshold=").append(event.bigQueryLogCPUSecondThreshold);
+            sb.append("|bigQueryLogScanBytesThreshold=").append(event.bigQueryLogScanBytesThreshold);
+            sb.append("|bigQueryLogScanRowsThreshold=").append(event.bigQueryLogScanRowsThreshold);
+            String bigQueryLog = sb.toString();
+            AuditLog.getBigQueryAudit().log(bigQueryLog);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        super.close();
+        if (binaryWriter != null) {
+            binaryWriter.close();
+            binaryWriter = null;
         }
     }
 
@@ -126,6 +126,9 @@ public class ConnectContext {
     protected Map<String, SetVar> modifiedSessionVariables = new HashMap<>();
     // user define variable in this session
     protected HashMap<String, UserVariable> userVariables;
+    // statements prepared by COM_STMT_PREPARE in this session, the key is the statement id
+    protected Map<Integer, PrepareStmtContext> preparedStmts = new HashMap<>();
+    protected int nextPreparedStmtId = 1;
     // Scheduler this connection belongs to
     protected ConnectScheduler connectScheduler;
     // Executor
@@ -328,6 +331,29 @@ public class ConnectContext {
         return userVariables.get(variable);
     }
 
+    public PrepareStmtContext getPreparedStmt(int stmtId) {
+        return preparedStmts.get(stmtId);
+    }
+
+    public int getPreparedStmtNum() {
+        return preparedStmts.size();
+    }
+
+    // Return the id of the prepared statement
+    public int addPreparedStmt(PrepareStmtContext prepareStmtContext) {
+        int stmtId = nextPreparedStmtId++;
+        preparedStmts.put(stmtId, prepareStmtContext);
+        return stmtId;
+    }
+
+    public void removePreparedStmt(int stmtId) {
+        preparedStmts.remove(stmtId);
+    }
+
+    public void clearPreparedStmts() {
+        preparedStmts.clear();
+    }
+
     public void resetSessionVariable() {
         this.sessionVariable = VariableMgr.newSessionVariable();
         modifiedSessionVariables.clear();
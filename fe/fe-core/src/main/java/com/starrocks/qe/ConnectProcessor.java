@@ -23,11 +23,16 @@ package com.starrocks.qe;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
@@ -40,6 +45,7 @@ import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.ResourceGroupMetricMgr;
 import com.starrocks.mysql.MysqlChannel;
 import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlPacket;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.MysqlSerializer;
@@ -48,6 +54,8 @@ import com.starrocks.plugin.AuditEvent.EventType;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.FrontendOptions;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.ast.KillStmt;
 import com.starrocks.sql.ast.QueryStatement;
 import com.starrocks.sql.ast.StatementBase;
@@ -66,6 +74,7 @@ import java.nio.channels.AsynchronousCloseException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -136,6 +145,8 @@ public class ConnectProcessor {
         ctx.getSerializer().setCapability(ctx.getCapability());
         // reset session variable
         ctx.resetSessionVariable();
+        // prepared statements are deallocated
+        ctx.clearPreparedStmts();
     }
 
     public void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics) {
@@ -363,6 +374,200 @@ public class ConnectProcessor {
         addFinishedQueryDetail();
     }
 
+    // COM_STMT_PREPARE: parse and analyze the statement, send the definitions of parameters and result columns.
+    // https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html
+    private void handleStmtPrepare() throws IOException {
+        String sql = new String(packetBuf.array(), 1, packetBuf.limit() - 1, StandardCharsets.UTF_8);
+        if (ctx.getPreparedStmtNum() >= Config.max_prepared_stmt_count_per_connection) {
+            ctx.getState().setError("Can't create more than max_prepared_stmt_count_per_connection statements " +
+                    "(current value: " + Config.max_prepared_stmt_count_per_connection + ")");
+            return;
+        }
+
+        List<Parameter> parameters = new ArrayList<>();
+        QueryStatement queryStmt;
+        try {
+            StatementBase stmt = com.starrocks.sql.parser.SqlParser.parsePrepareStatement(sql,
+                    ctx.getSessionVariable(), parameters);
+            // the client falls back to COM_QUERY for the other statements
+            if (!(stmt instanceof QueryStatement)) {
+                ctx.getState().setError("This command is not supported in the prepared statement protocol yet");
+                return;
+            }
+            queryStmt = (QueryStatement) stmt;
+            // the values are unknown until execution, analyze with NULL to get the result columns
+            for (Parameter parameter : parameters) {
+                parameter.setValue(new NullLiteral());
+            }
+            StatementPlanner.analyze(queryStmt, ctx);
+        } catch (Exception e) {
+            LOG.warn("Prepare statement failed: {}", sql, e);
+            ctx.getState().setError(e.getMessage());
+            return;
+        }
+
+        List<String> colNames = queryStmt.getQueryRelation().getColumnOutputNames();
+        List<Type> colTypes = new ArrayList<>();
+        for (Expr expr : queryStmt.getQueryRelation().getOutputExpression()) {
+            colTypes.add(expr.getType());
+        }
+        int stmtId = ctx.addPreparedStmt(new PrepareStmtContext(sql, parameters.size(), colNames, colTypes));
+
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        serializer.reset();
+        // status: OK
+        serializer.writeInt1(0x00);
+        serializer.writeInt4(stmtId);
+        serializer.writeInt2(colNames.size());
+        serializer.writeInt2(parameters.size());
+        // filler
+        serializer.writeInt1(0);
+        // warning count
+        serializer.writeInt2(0);
+        channel.sendOnePacket(serializer.toByteBuffer());
+
+        if (!parameters.isEmpty()) {
+            for (int i = 0; i < parameters.size(); i++) {
+                serializer.reset();
+                serializer.writeField("?", Type.VARCHAR);
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            sendEof();
+        }
+        if (!colNames.isEmpty()) {
+            for (int i = 0; i < colNames.size(); i++) {
+                serializer.reset();
+                serializer.writeField(colNames.get(i), colTypes.get(i));
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            sendEof();
+        }
+        // response has been sent
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    private void sendEof() throws IOException {
+        MysqlSerializer serializer = ctx.getSerializer();
+        serializer.reset();
+        MysqlEofPacket eofPacket = new MysqlEofPacket(ctx.getState());
+        eofPacket.writeTo(serializer);
+        ctx.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+    }
+
+    // COM_STMT_EXECUTE: bind the parameters and execute the prepared statement, the result set is sent
+    // in the binary protocol.
+    private void handleStmtExecute() {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPreparedStmt(stmtId);
+        if (prepareStmtContext == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to execute");
+            return;
+        }
+        String originStmt = prepareStmtContext.getSql();
+        ctx.getAuditEventBuilder().reset();
+        ctx.getAuditEventBuilder()
+                .setTimestamp(System.currentTimeMillis())
+                .setClientIp(ctx.getMysqlChannel().getRemoteHostPortString())
+                .setUser(ctx.getQualifiedUser())
+                .setAuthorizedUser(
+                        ctx.getCurrentUserIdentity() == null ? "null" : ctx.getCurrentUserIdentity().toString())
+                .setDb(ctx.getDatabase())
+                .setCatalog(ctx.getCurrentCatalog());
+        ctx.getPlannerProfile().reset();
+
+        executor = null;
+        StatementBase parsedStmt = null;
+        try {
+            ctx.setQueryId(UUIDUtil.genUUID());
+            ctx.getState().reset();
+            List<LiteralExpr> values = prepareStmtContext.readValues(packetBuf);
+            // reuse the statement analyzed by the last execution, only the values of the parameters are changed
+            parsedStmt = prepareStmtContext.bindAnalyzedStmt(values, ctx);
+            if (parsedStmt == null) {
+                List<Parameter> parameters = new ArrayList<>();
+                try {
+                    parsedStmt = com.starrocks.sql.parser.SqlParser.parsePrepareStatement(originStmt,
+                            ctx.getSessionVariable(), parameters);
+                    prepareStmtContext.bind(parameters, values);
+                    StatementPlanner.analyze(parsedStmt, ctx);
+                } catch (ParsingException | SemanticException e) {
+                    throw new AnalysisException(e.getMessage());
+                }
+                prepareStmtContext.setAnalyzedStmt((QueryStatement) parsedStmt, parameters, ctx);
+            }
+            addRunningQueryDetail(parsedStmt);
+
+            executor = new StmtExecutor(ctx, parsedStmt);
+            executor.setParsedStmtAnalyzed();
+            ctx.setExecutor(executor);
+            ctx.setIsLastStmt(true);
+            executor.execute();
+        } catch (IOException e) {
+            // Client failed.
+            LOG.warn("Process one query failed because IOException: ", e);
+            ctx.getState().setError("StarRocks process failed");
+        } catch (UserException e) {
+            LOG.warn("Process one query failed because.", e);
+            ctx.getState().setError(e.getMessage());
+            // set is as ANALYSIS_ERR so that it won't be treated as a query failure.
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+        } catch (Throwable e) {
+            // Catch all throwable.
+            // If reach here, maybe StarRocks bug.
+            LOG.warn("Process one query failed because unknown reason: ", e);
+            ctx.getState().setError("Unexpected exception: " + e.getMessage());
+        } finally {
+            prepareStmtContext.resetLongData();
+        }
+
+        if (executor != null) {
+            auditAfterExec(originStmt, executor.getParsedStmt(), executor.getQueryStatisticsForAuditLog());
+        } else {
+            auditAfterExec(originStmt, null, null);
+        }
+        addFinishedQueryDetail();
+    }
+
+    // COM_STMT_SEND_LONG_DATA: append the data of a parameter, there is no response.
+    private void handleStmtSendLongData() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        int paramId = MysqlProto.readInt2(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPreparedStmt(stmtId);
+        if (prepareStmtContext == null) {
+            LOG.warn("Unknown prepared statement handler ({}) given to send long data", stmtId);
+        } else {
+            try {
+                prepareStmtContext.appendLongData(paramId, MysqlProto.readEofString(packetBuf));
+            } catch (AnalysisException e) {
+                LOG.warn("Failed to send long data of statement {}", stmtId, e);
+                // there is no response, the error is returned by the following COM_STMT_EXECUTE
+                prepareStmtContext.setLongDataError(e.getMessage());
+            }
+        }
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // COM_STMT_RESET: clear the data sent by COM_STMT_SEND_LONG_DATA.
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPreparedStmt(stmtId);
+        if (prepareStmtContext == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to reset");
+            return;
+        }
+        prepareStmtContext.resetLongData();
+        ctx.getState().setOk();
+    }
+
+    // COM_STMT_CLOSE: deallocate the prepared statement, there is no response.
+    private void handleStmtClose() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ctx.removePreparedStmt(stmtId);
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
     // Get the column definitions of a table
     private void handleFieldList() throws IOException {
         // Already get command code.
@@ -443,6 +648,22 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_SEND_LONG_DATA:
+                handleStmtSendLongData();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -517,8 +738,8 @@ public class ConnectProcessor {
         MysqlChannel channel = ctx.getMysqlChannel();
         channel.sendAndFlush(packet);
 
-        // only change lastQueryId when current command is COM_QUERY
-        if (ctx.getCommand() == MysqlCommand.COM_QUERY) {
+        // only change lastQueryId when current command is COM_QUERY or COM_STMT_EXECUTE
+        if (ctx.getCommand() == MysqlCommand.COM_QUERY || ctx.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
             ctx.setLastQueryId(ctx.queryId);
             ctx.setQueryId(null);
         }
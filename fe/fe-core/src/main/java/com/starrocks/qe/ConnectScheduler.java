@@ -54,7 +54,8 @@ public class ConnectScheduler {
     private final Map<Long, ConnectContext> connectionMap = Maps.newConcurrentMap();
     private final Map<String, AtomicInteger> connByUser = Maps.newConcurrentMap();
     private final Map<String, GaugeMetric<Integer>> userConnMetricsCounter = Maps.newConcurrentMap();
-    private final ExecutorService executor = ThreadPoolManager
+    // runs the command loop of the connections accepted by the blocking MysqlServer
+    private ExecutorService executor = ThreadPoolManager
             .newDaemonCacheThreadPool(Config.max_connection_scheduler_threads_num, "connect-scheduler-pool", true);
 
     private static final String CONNECTION_NUM_BY_USER = "connection_total_user";
@@ -95,6 +96,12 @@ public class ConnectScheduler {
         }
     }
 
+    public void setExecutor(ExecutorService executor) {
+        ExecutorService oldExecutor = this.executor;
+        this.executor = executor;
+        oldExecutor.shutdown();
+    }
+
     // submit one MysqlContext to this scheduler.
     // return true, if this connection has been successfully submitted, otherwise return false.
     // Caller should close ConnectContext if return false.
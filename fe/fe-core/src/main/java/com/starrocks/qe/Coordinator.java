@@ -39,11 +39,13 @@ import com.starrocks.common.MarkedCountDownLatch;
 import com.starrocks.common.Pair;
 import com.starrocks.common.Reference;
 import com.starrocks.common.Status;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.CompressionUtils;
 import com.starrocks.common.util.Counter;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.common.util.ListUtil;
+import com.starrocks.common.util.ProfileAggregator;
 import com.starrocks.common.util.RuntimeProfile;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.load.EtlJobType;
@@ -98,6 +100,7 @@ import com.starrocks.thrift.TInternalScanRange;
 import com.starrocks.thrift.TLoadJobType;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPipelineProfileLevel;
+import com.starrocks.thrift.TPlanFragment;
 import com.starrocks.thrift.TPlanFragmentDestination;
 import com.starrocks.thrift.TPlanFragmentExecParams;
 import com.starrocks.thrift.TQueryGlobals;
@@ -136,9 +139,11 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -156,6 +161,11 @@ public class Coordinator {
 
     // Random is used to shuffle instances of partitioned
     private static final Random INSTANCE_RANDOM = new Random();
+
+    // serialize and send the requests of fragment instances in parallel, null if disabled
+    private static final ExecutorService DELIVER_EXECUTOR = Config.query_deliver_threads_num > 0 ?
+            ThreadPoolManager.newDaemonFixedThreadPool(Config.query_deliver_threads_num, 4096,
+                    "query-deliver-pool", true) : null;
     // parallel execute
     private final TUniqueId nextInstanceId;
     // Overall status of the entire query; set to the first reported fragment error
@@ -191,6 +201,10 @@ public class Coordinator {
     private boolean returnedAllResults;
     private RuntimeProfile queryProfile;
     private List<RuntimeProfile> fragmentProfiles;
+    // The final profiles of the instances are merged into the aggregator of the fragment once they are reported,
+    // if mergeProfileIncrementally is true
+    private List<ProfileAggregator> fragmentProfileAggregators;
+    private boolean mergeProfileIncrementally = false;
     // populated in computeFragmentExecParams()
     private final Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap = Maps.newHashMap();
     private final List<PlanFragment> fragments;
@@ -236,6 +250,8 @@ public class Coordinator {
     private EtlJobType etlJobType;
 
     private final boolean usePipeline;
+    // The plan is a point lookup on one tablet, see ExecPlan#isPointLookup
+    private boolean isPointLookup = false;
 
     // Resource group
     ResourceGroup resourceGroup = null;
@@ -289,6 +305,9 @@ public class Coordinator {
         this.forceScheduleLocal = context.getSessionVariable().isForceScheduleLocal();
 
         this.usePipeline = canUsePipeline(this.connectContext, this.fragments);
+        // the isomorphic instance profiles of a statement are merged by mergeIsomorphicProfiles
+        this.mergeProfileIncrementally = usePipeline && needReport &&
+                context.getSessionVariable().getPipelineProfileLevel() < TPipelineProfileLevel.DETAIL.getValue();
     }
 
     // Used for broker export task coordinator
@@ -468,6 +487,10 @@ public class Coordinator {
         this.queryOptions.setLoad_mem_limit(loadMemLimit);
     }
 
+    public void setPointLookup(boolean isPointLookup) {
+        this.isPointLookup = isPointLookup;
+    }
+
     public void setTimeout(int timeout) {
         this.queryOptions.setQuery_timeout(timeout);
     }
@@ -515,9 +538,11 @@ public class Coordinator {
         queryProfile = new RuntimeProfile("Execution Profile " + DebugUtil.printId(queryId));
 
         fragmentProfiles = new ArrayList<>();
+        fragmentProfileAggregators = new ArrayList<>();
         for (int i = 0; i < fragmentSize; i++) {
             fragmentProfiles.add(new RuntimeProfile("Fragment " + i));
             queryProfile.addChild(fragmentProfiles.get(i));
+            fragmentProfileAggregators.add(new ProfileAggregator());
         }
 
         this.idToBackend = GlobalStateMgr.getCurrentSystemInfo().getIdToBackend();
@@ -608,15 +633,19 @@ public class Coordinator {
         // prepare information
         prepare();
 
-        // prepare workgroup
-        this.resourceGroup = prepareResourceGroup(connectContext,
-                queryOptions.getQuery_type() == TQueryType.LOAD ? ResourceGroupClassifier.QueryType.INSERT
-                        : ResourceGroupClassifier.QueryType.SELECT);
+        // prepare workgroup, if it's not prepared before queueing
+        if (resourceGroup == null) {
+            this.resourceGroup = prepareResourceGroup();
+        }
 
         // compute Fragment Instance
-        computeScanRangeAssignment();
+        if (isPointLookup) {
+            computePointLookupFragmentExecParams();
+        } else {
+            computeScanRangeAssignment();
 
-        computeFragmentExecParams();
+            computeFragmentExecParams();
+        }
 
         traceInstance();
 
@@ -644,7 +673,13 @@ public class Coordinator {
         return scanNodes;
     }
 
+    public ResourceGroup getResourceGroup() {
+        return resourceGroup;
+    }
+
     public void exec() throws Exception {
+        // the query is queued by its workgroup
+        this.resourceGroup = prepareResourceGroup();
         QueryQueueManager.getInstance().maybeWait(connectContext, this);
         try (PlannerProfile.ScopedTimer _ = PlannerProfile.getScopedTimer("CoordPrepareExec")) {
             prepareExec();
@@ -655,6 +690,12 @@ public class Coordinator {
         }
     }
 
+    private ResourceGroup prepareResourceGroup() {
+        return prepareResourceGroup(connectContext,
+                queryOptions.getQuery_type() == TQueryType.LOAD ? ResourceGroupClassifier.QueryType.INSERT
+                        : ResourceGroupClassifier.QueryType.SELECT);
+    }
+
     public static ResourceGroup prepareResourceGroup(ConnectContext connect,
             ResourceGroupClassifier.QueryType queryType) {
         ResourceGroup resourceGroup = null;
@@ -852,6 +893,7 @@ public class Coordinator {
                         }
                     }
                     List<Pair<BackendExecState, Future<PExecPlanFragmentResult>>> futures = Lists.newArrayList();
+                    List<BackendExecState> execStates = Lists.newArrayList();
 
                     // This is a load process, and it is the first fragment.
                     // we should add all BackendExecState of this fragment to needCheckBackendExecStates,
@@ -872,7 +914,17 @@ public class Coordinator {
                                         fragment.getFragmentId().asInt(), jobId);
                             }
                         }
-                        futures.add(Pair.create(execState, execState.execRemoteFragmentAsync()));
+                        execStates.add(execState);
+                    }
+                    List<Future<PExecPlanFragmentResult>> sendFutures;
+                    try (PlannerProfile.ScopedTimer _ = PlannerProfile.getScopedTimer("CoordDeliverExec.Send")) {
+                        sendFutures = sendInParallel(execStates.stream()
+                                .<Callable<Future<PExecPlanFragmentResult>>>map(
+                                        execState -> execState::execRemoteFragmentAsync)
+                                .collect(Collectors.toList()));
+                    }
+                    for (int i = 0; i < execStates.size(); i++) {
+                        futures.add(Pair.create(execStates.get(i), sendFutures.get(i)));
                     }
                     for (Pair<BackendExecState, Future<PExecPlanFragmentResult>> pair : futures) {
                         TStatusCode code;
@@ -1169,6 +1221,7 @@ public class Coordinator {
 
                 for (List<Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams>> inflightRequests : inflightRequestsList) {
                     List<Pair<BackendExecState, Future<PExecBatchPlanFragmentsResult>>> futures = Lists.newArrayList();
+                    List<Callable<Future<PExecBatchPlanFragmentsResult>>> senders = Lists.newArrayList();
                     for (Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams> inflightRequest : inflightRequests) {
                         List<BackendExecState> execStates = inflightRequest.first;
                         execStates.forEach(execState -> execState.setInitiated(true));
@@ -1176,8 +1229,14 @@ public class Coordinator {
                         Preconditions.checkState(!execStates.isEmpty());
                         // Just choose any instance ExecState to send the batch RPC request.
                         BackendExecState firstExecState = execStates.get(0);
-                        futures.add(Pair.create(firstExecState,
-                                firstExecState.execRemoteBatchFragmentsAsync(inflightRequest.second)));
+                        senders.add(() -> firstExecState.execRemoteBatchFragmentsAsync(inflightRequest.second));
+                    }
+                    List<Future<PExecBatchPlanFragmentsResult>> sendFutures;
+                    try (PlannerProfile.ScopedTimer _ = PlannerProfile.getScopedTimer("CoordDeliverExec.Send")) {
+                        sendFutures = sendInParallel(senders);
+                    }
+                    for (int i = 0; i < inflightRequests.size(); i++) {
+                        futures.add(Pair.create(inflightRequests.get(i).first.get(0), sendFutures.get(i)));
                     }
 
                     for (Pair<BackendExecState, Future<PExecBatchPlanFragmentsResult>> pair : futures) {
@@ -1230,6 +1289,38 @@ public class Coordinator {
         }
     }
 
+    /**
+     * Run the senders of requests in parallel and return the futures of the rpc results in the same order.
+     * A sender serializes its request to thrift bytes before sending, which costs as much as the size of the
+     * plan and the scan ranges, so it's too slow to run all of them on the coordinator thread for a query with
+     * hundreds of instances.
+     */
+    static <T> List<Future<T>> sendInParallel(List<Callable<Future<T>>> senders) throws Exception {
+        List<Future<T>> results = Lists.newArrayListWithCapacity(senders.size());
+        if (DELIVER_EXECUTOR == null || senders.size() <= 1) {
+            for (Callable<Future<T>> sender : senders) {
+                results.add(sender.call());
+            }
+            return results;
+        }
+
+        List<Future<Future<T>>> sendFutures = Lists.newArrayListWithCapacity(senders.size());
+        for (Callable<Future<T>> sender : senders) {
+            sendFutures.add(DELIVER_EXECUTOR.submit(sender));
+        }
+        for (Future<Future<T>> sendFuture : sendFutures) {
+            try {
+                results.add(sendFuture.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
     private final Map<TNetworkAddress, Integer> hostToNumbers = Maps.newHashMap();
 
     // Compute the fragment instance numbers in every BE for one query
@@ -1694,6 +1785,40 @@ public class Coordinator {
 
     }
 
+    // The plan of a point lookup is a single fragment which scans one tablet, schedule its only instance to
+    // a replica of the tablet directly, without the general scan range assignment and fragment hosts computation.
+    // Only the scheduling is simplified, the instance is still sent by a regular exec_plan_fragment request.
+    private void computePointLookupFragmentExecParams() throws Exception {
+        Preconditions.checkState(fragments.size() == 1 && scanNodes.size() == 1);
+        FragmentExecParams params = fragmentExecParamsMap.get(fragments.get(0).getFragmentId());
+        ScanNode scanNode = scanNodes.get(0);
+        List<TScanRangeLocations> locations = scanNode.getScanRangeLocations(0);
+        Preconditions.checkState(locations.size() == 1);
+        TScanRangeLocations scanRangeLocations = locations.get(0);
+
+        // spread the lookups of a hot tablet over its replicas
+        List<TScanRangeLocation> replicas = scanRangeLocations.getLocations();
+        TScanRangeLocation location = replicas.get(INSTANCE_RANDOM.nextInt(replicas.size()));
+        Reference<Long> backendIdRef = new Reference<>();
+        TNetworkAddress execHostPort = SimpleScheduler.getHost(location.backend_id, replicas, idToBackend,
+                backendIdRef);
+        if (execHostPort == null) {
+            throw new UserException("Backend not found. Check if any backend is down or not. "
+                    + backendInfosString(false));
+        }
+        recordUsedBackend(execHostPort, backendIdRef.getRef());
+
+        TScanRangeParams scanRangeParams = new TScanRangeParams();
+        scanRangeParams.scan_range = scanRangeLocations.scan_range;
+        FInstanceExecParam instanceParam = new FInstanceExecParam(null, execHostPort, 0, params);
+        instanceParam.perNodeScanRanges.put(scanNode.getId().asInt(), Lists.newArrayList(scanRangeParams));
+        params.instanceExecParams.add(instanceParam);
+
+        instanceIds.clear();
+        instanceParam.instanceId = new TUniqueId(queryId.hi, queryId.lo + 1);
+        instanceIds.add(instanceParam.instanceId);
+    }
+
     private void handleMultiCastFragmentParams() throws Exception {
         for (FragmentExecParams params : fragmentExecParamsMap.values()) {
             if (!(params.fragment instanceof MultiCastPlanFragment)) {
@@ -2550,7 +2675,13 @@ public class Coordinator {
             return;
         }
 
-        for (RuntimeProfile fragmentProfile : fragmentProfiles) {
+        for (int i = 0; i < fragmentProfiles.size(); i++) {
+            RuntimeProfile fragmentProfile = fragmentProfiles.get(i);
+            ProfileAggregator aggregator = fragmentProfileAggregators.get(i);
+            if (aggregator.getNumProfiles() > 0) {
+                mergeAggregatedProfiles(fragmentProfile, aggregator);
+                continue;
+            }
             if (fragmentProfile.getChildList().isEmpty()) {
                 continue;
             }
@@ -2654,6 +2785,24 @@ public class Coordinator {
         executionTotalTime.setValue(executionTime);
     }
 
+    // Replace the instance profiles of the fragment with the profile merged incrementally by the aggregator
+    private void mergeAggregatedProfiles(RuntimeProfile fragmentProfile, ProfileAggregator aggregator) {
+        fragmentProfile.addInfoString("BackendAddresses", String.join(",", aggregator.getAddresses()));
+        Counter counter = fragmentProfile.addCounter("InstanceNum", TUnit.UNIT);
+        counter.setValue(aggregator.getNumProfiles());
+
+        RuntimeProfile mergedProfile = aggregator.build(fragmentProfile.getName());
+        fragmentProfile.copyAllInfoStringsFrom(mergedProfile);
+        fragmentProfile.copyAllCountersFrom(mergedProfile);
+
+        fragmentProfile.removeAllChildren();
+        mergedProfile.getChildList().forEach(pair -> {
+            RuntimeProfile pipelineProfile = pair.first;
+            foldUnnecessaryLimitOperators(pipelineProfile);
+            fragmentProfile.addChild(pipelineProfile);
+        });
+    }
+
     /**
      * Remove unnecessary LimitOperator, which has same input rows and output rows
      * to keep the profile concise
@@ -2865,7 +3014,15 @@ public class Coordinator {
                 return false;
             }
             if (params.isSetProfile()) {
-                profile.update(params.profile);
+                if (params.done && mergeProfileIncrementally && profileFragmentId >= 0 &&
+                        profileFragmentId < fragmentProfileAggregators.size()) {
+                    // the final profile is merged at once, and the profile tree of this instance is not kept
+                    fragmentProfileAggregators.get(profileFragmentId)
+                            .add(params.profile, profile.getInfoString("Address"));
+                    profile.removeAllChildren();
+                } else {
+                    profile.update(params.profile);
+                }
             }
             this.done = params.done;
             return true;
@@ -3059,6 +3216,9 @@ public class Coordinator {
         public FragmentScanRangeAssignment scanRangeAssignment = new FragmentScanRangeAssignment();
         TRuntimeFilterParams runtimeFilterParams = new TRuntimeFilterParams();
         public boolean bucketSeqToInstanceForFilterIsSet = false;
+        // the thrift plan of the fragment, shared by the common params of the batch requests, it's read only.
+        // A non-batch request sets the unique fields of its instance to the fragment, so it takes a copy
+        private TPlanFragment tFragment;
 
         public FragmentExecParams(PlanFragment fragment) {
             this.fragment = fragment;
@@ -3095,7 +3255,10 @@ public class Coordinator {
                                              boolean isEnablePipelineEngine, int tabletSinkTotalDop) {
             boolean enablePipelineTableSinkDop = isEnablePipelineEngine && fragment.hasOlapTableSink();
             commonParams.setProtocol_version(InternalServiceVersion.V1);
-            commonParams.setFragment(fragment.toThrift());
+            if (tFragment == null) {
+                tFragment = fragment.toThrift();
+            }
+            commonParams.setFragment(tFragment);
             commonParams.setDesc_tbl(descTable);
             commonParams.setFunc_version(4);
             commonParams.setCoord(coordAddress);
@@ -3187,6 +3350,9 @@ public class Coordinator {
             }
             if (!uniqueParams.isSetFragment()) {
                 uniqueParams.setFragment(fragment.toThriftForUniqueFields());
+            } else if (fragment.getSink() instanceof ExportSink) {
+                // the fragment is copied from the shared one, which has the file name prefix of no instance
+                uniqueParams.getFragment().setOutput_sink(fragment.toThriftForUniqueFields().getOutput_sink());
             }
             /*
              * For MultiCastDataFragment, output only send to local, and the instance is keep
@@ -3284,6 +3450,7 @@ public class Coordinator {
 
                 toThriftForCommonParams(params, instanceExecParam.getHost(), descTable, enablePipelineEngine, 
                         tabletSinkTotalDop);
+                params.setFragment(new TPlanFragment(tFragment));
                 toThriftForUniqueParams(params, i, instanceExecParam, enablePipelineEngine,
                         accTabletSinkDop, curTabletSinkDop);
 
@@ -0,0 +1,297 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.FloatLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.sql.PlanCache;
+import com.starrocks.sql.ast.QueryStatement;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A statement prepared by COM_STMT_PREPARE, the values of its parameters are decoded from the payload of
+ * every COM_STMT_EXECUTE.
+ * The statement analyzed by an execution is kept, the next execution only binds its values to the parameters
+ * of the analyzed statement if they have the same types, and the database, the session variables and the
+ * referenced tables are unchanged. Otherwise the statement is parsed and analyzed again.
+ * https://dev.mysql.com/doc/internals/en/com-stmt-execute.html
+ */
+public class PrepareStmtContext {
+    // the flag of parameter type, the parameter is unsigned
+    private static final int UNSIGNED_FLAG = 0x8000;
+
+    private final String sql;
+    private final int numParams;
+    private final List<String> colNames;
+    private final List<Type> colTypes;
+    // the client only sends the parameter types on the first execution, keep them for the following executions
+    private final int[] parameterTypes;
+    // the data sent by COM_STMT_SEND_LONG_DATA, it is cleared after execution
+    private final ByteArrayOutputStream[] longData;
+    // COM_STMT_SEND_LONG_DATA has no response, its error is returned by the following execution
+    private String longDataError;
+
+    // the statement analyzed by the last execution, the types of its values and what the analysis depends on
+    private QueryStatement analyzedStmt;
+    private List<Parameter> analyzedParameters;
+    private List<Type> analyzedTypes;
+    private List<Object> analyzedEnv;
+    private Map<Long, Long> analyzedTableSignatures;
+
+    public PrepareStmtContext(String sql, int numParams, List<String> colNames, List<Type> colTypes) {
+        this.sql = sql;
+        this.numParams = numParams;
+        this.colNames = colNames;
+        this.colTypes = colTypes;
+        this.parameterTypes = new int[numParams];
+        this.longData = new ByteArrayOutputStream[numParams];
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getNumParams() {
+        return numParams;
+    }
+
+    public List<String> getColNames() {
+        return colNames;
+    }
+
+    public List<Type> getColTypes() {
+        return colTypes;
+    }
+
+    public void appendLongData(int paramId, byte[] data) throws AnalysisException {
+        if (paramId < 0 || paramId >= numParams) {
+            throw new AnalysisException("Invalid parameter id " + paramId);
+        }
+        if (longData[paramId] == null) {
+            longData[paramId] = new ByteArrayOutputStream();
+        }
+        longData[paramId].write(data, 0, data.length);
+    }
+
+    public void setLongDataError(String longDataError) {
+        this.longDataError = longDataError;
+    }
+
+    public void resetLongData() {
+        Arrays.fill(longData, null);
+        longDataError = null;
+    }
+
+    /**
+     * Bind the parameters to the values from the payload of COM_STMT_EXECUTE, the statement id has been read.
+     */
+    public void bind(ByteBuffer payload, List<Parameter> parameters) throws AnalysisException {
+        bind(parameters, readValues(payload));
+    }
+
+    public void bind(List<Parameter> parameters, List<LiteralExpr> values) throws AnalysisException {
+        if (parameters.size() != numParams) {
+            throw new AnalysisException("Expect " + numParams + " parameters, but got " + parameters.size());
+        }
+        for (int i = 0; i < numParams; i++) {
+            parameters.get(i).setValue(values.get(i));
+        }
+    }
+
+    /**
+     * Read the values of the parameters from the payload of COM_STMT_EXECUTE, the statement id has been read.
+     * flags(1), iteration count(4), null bitmap((n + 7) / 8), new params bound flag(1),
+     * types(2 * n, only if new params bound flag is 1), values.
+     */
+    public List<LiteralExpr> readValues(ByteBuffer payload) throws AnalysisException {
+        if (longDataError != null) {
+            throw new AnalysisException(longDataError);
+        }
+        // flags, cursor is not supported
+        MysqlProto.readInt1(payload);
+        // iteration count, always 1
+        MysqlProto.readInt4(payload);
+
+        List<LiteralExpr> values = new ArrayList<>(numParams);
+        if (numParams == 0) {
+            return values;
+        }
+        byte[] nullBitmap = MysqlProto.readFixedString(payload, (numParams + 7) / 8);
+        boolean newParamsBound = MysqlProto.readInt1(payload) == 1;
+        if (newParamsBound) {
+            for (int i = 0; i < numParams; i++) {
+                parameterTypes[i] = MysqlProto.readInt2(payload);
+            }
+        }
+
+        for (int i = 0; i < numParams; i++) {
+            LiteralExpr value;
+            if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                value = new NullLiteral();
+            } else if (longData[i] != null) {
+                value = new StringLiteral(new String(longData[i].toByteArray(), StandardCharsets.UTF_8));
+            } else {
+                value = readValue(payload, parameterTypes[i]);
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * Bind the values to the statement analyzed by the last execution, return null if it can't be reused
+     */
+    public QueryStatement bindAnalyzedStmt(List<LiteralExpr> values, ConnectContext ctx) {
+        if (analyzedStmt == null || !analyzedTypes.equals(getTypes(values))
+                || !Objects.equals(analyzedEnv, getEnv(ctx))) {
+            return null;
+        }
+        for (int i = 0; i < numParams; i++) {
+            analyzedParameters.get(i).setValue(values.get(i));
+        }
+        // the metadata of the tables may be changed after analysis
+        if (!analyzedTableSignatures.equals(PlanCache.getTableSignatures(analyzedStmt, ctx))) {
+            analyzedStmt = null;
+            return null;
+        }
+        return analyzedStmt;
+    }
+
+    public void setAnalyzedStmt(QueryStatement stmt, List<Parameter> parameters, ConnectContext ctx) {
+        analyzedStmt = null;
+        Map<Long, Long> tableSignatures = PlanCache.getTableSignatures(stmt, ctx);
+        List<Object> env = getEnv(ctx);
+        if (tableSignatures == null) {
+            return;
+        }
+        List<LiteralExpr> values = new ArrayList<>(parameters.size());
+        for (Parameter parameter : parameters) {
+            values.add(parameter.getValue());
+        }
+        analyzedStmt = stmt;
+        analyzedParameters = parameters;
+        analyzedTypes = getTypes(values);
+        analyzedEnv = env;
+        analyzedTableSignatures = tableSignatures;
+    }
+
+    private static List<Type> getTypes(List<LiteralExpr> values) {
+        List<Type> types = new ArrayList<>(values.size());
+        for (LiteralExpr value : values) {
+            types.add(value.getType());
+        }
+        return types;
+    }
+
+    // the environment that the analysis depends on
+    private static List<Object> getEnv(ConnectContext ctx) {
+        return Arrays.asList(ctx.getCurrentCatalog(), ctx.getDatabase(), ctx.getSessionVariable().getVariableValues());
+    }
+
+    private static LiteralExpr readValue(ByteBuffer payload, int parameterType) throws AnalysisException {
+        boolean unsigned = (parameterType & UNSIGNED_FLAG) != 0;
+        int code = parameterType & 0xFF;
+        if (code == MysqlColType.MYSQL_TYPE_TINY.getCode()) {
+            // the type of an integer follows the parameter type instead of the value, so the values of
+            // the following executions have the same type, and the analyzed statement is reused
+            int value = MysqlProto.readInt1(payload);
+            return unsigned ? new IntLiteral(value, Type.SMALLINT) : new IntLiteral((byte) value, Type.TINYINT);
+        } else if (code == MysqlColType.MYSQL_TYPE_SHORT.getCode() || code == MysqlColType.MYSQL_TYPE_YEAR.getCode()) {
+            int value = MysqlProto.readInt2(payload);
+            return unsigned ? new IntLiteral(value, Type.INT) : new IntLiteral((short) value, Type.SMALLINT);
+        } else if (code == MysqlColType.MYSQL_TYPE_LONG.getCode() || code == MysqlColType.MYSQL_TYPE_INT24.getCode()) {
+            int value = MysqlProto.readInt4(payload);
+            return unsigned ? new IntLiteral(value & 0xFFFFFFFFL, Type.BIGINT) : new IntLiteral(value, Type.INT);
+        } else if (code == MysqlColType.MYSQL_TYPE_LONGLONG.getCode()) {
+            long value = MysqlProto.readInt8(payload);
+            if (unsigned && value < 0) {
+                return new LargeIntLiteral(Long.toUnsignedString(value));
+            }
+            return new IntLiteral(value, Type.BIGINT);
+        } else if (code == MysqlColType.MYSQL_TYPE_FLOAT.getCode()) {
+            return new FloatLiteral((double) Float.intBitsToFloat(MysqlProto.readInt4(payload)), Type.FLOAT);
+        } else if (code == MysqlColType.MYSQL_TYPE_DOUBLE.getCode()) {
+            return new FloatLiteral(Double.longBitsToDouble(MysqlProto.readInt8(payload)), Type.DOUBLE);
+        } else if (code == MysqlColType.MYSQL_TYPE_DATE.getCode() ||
+                code == MysqlColType.MYSQL_TYPE_DATETIME.getCode() ||
+                code == MysqlColType.MYSQL_TYPE_TIMESTAMP.getCode()) {
+            return readDatetime(payload, code == MysqlColType.MYSQL_TYPE_DATE.getCode());
+        } else if (code == MysqlColType.MYSQL_TYPE_TIME.getCode()) {
+            return new StringLiteral(readTime(payload));
+        } else if (code == MysqlColType.MYSQL_TYPE_NEWDECIMAL.getCode() ||
+                code == MysqlColType.MYSQL_TYPE_DECIMAL.getCode()) {
+            return new DecimalLiteral(new String(MysqlProto.readLenEncodedString(payload), StandardCharsets.UTF_8));
+        } else if (code == MysqlColType.MYSQL_TYPE_NULL.getCode()) {
+            return new NullLiteral();
+        } else {
+            // string, blob and the other types are sent as length encoded string
+            return new StringLiteral(new String(MysqlProto.readLenEncodedString(payload), StandardCharsets.UTF_8));
+        }
+    }
+
+    // length(1), year(2), month(1), day(1), hour(1), minute(1), second(1), microsecond(4)
+    private static LiteralExpr readDatetime(ByteBuffer payload, boolean isDate) throws AnalysisException {
+        int length = MysqlProto.readInt1(payload);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(payload);
+            month = MysqlProto.readInt1(payload);
+            day = MysqlProto.readInt1(payload);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(payload);
+            minute = MysqlProto.readInt1(payload);
+            second = MysqlProto.readInt1(payload);
+        }
+        if (length >= 11) {
+            // microsecond is not supported by DateLiteral
+            MysqlProto.readInt4(payload);
+        }
+        if (isDate) {
+            return new DateLiteral(String.format("%04d-%02d-%02d", year, month, day), Type.DATE);
+        }
+        return new DateLiteral(String.format("%04d-%02d-%02d %02d:%02d:%02d", year, month, day, hour, minute, second),
+                Type.DATETIME);
+    }
+
+    // length(1), is negative(1), days(4), hour(1), minute(1), second(1), microsecond(4)
+    private static String readTime(ByteBuffer payload) {
+        int length = MysqlProto.readInt1(payload);
+        if (length == 0) {
+            return "00:00:00";
+        }
+        boolean negative = MysqlProto.readInt1(payload) == 1;
+        long days = MysqlProto.readInt4(payload) & 0xFFFFFFFFL;
+        int hour = MysqlProto.readInt1(payload);
+        int minute = MysqlProto.readInt1(payload);
+        int second = MysqlProto.readInt1(payload);
+        if (length >= 12) {
+            MysqlProto.readInt4(payload);
+        }
+        return String.format("%s%02d:%02d:%02d", negative ? "-" : "", days * 24 + hour, minute, second);
+    }
+}
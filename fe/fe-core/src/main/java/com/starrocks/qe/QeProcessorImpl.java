@@ -87,8 +87,12 @@ public final class QeProcessorImpl implements QeProcessor {
 
     @Override
     public void unregisterQuery(TUniqueId queryId) {
-        if (coordinatorMap.remove(queryId) != null) {
+        QueryInfo info = coordinatorMap.remove(queryId);
+        if (info != null) {
             LOG.info("deregister query id {}", DebugUtil.printId(queryId));
+            if (info.getCoord() != null) {
+                QueryQueueManager.getInstance().releaseQuery(info.getCoord());
+            }
         }
     }
 
@@ -23,6 +23,7 @@ package com.starrocks.qe;
 
 import com.google.common.base.Strings;
 import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.mysql.MysqlServer;
 import com.starrocks.mysql.nio.NMysqlServer;
 import com.starrocks.mysql.ssl.SSLChannelImpClassLoader;
@@ -34,6 +35,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.KeyStore;
 import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 
@@ -48,6 +50,17 @@ public class QeService {
                 && SSLChannelImpClassLoader.loadSSLChannelImpClazz() != null) {
             sslContext = createSSLContext();
         }
+        if (Config.mysql_service_virtual_thread_enabled) {
+            ExecutorService executor = ThreadPoolManager.newVirtualThreadPerTaskExecutor("connect-scheduler-virtual");
+            if (executor != null) {
+                // every connection blocks on its own virtual thread, so the blocking server is used
+                scheduler.setExecutor(executor);
+                nioEnabled = false;
+                LOG.info("mysql connections are handled by virtual threads");
+            } else {
+                LOG.warn("mysql_service_virtual_thread_enabled is ignored, virtual thread is not supported");
+            }
+        }
         if (nioEnabled) {
             mysqlServer = new NMysqlServer(port, scheduler, sslContext);
         } else {
@@ -3,42 +3,87 @@
 package com.starrocks.qe;
 
 import com.google.common.base.Preconditions;
+import com.starrocks.catalog.ResourceGroup;
+import com.starrocks.catalog.ResourceGroupMgr;
 import com.starrocks.common.UserException;
+import com.starrocks.metric.ResourceGroupMetricMgr;
+import com.starrocks.planner.AggregationNode;
+import com.starrocks.planner.AnalyticEvalNode;
 import com.starrocks.planner.DataSink;
+import com.starrocks.planner.HashJoinNode;
 import com.starrocks.planner.MysqlTableSink;
 import com.starrocks.planner.OlapTableSink;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.planner.SchemaScanNode;
+import com.starrocks.planner.SortNode;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.system.ComputeNode;
+import com.starrocks.thrift.TWorkGroupType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * QueryQueueManager queues the queries when BEs are overloaded, and admits them when the resources are released.
+ * <p>
+ * The pending queries are divided by resource group, and by priority inside a resource group. A query is enqueued
+ * without holding the lock, and the queries are admitted in the following order under the lock:
+ * 1. The query of higher priority first, queries of the short query resource group are of HIGH priority,
+ * and statistic queries are of LOW priority.
+ * 2. For the same priority, the resource groups are weighted fair by their cpu_core_limit, that is, the resource
+ * group with the smallest virtual time first, and the virtual time of the resource group increases 1/weight after
+ * one of its query is admitted. The weights are refreshed from the resource groups in every admission pass, and
+ * the empty queues of the dropped resource groups are removed.
+ * 3. For the same resource group, the query enqueued earlier first.
+ * <p>
+ * Besides the resource usage reported by BEs, the sum of the memory estimated by the planner for the admitted
+ * queries cannot exceed `query_queue_mem_used_pct_limit` of the memory limit of all the BEs, because the queries
+ * admitted after the last report are not counted in the reported memory usage.
+ */
 public class QueryQueueManager {
     private static final Logger LOG = LogManager.getLogger(QueryQueueManager.class);
 
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
     private static class PendingQueryInfo {
         private final Coordinator coordinator;
         private final ConnectContext connectCtx;
         private final ReentrantLock lock;
         private final Condition condition;
+        private final Priority priority;
+        // set when the query is enqueued
+        private GroupQueue groupQueue;
+        private final long estimatedMemBytes;
         private boolean isCancelled = false;
+        private boolean isAdmitted = false;
 
-        private PendingQueryInfo(ConnectContext connectCtx, ReentrantLock lock, Coordinator coordinator) {
+        private PendingQueryInfo(ConnectContext connectCtx, ReentrantLock lock, Coordinator coordinator,
+                                 Priority priority, long estimatedMemBytes) {
             Preconditions.checkState(connectCtx != null);
             this.coordinator = coordinator;
             this.connectCtx = connectCtx;
             this.lock = lock;
             this.condition = this.lock.newCondition();
+            this.priority = priority;
+            this.estimatedMemBytes = estimatedMemBytes;
         }
 
         public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
@@ -58,6 +103,49 @@ public class QueryQueueManager {
         }
     }
 
+    // The pending queries of a resource group
+    private static class GroupQueue {
+        private final String name;
+        private final Queue<PendingQueryInfo>[] queues;
+        // protected by the lock of QueryQueueManager
+        private int weight;
+        private double virtualTime = 0;
+
+        @SuppressWarnings("unchecked")
+        private GroupQueue(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+            this.queues = new Queue[Priority.values().length];
+            for (int i = 0; i < queues.length; i++) {
+                queues[i] = new ConcurrentLinkedQueue<>();
+            }
+        }
+
+        private boolean isEmpty() {
+            for (Queue<PendingQueryInfo> queue : queues) {
+                if (!queue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int getWeight(ResourceGroup group) {
+        return group == null || group.getCpuCoreLimit() == null ? 1 : Math.max(1, group.getCpuCoreLimit());
+    }
+
+    // The memory estimated for an admitted query, it's released when the query is finished or timeout
+    private static class RunningQueryInfo {
+        private final long estimatedMemBytes;
+        private final long deadlineMs;
+
+        private RunningQueryInfo(long estimatedMemBytes, long deadlineMs) {
+            this.estimatedMemBytes = estimatedMemBytes;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+
     private static class SingletonHolder {
         private static final QueryQueueManager INSTANCE = new QueryQueueManager();
     }
@@ -67,9 +155,15 @@ public class QueryQueueManager {
     }
 
     private static final long CHECK_INTERVAL_MS = 1000L;
+    private static final String DEFAULT_GROUP_NAME = "default_wg";
 
     private final ReentrantLock lock = new ReentrantLock();
     private final Map<ConnectContext, PendingQueryInfo> pendingQueryInfoMap = new ConcurrentHashMap<>();
+    private final AtomicInteger numPendingQueries = new AtomicInteger(0);
+    private final Map<String, GroupQueue> groupQueues = new ConcurrentHashMap<>();
+    private final Map<Coordinator, RunningQueryInfo> runningQueries = new ConcurrentHashMap<>();
+    // the virtual time of the last admitted query, protected by lock
+    private double systemVirtualTime = 0;
 
     public void cancelQuery(ConnectContext connectCtx) {
         if (connectCtx == null) {
@@ -110,30 +204,62 @@ public class QueryQueueManager {
         if (!needCheckQueue(coord)) {
             return;
         }
-        if (!enableCheckQueue(coord) || canRunMore()) {
+        if (!enableCheckQueue(coord)) {
             return;
         }
 
+        long estimatedMemBytes = estimateMemBytes(coord);
+        if (numPendingQueries.get() == 0 && canRunMore()) {
+            try {
+                lock.lock();
+                if (numPendingQueries.get() == 0 && canRunMore() && canAdmitMemAfterLock(estimatedMemBytes)) {
+                    admitAfterLock(connectCtx, coord, estimatedMemBytes);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (!tryIncreasePending()) {
+            ResourceGroupMetricMgr.increaseQueueRejected(connectCtx);
+            throw new UserException("Need be queued but exceed query queue capacity");
+        }
+
         long startMs = System.currentTimeMillis();
         long timeoutMs;
-        PendingQueryInfo info = new PendingQueryInfo(connectCtx, lock, coord);
+        ResourceGroup group = coord.getResourceGroup();
+        String groupName = group == null || group.getName() == null ? DEFAULT_GROUP_NAME : group.getName();
+        PendingQueryInfo info = new PendingQueryInfo(connectCtx, lock, coord, getPriority(coord), estimatedMemBytes);
+        info.connectCtx.setPending(true);
+        pendingQueryInfoMap.put(info.connectCtx, info);
+        // offer in compute, so the queue isn't removed as an empty queue of a dropped group at the same time
+        GroupQueue groupQueue = groupQueues.compute(groupName, (name, queue) -> {
+            if (queue == null) {
+                queue = new GroupQueue(name, getWeight(group));
+            }
+            queue.queues[info.priority.ordinal()].offer(info);
+            info.groupQueue = queue;
+            return queue;
+        });
+        ResourceGroupMetricMgr.updateQueuePending(connectCtx, 1);
 
+        boolean isTimeout = false;
         try {
             lock.lock();
-            if (!enableCheckQueue(coord) || canRunMore()) {
-                return;
-            }
+            maybeNotifyAfterLock();
 
-            if (!canQueueMore()) {
-                throw new UserException("Need be queued but exceed query queue capacity");
-            }
-            info.connectCtx.setPending(true);
-            pendingQueryInfoMap.put(info.connectCtx, info);
+            while (!info.isAdmitted) {
+                if (!enableCheckQueue(coord)) {
+                    // the query queue is disabled
+                    admitAfterLock(connectCtx, coord, estimatedMemBytes);
+                    break;
+                }
 
-            while (enableCheckQueue(coord) && !canRunMore()) {
                 timeoutMs = startMs + GlobalVariable.getQueryQueuePendingTimeoutSecond() * 1000L;
                 long currentMs = System.currentTimeMillis();
                 if (currentMs >= timeoutMs) {
+                    isTimeout = true;
                     throw new UserException("Pending timeout");
                 }
 
@@ -142,28 +268,143 @@ public class QueryQueueManager {
                 if (info.isCancelled) {
                     throw new UserException("Cancelled");
                 }
+                if (!info.isAdmitted) {
+                    maybeNotifyAfterLock();
+                }
             }
         } finally {
-            info.connectCtx.auditEventBuilder.setPendingTimeMs(System.currentTimeMillis() - startMs);
+            long pendingMs = System.currentTimeMillis() - startMs;
+            info.connectCtx.auditEventBuilder.setPendingTimeMs(pendingMs);
             info.connectCtx.setPending(false);
             pendingQueryInfoMap.remove(info.connectCtx);
+            groupQueue.queues[info.priority.ordinal()].remove(info);
+            numPendingQueries.decrementAndGet();
+            ResourceGroupMetricMgr.updateQueuePending(connectCtx, -1);
+            ResourceGroupMetricMgr.updateQueueWaitTime(connectCtx, pendingMs);
+            if (isTimeout) {
+                ResourceGroupMetricMgr.increaseQueueRejected(connectCtx);
+            }
 
             lock.unlock();
         }
     }
 
+    private boolean tryIncreasePending() {
+        while (true) {
+            int current = numPendingQueries.get();
+            if (GlobalVariable.isQueryQueueMaxQueuedQueriesEffective() &&
+                    current >= GlobalVariable.getQueryQueueMaxQueuedQueries()) {
+                return false;
+            }
+            if (numPendingQueries.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
     // Public for test.
     public void maybeNotifyAfterLock() {
         Preconditions.checkState(lock.isHeldByCurrentThread());
 
+        refreshGroupQueuesAfterLock();
         if (pendingQueryInfoMap.isEmpty()) {
             return;
         }
-        if (canRunMore()) {
-            for (PendingQueryInfo queryInfo : pendingQueryInfoMap.values()) {
-                queryInfo.signalAfterLock();
+        while (canRunMore()) {
+            PendingQueryInfo next = peekNextAfterLock();
+            if (next == null || !canAdmitMemAfterLock(next.estimatedMemBytes)) {
+                // don't admit the following queries to keep the order
+                return;
+            }
+
+            GroupQueue groupQueue = next.groupQueue;
+            groupQueue.queues[next.priority.ordinal()].remove(next);
+            systemVirtualTime = Math.max(groupQueue.virtualTime, systemVirtualTime);
+            groupQueue.virtualTime = systemVirtualTime + 1.0 / groupQueue.weight;
+
+            next.isAdmitted = true;
+            admitAfterLock(next.connectCtx, next.coordinator, next.estimatedMemBytes);
+            next.signalAfterLock();
+        }
+    }
+
+    // Refresh the weights by the current resource groups, and remove the empty queues of the dropped groups
+    private void refreshGroupQueuesAfterLock() {
+        ResourceGroupMgr resourceGroupMgr = GlobalStateMgr.getCurrentState().getResourceGroupMgr();
+        for (GroupQueue groupQueue : groupQueues.values()) {
+            if (groupQueue.name.equals(DEFAULT_GROUP_NAME)) {
+                continue;
+            }
+            ResourceGroup group = resourceGroupMgr.getResourceGroup(groupQueue.name);
+            if (group == null) {
+                groupQueues.computeIfPresent(groupQueue.name, (name, queue) -> queue.isEmpty() ? null : queue);
+            } else {
+                groupQueue.weight = getWeight(group);
+            }
+        }
+    }
+
+    // Return the next query to admit, or null if there is no pending query
+    private PendingQueryInfo peekNextAfterLock() {
+        for (Priority priority : Priority.values()) {
+            PendingQueryInfo next = null;
+            double nextVirtualTime = Double.MAX_VALUE;
+            for (GroupQueue groupQueue : groupQueues.values()) {
+                PendingQueryInfo head = groupQueue.queues[priority.ordinal()].peek();
+                if (head == null || head.isCancelled) {
+                    continue;
+                }
+                // an idle resource group doesn't accumulate the virtual time
+                double virtualTime = Math.max(groupQueue.virtualTime, systemVirtualTime);
+                if (virtualTime < nextVirtualTime) {
+                    next = head;
+                    nextVirtualTime = virtualTime;
+                }
+            }
+            if (next != null) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    private void admitAfterLock(ConnectContext connectCtx, Coordinator coord, long estimatedMemBytes) {
+        long timeoutMs = connectCtx.getSessionVariable().getQueryTimeoutS() * 1000L;
+        runningQueries.put(coord, new RunningQueryInfo(estimatedMemBytes, System.currentTimeMillis() + timeoutMs));
+    }
+
+    private boolean canAdmitMemAfterLock(long estimatedMemBytes) {
+        if (!GlobalVariable.isQueryQueueMemUsedPctLimitEffective() || estimatedMemBytes <= 0) {
+            return true;
+        }
+        long memLimitBytes = GlobalStateMgr.getCurrentSystemInfo().getBackends().stream()
+                .filter(ComputeNode::isAvailable)
+                .mapToLong(ComputeNode::getMemLimitBytes).sum();
+        if (memLimitBytes <= 0) {
+            return true;
+        }
+
+        long currentMs = System.currentTimeMillis();
+        long admittedMemBytes = 0;
+        Iterator<RunningQueryInfo> iter = runningQueries.values().iterator();
+        while (iter.hasNext()) {
+            RunningQueryInfo running = iter.next();
+            if (currentMs > running.deadlineMs) {
+                // the query isn't released, it must be finished
+                iter.remove();
+            } else {
+                admittedMemBytes += running.estimatedMemBytes;
             }
         }
+        // always admit a query if no query is running, even if its estimation is too large
+        return admittedMemBytes == 0 ||
+                admittedMemBytes + estimatedMemBytes <= memLimitBytes * GlobalVariable.getQueryQueueMemUsedPctLimit();
+    }
+
+    public void releaseQuery(Coordinator coord) {
+        if (runningQueries.remove(coord) != null && numPendingQueries.get() > 0) {
+            maybeNotify();
+        }
     }
 
     public void maybeNotify() {
@@ -208,13 +449,60 @@ public class QueryQueueManager {
                 .noneMatch(ComputeNode::isResourceOverloaded);
     }
 
-    private boolean canQueueMore() {
-        return !GlobalVariable.isQueryQueueMaxQueuedQueriesEffective() ||
-                pendingQueryInfoMap.size() < GlobalVariable.getQueryQueueMaxQueuedQueries();
+    public static Priority getPriority(Coordinator coord) {
+        ResourceGroup group = coord.getResourceGroup();
+        if (group != null && group.getResourceGroupType() == TWorkGroupType.WG_SHORT_QUERY) {
+            return Priority.HIGH;
+        }
+        List<PlanFragment> fragments = coord.getFragments();
+        if (!fragments.isEmpty() && fragments.get(0).getSink() instanceof ResultSink &&
+                ((ResultSink) fragments.get(0).getSink()).isStatisticSink()) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Estimate the memory of a query by the cardinality and row size estimated by the planner, only the
+     * operators which keep all of their input in memory are counted.
+     */
+    public static long estimateMemBytes(Coordinator coord) {
+        long bytes = 0;
+        for (PlanFragment fragment : coord.getFragments()) {
+            bytes += estimateMemBytes(fragment.getPlanRoot());
+        }
+        return bytes;
+    }
+
+    private static long estimateMemBytes(PlanNode node) {
+        if (node == null) {
+            return 0;
+        }
+        long bytes = 0;
+        if (node instanceof HashJoinNode) {
+            // the hash table is built by the right child
+            bytes += estimateNodeBytes(node.getChild(1));
+        } else if (node instanceof AggregationNode || node instanceof SortNode || node instanceof AnalyticEvalNode) {
+            bytes += estimateNodeBytes(node);
+        }
+        for (PlanNode child : node.getChildren()) {
+            bytes += estimateMemBytes(child);
+        }
+        return bytes;
+    }
+
+    private static long estimateNodeBytes(PlanNode node) {
+        if (node.getCardinality() <= 0) {
+            return 0;
+        }
+        return (long) (node.getCardinality() * (double) node.getAvgRowSize());
     }
 
     public int numPendingQueries() {
         return pendingQueryInfoMap.size();
     }
 
+    public int numRunningQueries() {
+        return runningQueries.size();
+    }
 }
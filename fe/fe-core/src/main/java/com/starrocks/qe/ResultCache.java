@@ -0,0 +1,211 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.starrocks.common.Config;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.sql.PlanCache;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.thrift.TResultSinkType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ResultCache keeps the result rows of query statements in FE, a repeated query whose scanned partitions
+ * are not changed is answered without executing on BE.
+ * <p>
+ * The key is the key of plan cache, that is the normalized statement, literal values, current database and
+ * session variables, plus the signatures of the referenced tables and the visible versions of all scanned
+ * partitions. A load or delete publishes a new version of the partition, so the result cached for the old
+ * version is never hit again and is evicted as the least recently used. Only the queries that scan native
+ * OLAP tables and contain no non-deterministic functions are cached.
+ * <p>
+ * The rows are kept in the text protocol sent by BE, and the total size is bounded by
+ * `result_cache_max_bytes`.
+ */
+public class ResultCache {
+    private static final ResultCache INSTANCE = new ResultCache();
+
+    // bytes of the fixed overhead of one cached row
+    private static final int ROW_OVERHEAD_BYTES = 16;
+
+    private final Cache<CacheKey, CachedResult> cache;
+
+    private ResultCache() {
+        this(Config.result_cache_max_bytes);
+    }
+
+    ResultCache(long maxBytes) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<CacheKey, CachedResult>weigher((key, result) -> (int) Math.min(Integer.MAX_VALUE, result.bytes))
+                // evict in the caller thread, so the used bytes are accurate after put
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    public static ResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled(ConnectContext session) {
+        return session.getSessionVariable().isEnableResultCache();
+    }
+
+    /**
+     * Build the cache key of a planned query statement, return null if the result is not cacheable
+     */
+    public static CacheKey createKey(QueryStatement stmt, ExecPlan execPlan, ConnectContext session) {
+        if (execPlan.getScanNodes().isEmpty()) {
+            return null;
+        }
+        List<Long> partitionVersions = new ArrayList<>();
+        for (ScanNode scanNode : execPlan.getScanNodes()) {
+            if (!(scanNode instanceof OlapScanNode)) {
+                return null;
+            }
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            partitionVersions.add(olapScanNode.getOlapTable().getId());
+            // selected partition ids and versions are in the same order
+            Iterator<Long> versions = olapScanNode.getSelectedPartitionVersions().iterator();
+            for (Long partitionId : olapScanNode.getSelectedPartitionIds()) {
+                if (!versions.hasNext()) {
+                    return null;
+                }
+                partitionVersions.add(partitionId);
+                partitionVersions.add(versions.next());
+            }
+        }
+
+        PlanCache.CacheKey planKey = PlanCache.createKey(stmt, session, TResultSinkType.MYSQL_PROTOCAL);
+        if (planKey == null) {
+            return null;
+        }
+        return new CacheKey(planKey, partitionVersions);
+    }
+
+    public CachedResult get(CacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(CacheKey key, CachedResult result) {
+        cache.put(key, result);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getUsedBytes() {
+        return cache.policy().eviction().map(Policy.Eviction::weightedSize)
+                .map(size -> size.orElse(0L)).orElse(0L);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public static class CacheKey {
+        private final PlanCache.CacheKey planKey;
+        private final List<Long> partitionVersions;
+
+        private CacheKey(PlanCache.CacheKey planKey, List<Long> partitionVersions) {
+            this.planKey = planKey;
+            this.partitionVersions = partitionVersions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            // the plan key doesn't include the values of the literals, which the result depends on
+            return Objects.equals(planKey, that.planKey) &&
+                    Objects.equals(planKey.getLiteralValues(), that.planKey.getLiteralValues()) &&
+                    Objects.equals(planKey.getTableSignatures(), that.planKey.getTableSignatures()) &&
+                    Objects.equals(partitionVersions, that.partitionVersions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(planKey, planKey.getLiteralValues(), partitionVersions);
+        }
+    }
+
+    /**
+     * Collect the rows of a query while it is sent to the client, the rows are not cached if they
+     * exceed `result_cache_entry_max_bytes`.
+     */
+    public static class ResultCollector {
+        private final long maxBytes;
+        private final List<ByteBuffer> rows = new ArrayList<>();
+        private long bytes = 0;
+        private boolean overflow = false;
+
+        public ResultCollector(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public void add(ByteBuffer row) {
+            if (overflow) {
+                return;
+            }
+            bytes += row.remaining() + ROW_OVERHEAD_BYTES;
+            if (bytes > maxBytes) {
+                overflow = true;
+                rows.clear();
+                return;
+            }
+            ByteBuffer copy = ByteBuffer.allocate(row.remaining());
+            copy.put(row.duplicate());
+            copy.flip();
+            rows.add(copy);
+        }
+
+        public boolean isOverflow() {
+            return overflow;
+        }
+
+        public CachedResult build() {
+            return overflow ? null : new CachedResult(rows, bytes);
+        }
+    }
+
+    public static class CachedResult {
+        private final List<ByteBuffer> rows;
+        private final long bytes;
+
+        CachedResult(List<ByteBuffer> rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        // The buffers are shared by all the hits, send their duplicates
+        public List<ByteBuffer> getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
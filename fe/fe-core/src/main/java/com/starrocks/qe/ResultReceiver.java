@@ -21,6 +21,7 @@
 
 package com.starrocks.qe;
 
+import com.starrocks.common.Config;
 import com.starrocks.common.Status;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.metric.MetricRepo;
@@ -53,6 +54,12 @@ public class ResultReceiver {
     private final PUniqueId finstId;
     private final Long backendId;
     private Thread currentThread;
+    // the rows of a deserialized batch refer to the serialized bytes without copy
+    private final TDeserializer deserializer = new TDeserializer();
+    // the fetch issued in advance, while the caller is sending the previous batch to the client
+    private PFetchDataRequest prefetchRequest;
+    private Future<PFetchDataResult> prefetchFuture;
+    private RpcException prefetchException;
 
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
@@ -70,10 +77,15 @@ public class ResultReceiver {
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
+                if (prefetchFuture == null) {
+                    fetchAsync();
+                }
+                PFetchDataRequest request = prefetchRequest;
+                Future<PFetchDataResult> future = prefetchFuture;
+                prefetchRequest = null;
+                prefetchFuture = null;
 
                 currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceClient.getInstance().fetchDataAsync(address, request);
                 PFetchDataResult pResult = null;
                 while (pResult == null) {
                     long currentTs = System.currentTimeMillis();
@@ -110,8 +122,10 @@ public class ResultReceiver {
 
                 byte[] serialResult = request.getSerializedResult();
                 if (serialResult != null && serialResult.length > 0) {
+                    if (!isDone && Config.enable_result_prefetch) {
+                        prefetch();
+                    }
                     TResultBatch resultBatch = new TResultBatch();
-                    TDeserializer deserializer = new TDeserializer();
                     deserializer.deserialize(resultBatch, serialResult);
                     rowBatch.setBatch(resultBatch);
                     rowBatch.setEos(pResult.eos);
@@ -152,6 +166,29 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    private void fetchAsync() throws RpcException {
+        if (prefetchException != null) {
+            RpcException e = prefetchException;
+            prefetchException = null;
+            throw e;
+        }
+        prefetchRequest = new PFetchDataRequest(finstId);
+        prefetchFuture = BackendServiceClient.getInstance().fetchDataAsync(address, prefetchRequest);
+    }
+
+    // Issue the fetch of the next batch. BE sends the batches in order and buffers a bounded number of them,
+    // so there is only one fetch in flight, and it is not issued again until the caller consumes the batch.
+    // The rpc error is reported by the next getNext, after the current batch is sent.
+    private void prefetch() {
+        try {
+            fetchAsync();
+        } catch (RpcException e) {
+            prefetchRequest = null;
+            prefetchFuture = null;
+            prefetchException = e;
+        }
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
@@ -29,6 +29,7 @@ import com.starrocks.common.util.CompressionUtils;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.qe.VariableMgr.VarAttr;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.cost.CostModel;
 import com.starrocks.system.BackendCoreStat;
 import com.starrocks.thrift.TCompressionType;
 import com.starrocks.thrift.TPipelineProfileLevel;
@@ -43,13 +44,33 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 // System variable
 @SuppressWarnings("FieldMayBeFinal")
 public class SessionVariable implements Serializable, Writable, Cloneable {
     private static final Logger LOG = LogManager.getLogger(SessionVariable.class);
 
+    // the fields of all the variables, resolved once for getVariableValues
+    private static final List<Field> VARIABLE_FIELDS;
+
+    static {
+        ImmutableList.Builder<Field> fields = ImmutableList.builder();
+        for (Field field : SessionVariable.class.getDeclaredFields()) {
+            if (field.getAnnotation(VarAttr.class) != null) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        VARIABLE_FIELDS = fields.build();
+    }
+
+    // the last result of getVariableValues, a clone shares it until a variable of the clone is changed
+    private transient List<Object> variableValues;
+
     public static final String USE_COMPUTE_NODES = "use_compute_nodes";
     public static final String PREFER_COMPUTE_NODE = "prefer_compute_node";
     public static final String EXEC_MEM_LIMIT = "exec_mem_limit";
@@ -220,6 +241,12 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
+    public static final String CBO_ENABLE_PARALLEL_JOIN_REORDER = "cbo_enable_parallel_join_reorder";
+    public static final String CBO_CPU_COST_WEIGHT = "cbo_cpu_cost_weight";
+    public static final String CBO_MEMORY_COST_WEIGHT = "cbo_memory_cost_weight";
+    public static final String CBO_NETWORK_COST_WEIGHT = "cbo_network_cost_weight";
+    public static final String CBO_ENABLE_LINEARIZED_DP_JOIN_REORDER = "cbo_enable_linearized_dp_join_reorder";
+    public static final String CBO_JOIN_REORDER_PLAN_BUDGET = "cbo_join_reorder_plan_budget";
     public static final String CBO_ENABLE_REPLICATED_JOIN = "cbo_enable_replicated_join";
     public static final String CBO_USE_CORRELATED_JOIN_ESTIMATE = "cbo_use_correlated_join_estimate";
     public static final String CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE = "cbo_enable_low_cardinality_optimize";
@@ -301,6 +328,16 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String QUERY_CACHE_HOT_PARTITION_NUM = "query_cache_hot_partition_num";
     public static final String TRANSMISSION_ENCODE_LEVEL = "transmission_encode_level";
 
+    // Reuse the optimized plan of a previously planned query with the same normalized statement
+    public static final String ENABLE_PLAN_CACHE = "enable_plan_cache";
+
+    // Answer a repeated query from the results cached in FE if the scanned partitions are not changed
+    public static final String ENABLE_RESULT_CACHE = "enable_result_cache";
+
+    // Schedule the point lookup on the primary key of a PRIMARY_KEYS table to a replica of the tablet directly,
+    // without the general scan range assignment. The lookup is still executed by a regular plan fragment.
+    public static final String ENABLE_POINT_LOOKUP_DIRECT_SCHEDULE = "enable_point_lookup_direct_schedule";
+
     public static final String NESTED_MV_REWRITE_MAX_LEVEL = "nested_mv_rewrite_max_level";
     public static final String ENABLE_MATERIALIZED_VIEW_REWRITE = "enable_materialized_view_rewrite";
     public static final String ENABLE_MATERIALIZED_VIEW_UNION_REWRITE = "enable_materialized_view_union_rewrite";
@@ -605,6 +642,29 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_ENABLE_GREEDY_JOIN_REORDER, flag = VariableMgr.INVISIBLE)
     private boolean cboEnableGreedyJoinReorder = true;
 
+    // run the dp and greedy join reorder of a multi join node concurrently
+    @VariableMgr.VarAttr(name = CBO_ENABLE_PARALLEL_JOIN_REORDER)
+    private boolean cboEnableParallelJoinReorder = false;
+
+    // use linearized dp instead of greedy for the joins with more atoms than cbo_max_reorder_node_use_dp
+    @VariableMgr.VarAttr(name = CBO_ENABLE_LINEARIZED_DP_JOIN_REORDER)
+    private boolean cboEnableLinearizedDPJoinReorder = false;
+
+    // the max join expressions enumerated by linearized dp before it degrades to left deep
+    @VariableMgr.VarAttr(name = CBO_JOIN_REORDER_PLAN_BUDGET)
+    private long cboJoinReorderPlanBudget = 10000;
+
+    // the weights of cpu, memory and network cost when comparing plans,
+    // the global values are fitted from the executed queries if `enable_cost_model_calibration` is on
+    @VariableMgr.VarAttr(name = CBO_CPU_COST_WEIGHT)
+    private double cboCpuCostWeight = CostModel.DEFAULT_CPU_COST_WEIGHT;
+
+    @VariableMgr.VarAttr(name = CBO_MEMORY_COST_WEIGHT)
+    private double cboMemoryCostWeight = CostModel.DEFAULT_MEMORY_COST_WEIGHT;
+
+    @VariableMgr.VarAttr(name = CBO_NETWORK_COST_WEIGHT)
+    private double cboNetworkCostWeight = CostModel.DEFAULT_NETWORK_COST_WEIGHT;
+
     @VariableMgr.VarAttr(name = CBO_DEBUG_ALIVE_BACKEND_NUMBER, flag = VariableMgr.INVISIBLE)
     private int cboDebugAliveBackendNumber = 0;
 
@@ -759,6 +819,15 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VarAttr(name = QUERY_CACHE_HOT_PARTITION_NUM)
     private int queryCacheHotPartitionNum = 3;
 
+    @VarAttr(name = ENABLE_PLAN_CACHE)
+    private boolean enablePlanCache = false;
+
+    @VarAttr(name = ENABLE_RESULT_CACHE)
+    private boolean enableResultCache = false;
+
+    @VarAttr(name = ENABLE_POINT_LOOKUP_DIRECT_SCHEDULE)
+    private boolean enablePointLookupDirectSchedule = true;
+
     @VarAttr(name = NESTED_MV_REWRITE_MAX_LEVEL)
     private int nestedMvRewriteMaxLevel = 3;
 
@@ -1065,6 +1134,54 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.cboEnableGreedyJoinReorder = true;
     }
 
+    public boolean isCboEnableParallelJoinReorder() {
+        return cboEnableParallelJoinReorder;
+    }
+
+    public void setCboEnableParallelJoinReorder(boolean cboEnableParallelJoinReorder) {
+        this.cboEnableParallelJoinReorder = cboEnableParallelJoinReorder;
+    }
+
+    public double getCboCpuCostWeight() {
+        return cboCpuCostWeight;
+    }
+
+    public void setCboCpuCostWeight(double cboCpuCostWeight) {
+        this.cboCpuCostWeight = cboCpuCostWeight;
+    }
+
+    public double getCboMemoryCostWeight() {
+        return cboMemoryCostWeight;
+    }
+
+    public void setCboMemoryCostWeight(double cboMemoryCostWeight) {
+        this.cboMemoryCostWeight = cboMemoryCostWeight;
+    }
+
+    public double getCboNetworkCostWeight() {
+        return cboNetworkCostWeight;
+    }
+
+    public void setCboNetworkCostWeight(double cboNetworkCostWeight) {
+        this.cboNetworkCostWeight = cboNetworkCostWeight;
+    }
+
+    public boolean isCboEnableLinearizedDPJoinReorder() {
+        return cboEnableLinearizedDPJoinReorder;
+    }
+
+    public void setCboEnableLinearizedDPJoinReorder(boolean cboEnableLinearizedDPJoinReorder) {
+        this.cboEnableLinearizedDPJoinReorder = cboEnableLinearizedDPJoinReorder;
+    }
+
+    public long getCboJoinReorderPlanBudget() {
+        return cboJoinReorderPlanBudget;
+    }
+
+    public void setCboJoinReorderPlanBudget(long cboJoinReorderPlanBudget) {
+        this.cboJoinReorderPlanBudget = cboJoinReorderPlanBudget;
+    }
+
     public int getCboMaxReorderNode() {
         return cboMaxReorderNode;
     }
@@ -1420,6 +1537,30 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         enableQueryCache = on;
     }
 
+    public boolean isEnablePlanCache() {
+        return enablePlanCache;
+    }
+
+    public void setEnablePlanCache(boolean enablePlanCache) {
+        this.enablePlanCache = enablePlanCache;
+    }
+
+    public boolean isEnableResultCache() {
+        return enableResultCache;
+    }
+
+    public void setEnableResultCache(boolean enableResultCache) {
+        this.enableResultCache = enableResultCache;
+    }
+
+    public boolean isEnablePointLookupDirectSchedule() {
+        return enablePointLookupDirectSchedule;
+    }
+
+    public void setEnablePointLookupDirectSchedule(boolean enablePointLookupDirectSchedule) {
+        this.enablePointLookupDirectSchedule = enablePointLookupDirectSchedule;
+    }
+
     public boolean isQueryCacheForcePopulate() {
         return queryCacheForcePopulate;
     }
@@ -1575,6 +1716,37 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return tResult;
     }
 
+    /**
+     * The values of all the variables, in the order of the fields, used by the plan cache key. The list is kept
+     * and returned again until a variable is changed, so a query doesn't format the variables like getJsonString.
+     */
+    public List<Object> getVariableValues() {
+        List<Object> values = variableValues;
+        try {
+            if (values != null && hasVariableValues(values)) {
+                return values;
+            }
+            Object[] newValues = new Object[VARIABLE_FIELDS.size()];
+            for (int i = 0; i < newValues.length; i++) {
+                newValues[i] = VARIABLE_FIELDS.get(i).get(this);
+            }
+            values = Collections.unmodifiableList(Arrays.asList(newValues));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        variableValues = values;
+        return values;
+    }
+
+    private boolean hasVariableValues(List<Object> values) throws IllegalAccessException {
+        for (int i = 0; i < values.size(); i++) {
+            if (!Objects.equals(VARIABLE_FIELDS.get(i).get(this), values.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public String getJsonString() throws IOException {
         JSONObject root = new JSONObject();
         try {
@@ -37,6 +37,7 @@ import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.catalog.ResourceGroupClassifier;
 import com.starrocks.catalog.ScalarType;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
@@ -63,6 +64,7 @@ import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.TableMetricsEntity;
 import com.starrocks.metric.TableMetricsRegistry;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.mysql.privilege.PrivPredicate;
@@ -114,6 +116,7 @@ import com.starrocks.sql.common.DmlException;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.MetaUtils;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.cost.CostModelCalibrator;
 import com.starrocks.sql.parser.ParsingException;
 import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.statistic.AnalyzeStatus;
@@ -166,6 +169,8 @@ public class StmtExecutor {
     private final MysqlSerializer serializer;
     private final OriginStatement originStmt;
     private StatementBase parsedStmt;
+    // the parsed query statement has been analyzed, e.g. the reused statement of a prepared statement
+    private boolean isParsedStmtAnalyzed = false;
     private RuntimeProfile profile;
     private Coordinator coord = null;
     private LeaderOpExecutor leaderOpExecutor = null;
@@ -200,6 +205,10 @@ public class StmtExecutor {
         this.isProxy = false;
     }
 
+    public void setParsedStmtAnalyzed() {
+        this.isParsedStmtAnalyzed = true;
+    }
+
     public Coordinator getCoordinator() {
         return this.coord;
     }
@@ -255,6 +264,7 @@ public class StmtExecutor {
             coord.getQueryProfile().getCounterTotalTime().setValue(TimeUtils.getEstimatedTime(beginTimeInNanoSecond));
             coord.endProfile();
             coord.mergeIsomorphicProfiles();
+            CostModelCalibrator.getInstance().collectAsync(coord.getQueryProfile(), coord.getFragments());
             profile.addChild(coord.getQueryProfile());
             coord = null;
         }
@@ -363,6 +373,8 @@ public class StmtExecutor {
                             parsedStmt = selectStmt;
                             execPlan = StatementPlanner.plan(parsedStmt, context);
                         }
+                    } else if (isParsedStmtAnalyzed) {
+                        execPlan = StatementPlanner.planAnalyzed((QueryStatement) parsedStmt, context);
                     } else {
                         execPlan = StatementPlanner.plan(parsedStmt, context);
                     }
@@ -599,11 +611,9 @@ public class StmtExecutor {
         profile.getChild("Summary")
                 .addInfoString(ProfileManager.PROFILE_TIME,
                         DebugUtil.getPrettyStringMs(profileEndTime - profileBeginTime));
-        StringBuilder builder = new StringBuilder();
-        profile.prettyPrint(builder, "");
-        String profileContent = ProfileManager.getInstance().pushProfile(profile);
+        ProfileManager.getInstance().pushProfile(profile);
         if (context.getQueryDetail() != null) {
-            context.getQueryDetail().setProfile(profileContent);
+            context.getQueryDetail().setProfile(profile.toString());
         }
     }
 
@@ -716,7 +726,22 @@ public class StmtExecutor {
         List<String> colNames = execPlan.getColNames();
         List<Expr> outputExprs = execPlan.getOutputExprs();
 
+        ResultCache.CacheKey resultCacheKey = null;
+        ResultCache.ResultCollector resultCollector = null;
+        if (!isProxy && queryStmt instanceof QueryStatement && ResultCache.isEnabled(context)) {
+            resultCacheKey = ResultCache.createKey((QueryStatement) queryStmt, execPlan, context);
+            if (resultCacheKey != null) {
+                ResultCache.CachedResult cachedResult = ResultCache.getInstance().get(resultCacheKey);
+                if (cachedResult != null) {
+                    sendCachedResult(cachedResult, colNames, outputExprs);
+                    return;
+                }
+                resultCollector = new ResultCache.ResultCollector(Config.result_cache_entry_max_bytes);
+            }
+        }
+
         coord = new Coordinator(context, fragments, scanNodes, descTable);
+        coord.setPointLookup(execPlan.isPointLookup());
 
         QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(),
                 new QeProcessorImpl.QueryInfo(context, originStmt.originStmt, coord));
@@ -738,6 +763,7 @@ public class StmtExecutor {
             isOutfileQuery = ((QueryStatement) queryStmt).hasOutFileClause();
         }
         boolean isSendFields = false;
+        List<Type> binaryRowTypes = getBinaryRowTypes(outputExprs);
         while (true) {
             batch = coord.getNext();
             // for outfile query, there will be only one empty batch send back with eos flag
@@ -750,19 +776,19 @@ public class StmtExecutor {
                 }
                 if (!isProxy && channel.isSendBufferNull()) {
                     int bufferSize = 0;
+                    // size the send buffer by the first batch, so a batch is written to the socket at once
                     for (ByteBuffer row : batch.getBatch().getRows()) {
-                        bufferSize += (row.position() - row.limit());
+                        // +4 for packet header
+                        bufferSize += row.remaining() + 4;
                     }
-                    // +8 for header size
-                    channel.initBuffer(bufferSize + 8);
+                    channel.initBuffer(bufferSize);
                 }
 
                 for (ByteBuffer row : batch.getBatch().getRows()) {
-                    if (isProxy) {
-                        proxyResultBuffer.add(row);
-                    } else {
-                        channel.sendOnePacket(row);
+                    if (resultCollector != null) {
+                        resultCollector.add(row);
                     }
+                    sendResultRow(row, binaryRowTypes);
                 }
                 context.updateReturnRows(batch.getBatch().getRows().size());
             }
@@ -775,6 +801,9 @@ public class StmtExecutor {
         }
 
         statisticsForAuditLog = batch.getQueryStatistics();
+        if (resultCollector != null && !resultCollector.isOverflow()) {
+            ResultCache.getInstance().put(resultCacheKey, resultCollector.build());
+        }
         if (!isOutfileQuery) {
             context.getState().setEof();
         } else {
@@ -798,6 +827,42 @@ public class StmtExecutor {
         }
     }
 
+    // The rows from BE are in the text protocol, return the column types to convert them for COM_STMT_EXECUTE,
+    // or null if no conversion is needed
+    private List<Type> getBinaryRowTypes(List<Expr> outputExprs) {
+        if (context.getCommand() != MysqlCommand.COM_STMT_EXECUTE) {
+            return null;
+        }
+        return outputExprs.stream().map(Expr::getOriginType).collect(Collectors.toList());
+    }
+
+    private void sendResultRow(ByteBuffer textRow, List<Type> binaryRowTypes) throws IOException {
+        ByteBuffer row = textRow;
+        if (binaryRowTypes != null) {
+            serializer.reset();
+            serializer.writeBinaryRow(textRow, binaryRowTypes);
+            row = serializer.toByteBuffer();
+        }
+        if (isProxy) {
+            proxyResultBuffer.add(row);
+        } else {
+            context.getMysqlChannel().sendOnePacket(row);
+        }
+    }
+
+    // Send the result of a query from result cache, the query is not executed on BE
+    private void sendCachedResult(ResultCache.CachedResult cachedResult, List<String> colNames,
+                                  List<Expr> outputExprs) throws IOException {
+        sendFields(colNames, outputExprs);
+        List<Type> binaryRowTypes = getBinaryRowTypes(outputExprs);
+        for (ByteBuffer row : cachedResult.getRows()) {
+            // the cached buffers are shared by concurrent hits
+            sendResultRow(row.duplicate(), binaryRowTypes);
+        }
+        context.updateReturnRows(cachedResult.getRows().size());
+        context.getState().setEof();
+    }
+
     private void handleAnalyzeStmt() throws IOException {
         AnalyzeStmt analyzeStmt = (AnalyzeStmt) parsedStmt;
         Database db = MetaUtils.getDatabase(context, analyzeStmt.getTableName());
@@ -28,6 +28,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.starrocks.alter.Alter;
 import com.starrocks.alter.AlterJobV2;
 import com.starrocks.alter.MaterializedViewHandler;
@@ -177,6 +178,8 @@ import com.starrocks.persist.Storage;
 import com.starrocks.persist.TableInfo;
 import com.starrocks.persist.TablePropertyInfo;
 import com.starrocks.persist.TruncateTableInfo;
+import com.starrocks.persist.metablock.SRImageReader;
+import com.starrocks.persist.metablock.SRImageWriter;
 import com.starrocks.plugin.PluginInfo;
 import com.starrocks.plugin.PluginMgr;
 import com.starrocks.privilege.PrivilegeManager;
@@ -265,6 +268,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -272,6 +276,7 @@ import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
@@ -1218,6 +1223,11 @@ public class GlobalStateMgr {
         LOG.info("start load image from {}. is ckpt: {}", curFile.getAbsolutePath(),
                 GlobalStateMgr.isCheckpointThread());
         long loadImageStartTime = System.currentTimeMillis();
+        if (SRImageReader.isSectionedImage(curFile)) {
+            loadSectionedImage(curFile);
+            finishLoadImage(storage, loadImageStartTime);
+            return;
+        }
         DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(curFile)));
 
         long checksum = 0;
@@ -1279,7 +1289,10 @@ public class GlobalStateMgr {
         }
 
         Preconditions.checkState(remoteChecksum == checksum, remoteChecksum + " vs. " + checksum);
+        finishLoadImage(storage, loadImageStartTime);
+    }
 
+    private void finishLoadImage(Storage storage, long loadImageStartTime) {
         if (isUsingNewPrivilege() && needUpgradedToNewPrivilege() && !isLeader() && !isCheckpointThread()) {
             LOG.warn(
                     "follower has to wait for leader to upgrade the privileges, set usingNewPrivilege = false for now");
@@ -1292,6 +1305,79 @@ public class GlobalStateMgr {
         LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
     }
 
+    /**
+     * Load the image saved by {@link #saveSectionedImage}. The databases are loaded concurrently by
+     * image_load_parallelism threads, together with the sections before them, and the checksum of every section
+     * is verified when it's loaded. The other sections are loaded in the same order as the legacy image,
+     * because some of them depend on the sections before, e.g. the load jobs depend on the transactions.
+     * If enable_lazy_load_image is true, the databases are loaded on demand from the memory-mapped image and in
+     * the background, see {@link LazyDatabaseLoader}. The journal is replayed meanwhile, an entry loads the
+     * databases it looks up, and waits for all of them only if a lookup across databases misses.
+     */
+    private void loadSectionedImage(File curFile) throws IOException, DdlException {
+        // the checkpoint thread loads the databases by itself, because the threads in the pool
+        // do not see the catalog of the checkpoint by GlobalStateMgr.getCurrentState()
+        ExecutorService executor = isCheckpointThread() ? MoreExecutors.newDirectExecutorService() :
+                ThreadPoolManager.newDaemonFixedThreadPool(Math.max(1, Config.image_load_parallelism),
+                        Integer.MAX_VALUE, "image-loader", false);
+        try (SRImageReader reader = new SRImageReader(curFile)) {
+            LOG.info("sectioned image has {} sections", reader.getSections().size());
+            // the meta version in header is used to load the other sections
+            reader.loadSection("Header", dis -> loadHeader(dis, 0));
+            // the inverted index of a database is created when it's loaded lazily
+            boolean lazy = Config.enable_lazy_load_image && !isCheckpointThread() &&
+                    localMetastore.loadDbSectionsLazily(curFile, Math.max(1, Config.image_load_parallelism), () -> {
+                        esRepository.loadTableFromCatalog();
+                        starRocksRepository.loadTableFromCatalog();
+                    });
+            List<Future<Database>> dbFutures =
+                    lazy ? Collections.emptyList() : localMetastore.submitLoadDbSections(reader, executor);
+            reader.loadSection("LeaderInfo", dis -> nodeMgr.loadLeaderInfo(dis, 0));
+            reader.loadSection("Frontends", dis -> nodeMgr.loadFrontends(dis, 0));
+            reader.loadSection("Backends", dis -> nodeMgr.loadBackends(dis, 0));
+            if (!lazy) {
+                localMetastore.loadDbSections(dbFutures);
+                // ATTN: this should be done after load Db, and before loadAlterJob
+                localMetastore.recreateTabletInvertIndex();
+                // rebuild es state state
+                esRepository.loadTableFromCatalog();
+                starRocksRepository.loadTableFromCatalog();
+            }
+
+            reader.loadSection("LoadJob", dis -> load.loadLoadJob(dis, 0));
+            reader.loadSection("AlterJob", dis -> loadAlterJob(dis, 0));
+            reader.loadSection("RecycleBin", dis -> recycleBin.loadRecycleBin(dis, 0));
+            reader.loadSection("GlobalVariable", dis -> VariableMgr.loadGlobalVariable(dis, 0));
+            reader.loadSection("Cluster", dis -> localMetastore.loadCluster(dis, 0));
+            reader.loadSection("Brokers", dis -> nodeMgr.loadBrokers(dis, 0));
+            reader.loadSection("Resources", dis -> loadResources(dis, 0));
+            reader.loadSection("ExportJob", dis -> exportMgr.loadExportJob(dis, 0));
+            reader.loadSection("BackupHandler", dis -> backupHandler.loadBackupHandler(dis, 0, this));
+            reader.loadSection("Auth", dis -> auth.loadAuth(dis, 0));
+            // global transaction must be replayed before load jobs v2
+            reader.loadSection("TransactionState", dis -> globalTransactionMgr.loadTransactionState(dis, 0));
+            reader.loadSection("ColocateTableIndex", dis -> colocateTableIndex.loadColocateTableIndex(dis, 0));
+            reader.loadSection("RoutineLoadJobs", dis -> routineLoadManager.loadRoutineLoadJobs(dis, 0));
+            reader.loadSection("LoadJobsV2", dis -> loadManager.loadLoadJobsV2(dis, 0));
+            reader.loadSection("SmallFiles", dis -> smallFileMgr.loadSmallFiles(dis, 0));
+            reader.loadSection("Plugins", dis -> pluginMgr.loadPlugins(dis, 0));
+            reader.loadSection("DeleteHandler", dis -> loadDeleteHandler(dis, 0));
+            reader.loadSection("Analyze", dis -> analyzeManager.loadAnalyze(dis, 0));
+            reader.loadSection("ResourceGroups", dis -> resourceGroupMgr.loadResourceGroups(dis, 0));
+            reader.loadSection("AuthGson", dis -> auth.readAsGson(dis, 0));
+            reader.loadSection("Tasks", dis -> taskManager.loadTasks(dis, 0));
+            reader.loadSection("Catalogs", dis -> catalogMgr.loadCatalogs(dis, 0));
+            reader.loadSection("InsertOverwriteJobs", dis -> loadInsertOverwriteJobs(dis, 0));
+            reader.loadSection("ComputeNodes", dis -> nodeMgr.loadComputeNodes(dis, 0));
+            reader.loadSection("ShardManager", dis -> loadShardManager(dis, 0));
+            reader.loadSection("CompactionManager", dis -> loadCompactionManager(dis, 0));
+            reader.loadSection("StreamLoadManager", dis -> loadStreamLoadManager(dis, 0));
+            reader.loadSection("RBACPrivilege", this::loadRBACPrivilege);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public long loadHeader(DataInputStream dis, long checksum) throws IOException {
         // for community, version schema is [int], and the int value must be positive
         // for starrocks, version schema is [-1, int, int]
@@ -1470,7 +1556,7 @@ public class GlobalStateMgr {
         Storage storage = new Storage(this.imageDir);
         File curFile = storage.getImageFile(replayedJournalId.get());
         File ckpt = new File(this.imageDir, Storage.IMAGE_NEW);
-        saveImage(ckpt, replayedJournalId.get());
+        saveImage(ckpt, replayedJournalId.get(), getDeltaImageBase(storage));
 
         // Move image.ckpt to image.dataVersion
         LOG.info("Move " + ckpt.getAbsolutePath() + " to " + curFile.getAbsolutePath());
@@ -1483,6 +1569,32 @@ public class GlobalStateMgr {
     }
 
     public void saveImage(File curFile, long replayedJournalId) throws IOException {
+        saveImage(curFile, replayedJournalId, -1);
+    }
+
+    /**
+     * Return the version of the latest image if the new image can be saved as a delta image of it, otherwise -1.
+     * A full image is saved if the latest image already refers to delta_image_max_num older images.
+     */
+    private long getDeltaImageBase(Storage storage) throws IOException {
+        if (!Config.enable_sectioned_image || !Config.enable_delta_image) {
+            return -1;
+        }
+        long baseVersion = storage.getImageJournalId();
+        File baseFile = storage.getImageFile(baseVersion);
+        // version 0 of a section means the image itself, so image.0 is never a base, it's empty anyway
+        if (baseVersion <= 0 || !baseFile.exists() || !SRImageReader.isSectionedImage(baseFile)) {
+            return -1;
+        }
+        int numReferred = SRImageReader.getReferredVersions(baseFile).size();
+        if (numReferred >= Config.delta_image_max_num) {
+            LOG.info("image.{} refers to {} images, save a full image to compact them", baseVersion, numReferred);
+            return -1;
+        }
+        return baseVersion;
+    }
+
+    private void saveImage(File curFile, long replayedJournalId, long baseVersion) throws IOException {
         if (!curFile.exists()) {
             if (!curFile.createNewFile()) {
                 LOG.warn("Failed to create file, filepath={}", curFile.getAbsolutePath());
@@ -1492,6 +1604,11 @@ public class GlobalStateMgr {
         // save image does not need any lock. because only checkpoint thread will call this method.
         LOG.info("start save image to {}. is ckpt: {}", curFile.getAbsolutePath(), GlobalStateMgr.isCheckpointThread());
 
+        if (Config.enable_sectioned_image) {
+            saveSectionedImage(curFile, replayedJournalId, baseVersion);
+            return;
+        }
+
         long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
         try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
@@ -1544,6 +1661,71 @@ public class GlobalStateMgr {
                 curFile.getAbsolutePath(), (saveImageEndTime - saveImageStartTime), checksum);
     }
 
+    /**
+     * Save the image in sections, see {@link SRImageWriter}. Every database is saved in its own section,
+     * so they can be loaded concurrently. The checksum of every section is saved in the table of contents,
+     * instead of the xor checksum of the legacy image.
+     * If baseVersion is positive, a delta image of image.{baseVersion} is saved, the unchanged sections refer to
+     * the older images instead of being saved again.
+     */
+    public void saveSectionedImage(File curFile, long replayedJournalId, long baseVersion) throws IOException {
+        long saveImageStartTime = System.currentTimeMillis();
+        int numSections;
+        long referredBytes;
+        try (SRImageWriter writer = newImageWriter(curFile, baseVersion)) {
+            writer.writeSection("Header", dos -> saveHeader(dos, replayedJournalId, 0));
+            writer.writeSection("LeaderInfo", dos -> nodeMgr.saveLeaderInfo(dos, 0));
+            writer.writeSection("Frontends", dos -> nodeMgr.saveFrontends(dos, 0));
+            writer.writeSection("Backends", dos -> nodeMgr.saveBackends(dos, 0));
+            localMetastore.saveDbSections(writer);
+            writer.writeSection("LoadJob", dos -> load.saveLoadJob(dos, 0));
+            writer.writeSection("AlterJob", dos -> saveAlterJob(dos, 0));
+            writer.writeSection("RecycleBin", dos -> recycleBin.saveRecycleBin(dos, 0));
+            writer.writeSection("GlobalVariable", dos -> VariableMgr.saveGlobalVariable(dos, 0));
+            writer.writeSection("Cluster", dos -> localMetastore.saveCluster(dos, 0));
+            writer.writeSection("Brokers", dos -> nodeMgr.saveBrokers(dos, 0));
+            writer.writeSection("Resources", dos -> resourceMgr.saveResources(dos, 0));
+            writer.writeSection("ExportJob", dos -> exportMgr.saveExportJob(dos, 0));
+            writer.writeSection("BackupHandler", dos -> backupHandler.saveBackupHandler(dos, 0));
+            writer.writeSection("Auth", dos -> auth.saveAuth(dos, 0));
+            writer.writeSection("TransactionState", dos -> globalTransactionMgr.saveTransactionState(dos, 0));
+            writer.writeSection("ColocateTableIndex", dos -> colocateTableIndex.saveColocateTableIndex(dos, 0));
+            writer.writeSection("RoutineLoadJobs", dos -> routineLoadManager.saveRoutineLoadJobs(dos, 0));
+            writer.writeSection("LoadJobsV2", dos -> loadManager.saveLoadJobsV2(dos, 0));
+            writer.writeSection("SmallFiles", dos -> smallFileMgr.saveSmallFiles(dos, 0));
+            writer.writeSection("Plugins", dos -> pluginMgr.savePlugins(dos, 0));
+            writer.writeSection("DeleteHandler", dos -> deleteHandler.saveDeleteHandler(dos, 0));
+            writer.writeSection("Analyze", dos -> analyzeManager.saveAnalyze(dos, 0));
+            writer.writeSection("ResourceGroups", dos -> resourceGroupMgr.saveResourceGroups(dos, 0));
+            writer.writeSection("AuthGson", dos -> auth.writeAsGson(dos, 0));
+            writer.writeSection("Tasks", dos -> taskManager.saveTasks(dos, 0));
+            writer.writeSection("Catalogs", dos -> catalogMgr.saveCatalogs(dos, 0));
+            writer.writeSection("InsertOverwriteJobs", dos -> saveInsertOverwriteJobs(dos, 0));
+            writer.writeSection("ComputeNodes", dos -> nodeMgr.saveComputeNodes(dos, 0));
+            writer.writeSection("ShardManager", dos -> shardManager.saveShardManager(dos, 0));
+            writer.writeSection("CompactionManager", dos -> compactionManager.saveCompactionManager(dos, 0));
+            writer.writeSection("StreamLoadManager", dos -> streamLoadManager.saveStreamLoadManager(dos, 0));
+            if (isUsingNewPrivilege()) {
+                writer.writeSection("RBACPrivilege", this::saveRBACPrivilege);
+            }
+            numSections = writer.getSections().size();
+            referredBytes = writer.getReferredBytes();
+        }
+
+        long saveImageEndTime = System.currentTimeMillis();
+        LOG.info("finished save sectioned image {} of {} sections in {} ms, {} bytes referred to older images",
+                curFile.getAbsolutePath(), numSections, (saveImageEndTime - saveImageStartTime), referredBytes);
+    }
+
+    private SRImageWriter newImageWriter(File curFile, long baseVersion) throws IOException {
+        if (baseVersion <= 0) {
+            return new SRImageWriter(curFile);
+        }
+        try (SRImageReader base = new SRImageReader(Storage.getImageFile(new File(imageDir), baseVersion))) {
+            return new SRImageWriter(curFile, base, baseVersion);
+        }
+    }
+
     public long saveHeader(DataOutputStream dos, long replayedJournalId, long checksum) throws IOException {
         // Write meta version
         // community meta version is a positive integer, so we write -1 to distinguish old image structure
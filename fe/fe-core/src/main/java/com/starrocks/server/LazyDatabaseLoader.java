@@ -0,0 +1,136 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.server;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.starrocks.catalog.Database;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.persist.metablock.SRImageReader;
+import com.starrocks.persist.metablock.SRImageSection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load the databases of a memory-mapped sectioned image on demand, so that a follower or an observer can serve
+ * queries before all the databases are loaded. Every database is decoded at most once, by the first thread
+ * accessing it or by the background threads loading the rest, and it's added to the catalog by the decoder.
+ * {@link #waitAll()} blocks until all the databases are loaded, it must be called before enumerating the
+ * databases, or reading what is only complete after all of them are loaded, like the inverted index.
+ */
+public class LazyDatabaseLoader {
+    private static final Logger LOG = LogManager.getLogger(LazyDatabaseLoader.class);
+
+    // bytes of the database sections loaded lazily
+    public static final AtomicLong LOADED_BYTES = new AtomicLong();
+    // number of the databases not loaded yet
+    public static final AtomicLong PENDING_DBS = new AtomicLong();
+    // time waited by the first access of a database not loaded yet
+    public static final Histogram FIRST_ACCESS_LATENCY_MS = new Histogram(new ExponentiallyDecayingReservoir());
+
+    private final SRImageReader reader;
+    private final Map<Long, FutureTask<Database>> idToTask = Maps.newLinkedHashMap();
+    private final Map<String, Long> nameToId = Maps.newHashMap();
+    private final Runnable onFinished;
+    private boolean finished = false;
+
+    /**
+     * @param sections   sections of the databases, the id and the name of every database must be set
+     * @param decoder    decode a database and add it to the catalog
+     * @param onFinished called once after all the databases are loaded
+     */
+    public LazyDatabaseLoader(SRImageReader reader, List<SRImageSection> sections,
+                              SRImageReader.SectionDecoder<Database> decoder, Runnable onFinished) {
+        this.reader = reader;
+        this.onFinished = onFinished;
+        for (SRImageSection section : sections) {
+            Callable<Database> decodeTask = reader.newDecodeTask(section, decoder);
+            idToTask.put(section.getId(), new FutureTask<>(() -> {
+                Database db = decodeTask.call();
+                LOADED_BYTES.addAndGet(section.getLength());
+                PENDING_DBS.decrementAndGet();
+                return db;
+            }));
+            nameToId.put(section.getKey(), section.getId());
+        }
+        PENDING_DBS.addAndGet(sections.size());
+    }
+
+    /**
+     * Load the rest of the databases in the background, by the given number of threads.
+     */
+    public void startLoading(int parallelism) {
+        ExecutorService executor = ThreadPoolManager.newDaemonFixedThreadPool(parallelism, Integer.MAX_VALUE,
+                "lazy-image-loader", false);
+        idToTask.values().forEach(executor::execute);
+        // started after all the tasks, it only waits for them and calls onFinished
+        executor.execute(this::waitAll);
+        executor.shutdown();
+    }
+
+    /**
+     * Load the database if it's not loaded yet. Return null if it's not in the image, or it has been loaded,
+     * then the caller finds it in the catalog, unless it's dropped or renamed after loading.
+     */
+    public Database getDb(long dbId) {
+        FutureTask<Database> task = idToTask.get(dbId);
+        if (task == null || task.isDone()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Database db = get(task);
+        FIRST_ACCESS_LATENCY_MS.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return db;
+    }
+
+    public Database getDb(String name) {
+        Long dbId = nameToId.get(name);
+        return dbId == null ? null : getDb(dbId);
+    }
+
+    /**
+     * Load all the databases not loaded yet by the current thread, or wait for them to be loaded by the others.
+     */
+    public synchronized void waitAll() {
+        if (finished) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        idToTask.values().forEach(this::get);
+        // set before onFinished, which may enumerate the databases and call this again
+        finished = true;
+        onFinished.run();
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.warn("failed to close image reader", e);
+        }
+        LOG.info("finished loading {} databases lazily, waited {} ms", idToTask.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // run the task if it's not started, or wait for it
+    private Database get(FutureTask<Database> task) {
+        task.run();
+        try {
+            return Uninterruptibles.getUninterruptibly(task);
+        } catch (ExecutionException e) {
+            // the same as failing to load the image at startup, the catalog is incomplete
+            LOG.error("failed to load database from image, exit", e.getCause());
+            System.exit(-1);
+            return null;
+        }
+    }
+}
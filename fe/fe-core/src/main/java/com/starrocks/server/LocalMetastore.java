@@ -25,6 +25,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -133,6 +134,9 @@ import com.starrocks.persist.ReplicaPersistInfo;
 import com.starrocks.persist.SetReplicaStatusOperationLog;
 import com.starrocks.persist.TableInfo;
 import com.starrocks.persist.TruncateTableInfo;
+import com.starrocks.persist.metablock.SRImageReader;
+import com.starrocks.persist.metablock.SRImageSection;
+import com.starrocks.persist.metablock.SRImageWriter;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.qe.SessionVariable;
 import com.starrocks.qe.VariableMgr;
@@ -142,6 +146,7 @@ import com.starrocks.scheduler.Task;
 import com.starrocks.scheduler.TaskBuilder;
 import com.starrocks.scheduler.TaskManager;
 import com.starrocks.scheduler.TaskRun;
+import com.starrocks.sql.PlanCache;
 import com.starrocks.sql.analyzer.AnalyzerUtils;
 import com.starrocks.sql.ast.AddPartitionClause;
 import com.starrocks.sql.ast.AddRollupClause;
@@ -212,6 +217,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -222,6 +228,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
@@ -232,9 +241,13 @@ import static com.starrocks.server.GlobalStateMgr.isCheckpointThread;
 
 public class LocalMetastore implements ConnectorMetadata {
     private static final Logger LOG = LogManager.getLogger(LocalMetastore.class);
+    // name of the section of a database in the sectioned image
+    public static final String DB_IMAGE_SECTION = "Database";
 
     private final ConcurrentHashMap<Long, Database> idToDb = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Database> fullNameToDb = new ConcurrentHashMap<>();
+    // not null until all the databases of a lazily loaded image are loaded, see loadDbSectionsLazily
+    private volatile LazyDatabaseLoader lazyDbLoader;
 
     private Cluster defaultCluster;
 
@@ -273,45 +286,50 @@ public class LocalMetastore implements ConnectorMetadata {
             return;
         }
 
+        waitForLazyDbs();
         // create inverted index
-        TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
         for (Database db : this.fullNameToDb.values()) {
-            long dbId = db.getId();
-            for (Table table : db.getTables()) {
-                if (!table.isNativeTable()) {
-                    continue;
-                }
+            addToTabletInvertIndex(db);
+        }
+    }
 
-                OlapTable olapTable = (OlapTable) table;
-                long tableId = olapTable.getId();
-                Collection<Partition> allPartitions = olapTable.getAllPartitions();
-                for (Partition partition : allPartitions) {
-                    long partitionId = partition.getId();
-                    TStorageMedium medium = olapTable.getPartitionInfo().getDataProperty(
-                            partitionId).getStorageMedium();
-                    for (MaterializedIndex index : partition
-                            .getMaterializedIndices(MaterializedIndex.IndexExtState.ALL)) {
-                        long indexId = index.getId();
-                        int schemaHash = olapTable.getSchemaHashByIndexId(indexId);
-                        TabletMeta tabletMeta = new TabletMeta(dbId, tableId, partitionId, indexId, schemaHash, medium,
-                                table.isLakeTable());
-                        for (Tablet tablet : index.getTablets()) {
-                            long tabletId = tablet.getId();
-                            invertedIndex.addTablet(tabletId, tabletMeta);
-                            if (table.isLocalTable()) {
-                                for (Replica replica : ((LocalTablet) tablet).getImmutableReplicas()) {
-                                    invertedIndex.addReplica(tabletId, replica);
-                                    if (MetaContext.get().getMetaVersion() < FeMetaVersion.VERSION_48) {
-                                        // set replica's schema hash
-                                        replica.setSchemaHash(schemaHash);
-                                    }
+    private void addToTabletInvertIndex(Database db) {
+        TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
+        long dbId = db.getId();
+        for (Table table : db.getTables()) {
+            if (!table.isNativeTable()) {
+                continue;
+            }
+
+            OlapTable olapTable = (OlapTable) table;
+            long tableId = olapTable.getId();
+            Collection<Partition> allPartitions = olapTable.getAllPartitions();
+            for (Partition partition : allPartitions) {
+                long partitionId = partition.getId();
+                TStorageMedium medium = olapTable.getPartitionInfo().getDataProperty(
+                        partitionId).getStorageMedium();
+                for (MaterializedIndex index : partition
+                        .getMaterializedIndices(MaterializedIndex.IndexExtState.ALL)) {
+                    long indexId = index.getId();
+                    int schemaHash = olapTable.getSchemaHashByIndexId(indexId);
+                    TabletMeta tabletMeta = new TabletMeta(dbId, tableId, partitionId, indexId, schemaHash, medium,
+                            table.isLakeTable());
+                    for (Tablet tablet : index.getTablets()) {
+                        long tabletId = tablet.getId();
+                        invertedIndex.addTablet(tabletId, tabletMeta);
+                        if (table.isLocalTable()) {
+                            for (Replica replica : ((LocalTablet) tablet).getImmutableReplicas()) {
+                                invertedIndex.addReplica(tabletId, replica);
+                                if (MetaContext.get().getMetaVersion() < FeMetaVersion.VERSION_48) {
+                                    // set replica's schema hash
+                                    replica.setSchemaHash(schemaHash);
                                 }
                             }
                         }
-                    } // end for indices
-                } // end for partitions
-            } // end for tables
-        } // end for dbs
+                    }
+                } // end for indices
+            } // end for partitions
+        } // end for tables
     }
 
     public long loadDb(DataInputStream dis, long checksum) throws IOException {
@@ -321,17 +339,126 @@ public class LocalMetastore implements ConnectorMetadata {
             Database db = new Database();
             db.readFields(dis);
             newChecksum ^= db.getId();
-            idToDb.put(db.getId(), db);
-            fullNameToDb.put(db.getFullName(), db);
-            stateMgr.getGlobalTransactionMgr().addDatabaseTransactionMgr(db.getId());
-            db.getMaterializedViews().forEach(Table::onCreate);
-            db.getHiveTables().forEach(Table::onCreate);
+            addDbFromImage(db);
         }
         LOG.info("finished replay databases from image");
         return newChecksum;
     }
 
+    private void addDbFromImage(Database db) {
+        idToDb.put(db.getId(), db);
+        fullNameToDb.put(db.getFullName(), db);
+        stateMgr.getGlobalTransactionMgr().addDatabaseTransactionMgr(db.getId());
+        db.getMaterializedViews().forEach(Table::onCreate);
+        db.getHiveTables().forEach(Table::onCreate);
+    }
+
+    /**
+     * Start to load every database from its own section of a sectioned image by the executor,
+     * they are added to the catalog by {@link #loadDbSections(List)}.
+     */
+    public List<Future<Database>> submitLoadDbSections(SRImageReader reader, ExecutorService executor) {
+        return reader.submitSections(DB_IMAGE_SECTION, executor, dis -> {
+            Database db = new Database();
+            db.readFields(dis);
+            return db;
+        });
+    }
+
+    public void loadDbSections(List<Future<Database>> futures) throws IOException {
+        for (Future<Database> future : futures) {
+            try {
+                addDbFromImage(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted when loading databases from image", e);
+            } catch (ExecutionException e) {
+                Throwables.propagateIfPossible(e.getCause(), IOException.class);
+                throw new IOException(e.getCause());
+            }
+        }
+        LOG.info("finished replay {} databases from image", futures.size());
+    }
+
+    /**
+     * Load the databases of a sectioned image lazily by a {@link LazyDatabaseLoader}, a database is loaded when
+     * it's accessed by id or name for the first time, and the others are loaded in the background by the given
+     * number of threads. onFinished is called after all the databases are loaded.
+     * Return false if the ids and names of the databases are not saved in the image, i.e. it's saved by a lower
+     * version, then the databases should be loaded by {@link #submitLoadDbSections}.
+     */
+    public boolean loadDbSectionsLazily(File imageFile, int parallelism, Runnable onFinished) throws IOException {
+        SRImageReader reader = new SRImageReader(imageFile, true);
+        List<SRImageSection> sections = reader.getSections(DB_IMAGE_SECTION);
+        if (sections.stream().anyMatch(section -> section.getKey() == null)) {
+            reader.close();
+            return false;
+        }
+        // the transactions are loaded before the databases are loaded
+        for (SRImageSection section : sections) {
+            stateMgr.getGlobalTransactionMgr().addDatabaseTransactionMgr(section.getId());
+        }
+        lazyDbLoader = new LazyDatabaseLoader(reader, sections, dis -> {
+            Database db = new Database();
+            db.readFields(dis);
+            addLazyDbFromImage(db);
+            return db;
+        }, () -> {
+            for (Database db : idToDb.values()) {
+                db.getMaterializedViews().forEach(Table::onCreate);
+            }
+            onFinished.run();
+            lazyDbLoader = null;
+        });
+        lazyDbLoader.startLoading(parallelism);
+        LOG.info("start to load {} databases from image lazily", sections.size());
+        return true;
+    }
+
+    private void addLazyDbFromImage(Database db) {
+        // indexed before it's visible, a tablet of a visible database is always found in the inverted index
+        addToTabletInvertIndex(db);
+        idToDb.put(db.getId(), db);
+        fullNameToDb.put(db.getFullName(), db);
+        // the materialized views are registered to the base tables, which may be in other databases,
+        // after all the databases are loaded
+        db.getHiveTables().forEach(Table::onCreate);
+    }
+
+    /**
+     * Wait for all the databases of a lazily loaded image to be loaded. It must be called before enumerating the
+     * databases, or when a lookup of what is indexed across databases misses, e.g. a tablet in the inverted index.
+     * A single database is loaded on demand by {@link #getDb}. Return false if there is nothing to wait for.
+     */
+    public boolean waitForLazyDbs() {
+        LazyDatabaseLoader loader = lazyDbLoader;
+        if (loader == null) {
+            return false;
+        }
+        loader.waitAll();
+        return true;
+    }
+
+    public void saveDbSections(SRImageWriter writer) throws IOException {
+        waitForLazyDbs();
+        for (Database db : idToDb.values()) {
+            // Don't write information_schema db meta
+            if (InfoSchemaDb.isInfoSchemaDb(db.getFullName())) {
+                continue;
+            }
+            writer.writeSection(DB_IMAGE_SECTION, db.getId(), db.getFullName(), dos -> {
+                db.readLock();
+                try {
+                    db.write(dos);
+                } finally {
+                    db.readUnlock();
+                }
+            });
+        }
+    }
+
     public long saveDb(DataOutputStream dos, long checksum) throws IOException {
+        waitForLazyDbs();
         int dbCount = idToDb.size() - 1;
         checksum ^= dbCount;
         dos.writeInt(dbCount);
@@ -359,7 +486,7 @@ public class LocalMetastore implements ConnectorMetadata {
             throw new DdlException("Failed to acquire globalStateMgr lock. Try again");
         }
         try {
-            if (fullNameToDb.containsKey(dbName)) {
+            if (getDb(dbName) != null) {
                 throw new AlreadyExistsException("Database Already Exists");
             } else {
                 id = getNextId();
@@ -386,6 +513,7 @@ public class LocalMetastore implements ConnectorMetadata {
     }
 
     public ConcurrentHashMap<Long, Database> getIdToDb() {
+        waitForLazyDbs();
         return idToDb;
     }
 
@@ -407,12 +535,12 @@ public class LocalMetastore implements ConnectorMetadata {
         }
         List<Runnable> runnableList;
         try {
-            if (!fullNameToDb.containsKey(dbName)) {
+            Database db = getDb(dbName);
+            if (db == null) {
                 throw new MetaNotFoundException("Database not found");
             }
 
             // 2. drop tables in db
-            Database db = this.fullNameToDb.get(dbName);
             db.writeLock();
             try {
                 if (!isForceDrop && stateMgr.getGlobalTransactionMgr().existCommittedTxns(db.getId(), null, null)) {
@@ -476,7 +604,7 @@ public class LocalMetastore implements ConnectorMetadata {
         List<Runnable> runnableList;
         tryLock(true);
         try {
-            Database db = fullNameToDb.get(dbName);
+            Database db = getDb(dbName);
             db.writeLock();
             try {
                 Set<String> tableNames = db.getTableNamesWithLock();
@@ -519,7 +647,7 @@ public class LocalMetastore implements ConnectorMetadata {
             throw new DdlException("Failed to acquire globalStateMgr lock. Try again");
         }
         try {
-            if (fullNameToDb.containsKey(db.getFullName())) {
+            if (getDb(db.getFullName()) != null) {
                 throw new DdlException("Database[" + db.getOriginName() + "] already exist.");
                 // it's ok that we do not put db back to CatalogRecycleBin
                 // cause this db cannot recover anymore
@@ -672,13 +800,13 @@ public class LocalMetastore implements ConnectorMetadata {
                 ErrorReport.reportDdlException(ErrorCode.ERR_CLUSTER_NO_EXISTS, SystemInfoService.DEFAULT_CLUSTER);
             }
             // check if db exists
-            db = fullNameToDb.get(fullDbName);
+            db = getDb(fullDbName);
             if (db == null) {
                 ErrorReport.reportDdlException(ErrorCode.ERR_BAD_DB_ERROR, fullDbName);
             }
 
             // check if name is already used
-            if (fullNameToDb.get(newFullDbName) != null) {
+            if (getDb(newFullDbName) != null) {
                 throw new DdlException("Database name[" + newFullDbName + "] is already used");
             }
             cluster.removeDb(db.getFullName(), db.getId());
@@ -703,7 +831,7 @@ public class LocalMetastore implements ConnectorMetadata {
     public void replayRenameDatabase(String dbName, String newDbName) {
         tryLock(true);
         try {
-            Database db = fullNameToDb.get(dbName);
+            Database db = getDb(dbName);
             Cluster cluster = defaultCluster;
             cluster.removeDb(db.getFullName(), db.getId());
             db.setName(newDbName);
@@ -1515,6 +1643,7 @@ public class LocalMetastore implements ConnectorMetadata {
         }
 
         // drop
+        PlanCache.getInstance().invalidateTable(olapTable.getId());
         Set<Long> tabletIdSet = new HashSet<Long>();
         if (isTempPartition) {
             olapTable.dropTempPartition(partitionName, true);
@@ -1534,7 +1663,7 @@ public class LocalMetastore implements ConnectorMetadata {
             }
             tabletIdSet = olapTable.dropPartition(db.getId(), partitionName, clause.isForceDrop());
             try {
-                for (MvId mvId : olapTable.getRelatedMaterializedViews()) {
+                for (MvId mvId : olapTable.getAllRelatedMaterializedViews()) {
                     MaterializedView materializedView = (MaterializedView) db.getTable(mvId.getId());
                     if (materializedView != null && materializedView.isLoadTriggeredRefresh()) {
                         GlobalStateMgr.getCurrentState().getLocalMetastore().refreshMaterializedView(
@@ -1565,6 +1694,7 @@ public class LocalMetastore implements ConnectorMetadata {
         Set<Long> tabletIdSet = new HashSet<Long>();
         try {
             OlapTable olapTable = (OlapTable) db.getTable(info.getTableId());
+            PlanCache.getInstance().invalidateTable(olapTable.getId());
             if (info.isTempPartition()) {
                 olapTable.dropTempPartition(info.getPartitionName(), true);
             } else {
@@ -2574,7 +2704,7 @@ public class LocalMetastore implements ConnectorMetadata {
     }
 
     public void replayCreateTable(String dbName, Table table) {
-        Database db = this.fullNameToDb.get(dbName);
+        Database db = getDb(dbName);
         db.createTableWithLock(table, true);
 
         if (!isCheckpointThread()) {
@@ -2611,7 +2741,7 @@ public class LocalMetastore implements ConnectorMetadata {
     }
 
     public void replayCreateMaterializedView(String dbName, MaterializedView materializedView) {
-        Database db = this.fullNameToDb.get(dbName);
+        Database db = getDb(dbName);
         db.createMaterializedWithLock(materializedView, true);
 
         if (!isCheckpointThread()) {
@@ -2934,6 +3064,15 @@ public class LocalMetastore implements ConnectorMetadata {
         if (fullNameToDb.containsKey(name)) {
             return fullNameToDb.get(name);
         } else {
+            LazyDatabaseLoader loader = lazyDbLoader;
+            if (loader != null) {
+                Database db = loader.getDb(name);
+                // loaded by another thread just now if it's null
+                db = db != null ? db : fullNameToDb.get(name);
+                if (db != null) {
+                    return db;
+                }
+            }
             // This maybe a information_schema db request, and information_schema db name is case insensitive.
             // So, we first extract db name to check if it is information_schema.
             // Then we reassemble the origin cluster name with lower case db name,
@@ -2948,15 +3087,25 @@ public class LocalMetastore implements ConnectorMetadata {
 
     @Override
     public Database getDb(long dbId) {
-        return idToDb.get(dbId);
+        Database db = idToDb.get(dbId);
+        if (db == null) {
+            LazyDatabaseLoader loader = lazyDbLoader;
+            if (loader != null) {
+                db = loader.getDb(dbId);
+                // loaded by another thread just now if it's null
+                db = db != null ? db : idToDb.get(dbId);
+            }
+        }
+        return db;
     }
 
     public ConcurrentHashMap<String, Database> getFullNameToDb() {
+        waitForLazyDbs();
         return fullNameToDb;
     }
 
     public Database getDbIncludeRecycleBin(long dbId) {
-        Database db = idToDb.get(dbId);
+        Database db = getDb(dbId);
         if (db == null) {
             db = recycleBin.getDatabase(dbId);
         }
@@ -3017,6 +3166,7 @@ public class LocalMetastore implements ConnectorMetadata {
 
     @Override
     public List<String> listDbNames() {
+        waitForLazyDbs();
         return Lists.newArrayList(fullNameToDb.keySet());
     }
 
@@ -3033,6 +3183,7 @@ public class LocalMetastore implements ConnectorMetadata {
 
     @Override
     public List<Long> getDbIds() {
+        waitForLazyDbs();
         return Lists.newArrayList(idToDb.keySet());
     }
 
@@ -3620,7 +3771,7 @@ public class LocalMetastore implements ConnectorMetadata {
     }
 
     private void disableMaterializedView(Database db, OlapTable olapTable) {
-        for (MvId mvId : olapTable.getRelatedMaterializedViews()) {
+        for (MvId mvId : olapTable.getAllRelatedMaterializedViews()) {
             MaterializedView mv = (MaterializedView) db.getTable(mvId.getId());
             if (mv != null) {
                 mv.setActive(false);
@@ -4199,8 +4350,8 @@ public class LocalMetastore implements ConnectorMetadata {
                 InfoSchemaDb db;
                 // Use real GlobalStateMgr instance to avoid InfoSchemaDb id continuously increment
                 // when checkpoint thread load image.
-                if (getFullNameToDb().containsKey(dbName)) {
-                    db = (InfoSchemaDb) GlobalStateMgr.getCurrentState().getFullNameToDb().get(dbName);
+                if (fullNameToDb.containsKey(dbName)) {
+                    db = (InfoSchemaDb) fullNameToDb.get(dbName);
                 } else {
                     db = new InfoSchemaDb();
                 }
@@ -4246,6 +4397,7 @@ public class LocalMetastore implements ConnectorMetadata {
         // most users hava no multi tenant needs.
         cluster.setBackendIdList(backendList);
         unprotectCreateCluster(cluster);
+        waitForLazyDbs();
         for (Database db : idToDb.values()) {
             cluster.addDb(db.getFullName(), db.getId());
         }
@@ -4430,7 +4582,7 @@ public class LocalMetastore implements ConnectorMetadata {
             editLog.logTruncateTable(info);
 
             // refresh mv
-            Set<MvId> relatedMvs = olapTable.getRelatedMaterializedViews();
+            Set<MvId> relatedMvs = olapTable.getAllRelatedMaterializedViews();
             for (MvId mvId : relatedMvs) {
                 MaterializedView materializedView = (MaterializedView) db.getTable(mvId.getId());
                 if (materializedView.isLoadTriggeredRefresh()) {
@@ -4465,6 +4617,7 @@ public class LocalMetastore implements ConnectorMetadata {
 
     private void truncateTableInternal(OlapTable olapTable, List<Partition> newPartitions,
                                        boolean isEntireTable, boolean isReplay) {
+        PlanCache.getInstance().invalidateTable(olapTable.getId());
         // use new partitions to replace the old ones.
         Set<Long> oldTabletIds = Sets.newHashSet();
         for (Partition newPartition : newPartitions) {
@@ -4776,6 +4929,7 @@ public class LocalMetastore implements ConnectorMetadata {
     // for test only
     @VisibleForTesting
     public void clear() {
+        waitForLazyDbs();
         if (idToDb != null) {
             idToDb.clear();
         }
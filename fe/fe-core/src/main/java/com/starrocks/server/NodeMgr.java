@@ -653,13 +653,9 @@ public class NodeMgr {
         StorageInfo info = getStorageInfo(infoUrl);
         long version = info.getImageJournalId();
         if (version > localImageVersion) {
-            String url = "http://" + helperNode.first + ":" + Config.http_port
-                    + "/image?version=" + version + "&subdir=" + subDir;
-            LOG.info("start to download image.{} from {}", version, url);
-            String filename = Storage.IMAGE + "." + version;
-            File dir = new File(dirStr);
-            MetaHelper.getRemoteFile(url, HTTP_TIMEOUT_SECOND * 1000, MetaHelper.getOutputStream(filename, dir));
-            MetaHelper.complete(filename, dir);
+            LOG.info("start to download image.{} from {}", version, helperNode.first);
+            MetaHelper.downloadImage(helperNode.first, Config.http_port, subDir, version, new File(dirStr),
+                    HTTP_TIMEOUT_SECOND * 1000);
         } else {
             LOG.info("skip download image for {}, current version {} >= version {} from {}",
                     dirStr, localImageVersion, version, helperNode);
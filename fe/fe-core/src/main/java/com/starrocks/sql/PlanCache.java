@@ -0,0 +1,431 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.starrocks.analysis.FunctionCallExpr;
+import com.starrocks.analysis.InformationFunction;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.VariableExpr;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.catalog.View;
+import com.starrocks.common.Config;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.AST2SQL;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.TableRelation;
+import com.starrocks.sql.ast.ViewRelation;
+import com.starrocks.sql.optimizer.LiteralBinding;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.thrift.TResultSinkType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PlanCache keeps the optimized physical plan of query statements, so a query which is
+ * planned repeatedly only pays for parse, analyze and fragment building.
+ * <p>
+ * A plan is cached under the normalized statement (literals replaced by '?'), the types of the literals,
+ * the current database, the result sink type and all session variables, so queries which only differ in
+ * the values of the literals share a plan. While the plan is built, LiteralBinding finds out the literals
+ * the plan depends on, e.g. the literals used by partition pruning, tablet pruning or constant folding.
+ * These literals are fixed, the plan is only reused if they have the same values, the other literals are
+ * rebound to the values of the new query when the fragments are built from the cached plan.
+ * <p>
+ * A cached plan is only reused when the signatures of all referenced tables are unchanged, so
+ * schema changes, rollups, partition changes, truncates and drops invalidate it on every FE,
+ * including followers replaying the journal. Statistics refreshes evict the plans of the table
+ * explicitly, and every entry expires after `plan_cache_expire_sec`.
+ */
+public class PlanCache {
+    private static final PlanCache INSTANCE = new PlanCache();
+
+    // Functions whose result is decided when the plan is built, the plan of a statement
+    // calling them can not be reused
+    private static final Set<String> UNCACHEABLE_FUNCTIONS = ImmutableSet.<String>builder()
+            .addAll(FunctionSet.nonDeterministicFunctions)
+            .add(FunctionSet.NOW)
+            .add(FunctionSet.CURRENT_TIMESTAMP)
+            .add(FunctionSet.CURDATE)
+            .add("current_date")
+            .add(FunctionSet.CURTIME)
+            .add(FunctionSet.CURRENT_TIME)
+            .add(FunctionSet.UTC_TIMESTAMP)
+            .add(FunctionSet.UNIX_TIMESTAMP)
+            .add(FunctionSet.UUID_NUMERIC)
+            .build();
+
+    private final Cache<CacheKey, CachedPlan> cache = Caffeine.newBuilder()
+            .maximumSize(Config.plan_cache_max_entries)
+            .expireAfterWrite(Config.plan_cache_expire_sec, TimeUnit.SECONDS)
+            .build();
+
+    // Increased by every invalidation. A plan whose optimization overlaps an invalidation
+    // may be built from stale statistics, so it is not put into the cache.
+    private final AtomicLong epoch = new AtomicLong(0);
+
+    public static PlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled(ConnectContext session) {
+        return session.getSessionVariable().isEnablePlanCache();
+    }
+
+    /**
+     * Build the cache key of an analyzed query statement, return null if the statement is not cacheable
+     */
+    public static CacheKey createKey(QueryStatement stmt, ConnectContext session, TResultSinkType resultSinkType) {
+        if (stmt.isExplain() || stmt.hasOutFileClause()) {
+            return null;
+        }
+
+        KeyBuilder builder = new KeyBuilder(session);
+        String digest = builder.visit(stmt);
+        if (!builder.cacheable) {
+            return null;
+        }
+
+        return new CacheKey(digest, builder.literals, builder.literalTypes, builder.literalValues,
+                session.getCurrentCatalog(), session.getDatabase(), resultSinkType,
+                session.getSessionVariable().getVariableValues(), builder.tableSignatures);
+    }
+
+    /**
+     * The signatures of the tables and views referenced by an analyzed query statement, used to find out
+     * whether their metadata is changed after the analysis. Return null if the statement is not cacheable.
+     */
+    public static Map<Long, Long> getTableSignatures(QueryStatement stmt, ConnectContext session) {
+        KeyBuilder builder = new KeyBuilder(session);
+        builder.visit(stmt);
+        return builder.cacheable ? builder.tableSignatures : null;
+    }
+
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    public CachedPlan get(CacheKey key) {
+        CachedPlan plan = cache.getIfPresent(key);
+        if (plan == null) {
+            return null;
+        }
+        if (!plan.tableSignatures.equals(key.tableSignatures)) {
+            cache.asMap().remove(key, plan);
+            return null;
+        }
+        return plan;
+    }
+
+    public void put(CacheKey key, CachedPlan plan, long planEpoch) {
+        if (planEpoch != epoch.get()) {
+            return;
+        }
+        cache.put(key, plan);
+    }
+
+    public void invalidateTable(long tableId) {
+        epoch.incrementAndGet();
+        cache.asMap().values().removeIf(plan -> plan.tableSignatures.containsKey(tableId));
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Changes whenever the metadata used by the optimizer changes, or the table is dropped and recreated
+    private static long computeSignature(Table table) {
+        long signature = Objects.hash(table.getId(), System.identityHashCode(table));
+        if (table instanceof View) {
+            return signature * 31 + Objects.hashCode(((View) table).getInlineViewDef());
+        }
+
+        OlapTable olapTable = (OlapTable) table;
+        signature = signature * 31 + olapTable.getState().ordinal();
+        signature = signature * 31 + olapTable.getBaseIndexId();
+        for (Map.Entry<Long, MaterializedIndexMeta> entry : olapTable.getIndexIdToMeta().entrySet()) {
+            signature = signature * 31 + entry.getKey();
+            signature = signature * 31 + entry.getValue().getSchemaVersion();
+            signature = signature * 31 + entry.getValue().getSchemaHash();
+        }
+        for (Partition partition : olapTable.getPartitions()) {
+            signature = signature * 31 + partition.getId();
+        }
+        for (Partition partition : olapTable.getTempPartitions()) {
+            signature = signature * 31 + partition.getId();
+        }
+        return signature;
+    }
+
+    // The constant a literal is translated to, null if it can't be translated
+    private static ConstantOperator toConstant(LiteralExpr literal) {
+        if (literal instanceof NullLiteral) {
+            return ConstantOperator.createNull(literal.getType());
+        }
+        try {
+            return ConstantOperator.createObject(literal.getRealObjectValue(), literal.getType());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static class KeyBuilder extends AST2SQL.SQLBuilder {
+        private final ConnectContext session;
+        private final List<LiteralExpr> literals = new ArrayList<>();
+        private final List<String> literalTypes = new ArrayList<>();
+        private final List<String> literalValues = new ArrayList<>();
+        private final Map<Long, Long> tableSignatures = new HashMap<>();
+        private boolean cacheable = true;
+
+        KeyBuilder(ConnectContext session) {
+            this.session = session;
+        }
+
+        @Override
+        public String visitLiteral(LiteralExpr expr, Void context) {
+            literals.add(expr);
+            literalTypes.add(expr instanceof NullLiteral ? "NULL " + expr.getType() : expr.getType().toString());
+            literalValues.add(super.visitLiteral(expr, context));
+            return "?";
+        }
+
+        @Override
+        public String visitFunctionCall(FunctionCallExpr node, Void context) {
+            if (UNCACHEABLE_FUNCTIONS.contains(node.getFnName().getFunction().toLowerCase())) {
+                cacheable = false;
+            }
+            return super.visitFunctionCall(node, context);
+        }
+
+        @Override
+        public String visitInformationFunction(InformationFunction node, Void context) {
+            cacheable = false;
+            return super.visitInformationFunction(node, context);
+        }
+
+        @Override
+        public String visitVariableExpr(VariableExpr node, Void context) {
+            // variable values are resolved into the plan
+            cacheable = false;
+            return super.visitVariableExpr(node, context);
+        }
+
+        @Override
+        public String visitTable(TableRelation node, Void context) {
+            Table table = node.getTable();
+            if (table == null || !table.isNativeTable() || node.getPartitionNames() != null
+                    || (node.getTabletIds() != null && !node.getTabletIds().isEmpty()) || node.isMetaQuery()) {
+                cacheable = false;
+            } else if (session.getSessionVariable().isEnableMaterializedViewRewrite()
+                    && !table.getRelatedMaterializedViews().isEmpty()) {
+                // materialized view rewrite depends on the data freshness of the materialized views
+                cacheable = false;
+            } else {
+                tableSignatures.put(table.getId(), computeSignature(table));
+            }
+            return super.visitTable(node, context);
+        }
+
+        @Override
+        public String visitView(ViewRelation node, Void context) {
+            View view = node.getView();
+            tableSignatures.put(view.getId(), computeSignature(view));
+            // collect the tables and uncacheable expressions referenced by the view definition
+            visit(node.getQueryStatement());
+            return super.visitView(node, context);
+        }
+    }
+
+    public static class CacheKey {
+        private final String digest;
+        private final List<String> literalTypes;
+        private final String catalog;
+        private final String database;
+        private final TResultSinkType resultSinkType;
+        private final List<Object> sessionVariables;
+        // not part of the key, used to validate and rebind the cached plan
+        private final List<LiteralExpr> literals;
+        private final List<String> literalValues;
+        private final Map<Long, Long> tableSignatures;
+
+        private CacheKey(String digest, List<LiteralExpr> literals, List<String> literalTypes,
+                         List<String> literalValues, String catalog, String database,
+                         TResultSinkType resultSinkType, List<Object> sessionVariables,
+                         Map<Long, Long> tableSignatures) {
+            this.digest = digest;
+            this.literals = literals;
+            this.literalTypes = literalTypes;
+            this.literalValues = literalValues;
+            this.catalog = catalog;
+            this.database = database;
+            this.resultSinkType = resultSinkType;
+            this.sessionVariables = sessionVariables;
+            this.tableSignatures = tableSignatures;
+        }
+
+        public List<LiteralExpr> getLiterals() {
+            return literals;
+        }
+
+        public List<String> getLiteralValues() {
+            return literalValues;
+        }
+
+        public Map<Long, Long> getTableSignatures() {
+            return tableSignatures;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return Objects.equals(digest, that.digest) &&
+                    Objects.equals(literalTypes, that.literalTypes) &&
+                    Objects.equals(catalog, that.catalog) &&
+                    Objects.equals(database, that.database) &&
+                    resultSinkType == that.resultSinkType &&
+                    Objects.equals(sessionVariables, that.sessionVariables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(digest, literalTypes, catalog, database, resultSinkType, sessionVariables);
+        }
+    }
+
+    /**
+     * The optimized plan and everything needed to build fragments from it again.
+     * PlanFragmentBuilder temporarily rewrites the children of merge joins, so building
+     * fragments from the same cached plan must be serialized on it.
+     */
+    public static class CachedPlan {
+        private final OptExpression optimizedPlan;
+        private final ColumnRefFactory columnRefFactory;
+        private final List<ColumnRefOperator> outputColumns;
+        private final boolean canUsePipeline;
+        private final Map<Long, Long> tableSignatures;
+        // the values of the literals the plan is built with
+        private final List<String> literalValues;
+        // the literals the plan depends on, they must have the same values to reuse the plan
+        private final BitSet fixedLiterals = new BitSet();
+        // the types the other literals reach the fragments in
+        private final Map<Integer, Set<Type>> rebindTypes = new HashMap<>();
+
+        /**
+         * @param binding the binding tracking the literals while the plan is built
+         */
+        public CachedPlan(CacheKey key, OptExpression optimizedPlan, ColumnRefFactory columnRefFactory,
+                          List<ColumnRefOperator> outputColumns, boolean canUsePipeline, LiteralBinding binding) {
+            this.optimizedPlan = optimizedPlan;
+            this.columnRefFactory = columnRefFactory;
+            this.outputColumns = outputColumns;
+            this.canUsePipeline = canUsePipeline;
+            this.tableSignatures = key.tableSignatures;
+            this.literalValues = key.literalValues;
+
+            // literals of the same value may be merged by the optimizer without reading the values
+            Map<String, Integer> valueCounts = new HashMap<>();
+            for (int i = 0; i < literalValues.size(); i++) {
+                valueCounts.merge(key.literalTypes.get(i) + ":" + literalValues.get(i), 1, Integer::sum);
+            }
+            for (int i = 0; i < literalValues.size(); i++) {
+                Set<Type> types = binding.getReachedTypes(i);
+                ConstantOperator value = toConstant(key.literals.get(i));
+                if (types == null || binding.isPinned(i) || value == null || binding.hasUntaggedValue(value) ||
+                        valueCounts.get(key.literalTypes.get(i) + ":" + literalValues.get(i)) > 1) {
+                    fixedLiterals.set(i);
+                } else {
+                    rebindTypes.put(i, types);
+                }
+            }
+        }
+
+        /**
+         * Bind the literals of a query with the same key to the plan, return the values of the rebindable
+         * literals by the types they reach the fragments in, or null if the plan can't be reused because
+         * a fixed literal has a different value, or a new value can't be cast to the types.
+         */
+        public Map<Integer, Map<Type, ConstantOperator>> bindLiterals(CacheKey key) {
+            Map<Integer, Map<Type, ConstantOperator>> values = new HashMap<>();
+            for (int i = 0; i < literalValues.size(); i++) {
+                if (fixedLiterals.get(i)) {
+                    if (!literalValues.get(i).equals(key.literalValues.get(i))) {
+                        return null;
+                    }
+                    continue;
+                }
+
+                ConstantOperator value = toConstant(key.literals.get(i));
+                if (value == null) {
+                    return null;
+                }
+                Map<Type, ConstantOperator> typedValues = new HashMap<>();
+                for (Type type : rebindTypes.get(i)) {
+                    if (type.equals(value.getType())) {
+                        typedValues.put(type, value);
+                        continue;
+                    }
+                    try {
+                        typedValues.put(type, value.castTo(type));
+                    } catch (Exception e) {
+                        return null;
+                    }
+                }
+                values.put(i, typedValues);
+            }
+            return values;
+        }
+
+        /**
+         * Whether the plan depends on the value of a literal, so it's only reused for the same value
+         */
+        public boolean isFixedLiteral(int literalIndex) {
+            return fixedLiterals.get(literalIndex);
+        }
+
+        public OptExpression getOptimizedPlan() {
+            return optimizedPlan;
+        }
+
+        public ColumnRefFactory getColumnRefFactory() {
+            return columnRefFactory;
+        }
+
+        public List<ColumnRefOperator> getOutputColumns() {
+            return outputColumns;
+        }
+
+        public boolean canUsePipeline() {
+            return canUsePipeline;
+        }
+    }
+}
@@ -2,6 +2,8 @@
 package com.starrocks.sql;
 
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Type;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.qe.ConnectContext;
@@ -15,12 +17,15 @@ import com.starrocks.sql.ast.QueryStatement;
 import com.starrocks.sql.ast.Relation;
 import com.starrocks.sql.ast.StatementBase;
 import com.starrocks.sql.ast.UpdateStmt;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.Optimizer;
 import com.starrocks.sql.optimizer.OptimizerTraceUtil;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
@@ -38,7 +43,19 @@ public class StatementPlanner {
     }
 
     public static ExecPlan plan(StatementBase stmt, ConnectContext session, boolean lockDb, TResultSinkType resultSinkType) {
-        if (stmt instanceof QueryStatement) {
+        return plan(stmt, session, lockDb, resultSinkType, false);
+    }
+
+    /**
+     * Plan an analyzed query statement without analyzing it again, used to execute a prepared statement
+     */
+    public static ExecPlan planAnalyzed(QueryStatement stmt, ConnectContext session) {
+        return plan(stmt, session, true, TResultSinkType.MYSQL_PROTOCAL, true);
+    }
+
+    private static ExecPlan plan(StatementBase stmt, ConnectContext session, boolean lockDb,
+                                 TResultSinkType resultSinkType, boolean analyzed) {
+        if (stmt instanceof QueryStatement && !analyzed) {
             OptimizerTraceUtil.logQueryStatement(session, "after parse:\n%s", (QueryStatement) stmt);
         }
 
@@ -49,8 +66,10 @@ public class StatementPlanner {
         }
         try {
             lock(dbLocks);
-            try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("Analyzer")) {
-                Analyzer.analyze(stmt, session);
+            if (!analyzed) {
+                try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("Analyzer")) {
+                    Analyzer.analyze(stmt, session);
+                }
             }
 
             PrivilegeChecker.check(stmt, session);
@@ -62,7 +81,12 @@ public class StatementPlanner {
                 QueryStatement queryStmt = (QueryStatement) stmt;
                 session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
                 resultSinkType = queryStmt.hasOutFileClause() ? TResultSinkType.FILE : resultSinkType;
-                ExecPlan plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+                ExecPlan plan;
+                if (PlanCache.isEnabled(session)) {
+                    plan = createQueryPlanWithCache(queryStmt, session, resultSinkType);
+                } else {
+                    plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+                }
                 setOutfileSink(queryStmt, plan);
 
                 return plan;
@@ -79,45 +103,120 @@ public class StatementPlanner {
         return null;
     }
 
+    /**
+     * Only analyze the statement under the database locks, used to describe a prepared statement
+     */
+    public static void analyze(StatementBase stmt, ConnectContext session) {
+        Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, stmt);
+        try {
+            lock(dbs);
+            Analyzer.analyze(stmt, session);
+        } finally {
+            unLock(dbs);
+        }
+    }
+
     public static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType) {
+        return createQueryPlan(relation, session, resultSinkType, null);
+    }
+
+    private static ExecPlan createQueryPlanWithCache(QueryStatement queryStmt, ConnectContext session,
+                                                     TResultSinkType resultSinkType) {
+        PlanCache.CacheKey cacheKey = PlanCache.createKey(queryStmt, session, resultSinkType);
+        if (cacheKey == null) {
+            return createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+        }
+
+        PlanCache.CachedPlan cachedPlan = PlanCache.getInstance().get(cacheKey);
+        Map<Integer, Map<Type, ConstantOperator>> literalValues =
+                cachedPlan == null ? null : cachedPlan.bindLiterals(cacheKey);
+        if (literalValues == null) {
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_PLAN_CACHE_MISS.increase(1L);
+            }
+            return createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType, cacheKey);
+        }
+
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_HIT.increase(1L);
+        }
+        PlannerProfile.addCustomProperties("PlanCache", "hit");
+        // PlanFragmentBuilder temporarily modifies the optimized plan, see PlanCache.CachedPlan
+        synchronized (cachedPlan) {
+            try (LiteralBinding ignored = LiteralBinding.rebind(literalValues)) {
+                return buildExecPlan(cachedPlan.getOptimizedPlan(), session, cachedPlan.getOutputColumns(),
+                        cachedPlan.getColumnRefFactory(), queryStmt.getQueryRelation().getColumnOutputNames(),
+                        resultSinkType, cachedPlan.canUsePipeline(), false);
+            }
+        }
+    }
+
+    private static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType,
+                                            PlanCache.CacheKey cacheKey) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
+        long planCacheEpoch = PlanCache.getInstance().getEpoch();
+
+        // track the literals the plan depends on, so the plan can be rebound to other values
+        try (LiteralBinding binding = cacheKey == null ? null : LiteralBinding.track(cacheKey.getLiterals())) {
+            //1. Build Logical plan
+            ColumnRefFactory columnRefFactory = new ColumnRefFactory();
+            LogicalPlan logicalPlan =
+                    new RelationTransformer(columnRefFactory, session).transformWithSelectLimit(query);
 
-        //1. Build Logical plan
-        ColumnRefFactory columnRefFactory = new ColumnRefFactory();
-        LogicalPlan logicalPlan = new RelationTransformer(columnRefFactory, session).transformWithSelectLimit(query);
+            ExecPlan execPlan = buildExecPlan(logicalPlan.getRoot(), session, logicalPlan.getOutputColumn(),
+                    columnRefFactory, colNames, resultSinkType, logicalPlan.canUsePipeline(), true);
+            if (binding != null) {
+                PlanCache.getInstance().put(cacheKey, new PlanCache.CachedPlan(cacheKey, execPlan.getPhysicalPlan(),
+                        columnRefFactory, logicalPlan.getOutputColumn(), logicalPlan.canUsePipeline(), binding),
+                        planCacheEpoch);
+            }
+            return execPlan;
+        }
+    }
 
+    /**
+     * Build the fragments of a query. If needOptimize is true, root is a logical plan and
+     * will be optimized first, otherwise root is an already optimized physical plan.
+     */
+    private static ExecPlan buildExecPlan(OptExpression root, ConnectContext session,
+                                          List<ColumnRefOperator> outputColumns, ColumnRefFactory columnRefFactory,
+                                          List<String> colNames, TResultSinkType resultSinkType,
+                                          boolean logicalPlanCanUsePipeline, boolean needOptimize) {
         // TODO: remove forceDisablePipeline when all the operators support pipeline engine.
         boolean isEnablePipeline = session.getSessionVariable().isEnablePipelineEngine();
         boolean canUsePipeline =
-                isEnablePipeline && ResultSink.canUsePipeLine(resultSinkType) && logicalPlan.canUsePipeline();
+                isEnablePipeline && ResultSink.canUsePipeLine(resultSinkType) && logicalPlanCanUsePipeline;
         boolean forceDisablePipeline = isEnablePipeline && !canUsePipeline;
         try {
             if (forceDisablePipeline) {
                 session.getSessionVariable().setEnablePipelineEngine(false);
             }
 
-            OptExpression optimizedPlan;
-            try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("Optimizer")) {
-                //2. Optimize logical plan and build physical plan
-                Optimizer optimizer = new Optimizer();
-                optimizedPlan = optimizer.optimize(
-                        session,
-                        logicalPlan.getRoot(),
-                        new PhysicalPropertySet(),
-                        new ColumnRefSet(logicalPlan.getOutputColumn()),
-                        columnRefFactory);
+            OptExpression optimizedPlan = root;
+            if (needOptimize) {
+                try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("Optimizer")) {
+                    //2. Optimize logical plan and build physical plan
+                    Optimizer optimizer = new Optimizer();
+                    optimizedPlan = optimizer.optimize(
+                            session,
+                            root,
+                            new PhysicalPropertySet(),
+                            new ColumnRefSet(outputColumns),
+                            columnRefFactory);
+                }
             }
             try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("ExecPlanBuild")) {
 
                 //3. Build fragment exec plan
+                LiteralBinding.startFragmentBuild();
                 /*
                  * SingleNodeExecPlan is set in TableQueryPlanAction to generate a single-node Plan,
                  * currently only used in Spark/Flink Connector
                  * Because the connector sends only simple queries, it only needs to remove the output fragment
                  */
                 return new PlanFragmentBuilder().createPhysicalPlan(
-                        optimizedPlan, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames,
+                        optimizedPlan, session, outputColumns, columnRefFactory, colNames,
                         resultSinkType,
                         !session.getSessionVariable().isSingleNodeExecPlan());
             }
@@ -27,6 +27,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LimitElement;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.StringLiteral;
@@ -627,6 +628,12 @@ public class AST2SQL {
             return "(" + visit(node.getQueryStatement()) + ")";
         }
 
+        @Override
+        public String visitParameter(Parameter node, Void context) {
+            // the bound value is printed, so the plan cache key contains the value like a literal
+            return node.getValue() == null ? "?" : visit(node.getValue());
+        }
+
         public String visitVariableExpr(VariableExpr node, Void context) {
             StringBuilder sb = new StringBuilder();
             if (node.getSetType() == SetType.USER) {
@@ -25,6 +25,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.Subquery;
@@ -283,6 +284,11 @@ public class AggregationAnalyzer {
             return true;
         }
 
+        @Override
+        public Boolean visitParameter(Parameter node, Void context) {
+            return true;
+        }
+
         @Override
         public Boolean visitTimestampArithmeticExpr(TimestampArithmeticExpr node, Void context) {
             return visit(node.getChild(0)) && visit(node.getChild(1));
@@ -31,6 +31,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.PlaceHolderExpr;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.SlotRef;
@@ -607,6 +608,16 @@ public class ExpressionAnalyzer {
             return null;
         }
 
+        @Override
+        public Void visitParameter(Parameter node, Scope scope) {
+            if (node.getValue() == null) {
+                throw new SemanticException("Parameter " + node.getSlotId() + " of prepared statement is not bound");
+            }
+            visit(node.getValue(), scope);
+            node.setType(node.getValue().getType());
+            return null;
+        }
+
         @Override
         public Void visitIsNullPredicate(IsNullPredicate node, Scope scope) {
             predicateBaseAndCheck(node);
@@ -0,0 +1,225 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer;
+
+import com.google.common.base.Preconditions;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.logical.LogicalScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LiteralBinding finds out which literals of a query an optimized plan doesn't depend on, so the plan can be
+ * reused by a query which only differs in the values of these literals, see com.starrocks.sql.PlanCache.
+ * <p>
+ * While the plan is built, a constant translated from a literal is tagged with the index of the literal, and
+ * reading the value of a tagged constant pins the literal, because the plan may depend on the value, e.g. by
+ * constant folding, predicate simplification or partition pruning. Statistics estimation doesn't pin literals,
+ * it only changes the cost of a plan. Folding the cast of a tagged constant keeps the tag, the new value of the
+ * literal is cast again when it's rebound.
+ * <p>
+ * A literal is rebindable if it's not pinned and reaches the fragments, and no other constant in the fragments
+ * has the same value. When the fragments are built again from the cached plan, ScalarOperatorToExpr replaces
+ * the tagged constants by the values of the new query.
+ * <p>
+ * The binding is kept in a thread local, planning a query is single threaded except the parallel join reorder,
+ * which only estimates statistics.
+ */
+public class LiteralBinding implements AutoCloseable {
+    private static final ThreadLocal<LiteralBinding> CURRENT = new ThreadLocal<>();
+
+    private static final Pause NO_PAUSE = () -> {
+    };
+
+    private final LiteralBinding previous;
+    // the literals of the query being planned, empty if a cached plan is rebound
+    private final Map<LiteralExpr, Integer> literalIndexes = new IdentityHashMap<>();
+    // the values of the literals of the query reusing a cached plan, by the types they reach the fragments in
+    private final Map<Integer, Map<Type, ConstantOperator>> values;
+
+    private final BitSet pinnedLiterals = new BitSet();
+    private final Map<Integer, Set<Type>> reachedTypes = new HashMap<>();
+    private final Set<String> untaggedValues = new HashSet<>();
+    private boolean buildingFragments = false;
+    private int pauseDepth = 0;
+
+    private LiteralBinding(List<LiteralExpr> literals, Map<Integer, Map<Type, ConstantOperator>> values) {
+        for (int i = 0; i < literals.size(); i++) {
+            literalIndexes.put(literals.get(i), i);
+        }
+        this.values = values;
+        this.previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Track the literals while the plan of a query is built
+     */
+    public static LiteralBinding track(List<LiteralExpr> literals) {
+        return new LiteralBinding(literals, null);
+    }
+
+    /**
+     * Replace the rebindable literals by new values while the fragments are built from a cached plan
+     */
+    public static LiteralBinding rebind(Map<Integer, Map<Type, ConstantOperator>> values) {
+        return new LiteralBinding(Collections.emptyList(), values);
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public boolean isPinned(int literalIndex) {
+        return pinnedLiterals.get(literalIndex);
+    }
+
+    /**
+     * The types a literal reaches the fragments in, null if the literal doesn't reach the fragments
+     */
+    public Set<Type> getReachedTypes(int literalIndex) {
+        return reachedTypes.get(literalIndex);
+    }
+
+    /**
+     * Whether a constant which isn't translated from a literal has the same value, it may be a copy
+     * of the literal made without reading the value
+     */
+    public boolean hasUntaggedValue(ConstantOperator literal) {
+        return untaggedValues.contains(valueKey(literal));
+    }
+
+    // Literals of different numeric types or of date and datetime with the same value are equal
+    private static String valueKey(ConstantOperator constant) {
+        if (constant.isNull()) {
+            return "null";
+        }
+        Object value = constant.getValue();
+        return value instanceof LocalDateTime ? value.toString() : constant.toString();
+    }
+
+    public static void tag(LiteralExpr literal, ConstantOperator constant) {
+        LiteralBinding binding = CURRENT.get();
+        if (binding == null) {
+            return;
+        }
+        Integer index = binding.literalIndexes.get(literal);
+        if (index != null) {
+            constant.setLiteralIndex(index);
+        }
+    }
+
+    public static void onValueRead(ConstantOperator constant) {
+        LiteralBinding binding = CURRENT.get();
+        if (binding != null && binding.values == null && binding.pauseDepth == 0) {
+            binding.pinnedLiterals.set(constant.getLiteralIndex());
+        }
+    }
+
+    /**
+     * Pin the literals of the conjuncts on the columns, used if the plan depends on values
+     * read without pinning, e.g. the column filters used by partition and tablet pruning
+     */
+    public static void pinLiterals(LogicalScanOperator scan, List<Column> columns) {
+        LiteralBinding binding = CURRENT.get();
+        if (binding == null || binding.values != null || scan.getPredicate() == null) {
+            return;
+        }
+        ColumnRefSet columnRefs = new ColumnRefSet();
+        for (Column column : columns) {
+            ColumnRefOperator columnRef = scan.getColumnReference(column);
+            if (columnRef != null) {
+                columnRefs.union(columnRef);
+            }
+        }
+        for (ScalarOperator conjunct : Utils.extractConjuncts(scan.getPredicate())) {
+            if (conjunct.getUsedColumns().isIntersect(columnRefs)) {
+                binding.pin(conjunct);
+            }
+        }
+    }
+
+    private void pin(ScalarOperator operator) {
+        if (operator instanceof ConstantOperator) {
+            int literalIndex = ((ConstantOperator) operator).getLiteralIndex();
+            if (literalIndex >= 0) {
+                pinnedLiterals.set(literalIndex);
+            }
+            return;
+        }
+        for (ScalarOperator child : operator.getChildren()) {
+            pin(child);
+        }
+    }
+
+    /**
+     * Values read in the scope don't pin literals, e.g. while statistics are estimated
+     */
+    public static Pause pause() {
+        LiteralBinding binding = CURRENT.get();
+        if (binding == null) {
+            return NO_PAUSE;
+        }
+        binding.pauseDepth++;
+        return () -> binding.pauseDepth--;
+    }
+
+    public static void startFragmentBuild() {
+        LiteralBinding binding = CURRENT.get();
+        if (binding != null) {
+            binding.buildingFragments = true;
+        }
+    }
+
+    /**
+     * Called for every constant converted to an expression, return the constant with the value to use
+     */
+    public static ConstantOperator bind(ConstantOperator constant) {
+        LiteralBinding binding = CURRENT.get();
+        if (binding == null || !binding.buildingFragments) {
+            return constant;
+        }
+        int literalIndex = constant.getLiteralIndex();
+        if (binding.values != null) {
+            if (literalIndex < 0) {
+                return constant;
+            }
+            ConstantOperator value = binding.values.get(literalIndex).get(constant.getType());
+            Preconditions.checkState(value != null, "literal %s is not bound to %s", literalIndex,
+                    constant.getType());
+            return value;
+        }
+
+        if (literalIndex < 0) {
+            binding.untaggedValues.add(valueKey(constant));
+            return constant;
+        }
+        binding.reachedTypes.computeIfAbsent(literalIndex, k -> new HashSet<>()).add(constant.getType());
+        // the value is read to build the expression, which doesn't pin the literal
+        return constant.withoutLiteralIndex();
+    }
+
+    public interface Pause extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
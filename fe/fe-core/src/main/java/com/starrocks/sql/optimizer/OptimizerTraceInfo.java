@@ -7,12 +7,16 @@ import com.google.common.base.Stopwatch;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 // OptimizerTraceInfo is used to record some important info during query optimization
 public class OptimizerTraceInfo {
     private final UUID queryId;
     private final Map<String, Integer> rulesAppliedTimes = new HashMap<>();
     private final Stopwatch stopwatch;
+    // join reorder algorithms may run concurrently
+    private final AtomicLong statisticsMemoHits = new AtomicLong();
+    private final AtomicLong statisticsMemoMisses = new AtomicLong();
 
     public OptimizerTraceInfo(UUID queryId) {
         this.queryId = queryId;
@@ -27,6 +31,27 @@ public class OptimizerTraceInfo {
         return rulesAppliedTimes;
     }
 
+    public void recordStatisticsMemoHit() {
+        statisticsMemoHits.incrementAndGet();
+    }
+
+    public void recordStatisticsMemoMiss() {
+        statisticsMemoMisses.incrementAndGet();
+    }
+
+    public long getStatisticsMemoHits() {
+        return statisticsMemoHits.get();
+    }
+
+    public long getStatisticsMemoMisses() {
+        return statisticsMemoMisses.get();
+    }
+
+    public double getStatisticsMemoHitRate() {
+        long total = statisticsMemoHits.get() + statisticsMemoMisses.get();
+        return total == 0 ? 0 : (double) statisticsMemoHits.get() / total;
+    }
+
     public UUID getQueryId() {
         return queryId;
     }
@@ -39,6 +64,9 @@ public class OptimizerTraceInfo {
     public String toString() {
         StringBuilder sb = new StringBuilder("OptimizerTraceInfo");
         sb.append("\nRules' applied times\n").append(rulesAppliedTimes);
+        sb.append("\nJoin statistics memo hits: ").append(statisticsMemoHits.get())
+                .append(", misses: ").append(statisticsMemoMisses.get())
+                .append(String.format(", hit rate: %.2f", getStatisticsMemoHitRate()));
         return sb.toString();
     }
 }
@@ -3,49 +3,55 @@
 package com.starrocks.sql.optimizer.base;
 
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
 
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.stream.IntStream;
 
-// BitSet used to accelerate column processing
+// Compressed bitmap used to accelerate column processing.
+// Column ids of big queries are large and sparse, a java.util.BitSet always allocates words
+// from id 0, so a set of a few columns could cost kilobytes. RoaringBitmap only keeps the
+// containers of the used id ranges, and a container is a sorted array when it is sparse.
 public class ColumnRefSet implements Cloneable {
-    public BitSet bitSet;
+    private RoaringBitmap bitSet;
 
     public ColumnRefSet() {
-        bitSet = new BitSet();
+        bitSet = new RoaringBitmap();
     }
 
     public ColumnRefSet(int id) {
-        bitSet = new BitSet();
-        bitSet.set(id);
+        bitSet = new RoaringBitmap();
+        bitSet.add(id);
     }
 
     public ColumnRefSet(Collection<ColumnRefOperator> refs) {
-        bitSet = new BitSet();
+        bitSet = new RoaringBitmap();
         for (ColumnRefOperator ref : refs) {
-            bitSet.set(ref.getId());
+            bitSet.add(ref.getId());
         }
     }
 
     public int[] getColumnIds() {
-        return bitSet.stream().toArray();
+        return bitSet.toArray();
     }
 
     public IntStream getStream() {
-        return bitSet.stream();
+        return Arrays.stream(bitSet.toArray());
     }
 
     public int getFirstId() {
-        return bitSet.stream().findFirst().getAsInt();
+        return bitSet.first();
     }
 
     @Override
     public ColumnRefSet clone() {
         try {
             ColumnRefSet result = (ColumnRefSet) super.clone();
-            result.bitSet = (BitSet) bitSet.clone();
+            result.bitSet = bitSet.clone();
             return result;
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
@@ -67,20 +73,22 @@ public class ColumnRefSet implements Cloneable {
     }
 
     public int size() {
-        return bitSet.cardinality();
+        return bitSet.getCardinality();
     }
 
     // The meaning is same with SQL Union Operation
     public void union(int id) {
-        bitSet.set(id);
+        bitSet.add(id);
     }
 
     public void union(ColumnRefOperator ref) {
-        bitSet.set(ref.getId());
+        bitSet.add(ref.getId());
     }
 
     public void union(Collection<ColumnRefOperator> refs) {
-        union(new ColumnRefSet(refs));
+        for (ColumnRefOperator ref : refs) {
+            bitSet.add(ref.getId());
+        }
     }
 
     public void union(ColumnRefSet set) {
@@ -89,7 +97,9 @@ public class ColumnRefSet implements Cloneable {
 
     // The meaning is same with SQL Except Operation
     public void except(List<ColumnRefOperator> refs) {
-        except(new ColumnRefSet(refs));
+        for (ColumnRefOperator ref : refs) {
+            bitSet.remove(ref.getId());
+        }
     }
 
     public void except(ColumnRefSet set) {
@@ -102,11 +112,15 @@ public class ColumnRefSet implements Cloneable {
     }
 
     public void intersect(ColumnRefOperator column) {
-        intersect(new ColumnRefSet(column.getId()));
+        intersect(column.getId());
     }
 
     public void intersect(int id) {
-        intersect(new ColumnRefSet(id));
+        boolean contains = bitSet.contains(id);
+        bitSet.clear();
+        if (contains) {
+            bitSet.add(id);
+        }
     }
 
     public void intersect(ColumnRefSet set) {
@@ -114,11 +128,11 @@ public class ColumnRefSet implements Cloneable {
     }
 
     public boolean isIntersect(ColumnRefSet other) {
-        return bitSet.intersects(other.bitSet);
+        return RoaringBitmap.intersects(bitSet, other.bitSet);
     }
 
     public int cardinality() {
-        return bitSet.cardinality();
+        return bitSet.getCardinality();
     }
 
     public boolean isEmpty() {
@@ -130,10 +144,7 @@ public class ColumnRefSet implements Cloneable {
     }
 
     public boolean isSame(ColumnRefSet columnRefSet) {
-        final ColumnRefSet tmp = new ColumnRefSet();
-        tmp.union(columnRefSet);
-        tmp.bitSet.xor(bitSet);
-        return tmp.cardinality() == 0;
+        return bitSet.equals(columnRefSet.bitSet);
     }
 
     public void clear() {
@@ -141,27 +152,86 @@ public class ColumnRefSet implements Cloneable {
     }
 
     public boolean contains(ColumnRefOperator ref) {
-        return bitSet.get(ref.getId());
+        return bitSet.contains(ref.getId());
     }
 
     public boolean contains(int id) {
-        return bitSet.get(id);
+        return bitSet.contains(id);
     }
 
+    // Check the containers of rhs one by one, stop at the first one not contained, no intermediate set is built
     public boolean containsAll(ColumnRefSet rhs) {
-        return rhs.bitSet.stream().allMatch(bit -> bitSet.get(bit));
+        return bitSet.contains(rhs.bitSet);
     }
 
     public boolean containsAny(ColumnRefSet rhs) {
-        return rhs.bitSet.stream().anyMatch(bit -> bitSet.get(bit));
+        return RoaringBitmap.intersects(bitSet, rhs.bitSet);
     }
 
     public boolean containsAll(List<Integer> rhs) {
-        return rhs.stream().allMatch(bit -> bitSet.get(bit));
+        for (Integer id : rhs) {
+            if (!bitSet.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write left union right into result, the containers of result are reused,
+     * so hot paths could keep one result set instead of cloning for each union.
+     * result could be the same set as left or right.
+     */
+    public static void union(ColumnRefSet left, ColumnRefSet right, ColumnRefSet result) {
+        if (result == left) {
+            result.bitSet.or(right.bitSet);
+        } else if (result == right) {
+            result.bitSet.or(left.bitSet);
+        } else {
+            result.bitSet.clear();
+            result.bitSet.or(left.bitSet);
+            result.bitSet.or(right.bitSet);
+        }
+    }
+
+    /**
+     * Write left intersect right into result, see {@link #union(ColumnRefSet, ColumnRefSet, ColumnRefSet)}
+     */
+    public static void intersect(ColumnRefSet left, ColumnRefSet right, ColumnRefSet result) {
+        if (result == left) {
+            result.bitSet.and(right.bitSet);
+        } else if (result == right) {
+            result.bitSet.and(left.bitSet);
+        } else {
+            result.bitSet.clear();
+            result.bitSet.or(left.bitSet);
+            result.bitSet.and(right.bitSet);
+        }
+    }
+
+    /**
+     * Write left except right into result, see {@link #union(ColumnRefSet, ColumnRefSet, ColumnRefSet)}.
+     * A new bitmap is only allocated if result is right.
+     */
+    public static void except(ColumnRefSet left, ColumnRefSet right, ColumnRefSet result) {
+        if (result == right) {
+            result.bitSet = RoaringBitmap.andNot(left.bitSet, right.bitSet);
+            return;
+        }
+        if (result != left) {
+            result.bitSet.clear();
+            result.bitSet.or(left.bitSet);
+        }
+        result.bitSet.andNot(right.bitSet);
     }
 
     @Override
     public String toString() {
-        return bitSet.toString();
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        IntIterator iterator = bitSet.getIntIterator();
+        while (iterator.hasNext()) {
+            joiner.add(String.valueOf(iterator.next()));
+        }
+        return joiner.toString();
     }
 }
@@ -0,0 +1,351 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.cost;
+
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.common.util.Counter;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.qe.VariableMgr;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.ast.SetType;
+import com.starrocks.sql.ast.SetVar;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fit the weights of cpu, memory and network cost from the profile of executed queries.
+ * <p>
+ * The cost model counts all kinds of cost in bytes, so the weight of a kind of cost is the price of its resource,
+ * i.e. the time spent per byte. The operators in the merged pipeline profile are classified as:
+ * 1. network: EXCHANGE_SINK, the price is NetworkTime per BytesSent.
+ * 2. memory: the blocking sinks and hash join build, which materialize their input in memory, the price is
+ *    OperatorTotalTime per PeakMemoryUsage.
+ * 3. cpu: the other streaming operators, such as hash join probe, project and aggregate source, the price is
+ *    OperatorTotalTime per byte processed, which is the rows multiplied by the average row size estimated for
+ *    the plan node.
+ * Scan and exchange source are skipped, most of their time is waiting for io.
+ * <p>
+ * After every `cost_model_calibration_min_queries` queries, the prices observed in the window are fitted as the
+ * weights. Only the ratios between the weights matter, so the prices of the sampled resources are scaled to keep
+ * the sum of their default weights, and each weight moves toward its fitted value by `SMOOTHING_FACTOR` to damp
+ * the noise of a single window. The leader saves the weights as the global `cbo_*_cost_weight` variables, so
+ * they are persisted and synced to the followers, new sessions use the weights and users could still override
+ * them in session.
+ * <p>
+ * The profiles are collected by a background thread, and dropped if it falls behind.
+ */
+public class CostModelCalibrator {
+    private static final Logger LOG = LogManager.getLogger(CostModelCalibrator.class);
+
+    private static final CostModelCalibrator INSTANCE = new CostModelCalibrator();
+
+    // a fitted weight is bounded in [default / MAX_ADJUST_RATIO, default * MAX_ADJUST_RATIO]
+    private static final double MAX_ADJUST_RATIO = 10;
+    // how far a weight moves from the current value toward the fitted value in a window
+    private static final double SMOOTHING_FACTOR = 0.5;
+    // don't write the global variables if all weights change less than it
+    private static final double MIN_CHANGE_RATIO = 0.05;
+    private static final String PLAN_NODE_ID_PREFIX = "plan_node_id=";
+    // the profiles waiting to be collected, the others are dropped
+    private static final int COLLECT_QUEUE_SIZE = 1024;
+
+    private static final ExecutorService COLLECT_EXECUTOR = ThreadPoolManager.newDaemonThreadPool(1, 1,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(COLLECT_QUEUE_SIZE),
+            new ThreadPoolExecutor.DiscardPolicy(), "cost-model-calibrator", true);
+
+    private final ResourceCost cpuCost = new ResourceCost(CostModel.DEFAULT_CPU_COST_WEIGHT);
+    private final ResourceCost memoryCost = new ResourceCost(CostModel.DEFAULT_MEMORY_COST_WEIGHT);
+    private final ResourceCost networkCost = new ResourceCost(CostModel.DEFAULT_NETWORK_COST_WEIGHT);
+    private int queryNum = 0;
+
+    public static CostModelCalibrator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Collect the profile of a finished query in the background, it's called on the query response path
+     */
+    public void collectAsync(RuntimeProfile queryProfile, List<PlanFragment> fragments) {
+        if (!Config.enable_cost_model_calibration || queryProfile == null || fragments == null) {
+            return;
+        }
+        COLLECT_EXECUTOR.execute(() -> collect(queryProfile, fragments));
+    }
+
+    void collect(RuntimeProfile queryProfile, List<PlanFragment> fragments) {
+        Map<Integer, Float> avgRowSizes = Maps.newHashMap();
+        for (PlanFragment fragment : fragments) {
+            collectAvgRowSizes(fragment.getPlanRoot(), avgRowSizes);
+        }
+
+        Weights weights;
+        synchronized (this) {
+            if (!addQuery(queryProfile, avgRowSizes)) {
+                return;
+            }
+            if (queryNum < Config.cost_model_calibration_min_queries) {
+                return;
+            }
+            SessionVariable global = VariableMgr.getDefaultSessionVariable();
+            weights = fit(new Weights(global.getCboCpuCostWeight(), global.getCboMemoryCostWeight(),
+                    global.getCboNetworkCostWeight())).orElse(null);
+            reset();
+        }
+        if (weights != null) {
+            apply(weights);
+        }
+    }
+
+    private static void collectAvgRowSizes(PlanNode node, Map<Integer, Float> avgRowSizes) {
+        if (node == null) {
+            return;
+        }
+        avgRowSizes.put(node.getId().asInt(), node.getAvgRowSize());
+        for (PlanNode child : node.getChildren()) {
+            collectAvgRowSizes(child, avgRowSizes);
+        }
+    }
+
+    /**
+     * Return false if no operator of the query is collected
+     *
+     * @param avgRowSizes the estimated average row size of each plan node, keyed by the plan node id
+     */
+    synchronized boolean addQuery(RuntimeProfile queryProfile, Map<Integer, Float> avgRowSizes) {
+        boolean collected = false;
+        for (Pair<RuntimeProfile, Boolean> fragmentPair : queryProfile.getChildList()) {
+            for (Pair<RuntimeProfile, Boolean> pipelinePair : fragmentPair.first.getChildList()) {
+                for (Pair<RuntimeProfile, Boolean> operatorPair : pipelinePair.first.getChildList()) {
+                    collected |= addOperator(operatorPair.first, avgRowSizes);
+                }
+            }
+        }
+        if (collected) {
+            queryNum++;
+        }
+        return collected;
+    }
+
+    private boolean addOperator(RuntimeProfile operatorProfile, Map<Integer, Float> avgRowSizes) {
+        RuntimeProfile commonMetrics = operatorProfile.getChild("CommonMetrics");
+        RuntimeProfile uniqueMetrics = operatorProfile.getChild("UniqueMetrics");
+        if (commonMetrics == null || uniqueMetrics == null) {
+            return false;
+        }
+
+        // the name is like "HASH_JOIN_PROBE (plan_node_id=3)"
+        String name = operatorProfile.getName();
+        int end = name.indexOf(' ');
+        name = end < 0 ? name : name.substring(0, end);
+
+        ResourceCost resourceCost;
+        Counter time;
+        Counter amount;
+        // the bytes per unit of the amount
+        double unitBytes = 1;
+        if (name.equals("EXCHANGE_SINK")) {
+            resourceCost = networkCost;
+            time = uniqueMetrics.getCounter("NetworkTime");
+            amount = uniqueMetrics.getCounter("BytesSent");
+        } else if (name.endsWith("_SCAN") || name.startsWith("EXCHANGE") || name.equals("RESULT_SINK") ||
+                name.endsWith("TABLE_SINK")) {
+            return false;
+        } else if (name.endsWith("_SINK") || name.endsWith("_BUILD")) {
+            resourceCost = memoryCost;
+            time = commonMetrics.getCounter("OperatorTotalTime");
+            amount = commonMetrics.getCounter("PeakMemoryUsage");
+        } else {
+            resourceCost = cpuCost;
+            time = commonMetrics.getCounter("OperatorTotalTime");
+            amount = commonMetrics.getCounter("PushRowNum");
+            if (amount == null || amount.getValue() == 0) {
+                amount = commonMetrics.getCounter("PullRowNum");
+            }
+            Float avgRowSize = avgRowSizes.get(getPlanNodeId(operatorProfile.getName()));
+            if (avgRowSize == null || avgRowSize <= 0) {
+                return false;
+            }
+            unitBytes = avgRowSize;
+        }
+
+        if (time == null || amount == null || amount.getValue() <= 0) {
+            return false;
+        }
+        resourceCost.add(time.getValue(), amount.getValue() * unitBytes);
+        return true;
+    }
+
+    // Return the plan node id in the operator name, or Integer.MIN_VALUE if there is none
+    private static int getPlanNodeId(String operatorName) {
+        int begin = operatorName.indexOf(PLAN_NODE_ID_PREFIX);
+        int end = operatorName.indexOf(')', begin);
+        if (begin < 0 || end < 0) {
+            return Integer.MIN_VALUE;
+        }
+        try {
+            return Integer.parseInt(operatorName.substring(begin + PLAN_NODE_ID_PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Fit the weights from the prices in the current window, return empty if no resource is sampled
+     *
+     * @param current the current global weights
+     */
+    synchronized Optional<Weights> fit(Weights current) {
+        if (!cpuCost.hasSamples() && !memoryCost.hasSamples() && !networkCost.hasSamples()) {
+            return Optional.empty();
+        }
+
+        // scale the prices to the weights, keep the sum of the default weights of the sampled resources, so the
+        // fitted weights don't drift with the bound of the weights
+        double sampledWeight = 0;
+        double sampledPrice = 0;
+        if (cpuCost.hasSamples()) {
+            sampledWeight += cpuCost.defaultWeight;
+            sampledPrice += cpuCost.getPrice();
+        }
+        if (memoryCost.hasSamples()) {
+            sampledWeight += memoryCost.defaultWeight;
+            sampledPrice += memoryCost.getPrice();
+        }
+        if (networkCost.hasSamples()) {
+            sampledWeight += networkCost.defaultWeight;
+            sampledPrice += networkCost.getPrice();
+        }
+        double scale = sampledWeight / sampledPrice;
+        return Optional.of(new Weights(cpuCost.fitWeight(current.getCpu(), scale),
+                memoryCost.fitWeight(current.getMemory(), scale),
+                networkCost.fitWeight(current.getNetwork(), scale)));
+    }
+
+    synchronized void reset() {
+        cpuCost.reset();
+        memoryCost.reset();
+        networkCost.reset();
+        queryNum = 0;
+    }
+
+    private void apply(Weights weights) {
+        if (!GlobalStateMgr.getCurrentState().isLeader()) {
+            LOG.debug("skip saving fitted cost weights {} on non-leader fe", weights);
+            return;
+        }
+
+        SessionVariable global = VariableMgr.getDefaultSessionVariable();
+        if (!isChanged(global.getCboCpuCostWeight(), weights.getCpu()) &&
+                !isChanged(global.getCboMemoryCostWeight(), weights.getMemory()) &&
+                !isChanged(global.getCboNetworkCostWeight(), weights.getNetwork())) {
+            return;
+        }
+
+        LOG.info("update cost weights from {} to {}", new Weights(global.getCboCpuCostWeight(),
+                global.getCboMemoryCostWeight(), global.getCboNetworkCostWeight()), weights);
+        try {
+            setGlobalVariable(SessionVariable.CBO_CPU_COST_WEIGHT, weights.getCpu());
+            setGlobalVariable(SessionVariable.CBO_MEMORY_COST_WEIGHT, weights.getMemory());
+            setGlobalVariable(SessionVariable.CBO_NETWORK_COST_WEIGHT, weights.getNetwork());
+        } catch (DdlException e) {
+            LOG.warn("failed to save fitted cost weights", e);
+        }
+    }
+
+    private static boolean isChanged(double oldWeight, double newWeight) {
+        return Math.abs(newWeight - oldWeight) > oldWeight * MIN_CHANGE_RATIO;
+    }
+
+    private static void setGlobalVariable(String name, double value) throws DdlException {
+        SetVar setVar = new SetVar(SetType.GLOBAL, name, new StringLiteral(String.valueOf(value)));
+        VariableMgr.setVar(VariableMgr.newSessionVariable(), setVar, false);
+    }
+
+    // The time spent on a resource and the bytes of it used in a window, e.g. the network time and bytes sent
+    private static class ResourceCost {
+        private final double defaultWeight;
+        private long timeNs = 0;
+        private double bytes = 0;
+
+        ResourceCost(double defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+
+        void add(long timeNs, double bytes) {
+            this.timeNs += timeNs;
+            this.bytes += bytes;
+        }
+
+        boolean hasSamples() {
+            return timeNs > 0 && bytes > 0;
+        }
+
+        // the time spent per byte
+        double getPrice() {
+            return timeNs / bytes;
+        }
+
+        /**
+         * Move the weight toward the price scaled to the weights, the weight is unchanged without samples
+         *
+         * @param scale the ratio of the weights to the prices
+         */
+        double fitWeight(double currentWeight, double scale) {
+            if (!hasSamples()) {
+                return currentWeight;
+            }
+            double weight = currentWeight + (getPrice() * scale - currentWeight) * SMOOTHING_FACTOR;
+            return Math.max(defaultWeight / MAX_ADJUST_RATIO, Math.min(defaultWeight * MAX_ADJUST_RATIO, weight));
+        }
+
+        void reset() {
+            timeNs = 0;
+            bytes = 0;
+        }
+    }
+
+    public static class Weights {
+        private final double cpu;
+        private final double memory;
+        private final double network;
+
+        public Weights(double cpu, double memory, double network) {
+            this.cpu = cpu;
+            this.memory = memory;
+            this.network = network;
+        }
+
+        public double getCpu() {
+            return cpu;
+        }
+
+        public double getMemory() {
+            return memory;
+        }
+
+        public double getNetwork() {
+            return network;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[cpu: %f, memory: %f, network: %f]", cpu, memory, network);
+        }
+    }
+}
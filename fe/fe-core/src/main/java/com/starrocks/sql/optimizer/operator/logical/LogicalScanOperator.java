@@ -8,6 +8,7 @@ import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PartitionColumnFilter;
 import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptExpressionVisitor;
 import com.starrocks.sql.optimizer.Utils;
@@ -70,8 +71,11 @@ public abstract class LogicalScanOperator extends LogicalOperator {
     }
 
     public void buildColumnFilters(ScalarOperator predicate) {
-        this.columnFilters = ImmutableMap.copyOf(
-                ColumnFilterConverter.convertColumnFilter(Utils.extractConjuncts(predicate), table));
+        // the filters are only used by partition and tablet pruning, which pin the literals they depend on
+        try (LiteralBinding.Pause ignored = LiteralBinding.pause()) {
+            this.columnFilters = ImmutableMap.copyOf(
+                    ColumnFilterConverter.convertColumnFilter(Utils.extractConjuncts(predicate), table));
+        }
     }
 
     public Map<String, PartitionColumnFilter> getColumnFilters() {
@@ -12,6 +12,7 @@ import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.common.UnsupportedException;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 
@@ -72,6 +73,9 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
 
     private final Object value;
     private final boolean isNull;
+    // Index of the query literal the constant is translated from, -1 if it's not, see LiteralBinding.
+    // It's not part of equals, and the value getters notify LiteralBinding that the value is read.
+    private int literalIndex = -1;
 
     private ConstantOperator(Type type) {
         super(OperatorType.CONSTANT, type);
@@ -168,6 +172,26 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
         return isNull;
     }
 
+    public int getLiteralIndex() {
+        return literalIndex;
+    }
+
+    public void setLiteralIndex(int literalIndex) {
+        this.literalIndex = literalIndex;
+    }
+
+    public ConstantOperator withoutLiteralIndex() {
+        ConstantOperator constant = (ConstantOperator) clone();
+        constant.literalIndex = -1;
+        return constant;
+    }
+
+    private void onValueRead() {
+        if (literalIndex >= 0) {
+            LiteralBinding.onValueRead(this);
+        }
+    }
+
     @Override
     public boolean isConstant() {
         return true;
@@ -179,6 +203,7 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
     }
 
     public Object getValue() {
+        onValueRead();
         return value;
     }
 
@@ -202,67 +227,83 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
     }
 
     public boolean getBoolean() {
+        onValueRead();
         return (boolean) Optional.ofNullable(value).orElse(false);
     }
 
     public byte getTinyInt() {
+        onValueRead();
         return (byte) Optional.ofNullable(value).orElse((byte) 0);
     }
 
     public short getSmallint() {
+        onValueRead();
         return (short) Optional.ofNullable(value).orElse((short) 0);
     }
 
     public int getInt() {
+        onValueRead();
         return (int) Optional.ofNullable(value).orElse(0);
     }
 
     public long getBigint() {
+        onValueRead();
         return (long) Optional.ofNullable(value).orElse((long) 0);
     }
 
     public BigInteger getLargeInt() {
+        onValueRead();
         return (BigInteger) Optional.ofNullable(value).orElse(new BigInteger("0"));
     }
 
     public double getDouble() {
+        onValueRead();
         return (double) Optional.ofNullable(value).orElse((double) 0);
     }
 
     public double getFloat() {
+        onValueRead();
         return (double) Optional.ofNullable(value).orElse((double) 0);
     }
 
     public LocalDateTime getDate() {
+        onValueRead();
         return (LocalDateTime) Optional.ofNullable(value).orElse(LocalDateTime.MIN);
     }
 
     public LocalDateTime getDatetime() {
+        onValueRead();
         return (LocalDateTime) Optional.ofNullable(value).orElse(LocalDateTime.MIN);
     }
 
     public double getTime() {
+        onValueRead();
         return (double) Optional.ofNullable(value).orElse(0);
     }
 
     public BigDecimal getDecimal() {
+        onValueRead();
         return (BigDecimal) Optional.ofNullable(value).orElse(new BigDecimal(0));
     }
 
     public String getVarchar() {
+        onValueRead();
         return (String) Optional.ofNullable(value).orElse("");
     }
 
     public String getChar() {
+        onValueRead();
         return (String) Optional.ofNullable(value).orElse("");
     }
 
     public byte[] getBinary() {
+        onValueRead();
         return (byte[]) (value);
     }
 
     @Override
     public String toString() {
+        onValueRead();
         if (isNull()) {
             return "null";
         } else if (type.isDatetime()) {
@@ -363,6 +404,7 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
             return castTo(type);
         }
 
+        onValueRead();
         BigDecimal decimal = new BigDecimal(value.toString());
         ScalarType scalarType = (ScalarType) type;
         try {
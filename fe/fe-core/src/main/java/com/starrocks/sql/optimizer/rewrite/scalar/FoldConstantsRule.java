@@ -3,6 +3,7 @@
 package com.starrocks.sql.optimizer.rewrite.scalar;
 
 import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
@@ -113,8 +114,12 @@ public class FoldConstantsRule extends BottomUpScalarOperatorRewriteRule {
 
         ConstantOperator child = (ConstantOperator) operator.getChild(0);
 
-        try {
-            return child.castTo(operator.getType());
+        // the folded constant is the cast of the same literal, a new value of the literal is cast again when
+        // a cached plan is reused, see LiteralBinding
+        try (LiteralBinding.Pause ignored = LiteralBinding.pause()) {
+            ConstantOperator result = child.castTo(operator.getType());
+            result.setLiteralIndex(child.getLiteralIndex());
+            return result;
         } catch (Exception e) {
             LOG.debug("Fold cast constant error: " + operator + ", " + child.toString());
             return operator;
@@ -10,6 +10,7 @@ import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.Group;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.OptimizerTraceInfo;
 import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.operator.Operator;
@@ -20,6 +21,7 @@ import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.statistics.Statistics;
 import com.starrocks.sql.optimizer.statistics.StatisticsCalculator;
 import com.starrocks.statistic.StatsConstants;
 
@@ -127,6 +129,15 @@ public abstract class JoinOrder {
     protected int edgeSize;
     protected final List<Edge> edges = Lists.newArrayList();
 
+    // Could be shared by the join order algorithms of the same multi join node
+    protected JoinStatisticsMemo statisticsMemo = new JoinStatisticsMemo();
+
+    // Number of join expressions built during enumeration
+    protected long enumeratedPlans = 0;
+
+    // The columns of the predicates of the join being built, reused by every enumerated join
+    private final ColumnRefSet predicateColumns = new ColumnRefSet();
+
     // Because there may be expression mapping between joins,
     // in the process of reordering, it may need to be re-allocated,
     // so in the initialization process, these expressions will be stored in expressionMap first
@@ -173,6 +184,10 @@ public abstract class JoinOrder {
         }
     }
 
+    public void setStatisticsMemo(JoinStatisticsMemo statisticsMemo) {
+        this.statisticsMemo = statisticsMemo;
+    }
+
     public void reorder(List<OptExpression> atoms, List<ScalarOperator> predicates,
                         Map<ColumnRefOperator, ScalarOperator> expressionMap) {
         init(atoms, predicates, expressionMap);
@@ -185,6 +200,15 @@ public abstract class JoinOrder {
     //Get reorder result
     public abstract List<OptExpression> getResult();
 
+    public long getEnumeratedPlans() {
+        return enumeratedPlans;
+    }
+
+    // Number of groups kept by the algorithm
+    public int getGroupCount() {
+        return joinLevels.stream().mapToInt(level -> level.groups.size()).sum();
+    }
+
     // Use graph to represent the join expression:
     // The vertex represent the join node,
     // The edge represent the join predicate
@@ -230,6 +254,31 @@ public abstract class JoinOrder {
         expr.setStatistics(expressionContext.getStatistics());
     }
 
+    // Calculate the statistics of a join expression on the atoms, reuse the statistics of the same
+    // join subset estimated before
+    protected void calculateStatistics(OptExpression joinExpr, BitSet atoms) {
+        if (joinExpr.getStatistics() != null) {
+            return;
+        }
+
+        OptimizerTraceInfo traceInfo = context.getTraceInfo();
+        ColumnRefSet outputColumns = joinExpr.getOutputColumns();
+        Statistics statistics = statisticsMemo.get(atoms, outputColumns);
+        if (statistics != null) {
+            joinExpr.setStatistics(statistics);
+            if (traceInfo != null) {
+                traceInfo.recordStatisticsMemoHit();
+            }
+            return;
+        }
+
+        calculateStatistics(joinExpr);
+        statisticsMemo.put(atoms, outputColumns, joinExpr.getStatistics());
+        if (traceInfo != null) {
+            traceInfo.recordStatisticsMemoMiss();
+        }
+    }
+
     protected void computeCost(ExpressionInfo exprInfo, boolean penaltyCross) {
         double cost = exprInfo.expr.getStatistics().getOutputRowCount();
         exprInfo.rowCount = cost;
@@ -245,6 +294,7 @@ public abstract class JoinOrder {
     }
 
     protected ExpressionInfo buildJoinExpr(GroupInfo leftGroup, GroupInfo rightGroup) {
+        enumeratedPlans++;
         ExpressionInfo leftExprInfo = leftGroup.bestExprInfo;
         ExpressionInfo rightExprInfo = rightGroup.bestExprInfo;
         Pair<ScalarOperator, ScalarOperator> predicates = buildInnerJoinPredicate(
@@ -259,29 +309,29 @@ public abstract class JoinOrder {
         }
         newJoin.setPredicate(predicates.second);
 
+        predicateColumns.clear();
+        if (predicates.first != null) {
+            predicateColumns.union(predicates.first.getUsedColumns());
+        }
+        if (predicates.second != null) {
+            predicateColumns.union(predicates.second.getUsedColumns());
+        }
+
         Map<ColumnRefOperator, ScalarOperator> leftExpression = new HashMap<>();
         Map<ColumnRefOperator, ScalarOperator> rightExpression = new HashMap<>();
         for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : expressionMap.entrySet()) {
+            if (!predicateColumns.contains(entry.getKey())) {
+                continue;
+            }
             // If entry.getValue is Constant, then this ColumnRef does not belong to any child.
             // Then you can add this constant mapping on any child
-            if (predicates.first != null && predicates.first.getUsedColumns().contains(entry.getKey())) {
-                if (leftExprInfo.expr.getOutputColumns().containsAll(entry.getValue().getUsedColumns())
-                        || entry.getValue() instanceof ConstantOperator) {
-                    leftExpression.put(entry.getKey(), entry.getValue());
-                } else if (rightExprInfo.expr.getOutputColumns().containsAll(entry.getValue().getUsedColumns())
-                        || entry.getValue() instanceof ConstantOperator) {
-                    rightExpression.put(entry.getKey(), entry.getValue());
-                }
-            }
-
-            if (predicates.second != null && predicates.second.getUsedColumns().contains(entry.getKey())) {
-                if (leftExprInfo.expr.getOutputColumns().containsAll(entry.getValue().getUsedColumns())
-                        || entry.getValue() instanceof ConstantOperator) {
-                    leftExpression.put(entry.getKey(), entry.getValue());
-                } else if (rightExprInfo.expr.getOutputColumns().containsAll(entry.getValue().getUsedColumns())
-                        || entry.getValue() instanceof ConstantOperator) {
-                    rightExpression.put(entry.getKey(), entry.getValue());
-                }
+            ColumnRefSet usedColumns = entry.getValue().getUsedColumns();
+            if (leftExprInfo.expr.getOutputColumns().containsAll(usedColumns)
+                    || entry.getValue() instanceof ConstantOperator) {
+                leftExpression.put(entry.getKey(), entry.getValue());
+            } else if (rightExprInfo.expr.getOutputColumns().containsAll(usedColumns)
+                    || entry.getValue() instanceof ConstantOperator) {
+                rightExpression.put(entry.getKey(), entry.getValue());
             }
         }
 
@@ -77,7 +77,7 @@ public class JoinReorderDP extends JoinOrder {
                 ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
 
                 joinExpr.expr.deriveLogicalPropertyItself();
-                calculateStatistics(joinExpr.expr);
+                calculateStatistics(joinExpr.expr, joinKeys);
                 computeCost(joinExpr, false);
                 results.add(joinExpr);
             }
@@ -97,6 +97,11 @@ public class JoinReorderDP extends JoinOrder {
         return bestPlan;
     }
 
+    @Override
+    public int getGroupCount() {
+        return atomSize + bestPlanMemo.size();
+    }
+
     private List<BitSet> generatePartitions(BitSet totalNodes) {
         Set<Integer> numbers = IntStream.range(0, totalNodes.cardinality()).boxed().collect(toImmutableSet());
         Set<Set<Integer>> sets = powerSet(numbers).stream()
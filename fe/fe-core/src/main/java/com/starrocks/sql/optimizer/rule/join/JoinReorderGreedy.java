@@ -83,14 +83,14 @@ public class JoinReorderGreedy extends JoinOrder {
                     continue;
                 }
 
-                ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
-                joinExpr.expr.deriveLogicalPropertyItself();
-                calculateStatistics(joinExpr.expr);
-
                 BitSet joinBitSet = new BitSet();
                 joinBitSet.or(leftBitset);
                 joinBitSet.or(rightBitset);
 
+                ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+                joinExpr.expr.deriveLogicalPropertyItself();
+                calculateStatistics(joinExpr.expr, joinBitSet);
+
                 computeCost(joinExpr, true);
                 getOrCreateGroupInfo(curLevel, joinBitSet, joinExpr);
                 double joinCost = joinExpr.cost;
@@ -74,15 +74,15 @@ public class JoinReorderLeftDeep extends JoinOrder {
             used[index] = true;
 
             GroupInfo rightGroup = atoms.get(index);
-            ExpressionInfo joinExpr = buildJoinExpr(leftGroup, atoms.get(index));
-            joinExpr.expr.deriveLogicalPropertyItself();
-            calculateStatistics(joinExpr.expr);
-            computeCost(joinExpr, true);
-
             BitSet joinBitSet = new BitSet();
             joinBitSet.or(leftGroup.atoms);
             joinBitSet.or(rightGroup.atoms);
 
+            ExpressionInfo joinExpr = buildJoinExpr(leftGroup, atoms.get(index));
+            joinExpr.expr.deriveLogicalPropertyItself();
+            calculateStatistics(joinExpr.expr, joinBitSet);
+            computeCost(joinExpr, true);
+
             leftGroup = new GroupInfo(joinBitSet);
             leftGroup.bestExprInfo = joinExpr;
             leftGroup.lowestExprCost = joinExpr.cost;
@@ -90,6 +90,11 @@ public class JoinReorderLeftDeep extends JoinOrder {
         bestPlanRoot = leftGroup.bestExprInfo.expr;
     }
 
+    @Override
+    public int getGroupCount() {
+        return atomSize * 2 - 1;
+    }
+
     @Override
     public List<OptExpression> getResult() {
         return Lists.newArrayList(bestPlanRoot);
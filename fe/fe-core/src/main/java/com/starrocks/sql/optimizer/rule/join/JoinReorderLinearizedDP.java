@@ -0,0 +1,137 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.join;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.OptimizerTraceInfo;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reorder multi join node by linearized dynamic programming, used for the joins too wide for JoinReorderDP.
+ * <p>
+ * The atoms are first put into a linear order by the same heuristic as JoinReorderLeftDeep, then DP only
+ * enumerates the sub chains of the order: the best plan of atoms [i, j] is the cheapest join of [i, k] and
+ * [k + 1, j]. So it keeps O(n^2) groups and builds O(n^3) join expressions, bushy plans are still possible.
+ * <p>
+ * When the enumerated plans exceed `cbo_join_reorder_plan_budget` or half of the optimizer timeout is used,
+ * the remaining splits are skipped and the sub chains are only extended by one atom on the right, which
+ * degrades to a left deep tree instead of timing out. The budget is checked before every split, so a single
+ * long sub chain can't exceed it.
+ */
+public class JoinReorderLinearizedDP extends JoinOrder {
+    private GroupInfo[][] bestPlans;
+    private int groupCount = 0;
+    private long planBudget;
+    private long timeBudgetMs;
+    private boolean overBudget = false;
+
+    public JoinReorderLinearizedDP(OptimizerContext context) {
+        super(context);
+    }
+
+    @Override
+    protected void enumerate() {
+        List<GroupInfo> order = linearize();
+        int n = order.size();
+        bestPlans = new GroupInfo[n][n];
+        for (int i = 0; i < n; ++i) {
+            bestPlans[i][i] = order.get(i);
+        }
+        groupCount = n;
+
+        planBudget = context.getSessionVariable().getCboJoinReorderPlanBudget();
+        timeBudgetMs = context.getSessionVariable().getOptimizerExecuteTimeout() / 2;
+
+        for (int length = 2; length <= n; ++length) {
+            for (int i = 0; i + length <= n; ++i) {
+                int j = i + length - 1;
+                ExpressionInfo best = null;
+                for (int k = i; k < j; ++k) {
+                    if (k < j - 1 && isOverBudget()) {
+                        // only the left deep split, [i, j - 1] join [j], is still built
+                        k = j - 1;
+                    }
+                    GroupInfo leftGroup = bestPlans[i][k];
+                    GroupInfo rightGroup = bestPlans[k + 1][j];
+
+                    BitSet joinBitSet = new BitSet();
+                    joinBitSet.or(leftGroup.atoms);
+                    joinBitSet.or(rightGroup.atoms);
+
+                    ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+                    joinExpr.expr.deriveLogicalPropertyItself();
+                    calculateStatistics(joinExpr.expr, joinBitSet);
+                    computeCost(joinExpr, true);
+                    if (best == null || joinExpr.cost < best.cost) {
+                        best = joinExpr;
+                    }
+                }
+
+                BitSet atoms = new BitSet();
+                atoms.or(best.leftChildExpr.atoms);
+                atoms.or(best.rightChildExpr.atoms);
+                GroupInfo group = new GroupInfo(atoms);
+                group.bestExprInfo = best;
+                group.lowestExprCost = best.cost;
+                bestPlans[i][j] = group;
+                groupCount++;
+            }
+        }
+    }
+
+    private boolean isOverBudget() {
+        if (!overBudget) {
+            OptimizerTraceInfo traceInfo = context.getTraceInfo();
+            overBudget = enumeratedPlans >= planBudget || (traceInfo != null &&
+                    traceInfo.getStopwatch().elapsed(TimeUnit.MILLISECONDS) > timeBudgetMs);
+        }
+        return overBudget;
+    }
+
+    // Same as JoinReorderLeftDeep: start from the most expensive atom, and append the first atom
+    // which could inner join with the atoms already ordered
+    private List<GroupInfo> linearize() {
+        List<GroupInfo> atoms = Lists.newArrayList(joinLevels.get(1).groups);
+        atoms.sort((a, b) -> Double.compare(b.bestExprInfo.cost, a.bestExprInfo.cost));
+
+        List<GroupInfo> order = Lists.newArrayList();
+        boolean[] used = new boolean[atoms.size()];
+        GroupInfo ordered = new GroupInfo(new BitSet());
+        for (int step = 0; step < atoms.size(); ++step) {
+            int index = -1;
+            for (int i = 0; i < atoms.size() && step > 0; ++i) {
+                if (!used[i] && canBuildInnerJoinPredicate(ordered, atoms.get(i))) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == -1) {
+                index = 0;
+                while (used[index]) {
+                    index++;
+                }
+            }
+
+            used[index] = true;
+            order.add(atoms.get(index));
+            ordered.atoms.or(atoms.get(index).atoms);
+        }
+        return order;
+    }
+
+    @Override
+    public List<OptExpression> getResult() {
+        int n = bestPlans.length;
+        return Lists.newArrayList(bestPlans[0][n - 1].bestExprInfo.expr);
+    }
+
+    @Override
+    public int getGroupCount() {
+        return groupCount;
+    }
+}
@@ -0,0 +1,76 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.join;
+
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JoinStatisticsMemo keeps the statistics of the join subsets of one multi join node,
+ * so each subset is estimated once no matter how many join orders produce it.
+ * <p>
+ * A subset is identified by its atoms, the join predicates applied to it are all the edges
+ * covered by the atoms, so they are decided by the atoms too. The output columns are part of
+ * the key, because the projections pushed down for the expression map change the column
+ * statistics the upper joins depend on.
+ * <p>
+ * The memo is not thread safe. The join order algorithms of a multi join node each take a copy of
+ * the memo filled by the left deep reorder, so the statistics they estimate don't depend on whether
+ * they run one after another or concurrently.
+ */
+public class JoinStatisticsMemo {
+    private final Map<Key, Statistics> statistics;
+
+    public JoinStatisticsMemo() {
+        this.statistics = new HashMap<>();
+    }
+
+    public JoinStatisticsMemo(JoinStatisticsMemo other) {
+        // the keys are immutable once put, and the statistics are never modified
+        this.statistics = new HashMap<>(other.statistics);
+    }
+
+    public Statistics get(BitSet atoms, ColumnRefSet outputColumns) {
+        return statistics.get(new Key(atoms, outputColumns));
+    }
+
+    public void put(BitSet atoms, ColumnRefSet outputColumns, Statistics value) {
+        statistics.put(new Key((BitSet) atoms.clone(), outputColumns.clone()), value);
+    }
+
+    public int size() {
+        return statistics.size();
+    }
+
+    private static class Key {
+        private final BitSet atoms;
+        private final ColumnRefSet outputColumns;
+
+        Key(BitSet atoms, ColumnRefSet outputColumns) {
+            this.atoms = atoms;
+            this.outputColumns = outputColumns;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return atoms.equals(key.atoms) && outputColumns.equals(key.outputColumns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(atoms, outputColumns);
+        }
+    }
+}
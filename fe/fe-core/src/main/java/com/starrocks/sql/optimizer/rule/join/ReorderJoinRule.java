@@ -4,7 +4,13 @@ package com.starrocks.sql.optimizer.rule.join;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.PlannerProfile;
+import com.starrocks.sql.common.ErrorType;
+import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptExpressionVisitor;
@@ -29,10 +35,16 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class ReorderJoinRule extends Rule {
+    private static final ExecutorService PARALLEL_REORDER_EXECUTOR = ThreadPoolManager.newDaemonFixedThreadPool(
+            Config.parallel_join_reorder_thread_num, Integer.MAX_VALUE, "parallel-join-reorder", false);
+
     public ReorderJoinRule() {
         super(RuleType.TF_MULTI_JOIN_ORDER, Pattern.create(OperatorType.PATTERN));
     }
@@ -67,9 +79,57 @@ public class ReorderJoinRule extends Rule {
 
     void enumerate(JoinOrder reorderAlgorithm, OptimizerContext context, OptExpression innerJoinRoot,
                    MultiJoinNode multiJoinNode) {
+        reorder(reorderAlgorithm, multiJoinNode);
+        copyInReorderResult(reorderAlgorithm, context, innerJoinRoot, multiJoinNode);
+    }
+
+    private void reorder(JoinOrder reorderAlgorithm, MultiJoinNode multiJoinNode) {
         reorderAlgorithm.reorder(Lists.newArrayList(multiJoinNode.getAtoms()),
                 multiJoinNode.getPredicates(), multiJoinNode.getExpressionMap());
+    }
+
+    /**
+     * Run the reorder algorithms of one multi join node concurrently, the first one runs in the
+     * calling thread. The algorithms only read the atoms, whose statistics have been derived by
+     * the left deep reorder, and build their own join trees, so they can run without locking.
+     */
+    private void parallelReorder(List<JoinOrder> reorderAlgorithms, MultiJoinNode multiJoinNode) {
+        ConnectContext connectContext = ConnectContext.get();
+        List<Future<?>> futures = Lists.newArrayList();
+        for (JoinOrder reorderAlgorithm : reorderAlgorithms.subList(1, reorderAlgorithms.size())) {
+            futures.add(PARALLEL_REORDER_EXECUTOR.submit(() -> {
+                // statistics estimation reads session variables from the thread local context
+                if (connectContext != null) {
+                    connectContext.setThreadLocalInfo();
+                }
+                try {
+                    reorder(reorderAlgorithm, multiJoinNode);
+                } finally {
+                    ConnectContext.remove();
+                }
+            }));
+        }
+
+        reorder(reorderAlgorithms.get(0), multiJoinNode);
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StarRocksPlannerException("Join reorder is interrupted", ErrorType.INTERNAL_ERROR);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new StarRocksPlannerException("Join reorder failed: " + e.getCause().getMessage(),
+                        ErrorType.INTERNAL_ERROR);
+            }
+        }
+    }
 
+    private void copyInReorderResult(JoinOrder reorderAlgorithm, OptimizerContext context,
+                                     OptExpression innerJoinRoot, MultiJoinNode multiJoinNode) {
         List<OptExpression> reorderTopKResult = reorderAlgorithm.getResult();
         LogicalJoinOperator oldRoot = (LogicalJoinOperator) innerJoinRoot.getOp();
 
@@ -137,29 +197,71 @@ public class ReorderJoinRule extends Rule {
         List<OptExpression> innerJoinTrees = Lists.newArrayList();
         extractRootInnerJoin(input, innerJoinTrees, false);
         if (!innerJoinTrees.isEmpty()) {
+            long enumeratedPlans = 0;
+            int peakGroups = 0;
             // In order to reorder the bottom join tree firstly
             Collections.reverse(innerJoinTrees);
             for (OptExpression innerJoinRoot : innerJoinTrees) {
                 MultiJoinNode multiJoinNode = MultiJoinNode.toMultiJoinNode(innerJoinRoot);
-
-                enumerate(new JoinReorderLeftDeep(context), context, innerJoinRoot, multiJoinNode);
+                // The join subsets estimated by the left deep reorder are reused by the other algorithms
+                JoinStatisticsMemo statisticsMemo = new JoinStatisticsMemo();
+
+                JoinOrder leftDeep = new JoinReorderLeftDeep(context);
+                leftDeep.setStatisticsMemo(statisticsMemo);
+                enumerate(leftDeep, context, innerJoinRoot, multiJoinNode);
+                enumeratedPlans += leftDeep.getEnumeratedPlans();
+                peakGroups = Math.max(peakGroups, leftDeep.getGroupCount());
                 // If there is no statistical information, the DP and greedy reorder algorithm are disabled,
                 // and the query plan degenerates to the left deep tree
                 if (Utils.hasUnknownColumnsStats(input) && !FeConstants.runningUnitTest) {
                     continue;
                 }
 
-                if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
-                        && context.getSessionVariable().isCboEnableDPJoinReorder()) {
-                    // 10 table join reorder takes more than 100ms,
-                    // so the join reorder using dp is currently controlled below 10.
-                    enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
+                List<JoinOrder> reorderAlgorithms = Lists.newArrayList();
+                boolean useLinearizedDP = false;
+                if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()) {
+                    if (context.getSessionVariable().isCboEnableDPJoinReorder()) {
+                        // 10 table join reorder takes more than 100ms,
+                        // so the join reorder using dp is currently controlled below 10.
+                        reorderAlgorithms.add(new JoinReorderDP(context));
+                    }
+                } else if (context.getSessionVariable().isCboEnableLinearizedDPJoinReorder()) {
+                    // The memory and time of linearized dp are bounded, it replaces the greedy reorder,
+                    // which allocates too many expressions for the very wide joins
+                    reorderAlgorithms.add(new JoinReorderLinearizedDP(context));
+                    useLinearizedDP = true;
+                }
+
+                if (!useLinearizedDP && context.getSessionVariable().isCboEnableGreedyJoinReorder()) {
+                    reorderAlgorithms.add(new JoinReorderGreedy(context));
+                }
+
+                // Each algorithm starts from its own copy of the statistics estimated by the left deep reorder,
+                // otherwise the estimated statistics would depend on which algorithm reaches a join subset
+                // first, and the serial and parallel reorder could choose different plans
+                for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+                    reorderAlgorithm.setStatisticsMemo(new JoinStatisticsMemo(statisticsMemo));
+                }
+                if (reorderAlgorithms.size() > 1 && context.getSessionVariable().isCboEnableParallelJoinReorder()) {
+                    // The memo is not thread safe, so only the enumeration runs concurrently,
+                    // the results are copied into the memo in the same order as the serial path.
+                    parallelReorder(reorderAlgorithms, multiJoinNode);
+                    for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+                        copyInReorderResult(reorderAlgorithm, context, innerJoinRoot, multiJoinNode);
+                    }
+                } else {
+                    for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+                        enumerate(reorderAlgorithm, context, innerJoinRoot, multiJoinNode);
+                    }
                 }
 
-                if (context.getSessionVariable().isCboEnableGreedyJoinReorder()) {
-                    enumerate(new JoinReorderGreedy(context), context, innerJoinRoot, multiJoinNode);
+                for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+                    enumeratedPlans += reorderAlgorithm.getEnumeratedPlans();
+                    peakGroups = Math.max(peakGroups, reorderAlgorithm.getGroupCount());
                 }
             }
+            PlannerProfile.addCustomProperties("JoinReorder.EnumeratedPlans", String.valueOf(enumeratedPlans));
+            PlannerProfile.addCustomProperties("JoinReorder.PeakGroups", String.valueOf(peakGroups));
         }
         return Collections.emptyList();
     }
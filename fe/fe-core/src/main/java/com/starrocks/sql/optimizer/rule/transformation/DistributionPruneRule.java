@@ -12,6 +12,7 @@ import com.starrocks.catalog.Partition;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.DistributionPruner;
 import com.starrocks.planner.HashDistributionPruner;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptimizerContext;
 import com.starrocks.sql.optimizer.operator.OperatorType;
@@ -73,6 +74,8 @@ public class DistributionPruneRule extends TransformationRule {
             DistributionPruner distributionPruner;
             if (distributionInfo.getType() == DistributionInfo.DistributionInfoType.HASH) {
                 HashDistributionInfo info = (HashDistributionInfo) distributionInfo;
+                // the column filters are built without pinning the literals, see LiteralBinding
+                LiteralBinding.pinLiterals(operator, info.getDistributionColumns());
                 distributionPruner = new HashDistributionPruner(index.getTabletIdsInOrder(),
                         info.getDistributionColumns(),
                         operator.getColumnFilters(),
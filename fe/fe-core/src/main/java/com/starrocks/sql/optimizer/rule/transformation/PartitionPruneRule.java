@@ -17,6 +17,7 @@ import com.starrocks.catalog.RangePartitionInfo;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PartitionPruner;
 import com.starrocks.planner.RangePartitionPruner;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptimizerContext;
 import com.starrocks.sql.optimizer.Utils;
@@ -65,6 +66,8 @@ public class PartitionPruneRule extends TransformationRule {
         List<Long> selectedPartitionIds = null;
 
         if (partitionInfo.getType() == PartitionType.RANGE) {
+            // the column filters are built without pinning the literals, see LiteralBinding
+            LiteralBinding.pinLiterals(olapScanOperator, ((RangePartitionInfo) partitionInfo).getPartitionColumns());
             selectedPartitionIds =
                     rangePartitionPrune(table, (RangePartitionInfo) partitionInfo, olapScanOperator);
         } else if (partitionInfo.getType() == PartitionType.LIST) {
@@ -101,21 +101,7 @@ public class BinaryPredicateStatisticCalculator {
                     .setType(columnStatistic.getType())
                     .build();
 
-            double predicateFactor;
-            double rowCountInHistogram;
-            Map<String, Long> histogramTopN = columnStatistic.getHistogram().getMCV();
-            // If there is a constant key in mcv, the ratio in mcv is directly used for filtering estimation.
-            // If it does not hit, filter out the key that appears in mcv, and then use the cardinality estimation
-            if (histogramTopN.containsKey(constantOperator.toString())) {
-                rowCountInHistogram = histogramTopN.get(constantOperator.toString());
-                predicateFactor = rowCountInHistogram / columnStatistic.getHistogram().getTotalRows();
-            } else {
-                Long mostCommonValuesCount = histogramTopN.values().stream().reduce(Long::sum).orElse(0L);
-                double f = 1 / max(columnStatistic.getDistinctValuesCount() - histogramTopN.size(), 1);
-                predicateFactor = (columnStatistic.getHistogram().getTotalRows() - mostCommonValuesCount)
-                        * f / columnStatistic.getHistogram().getTotalRows();
-            }
-
+            double predicateFactor = estimateEqualToConstantWithHistogram(columnStatistic, constantOperator);
             double rowCount = statistics.getOutputRowCount() * (1 - columnStatistic.getNullsFraction()) * predicateFactor;
             return columnRefOperator.map(operator -> Statistics.buildFrom(statistics)
                             .setOutputRowCount(rowCount).addColumnStatistic(operator, estimatedColumnStatistic).build())
@@ -123,6 +109,25 @@ public class BinaryPredicateStatisticCalculator {
         }
     }
 
+    /**
+     * Estimate the selectivity of column = constant among the not null rows by histogram.
+     * If there is a constant key in mcv, the ratio in mcv is directly used for filtering estimation.
+     * If it does not hit, filter out the keys that appear in mcv, and then use the cardinality estimation.
+     */
+    public static double estimateEqualToConstantWithHistogram(ColumnStatistic columnStatistic,
+                                                              ConstantOperator constant) {
+        Histogram histogram = columnStatistic.getHistogram();
+        if (histogram.getTotalRows() == 0) {
+            return 0;
+        }
+        Optional<Long> rowCountInMCV = histogram.getRowCountInMCV(constant);
+        if (rowCountInMCV.isPresent()) {
+            return (double) rowCountInMCV.get() / histogram.getTotalRows();
+        }
+        double f = 1 / max(columnStatistic.getDistinctValuesCount() - histogram.getMCV().size(), 1);
+        return (histogram.getTotalRows() - histogram.getMCVRows()) * f / histogram.getTotalRows();
+    }
+
     private static Statistics estimateColumnNotEqualToConstant(Optional<ColumnRefOperator> columnRefOperator,
                                                                ColumnStatistic columnStatistic,
                                                                Optional<ConstantOperator> constant,
@@ -198,9 +203,7 @@ public class BinaryPredicateStatisticCalculator {
             Histogram estimatedHistogram = estimateLessThanWithHistogram(columnStatistic, constant.get(),
                     binaryType.equals(BinaryPredicateOperator.BinaryType.LE));
 
-            int bucketSize = estimatedHistogram.getBuckets().size();
-            long rowCountInHistogram = (bucketSize == 0 ? 0 : estimatedHistogram.getBuckets().get(bucketSize - 1).getCount())
-                    + estimatedHistogram.getMCV().values().stream().reduce(Long::sum).orElse(0L);
+            long rowCountInHistogram = estimatedHistogram.getTotalRows();
             double rowCount = statistics.getOutputRowCount()
                     * ((double) rowCountInHistogram / (double) columnStatistic.getHistogram().getTotalRows());
 
@@ -236,9 +239,7 @@ public class BinaryPredicateStatisticCalculator {
             Histogram estimatedHistogram = estimateGreaterThanWithHistogram(columnStatistic, constant.get(),
                     binaryType.equals(BinaryPredicateOperator.BinaryType.GE));
 
-            int bucketSize = estimatedHistogram.getBuckets().size();
-            long rowCountInHistogram = (bucketSize == 0 ? 0 : estimatedHistogram.getBuckets().get(bucketSize - 1).getCount())
-                    + estimatedHistogram.getMCV().values().stream().reduce(Long::sum).orElse(0L);
+            long rowCountInHistogram = estimatedHistogram.getTotalRows();
             double rowCount = statistics.getOutputRowCount()
                     * ((double) rowCountInHistogram / (double) columnStatistic.getHistogram().getTotalRows());
 
@@ -388,51 +389,37 @@ public class BinaryPredicateStatisticCalculator {
         double constantDouble = optionalDouble.get();
         Histogram histogram = columnStatistic.getHistogram();
 
-        List<Bucket> bucketList = new ArrayList<>();
-        for (int i = 0; i < histogram.getBuckets().size(); i++) {
-            Bucket bucket = histogram.getBuckets().get(i);
-            long previousTotalRowCount = 0;
-            if (i > 0) {
-                previousTotalRowCount = histogram.getBuckets().get(i - 1).getCount();
-            }
-
-            if (bucket.getUpper() >= constantDouble && bucket.getLower() <= constantDouble) {
-                StatisticRangeValues bucketRange = new StatisticRangeValues(bucket.getLower(), bucket.getUpper(), NaN);
-                StatisticRangeValues columnRange = new StatisticRangeValues(bucket.getLower(), constantDouble, NaN);
-                double predicateFactor = bucketRange.overlapPercentWith(columnRange);
-
-                long bucketRowCount;
-                long repeat;
-                if (containUpper && constantDouble == bucket.getUpper()) {
-                    bucketRowCount = bucket.getCount() - previousTotalRowCount;
-                    repeat = bucket.getUpperRepeats();
-                } else {
-                    long bucketTotalRows = bucket.getCount() - bucket.getUpperRepeats() - previousTotalRowCount;
-                    bucketRowCount = (long) (bucketTotalRows * predicateFactor);
-                    repeat = 0;
-                }
-
-                bucketList.add(new Bucket(bucket.getLower(), constantDouble, previousTotalRowCount + bucketRowCount, repeat));
-                break;
-            } else if (bucket.getLower() > constantDouble) {
-                break;
+        List<Bucket> buckets = histogram.getBuckets();
+        // buckets before index are all less than the constant
+        int index = histogram.findBucket(constantDouble);
+        List<Bucket> bucketList = new ArrayList<>(buckets.subList(0, index));
+        if (index < buckets.size() && buckets.get(index).getLower() <= constantDouble) {
+            Bucket bucket = buckets.get(index);
+            long previousTotalRowCount = index > 0 ? buckets.get(index - 1).getCount() : 0;
+
+            StatisticRangeValues bucketRange = new StatisticRangeValues(bucket.getLower(), bucket.getUpper(), NaN);
+            StatisticRangeValues columnRange = new StatisticRangeValues(bucket.getLower(), constantDouble, NaN);
+            double predicateFactor = bucketRange.overlapPercentWith(columnRange);
+
+            long bucketRowCount;
+            long repeat;
+            if (containUpper && constantDouble == bucket.getUpper()) {
+                bucketRowCount = bucket.getCount() - previousTotalRowCount;
+                repeat = bucket.getUpperRepeats();
+            } else {
+                long bucketTotalRows = bucket.getCount() - bucket.getUpperRepeats() - previousTotalRowCount;
+                bucketRowCount = (long) (bucketTotalRows * predicateFactor);
+                repeat = 0;
             }
 
-            bucketList.add(bucket);
+            bucketList.add(new Bucket(bucket.getLower(), constantDouble, previousTotalRowCount + bucketRowCount, repeat));
         }
 
-        Map<String, Long> mostCommonValues = histogram.getMCV();
         Map<String, Long> estimatedMCV = new HashMap<>();
-        for (Map.Entry<String, Long> entry : mostCommonValues.entrySet()) {
-            Optional<Double> optionalKey = StatisticUtils.convertStatisticsToDouble(constant.getType(), entry.getKey());
-            if (!optionalKey.isPresent()) {
-                estimatedMCV.put(entry.getKey(), entry.getValue());
-                continue;
-            }
-            double key = optionalKey.get();
-            if (key < constantDouble) {
-                estimatedMCV.put(entry.getKey(), entry.getValue());
-            } else if (key == constantDouble && containUpper) {
+        Map<String, Double> mcvKeys = histogram.getMCVKeys(constant.getType());
+        for (Map.Entry<String, Long> entry : histogram.getMCV().entrySet()) {
+            Double key = mcvKeys.get(entry.getKey());
+            if (key == null || key < constantDouble || (key == constantDouble && containUpper)) {
                 estimatedMCV.put(entry.getKey(), entry.getValue());
             }
         }
@@ -449,63 +436,48 @@ public class BinaryPredicateStatisticCalculator {
         double constantDouble = optionalDouble.get();
         Histogram histogram = columnStatistic.getHistogram();
 
+        List<Bucket> buckets = histogram.getBuckets();
+        // buckets before index are all less than the constant
+        int i = histogram.findBucket(constantDouble);
+        long previousTotalRowCount = i > 0 ? buckets.get(i - 1).getCount() : 0;
         List<Bucket> bucketList = new ArrayList<>();
-        int i = 0;
-        long previousTotalRowCount = 0;
-        for (; i < histogram.getBuckets().size(); i++) {
-            Bucket bucket = histogram.getBuckets().get(i);
-            if (bucket.getUpper() >= constantDouble && bucket.getLower() <= constantDouble) {
-                StatisticRangeValues bucketRange = new StatisticRangeValues(bucket.getLower(), bucket.getUpper(), NaN);
-                StatisticRangeValues columnRange = new StatisticRangeValues(constantDouble, bucket.getUpper(), NaN);
-                double predicateFactor = bucketRange.overlapPercentWith(columnRange);
-
-                long bucketRowCount;
-                if (constantDouble == bucket.getUpper()) {
-                    if (containUpper) {
-                        previousTotalRowCount = bucket.getCount() - bucket.getUpperRepeats();
-                    } else {
-                        previousTotalRowCount = bucket.getCount();
-                    }
+        if (i < buckets.size() && buckets.get(i).getLower() <= constantDouble) {
+            Bucket bucket = buckets.get(i);
+            StatisticRangeValues bucketRange = new StatisticRangeValues(bucket.getLower(), bucket.getUpper(), NaN);
+            StatisticRangeValues columnRange = new StatisticRangeValues(constantDouble, bucket.getUpper(), NaN);
+            double predicateFactor = bucketRange.overlapPercentWith(columnRange);
+
+            long bucketRowCount;
+            if (constantDouble == bucket.getUpper()) {
+                if (containUpper) {
+                    previousTotalRowCount = bucket.getCount() - bucket.getUpperRepeats();
                 } else {
-                    long bucketTotalRows = bucket.getCount() - previousTotalRowCount;
-                    bucketRowCount = (long) (bucketTotalRows * predicateFactor);
-                    previousTotalRowCount = previousTotalRowCount + (bucketTotalRows - bucketRowCount);
+                    previousTotalRowCount = bucket.getCount();
                 }
+            } else {
+                long bucketTotalRows = bucket.getCount() - previousTotalRowCount;
+                bucketRowCount = (long) (bucketTotalRows * predicateFactor);
+                previousTotalRowCount = previousTotalRowCount + (bucketTotalRows - bucketRowCount);
+            }
 
-                if (bucket.getCount() - previousTotalRowCount != 0) {
-                    bucketList.add(new Bucket(constantDouble, bucket.getUpper(),
-                            bucket.getCount() - previousTotalRowCount, bucket.getUpperRepeats()));
-                }
-                i++;
-                break;
-            } else if (bucket.getLower() > constantDouble) {
-                break;
+            if (bucket.getCount() - previousTotalRowCount != 0) {
+                bucketList.add(new Bucket(constantDouble, bucket.getUpper(),
+                        bucket.getCount() - previousTotalRowCount, bucket.getUpperRepeats()));
             }
-            previousTotalRowCount = histogram.getBuckets().get(i).getCount();
+            i++;
         }
 
-        for (; i < histogram.getBuckets().size(); i++) {
-            Bucket bucket = new Bucket(
-                    histogram.getBuckets().get(i).getLower(),
-                    histogram.getBuckets().get(i).getUpper(),
-                    histogram.getBuckets().get(i).getCount() - previousTotalRowCount,
-                    histogram.getBuckets().get(i).getUpperRepeats());
-
-            bucketList.add(bucket);
+        for (; i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            bucketList.add(new Bucket(bucket.getLower(), bucket.getUpper(),
+                    bucket.getCount() - previousTotalRowCount, bucket.getUpperRepeats()));
         }
 
-        Map<String, Long> mostCommonValues = histogram.getMCV();
         Map<String, Long> estimatedMCV = new HashMap<>();
-        for (Map.Entry<String, Long> entry : mostCommonValues.entrySet()) {
-            Optional<Double> optionalKey = StatisticUtils.convertStatisticsToDouble(constant.getType(), entry.getKey());
-            if (!optionalKey.isPresent()) {
-                estimatedMCV.put(entry.getKey(), entry.getValue());
-                continue;
-            }
-            double key = optionalKey.get();
-            if (key > constantDouble) {
-                estimatedMCV.put(entry.getKey(), entry.getValue());
-            } else if (key == constantDouble && containUpper) {
+        Map<String, Double> mcvKeys = histogram.getMCVKeys(constant.getType());
+        for (Map.Entry<String, Long> entry : histogram.getMCV().entrySet()) {
+            Double key = mcvKeys.get(entry.getKey());
+            if (key == null || key > constantDouble || (key == constantDouble && containUpper)) {
                 estimatedMCV.put(entry.getKey(), entry.getValue());
             }
         }
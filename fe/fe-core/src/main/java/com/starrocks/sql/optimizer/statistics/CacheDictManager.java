@@ -5,14 +5,20 @@ package com.starrocks.sql.optimizer.statistics;
 import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
 import com.starrocks.common.Status;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.PlanCache;
 import com.starrocks.sql.optimizer.base.ColumnIdentifier;
 import com.starrocks.thrift.TGlobalDict;
 import com.starrocks.thrift.TStatisticData;
@@ -20,13 +26,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 import static com.starrocks.statistic.StatisticExecutor.queryDictSync;
 
@@ -36,6 +44,15 @@ public class CacheDictManager implements IDictManager {
     private static final Set<Long> FORBIDDEN_DICT_TABLE_IDS = Sets.newConcurrentHashSet();
 
     public static final Integer LOW_CARDINALITY_THRESHOLD = 255;
+    // 1M
+    private static final int DICT_PAGE_MAX_SIZE = 1024 * 1024;
+
+    // collect the dicts from BE, the collection blocks until the statistic query is done
+    private static final ExecutorService DICT_LOADER_EXECUTOR = ThreadPoolManager.newDaemonFixedThreadPool(
+            Config.dict_collect_threads_num, Integer.MAX_VALUE, "dict-loader", true);
+
+    // column -> the time its cached dict became out of date, until a new dict is loaded
+    private static final Map<ColumnIdentifier, Long> STALE_DICT_COLUMNS = Maps.newConcurrentMap();
 
     private CacheDictManager() {
     }
@@ -53,31 +70,7 @@ public class CacheDictManager implements IDictManager {
                 CompletableFuture<Optional<ColumnDict>> asyncLoad(
                         @NonNull ColumnIdentifier columnIdentifier,
                         @NonNull Executor executor) {
-                    return CompletableFuture.supplyAsync(() -> {
-                        try {
-                            long tableId = columnIdentifier.getTableId();
-                            String columnName = columnIdentifier.getColumnName();
-                            Pair<List<TStatisticData>, Status> result = queryDictSync(columnIdentifier.getDbId(),
-                                    tableId, columnName);
-                            if (result.second.isGlobalDictError()) {
-                                LOG.debug("{}-{} isn't low cardinality string column", tableId, columnName);
-                                NO_DICT_STRING_COLUMNS.add(columnIdentifier);
-                                return Optional.empty();
-                            } else {
-                                // check TStatisticData is not empty, There may be no such column Statistics in BE
-                                if (!result.first.isEmpty()) {
-                                    return deserializeColumnDict(tableId, columnName, result.first.get(0));
-                                } else {
-                                    return Optional.empty();
-                                }
-                            }
-
-                        } catch (RuntimeException e) {
-                            throw e;
-                        } catch (Exception e) {
-                            throw new CompletionException(e);
-                        }
-                    }, executor);
+                    return CompletableFuture.supplyAsync(() -> loadColumnDict(columnIdentifier), executor);
                 }
 
                 @Override
@@ -90,14 +83,121 @@ public class CacheDictManager implements IDictManager {
 
     private final AsyncLoadingCache<ColumnIdentifier, Optional<ColumnDict>> dictStatistics = Caffeine.newBuilder()
             .maximumSize(Config.statistic_dict_columns)
+            .executor(DICT_LOADER_EXECUTOR)
             .buildAsync(dictLoader);
 
+    private Optional<ColumnDict> loadColumnDict(ColumnIdentifier columnIdentifier) {
+        long startTime = System.currentTimeMillis();
+        try {
+            long tableId = columnIdentifier.getTableId();
+            String columnName = columnIdentifier.getColumnName();
+            Pair<List<TStatisticData>, Status> result = queryDictSync(columnIdentifier.getDbId(),
+                    tableId, columnName);
+            if (result.second.isGlobalDictError()) {
+                LOG.debug("{}-{} isn't low cardinality string column", tableId, columnName);
+                NO_DICT_STRING_COLUMNS.add(columnIdentifier);
+                STALE_DICT_COLUMNS.remove(columnIdentifier);
+                return Optional.empty();
+            } else {
+                // check TStatisticData is not empty, There may be no such column Statistics in BE
+                if (!result.first.isEmpty()) {
+                    Optional<ColumnDict> dict = deserializeColumnDict(tableId, columnName, result.first.get(0));
+                    if (dict.isPresent()) {
+                        onDictLoaded(columnIdentifier);
+                    }
+                    return dict;
+                } else {
+                    return Optional.empty();
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_GLOBAL_DICT_FULL_REBUILD_LATENCY.update(System.currentTimeMillis() - startTime);
+            }
+        }
+    }
+
+    // Collect the dict of the partitions changed after oldDict and merge it into oldDict
+    private Optional<ColumnDict> mergeColumnDict(ColumnIdentifier columnIdentifier, ColumnDict oldDict) {
+        long startTime = System.currentTimeMillis();
+        try {
+            long tableId = columnIdentifier.getTableId();
+            String columnName = columnIdentifier.getColumnName();
+            Database db = GlobalStateMgr.getCurrentState().getDb(columnIdentifier.getDbId());
+            Table table = db == null ? null : db.getTable(tableId);
+            if (!(table instanceof OlapTable)) {
+                STALE_DICT_COLUMNS.remove(columnIdentifier);
+                return Optional.empty();
+            }
+            List<String> partitionNames = ((OlapTable) table).getPartitions().stream()
+                    .filter(partition -> partition.getVisibleVersionTime() > oldDict.getVersionTime())
+                    .map(Partition::getName).collect(Collectors.toList());
+            if (partitionNames.isEmpty()) {
+                onDictLoaded(columnIdentifier);
+                return Optional.of(oldDict);
+            }
+
+            Pair<List<TStatisticData>, Status> result = queryDictSync(columnIdentifier.getDbId(),
+                    tableId, columnName, partitionNames);
+            if (result.second.isGlobalDictError()) {
+                LOG.debug("{}-{} isn't low cardinality string column", tableId, columnName);
+                NO_DICT_STRING_COLUMNS.add(columnIdentifier);
+                STALE_DICT_COLUMNS.remove(columnIdentifier);
+                return Optional.empty();
+            }
+            if (result.first.isEmpty() || result.first.get(0).dict == null) {
+                return loadColumnDict(columnIdentifier);
+            }
+
+            TStatisticData statisticData = result.first.get(0);
+            TGlobalDict tGlobalDict = statisticData.dict;
+            Optional<ColumnDict> mergedDict = tGlobalDict.isSetIds() ?
+                    oldDict.merge(tGlobalDict.strings, statisticData.meta_version, LOW_CARDINALITY_THRESHOLD) :
+                    Optional.of(oldDict.withVersionTime(statisticData.meta_version));
+            if (!mergedDict.isPresent() || mergedDict.get().getDataSize() > DICT_PAGE_MAX_SIZE - 32) {
+                // the strings removed from the table are still in the merged dict,
+                // a full rebuild decides whether the column is still low cardinality
+                LOG.debug("merged dict of {}-{} is too large, rebuild it", tableId, columnName);
+                return loadColumnDict(columnIdentifier);
+            }
+            onDictLoaded(columnIdentifier);
+            LOG.debug("merge dict for column {}, version {}, size {}", columnName,
+                    statisticData.meta_version, mergedDict.get().size());
+            return mergedDict;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_GLOBAL_DICT_INCREMENTAL_REFRESH_LATENCY.update(
+                        System.currentTimeMillis() - startTime);
+            }
+        }
+    }
+
+    private void onDictLoaded(ColumnIdentifier columnIdentifier) {
+        STALE_DICT_COLUMNS.remove(columnIdentifier);
+        // the cached plans of the table are built without the new dict
+        PlanCache.getInstance().invalidateTable(columnIdentifier.getTableId());
+    }
+
+    // Replace the cached dict by the merged one, the dict is not used until the merge is done
+    private void startIncrementalRefresh(ColumnIdentifier columnIdentifier, ColumnDict oldDict) {
+        STALE_DICT_COLUMNS.putIfAbsent(columnIdentifier, System.currentTimeMillis());
+        dictStatistics.put(columnIdentifier, CompletableFuture.supplyAsync(
+                () -> mergeColumnDict(columnIdentifier, oldDict), DICT_LOADER_EXECUTOR));
+    }
+
     private Optional<ColumnDict> deserializeColumnDict(long tableId, String columnName, TStatisticData statisticData) {
         if (statisticData.dict == null) {
             throw new RuntimeException("Collect dict error in BE");
         }
         TGlobalDict tGlobalDict = statisticData.dict;
-        ImmutableMap.Builder<ByteBuffer, Integer> dicts = ImmutableMap.builder();
         if (!tGlobalDict.isSetIds()) {
             return Optional.empty();
         }
@@ -114,8 +214,6 @@ public class CacheDictManager implements IDictManager {
                 // string offsets
                 dictDataSize += 4;
             }
-            // 1M
-            final int DICT_PAGE_MAX_SIZE = 1024 * 1024;
             // If the dictionary data size exceeds 1M,
             // we won't use the global dictionary optimization.
             // In this case BE cannot guarantee that the dictionary page
@@ -126,10 +224,7 @@ public class CacheDictManager implements IDictManager {
                 return Optional.empty();
             }
         }
-        for (int i = 0; i < dictSize; ++i) {
-            dicts.put(tGlobalDict.strings.get(i), tGlobalDict.ids.get(i));
-        }
-        return Optional.of(new ColumnDict(dicts.build(), statisticData.meta_version));
+        return Optional.of(new ColumnDict(tGlobalDict.strings, tGlobalDict.ids, statisticData.meta_version));
     }
 
     @Override
@@ -172,8 +267,14 @@ public class CacheDictManager implements IDictManager {
                 LOG.debug("Invalidate column {} dict cache because don't present", columnName);
                 dictStatistics.synchronous().invalidate(columnIdentifier);
             } else if (realResult.get().getVersionTime() < versionTime) {
-                LOG.debug("Invalidate column {} dict cache because out of date", columnName);
-                dictStatistics.synchronous().invalidate(columnIdentifier);
+                if (Config.enable_incremental_dict_refresh) {
+                    LOG.debug("Refresh column {} dict cache because out of date", columnName);
+                    startIncrementalRefresh(columnIdentifier, realResult.get());
+                } else {
+                    LOG.debug("Invalidate column {} dict cache because out of date", columnName);
+                    STALE_DICT_COLUMNS.putIfAbsent(columnIdentifier, System.currentTimeMillis());
+                    dictStatistics.synchronous().invalidate(columnIdentifier);
+                }
             } else {
                 return true;
             }
@@ -203,6 +304,20 @@ public class CacheDictManager implements IDictManager {
         LOG.debug("remove dict for column {}", columnName);
         ColumnIdentifier columnIdentifier = new ColumnIdentifier(tableId, columnName);
         dictStatistics.synchronous().invalidate(columnIdentifier);
+        STALE_DICT_COLUMNS.remove(columnIdentifier);
+    }
+
+    @Override
+    public void refreshGlobalDict(long dbId, long tableId, String columnName) {
+        ColumnIdentifier columnIdentifier = new ColumnIdentifier(dbId, tableId, columnName);
+        CompletableFuture<Optional<ColumnDict>> columnFuture = dictStatistics.getIfPresent(columnIdentifier);
+        if (!Config.enable_incremental_dict_refresh || columnFuture == null || !columnFuture.isDone() ||
+                columnFuture.isCompletedExceptionally() || !columnFuture.join().isPresent()) {
+            removeGlobalDict(tableId, columnName);
+            return;
+        }
+        LOG.debug("refresh dict for column {} incrementally", columnName);
+        startIncrementalRefresh(columnIdentifier, columnFuture.join().get());
     }
 
     @Override
@@ -229,7 +344,7 @@ public class CacheDictManager implements IDictManager {
                 Optional<ColumnDict> columnOptional = columnFuture.get();
                 if (columnOptional.isPresent()) {
                     ColumnDict columnDict = columnOptional.get();
-                    ColumnDict newColumnDict = new ColumnDict(columnDict.getDict(), versionTime);
+                    ColumnDict newColumnDict = columnDict.withVersionTime(versionTime);
                     dictStatistics.put(columnIdentifier, CompletableFuture.completedFuture(Optional.of(newColumnDict)));
                     LOG.debug("update dict for column {}, version {}", columnName, versionTime);
                 }
@@ -252,4 +367,31 @@ public class CacheDictManager implements IDictManager {
         }
         return Optional.empty();
     }
+
+    @Override
+    public long getDictColumnNum() {
+        return dictStatistics.synchronous().estimatedSize();
+    }
+
+    @Override
+    public long getDictMemoryUsage() {
+        long memoryUsage = 0;
+        for (CompletableFuture<Optional<ColumnDict>> future : dictStatistics.asMap().values()) {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                memoryUsage += future.join().map(ColumnDict::getMemoryUsage).orElse(0L);
+            }
+        }
+        return memoryUsage;
+    }
+
+    @Override
+    public long getStaleDictColumnNum() {
+        return STALE_DICT_COLUMNS.size();
+    }
+
+    @Override
+    public long getMaxDictStalenessMs() {
+        long now = System.currentTimeMillis();
+        return STALE_DICT_COLUMNS.values().stream().mapToLong(since -> now - since).max().orElse(0L);
+    }
 }
@@ -11,6 +11,7 @@ import com.starrocks.catalog.Table;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.PlanCache;
 import com.starrocks.statistic.StatisticUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -157,11 +158,13 @@ public class CachedStatisticStorage implements StatisticStorage {
             allKeys.add(key);
         }
         cachedStatistics.synchronous().invalidateAll(allKeys);
+        PlanCache.getInstance().invalidateTable(table.getId());
     }
 
     @Override
     public void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic) {
         this.cachedStatistics.synchronous().put(new ColumnStatsCacheKey(table.getId(), column), Optional.of(columnStatistic));
+        PlanCache.getInstance().invalidateTable(table.getId());
     }
 
     @Override
@@ -214,6 +217,7 @@ public class CachedStatisticStorage implements StatisticStorage {
             allKeys.add(key);
         }
         histogramCache.synchronous().invalidateAll(allKeys);
+        PlanCache.getInstance().invalidateTable(tableId);
     }
 
     private List<ColumnStatistic> getDefaultColumnStatisticList(List<String> columns) {
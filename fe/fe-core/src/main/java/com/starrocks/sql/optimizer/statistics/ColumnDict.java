@@ -4,24 +4,163 @@ package com.starrocks.sql.optimizer.statistics;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Global dict of a low cardinality string column.
+ * <p>
+ * A map of ByteBuffer costs several objects per entry, so the strings are kept in one byte arena
+ * sorted by unsigned bytes, with an offset array and an id array, a string is found by binary search.
+ * A column has at most 256 strings, so a dict costs a few KB and three objects besides itself.
+ */
 public final class ColumnDict {
-    private final ImmutableMap<ByteBuffer, Integer> dict;
+    // object header and fields of ColumnDict, and the headers of the three arrays
+    private static final int SHALLOW_SIZE = 32 + 3 * 16;
+
+    // strings of the dict, the i-th string is data[offsets[i], offsets[i + 1])
+    private final byte[] data;
+    private final int[] offsets;
+    private final int[] ids;
     private final long versionTime;
 
     public ColumnDict(ImmutableMap<ByteBuffer, Integer> dict, long versionTime) {
-        Preconditions.checkState(dict.size() > 0 && dict.size() <= 256);
-        this.dict = dict;
+        this(Lists.newArrayList(dict.keySet()), Lists.newArrayList(dict.values()), versionTime);
+    }
+
+    public ColumnDict(List<ByteBuffer> strings, List<Integer> ids, long versionTime) {
+        Preconditions.checkState(strings.size() > 0 && strings.size() <= 256);
+        Preconditions.checkState(strings.size() == ids.size());
+        int size = strings.size();
+        Integer[] order = new Integer[size];
+        int dataSize = 0;
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            dataSize += strings.get(i).remaining();
+        }
+        Arrays.sort(order, Comparator.comparing(strings::get, ColumnDict::compare));
+
+        this.data = new byte[dataSize];
+        this.offsets = new int[size + 1];
+        this.ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ByteBuffer string = strings.get(order[i]);
+            string.duplicate().get(data, offsets[i], string.remaining());
+            offsets[i + 1] = offsets[i] + string.remaining();
+            this.ids[i] = ids.get(order[i]);
+        }
+        this.versionTime = versionTime;
+    }
+
+    private ColumnDict(ColumnDict dict, long versionTime) {
+        this.data = dict.data;
+        this.offsets = dict.offsets;
+        this.ids = dict.ids;
         this.versionTime = versionTime;
     }
 
-    public ImmutableMap<ByteBuffer, Integer> getDict() {
-        return dict;
+    // The arrays are immutable, so the new version shares them
+    public ColumnDict withVersionTime(long versionTime) {
+        return new ColumnDict(this, versionTime);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Return the i-th string in order, the buffer shares the arena and must not be modified
+    public ByteBuffer getString(int i) {
+        return ByteBuffer.wrap(data, offsets[i], offsets[i + 1] - offsets[i]).slice();
+    }
+
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    // Return the id of string, or -1 if the string is not in dict
+    public int getId(ByteBuffer string) {
+        int low = 0;
+        int high = ids.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(ByteBuffer.wrap(data, offsets[mid], offsets[mid + 1] - offsets[mid]), string);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return ids[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Merge the strings collected from the new data into the dict. BE and the planner rely on the ids following
+     * the order of the strings, e.g. a TopN on a dict column sorts the ids instead of the strings, so the ids of
+     * the merged dict are assigned again from 1 in the order of all the strings, like the dict collected by BE.
+     * A new string shifts the ids of the strings greater than it, the merged dict is a new version which must not
+     * be mixed with the old one in a plan.
+     * Return empty if the merged dict has more than maxSize strings, a full rebuild is needed then.
+     */
+    public Optional<ColumnDict> merge(List<ByteBuffer> strings, long versionTime, int maxSize) {
+        List<ByteBuffer> newStrings = strings.stream().filter(string -> getId(string) == -1)
+                .sorted(ColumnDict::compare).collect(Collectors.toList());
+        if (newStrings.isEmpty()) {
+            return Optional.of(withVersionTime(versionTime));
+        }
+
+        List<ByteBuffer> mergedStrings = Lists.newArrayListWithCapacity(ids.length + newStrings.size());
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < newStrings.size()) {
+            if (j == newStrings.size() || (i < ids.length && compare(getString(i), newStrings.get(j)) < 0)) {
+                mergedStrings.add(getString(i++));
+            } else if (mergedStrings.isEmpty() ||
+                    compare(mergedStrings.get(mergedStrings.size() - 1), newStrings.get(j)) != 0) {
+                mergedStrings.add(newStrings.get(j++));
+            } else {
+                // the same new string collected more than once
+                j++;
+            }
+        }
+        if (mergedStrings.size() > maxSize) {
+            return Optional.empty();
+        }
+        List<Integer> mergedIds = IntStream.rangeClosed(1, mergedStrings.size()).boxed().collect(Collectors.toList());
+        return Optional.of(new ColumnDict(mergedStrings, mergedIds, versionTime));
     }
 
     public long getVersionTime() {
         return versionTime;
     }
-}
\ No newline at end of file
+
+    // Size of the dict page in BE, the strings and their offsets
+    public long getDataSize() {
+        return data.length + 4L * ids.length;
+    }
+
+    // Estimated heap bytes of the dict
+    public long getMemoryUsage() {
+        return SHALLOW_SIZE + data.length + 4L * (offsets.length + ids.length);
+    }
+
+    private static int compare(ByteBuffer left, ByteBuffer right) {
+        int length = Math.min(left.remaining(), right.remaining());
+        for (int i = 0; i < length; i++) {
+            int cmp = Byte.toUnsignedInt(left.get(left.position() + i)) -
+                    Byte.toUnsignedInt(right.get(right.position() + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return left.remaining() - right.remaining();
+    }
+}
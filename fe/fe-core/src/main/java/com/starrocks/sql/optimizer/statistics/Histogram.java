@@ -1,30 +1,48 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
 package com.starrocks.sql.optimizer.statistics;
 
+import com.starrocks.catalog.PrimitiveType;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.statistic.StatisticUtils;
+
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class Histogram {
     private final List<Bucket> buckets;
     private final Map<String, Long> mcv;
 
+    // upper bounds of the buckets in order, used to binary search the bucket of a value
+    private final double[] bucketUppers;
+    private final long totalRows;
+    private final long mcvRows;
+    // mcv keys are stored as string, convert them to double once per type instead of once per predicate
+    private volatile TypedMCV typedMCV;
+
     public Histogram(List<Bucket> buckets, Map<String, Long> mcv) {
         this.buckets = buckets;
         this.mcv = mcv;
 
+        int bucketSize = buckets == null ? 0 : buckets.size();
+        this.bucketUppers = new double[bucketSize];
+        for (int i = 0; i < bucketSize; i++) {
+            bucketUppers[i] = buckets.get(i).getUpper();
+        }
+        this.mcvRows = mcv == null ? 0 : mcv.values().stream().reduce(Long::sum).orElse(0L);
+        this.totalRows = (bucketSize == 0 ? 0 : buckets.get(bucketSize - 1).getCount()) + mcvRows;
     }
 
     public long getTotalRows() {
-        long totalRows = 0;
-        if (buckets != null && !buckets.isEmpty()) {
-            totalRows += buckets.get(buckets.size() - 1).getCount();
-        }
-        if (mcv != null) {
-            totalRows += mcv.values().stream().reduce(Long::sum).orElse(0L);
-        }
         return totalRows;
     }
 
+    public long getMCVRows() {
+        return mcvRows;
+    }
+
     public List<Bucket> getBuckets() {
         return buckets;
     }
@@ -32,4 +50,76 @@ public class Histogram {
     public Map<String, Long> getMCV() {
         return mcv;
     }
+
+    /**
+     * Return the index of the first bucket whose upper bound is not less than value,
+     * return the bucket size if value is greater than all buckets.
+     * The value belongs to the returned bucket only if the lower bound of the bucket is not greater than it.
+     */
+    public int findBucket(double value) {
+        int low = 0;
+        int high = bucketUppers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucketUppers[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the row count of constant in mcv. The keys are compared as typed values, so '2022-01-01'
+     * matches a datetime constant of '2022-01-01 00:00:00' and 1.0 matches 1. String types are
+     * compared by string.
+     */
+    public Optional<Long> getRowCountInMCV(ConstantOperator constant) {
+        if (mcv == null || mcv.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Double> value = StatisticUtils.convertStatisticsToDouble(constant.getType(), constant.toString());
+        if (value.isPresent()) {
+            Long rowCount = getTypedMCV(constant.getType()).values.get(value.get());
+            if (rowCount != null) {
+                return Optional.of(rowCount);
+            }
+        }
+        return Optional.ofNullable(mcv.get(constant.toString()));
+    }
+
+    /**
+     * Get the mcv keys converted to double by type, the key is null if it can not be converted.
+     */
+    public Map<String, Double> getMCVKeys(Type type) {
+        return getTypedMCV(type).keys;
+    }
+
+    private TypedMCV getTypedMCV(Type type) {
+        TypedMCV typed = typedMCV;
+        if (typed == null || typed.type != type.getPrimitiveType()) {
+            typed = new TypedMCV(type, mcv);
+            typedMCV = typed;
+        }
+        return typed;
+    }
+
+    private static class TypedMCV {
+        private final PrimitiveType type;
+        private final Map<String, Double> keys = new HashMap<>();
+        private final Map<Double, Long> values = new HashMap<>();
+
+        TypedMCV(Type type, Map<String, Long> mcv) {
+            this.type = type.getPrimitiveType();
+            if (mcv == null) {
+                return;
+            }
+            for (Map.Entry<String, Long> entry : mcv.entrySet()) {
+                Optional<Double> key = StatisticUtils.convertStatisticsToDouble(type, entry.getKey());
+                keys.put(entry.getKey(), key.orElse(null));
+                key.ifPresent(k -> values.merge(k, entry.getValue(), Long::sum));
+            }
+        }
+    }
 }
@@ -15,6 +15,9 @@ public interface IDictManager {
 
     void removeGlobalDict(long tableId, String columnName);
 
+    // The new data of the column has strings not in its global dict
+    void refreshGlobalDict(long dbId, long tableId, String columnName);
+
     void disableGlobalDict(long tableId);
 
     void enableGlobalDict(long tableId);
@@ -22,6 +25,18 @@ public interface IDictManager {
     // You should call `hasGlobalDict` firstly to ensure the global dict exist
     Optional<ColumnDict> getGlobalDict(long tableId, String columnName);
 
+    // number of the cached column dicts
+    long getDictColumnNum();
+
+    // estimated heap bytes of the cached column dicts
+    long getDictMemoryUsage();
+
+    // number of the cached column dicts which are out of date and being reloaded
+    long getStaleDictColumnNum();
+
+    // the longest time a column dict has been out of date
+    long getMaxDictStalenessMs();
+
     static IDictManager getInstance() {
         if (FeConstants.USE_MOCK_DICT_MANAGER) {
             return MockDictManager.getInstance();
@@ -41,6 +41,10 @@ public class MockDictManager implements IDictManager {
     public void removeGlobalDict(long tableId, String columnName) {
     }
 
+    @Override
+    public void refreshGlobalDict(long dbId, long tableId, String columnName) {
+    }
+
     @Override
     public void disableGlobalDict(long tableId) {
     }
@@ -54,4 +58,24 @@ public class MockDictManager implements IDictManager {
     public Optional<ColumnDict> getGlobalDict(long tableId, String columnName) {
         return Optional.of(COLUMN_DICT);
     }
+
+    @Override
+    public long getDictColumnNum() {
+        return 1;
+    }
+
+    @Override
+    public long getDictMemoryUsage() {
+        return COLUMN_DICT.getMemoryUsage();
+    }
+
+    @Override
+    public long getStaleDictColumnNum() {
+        return 0;
+    }
+
+    @Override
+    public long getMaxDictStalenessMs() {
+        return 0;
+    }
 }
@@ -4,6 +4,7 @@ package com.starrocks.sql.optimizer.statistics;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
@@ -12,11 +13,13 @@ import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
 import com.starrocks.sql.optimizer.operator.scalar.InPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.IsNullPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.LikePredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperatorVisitor;
 import org.apache.commons.math3.util.Precision;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,7 +28,9 @@ public class PredicateStatisticsCalculator {
         if (predicate == null) {
             return statistics;
         }
-        return predicate.accept(new PredicateStatisticsCalculatingVisitor(statistics), null);
+        try (LiteralBinding.Pause ignored = LiteralBinding.pause()) {
+            return predicate.accept(new PredicateStatisticsCalculatingVisitor(statistics), null);
+        }
     }
 
     private static class PredicateStatisticsCalculatingVisitor extends ScalarOperatorVisitor<Statistics, Void> {
@@ -105,6 +110,17 @@ public class PredicateStatisticsCalculator {
                 selectivity = predicate.isNotIn() ?
                         1 - StatisticsEstimateCoefficient.IN_PREDICATE_DEFAULT_FILTER_COEFFICIENT :
                         StatisticsEstimateCoefficient.IN_PREDICATE_DEFAULT_FILTER_COEFFICIENT;
+            } else if (inColumnStatistic.getHistogram() != null &&
+                    otherChildrenList.stream().allMatch(ScalarOperator::isConstantRef)) {
+                // every in value is estimated as an equal predicate by histogram, so the skewed values
+                // in mcv get their own row count instead of the average of distinct values
+                double inFactor = 0;
+                for (ScalarOperator child : otherChildrenList) {
+                    inFactor += BinaryPredicateStatisticCalculator.estimateEqualToConstantWithHistogram(
+                            inColumnStatistic, (ConstantOperator) child);
+                }
+                selectivity = (1 - inColumnStatistic.getNullsFraction()) *
+                        (predicate.isNotIn() ? 1 - Math.min(1.0, inFactor) : Math.min(1.0, inFactor));
             } else {
                 // children column statistics are not unknown.
                 selectivity = hasOverlap ?
@@ -129,7 +145,10 @@ public class PredicateStatisticsCalculator {
             ColumnStatistic newInColumnStatistic =
                     ColumnStatistic.buildFrom(inColumnStatistic).setDistinctValuesCount(columnDistinctValues)
                             .setMinValue(columnMinVal)
-                            .setMaxValue(columnMaxVal).build();
+                            .setMaxValue(columnMaxVal)
+                            // the histogram describes the rows before in predicate, drop it so the following
+                            // predicates on the same column are estimated by the narrowed range
+                            .setHistogram(predicate.isNotIn() ? inColumnStatistic.getHistogram() : null).build();
 
             // only columnRefOperator could add column statistic to statistics
             Optional<ColumnRefOperator> childOpt =
@@ -142,6 +161,52 @@ public class PredicateStatisticsCalculator {
             return StatisticsEstimateUtils.adjustStatisticsByRowCount(inStatistics, rowCount);
         }
 
+        @Override
+        public Statistics visitLikePredicateOperator(LikePredicateOperator predicate, Void context) {
+            if (!checkNeedEvalEstimate(predicate)) {
+                return statistics;
+            }
+            ScalarOperator column = getChildForCastOperator(predicate.getChild(0));
+            ScalarOperator pattern = predicate.getChild(1);
+            if (predicate.isRegexp() || !column.isColumnRef() || !pattern.isConstantRef() ||
+                    !pattern.getType().isStringType() || ((ConstantOperator) pattern).isNull()) {
+                return visit(predicate, context);
+            }
+            ColumnStatistic columnStatistic = getExpressionStatistic(column);
+            Optional<String> prefix = getLikePrefix(((ConstantOperator) pattern).getVarchar());
+            if (columnStatistic.getHistogram() == null || !prefix.isPresent() ||
+                    columnStatistic.getHistogram().getTotalRows() == 0) {
+                return visit(predicate, context);
+            }
+
+            // like 'abc%' is a prefix range, the mcv values are checked one by one,
+            // the others use the unknown filter coefficient
+            Histogram histogram = columnStatistic.getHistogram();
+            long rowCountInMCV = histogram.getMCV().entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix.get()))
+                    .mapToLong(Map.Entry::getValue).sum();
+            double likeFactor = (rowCountInMCV + (histogram.getTotalRows() - histogram.getMCVRows()) *
+                    StatisticsEstimateCoefficient.PREDICATE_UNKNOWN_FILTER_COEFFICIENT) / histogram.getTotalRows();
+            double rowCount = statistics.getOutputRowCount() * (1 - columnStatistic.getNullsFraction()) * likeFactor;
+            return StatisticsEstimateUtils.adjustStatisticsByRowCount(
+                    Statistics.buildFrom(statistics).setOutputRowCount(rowCount).addColumnStatistic(
+                            (ColumnRefOperator) column,
+                            ColumnStatistic.buildFrom(columnStatistic).setNullsFraction(0).build()).build(),
+                    rowCount);
+        }
+
+        // Return the prefix if the pattern is 'prefix%' and the prefix has no wildcard
+        private Optional<String> getLikePrefix(String pattern) {
+            if (pattern.length() < 2 || !pattern.endsWith("%")) {
+                return Optional.empty();
+            }
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            if (prefix.contains("%") || prefix.contains("_") || prefix.contains("\\")) {
+                return Optional.empty();
+            }
+            return Optional.of(prefix);
+        }
+
         @Override
         public Statistics visitIsNullPredicate(IsNullPredicateOperator predicate, Void context) {
             if (!checkNeedEvalEstimate(predicate)) {
@@ -29,6 +29,7 @@ import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.Group;
 import com.starrocks.sql.optimizer.JoinHelper;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.OptimizerContext;
 import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
@@ -149,7 +150,11 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
     }
 
     public void estimatorStats() {
-        expressionContext.getOp().accept(this, expressionContext);
+        // the statistics only change the cost of a plan, the literals whose values are read here
+        // don't make the plan depend on the values
+        try (LiteralBinding.Pause ignored = LiteralBinding.pause()) {
+            expressionContext.getOp().accept(this, expressionContext);
+        }
     }
 
     @Override
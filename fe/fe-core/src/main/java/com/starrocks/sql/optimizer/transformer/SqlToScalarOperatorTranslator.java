@@ -26,6 +26,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.SubfieldExpr;
@@ -51,6 +52,7 @@ import com.starrocks.sql.ast.QueryStatement;
 import com.starrocks.sql.ast.SelectRelation;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.SubqueryUtils;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
@@ -594,11 +596,14 @@ public final class SqlToScalarOperatorTranslator {
 
         @Override
         public ScalarOperator visitLiteral(LiteralExpr node, Context context) {
+            ConstantOperator constant;
             if (node instanceof NullLiteral) {
-                return ConstantOperator.createNull(node.getType());
+                constant = ConstantOperator.createNull(node.getType());
+            } else {
+                constant = ConstantOperator.createObject(node.getRealObjectValue(), node.getType());
             }
-
-            return ConstantOperator.createObject(node.getRealObjectValue(), node.getType());
+            LiteralBinding.tag(node, constant);
+            return constant;
         }
 
         @Override
@@ -688,6 +693,11 @@ public final class SqlToScalarOperatorTranslator {
                     ConstantOperator.createBigint(node.getIntValue())));
         }
 
+        @Override
+        public ScalarOperator visitParameter(Parameter node, Context context) {
+            return visit(node.getValue(), context);
+        }
+
         @Override
         public ScalarOperator visitVariableExpr(VariableExpr node, Context context) {
             if (node.isNull()) {
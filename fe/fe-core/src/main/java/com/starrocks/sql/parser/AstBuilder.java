@@ -49,6 +49,7 @@ import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OdbcScalarFunctionCall;
 import com.starrocks.analysis.OrderByElement;
 import com.starrocks.analysis.OutFileClause;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.RoutineLoadDataSourceProperties;
@@ -366,9 +367,16 @@ import static java.util.stream.Collectors.toList;
 
 public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
     private final long sqlMode;
+    // the '?' placeholders of a prepared statement in order, null if the statement is not prepared
+    private final List<Parameter> parameters;
 
     public AstBuilder(long sqlMode) {
+        this(sqlMode, null);
+    }
+
+    public AstBuilder(long sqlMode, List<Parameter> parameters) {
         this.sqlMode = sqlMode;
+        this.parameters = parameters;
     }
 
     @Override
@@ -4827,6 +4835,16 @@ public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
         return new ArrowExpr(expr, stringLiteral);
     }
 
+    @Override
+    public ParseNode visitParameter(StarRocksParser.ParameterContext context) {
+        if (parameters == null) {
+            throw new ParsingException("Parameter placeholder '?' is only supported in prepared statement");
+        }
+        Parameter parameter = new Parameter(parameters.size());
+        parameters.add(parameter);
+        return parameter;
+    }
+
     @Override
     public ParseNode visitUserVariable(StarRocksParser.UserVariableContext context) {
         String variable = ((Identifier) visit(context.identifierOrString())).getValue();
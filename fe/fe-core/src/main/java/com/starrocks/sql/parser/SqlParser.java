@@ -3,6 +3,7 @@ package com.starrocks.sql.parser;
 
 import com.clearspring.analytics.util.Lists;
 import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.common.Config;
 import com.starrocks.qe.OriginStatement;
 import com.starrocks.qe.SessionVariable;
@@ -28,6 +29,23 @@ public class SqlParser {
         return statements;
     }
 
+    /**
+     * Parse the statement of a prepared statement, the '?' placeholders are added to parameters in order.
+     * Only one statement is allowed.
+     */
+    public static StatementBase parsePrepareStatement(String sql, SessionVariable sessionVariable,
+                                                      List<Parameter> parameters) {
+        StarRocksParser parser = parserBuilder(sql, sessionVariable);
+        List<StarRocksParser.SingleStatementContext> singleStatementContexts = parser.sqlStatements().singleStatement();
+        if (singleStatementContexts.size() != 1) {
+            throw new ParsingException("Prepared statement must contain exactly one statement");
+        }
+        StatementBase statement = (StatementBase) new AstBuilder(sessionVariable.getSqlMode(), parameters)
+                .visitSingleStatement(singleStatementContexts.get(0));
+        statement.setOrigStmt(new OriginStatement(sql, 0));
+        return statement;
+    }
+
     /**
      * We need not only sqlMode but also other parameters to define the property of parser.
      * Please consider use {@link #parse(String, SessionVariable)}
@@ -379,6 +379,7 @@ BITNOT: '~';
 
 ARROW: '->';
 AT: '@';
+PARAMETER: '?';
 
 INTEGER_VALUE
     : DIGIT+
@@ -31,6 +31,8 @@ public class ExecPlan {
     private final ArrayList<PlanFragment> fragments = new ArrayList<>();
     private final Map<Integer, PlanFragment> cteProduceFragments = Maps.newHashMap();
     private int planCount = 0;
+    // the plan is a point lookup on the primary key of one tablet, see PlanFragmentBuilder#isPointLookup
+    private boolean isPointLookup = false;
 
     private final OptExpression physicalPlan;
     private final List<ColumnRefOperator> outputColumns;
@@ -94,6 +96,14 @@ public class ExecPlan {
         return planCount;
     }
 
+    public boolean isPointLookup() {
+        return isPointLookup;
+    }
+
+    public void setPointLookup(boolean isPointLookup) {
+        this.isPointLookup = isPointLookup;
+    }
+
     public Map<Integer, PlanFragment> getCteProduceFragments() {
         return cteProduceFragments;
     }
@@ -5,10 +5,13 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.analysis.AggregateInfo;
+import com.starrocks.analysis.BinaryPredicate;
 import com.starrocks.analysis.Expr;
 import com.starrocks.analysis.FunctionCallExpr;
 import com.starrocks.analysis.JoinOperator;
+import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
 import com.starrocks.analysis.SlotDescriptor;
 import com.starrocks.analysis.SlotId;
@@ -63,6 +66,7 @@ import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlanNode;
 import com.starrocks.planner.ProjectNode;
 import com.starrocks.planner.RepeatNode;
+import com.starrocks.planner.ResultSink;
 import com.starrocks.planner.RuntimeFilterId;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.planner.SchemaScanNode;
@@ -252,9 +256,65 @@ public class PlanFragmentBuilder {
                 normalizer.normalize();
             }
         }
+
+        if (isPointLookup(execPlan)) {
+            execPlan.setPointLookup(true);
+            // only one row at most, one driver is enough
+            execPlan.getTopFragment().setPipelineDop(1);
+            execPlan.getTopFragment().setParallelExecNum(1);
+        }
         return execPlan;
     }
 
+    /**
+     * The plan is a point lookup if it's a single fragment of projections over the scan of one tablet of a
+     * PRIMARY_KEYS table, and every key column is compared with a constant by equality.
+     * Coordinator schedules such a plan to a replica of the tablet directly, the fragment is still sent
+     * and executed as a regular plan fragment.
+     */
+    static boolean isPointLookup(ExecPlan execPlan) {
+        ConnectContext connectContext = execPlan.getConnectContext();
+        if (connectContext == null || !connectContext.getSessionVariable().isEnablePointLookupDirectSchedule()) {
+            return false;
+        }
+        if (execPlan.getFragments().size() != 1 || execPlan.getScanNodes().size() != 1 ||
+                !(execPlan.getScanNodes().get(0) instanceof OlapScanNode)) {
+            return false;
+        }
+        OlapScanNode scanNode = (OlapScanNode) execPlan.getScanNodes().get(0);
+        OlapTable table = scanNode.getOlapTable();
+        if (table.getKeysType() != KeysType.PRIMARY_KEYS || scanNode.getScanTabletIds().size() != 1) {
+            return false;
+        }
+
+        PlanNode node = execPlan.getTopFragment().getPlanRoot();
+        while (node instanceof ProjectNode) {
+            node = node.getChild(0);
+        }
+        if (node != scanNode || !(execPlan.getTopFragment().getSink() instanceof ResultSink)) {
+            return false;
+        }
+
+        Set<String> equalKeys = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        for (Expr conjunct : scanNode.getConjuncts()) {
+            if (!(conjunct instanceof BinaryPredicate) ||
+                    ((BinaryPredicate) conjunct).getOp() != BinaryPredicate.Operator.EQ) {
+                continue;
+            }
+            Expr left = conjunct.getChild(0);
+            Expr right = conjunct.getChild(1);
+            if (left instanceof LiteralExpr && right instanceof SlotRef) {
+                Expr tmp = left;
+                left = right;
+                right = tmp;
+            }
+            if (left instanceof SlotRef && right instanceof LiteralExpr && ((SlotRef) left).getColumn() != null) {
+                equalKeys.add(((SlotRef) left).getColumn().getName());
+            }
+        }
+        return table.getKeyColumns().stream().allMatch(column -> equalKeys.contains(column.getName()));
+    }
+
     private static class PhysicalPlanTranslator extends OptExpressionVisitor<PlanFragment, ExecPlan> {
         private final ColumnRefFactory columnRefFactory;
         private final IdGenerator<RuntimeFilterId> runtimeFilterIdIdGenerator = RuntimeFilterId.createGenerator();
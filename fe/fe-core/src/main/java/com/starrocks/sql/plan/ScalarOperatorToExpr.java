@@ -41,6 +41,7 @@ import com.starrocks.analysis.VarBinaryLiteral;
 import com.starrocks.catalog.Function;
 import com.starrocks.catalog.Type;
 import com.starrocks.sql.ast.LambdaFunctionExpr;
+import com.starrocks.sql.optimizer.LiteralBinding;
 import com.starrocks.sql.optimizer.operator.scalar.ArrayOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ArraySliceOperator;
 import com.starrocks.sql.optimizer.operator.scalar.BetweenPredicateOperator;
@@ -161,6 +162,8 @@ public class ScalarOperatorToExpr {
 
         @Override
         public Expr visitConstant(ConstantOperator literal, FormatterContext context) {
+            // the literal may be rebound to the value of a query reusing a cached plan
+            literal = LiteralBinding.bind(literal);
             try {
                 Type type = literal.getType();
                 if (literal.isNull()) {
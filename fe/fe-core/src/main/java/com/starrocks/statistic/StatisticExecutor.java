@@ -33,6 +33,7 @@ import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class StatisticExecutor {
     private static final Logger LOG = LogManager.getLogger(StatisticExecutor.class);
@@ -112,6 +113,13 @@ public class StatisticExecutor {
     // If you call this function, you must ensure that the db lock is added
     public static Pair<List<TStatisticData>, Status> queryDictSync(Long dbId, Long tableId, String column)
             throws Exception {
+        return queryDictSync(dbId, tableId, column, Collections.emptyList());
+    }
+
+    // Collect the dict of the given partitions, or of the whole table if partitionNames is empty
+    public static Pair<List<TStatisticData>, Status> queryDictSync(Long dbId, Long tableId, String column,
+                                                                   List<String> partitionNames)
+            throws Exception {
         if (dbId == -1) {
             return Pair.create(Collections.emptyList(), Status.OK);
         }
@@ -134,7 +142,10 @@ public class StatisticExecutor {
                 "cast(" + version + " as bigint), " +
                 "dict_merge(" + "`" + column +
                 "`) as _dict_merge_" + column +
-                " from " + catalogName + "." + dbName + "." + tableName + " [_META_]";
+                " from " + catalogName + "." + dbName + "." + tableName +
+                (partitionNames.isEmpty() ? "" : " partition (" + partitionNames.stream()
+                        .map(name -> "`" + name + "`").collect(Collectors.joining(", ")) + ")") +
+                " [_META_]";
 
 
         ConnectContext context = StatisticUtils.buildConnectContext();
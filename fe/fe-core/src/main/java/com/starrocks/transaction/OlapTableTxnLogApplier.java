@@ -3,6 +3,7 @@
 package com.starrocks.transaction;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.LocalTablet;
 import com.starrocks.catalog.MaterializedIndex;
@@ -57,6 +58,7 @@ public class OlapTableTxnLogApplier implements TransactionLogApplier {
             return;
         }
         List<String> validDictCacheColumns = Lists.newArrayList();
+        Set<String> invalidDictCacheColumns = Sets.newHashSet();
         long maxPartitionVersionTime = -1;
         for (PartitionCommitInfo partitionCommitInfo : commitInfo.getIdToPartitionCommitInfo().values()) {
             long partitionId = partitionCommitInfo.getPartitionId();
@@ -111,18 +113,20 @@ public class OlapTableTxnLogApplier implements TransactionLogApplier {
             } // end for indices
             long versionTime = partitionCommitInfo.getVersionTime();
             partition.updateVisibleVersion(version, versionTime);
-            if (!partitionCommitInfo.getInvalidDictCacheColumns().isEmpty()) {
-                for (String column : partitionCommitInfo.getInvalidDictCacheColumns()) {
-                    IDictManager.getInstance().removeGlobalDict(tableId, column);
-                }
-            }
+            invalidDictCacheColumns.addAll(partitionCommitInfo.getInvalidDictCacheColumns());
             if (!partitionCommitInfo.getValidDictCacheColumns().isEmpty()) {
                 validDictCacheColumns = partitionCommitInfo.getValidDictCacheColumns();
             }
             maxPartitionVersionTime = Math.max(maxPartitionVersionTime, versionTime);
         }
         for (String column : validDictCacheColumns) {
-            IDictManager.getInstance().updateGlobalDict(tableId, column, maxPartitionVersionTime);
+            if (!invalidDictCacheColumns.contains(column)) {
+                IDictManager.getInstance().updateGlobalDict(tableId, column, maxPartitionVersionTime);
+            }
+        }
+        // refresh after all the partitions are visible, so the new dict covers their data
+        for (String column : invalidDictCacheColumns) {
+            IDictManager.getInstance().refreshGlobalDict(db.getId(), tableId, column);
         }
     }
 
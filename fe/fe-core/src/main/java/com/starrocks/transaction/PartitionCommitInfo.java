@@ -25,6 +25,7 @@ import com.google.common.collect.Lists;
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.common.FeMetaVersion;
 import com.starrocks.common.io.Text;
+import com.starrocks.common.io.VarInt;
 import com.starrocks.common.io.Writable;
 import com.starrocks.lake.compaction.Quantiles;
 import com.starrocks.persist.gson.GsonUtils;
@@ -106,6 +107,60 @@ public class PartitionCommitInfo implements Writable {
         }
     }
 
+    // part of the compact encoding of TransactionState
+    void writeCompact(DataOutput out) throws IOException {
+        VarInt.writeZLong(out, partitionId);
+        VarInt.writeZLong(out, version);
+        VarInt.writeZLong(out, versionTime);
+        writeColumns(out, invalidDictCacheColumns);
+        writeColumns(out, validDictCacheColumns);
+        if (compactionScore == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeDouble(compactionScore.getAvg());
+            out.writeDouble(compactionScore.getP50());
+            out.writeDouble(compactionScore.getMax());
+        }
+    }
+
+    static PartitionCommitInfo readCompact(DataInput in) throws IOException {
+        PartitionCommitInfo info = new PartitionCommitInfo();
+        info.partitionId = VarInt.readZLong(in);
+        info.version = VarInt.readZLong(in);
+        info.versionTime = VarInt.readZLong(in);
+        info.invalidDictCacheColumns = readColumns(in);
+        info.validDictCacheColumns = readColumns(in);
+        if (in.readBoolean()) {
+            info.compactionScore = Quantiles.read(in);
+        }
+        return info;
+    }
+
+    // number of columns plus 1, null is encoded as 0
+    private static void writeColumns(DataOutput out, List<String> columns) throws IOException {
+        if (columns == null) {
+            VarInt.writeVInt(out, 0);
+            return;
+        }
+        VarInt.writeVInt(out, columns.size() + 1);
+        for (String column : columns) {
+            VarInt.writeString(out, column);
+        }
+    }
+
+    private static List<String> readColumns(DataInput in) throws IOException {
+        int size = VarInt.readVInt(in);
+        if (size == 0) {
+            return null;
+        }
+        List<String> columns = Lists.newArrayListWithCapacity(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            columns.add(VarInt.readString(in));
+        }
+        return columns;
+    }
+
     public void setVersionTime(long time) {
         this.versionTime = time;
     }
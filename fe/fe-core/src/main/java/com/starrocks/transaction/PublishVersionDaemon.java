@@ -380,7 +380,7 @@ public class PublishVersionDaemon extends LeaderDaemon {
                 LOG.warn("failed to get transaction tableId {} when pending refresh.", tableId);
                 return;
             }
-            Set<MvId> relatedMvs = table.getRelatedMaterializedViews();
+            Set<MvId> relatedMvs = table.getAllRelatedMaterializedViews();
             for (MvId mvId : relatedMvs) {
                 Database mvDb = GlobalStateMgr.getCurrentState().getLocalMetastore().getDb(mvId.getDbId());
                 mvDb.readLock();
@@ -22,6 +22,7 @@
 package com.starrocks.transaction;
 
 import com.google.common.collect.Maps;
+import com.starrocks.common.io.VarInt;
 import com.starrocks.common.io.Writable;
 
 import java.io.DataInput;
@@ -70,6 +71,32 @@ public class TableCommitInfo implements Writable {
         }
     }
 
+    // part of the compact encoding of TransactionState
+    void writeCompact(DataOutput out) throws IOException {
+        VarInt.writeZLong(out, tableId);
+        if (idToPartitionCommitInfo == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            VarInt.writeVInt(out, idToPartitionCommitInfo.size());
+            for (PartitionCommitInfo partitionCommitInfo : idToPartitionCommitInfo.values()) {
+                partitionCommitInfo.writeCompact(out);
+            }
+        }
+    }
+
+    void readFieldsCompact(DataInput in) throws IOException {
+        tableId = VarInt.readZLong(in);
+        idToPartitionCommitInfo = Maps.newHashMap();
+        if (in.readBoolean()) {
+            int elementNum = VarInt.readVInt(in);
+            for (int i = 0; i < elementNum; ++i) {
+                PartitionCommitInfo partitionCommitInfo = PartitionCommitInfo.readCompact(in);
+                idToPartitionCommitInfo.put(partitionCommitInfo.getPartitionId(), partitionCommitInfo);
+            }
+        }
+    }
+
     public long getTableId() {
         return tableId;
     }
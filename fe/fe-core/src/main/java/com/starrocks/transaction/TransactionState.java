@@ -36,6 +36,7 @@ import com.starrocks.common.FeMetaVersion;
 import com.starrocks.common.TraceManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.io.Text;
+import com.starrocks.common.io.VarInt;
 import com.starrocks.common.io.Writable;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.server.GlobalStateMgr;
@@ -63,6 +64,13 @@ import javax.validation.constraints.NotNull;
 public class TransactionState implements Writable {
     private static final Logger LOG = LogManager.getLogger(TransactionState.class);
 
+    // version of the compact encoding, see writeCompact()
+    private static final int COMPACT_VERSION = 1;
+    private static final int COMPACT_FLAG_COMMIT_TIME = 1;
+    private static final int COMPACT_FLAG_FINISH_TIME = 1 << 1;
+    private static final int COMPACT_FLAG_NEW_FINISH = 1 << 2;
+    private static final int COMPACT_FLAG_ATTACHMENT = 1 << 3;
+
     // compare the TransactionState by txn id, desc
     public static class TxnStateComparator implements Comparator<TransactionState> {
         @Override
@@ -803,6 +811,127 @@ public class TransactionState implements Writable {
             }
         }
 
+        traceReadState();
+    }
+
+    /**
+     * Write the same fields as write() in a compact encoding, which is journaled by the compact op codes, e.g.
+     * OP_UPSERT_TRANSACTION_STATE_COMPACT. Ids and sizes are varints, commit and finish time are deltas to
+     * prepare time, the optional fields are marked by a flag byte, and the partition commit infos are binary
+     * instead of json. It begins with COMPACT_VERSION, which must be increased on any change of the format.
+     */
+    public void writeCompact(DataOutput out) throws IOException {
+        out.writeByte(COMPACT_VERSION);
+        int flags = 0;
+        if (commitTime != -1) {
+            flags |= COMPACT_FLAG_COMMIT_TIME;
+        }
+        if (finishTime != -1) {
+            flags |= COMPACT_FLAG_FINISH_TIME;
+        }
+        if (transactionStatus == TransactionStatus.VISIBLE && newFinish) {
+            Preconditions.checkNotNull(finishState);
+            flags |= COMPACT_FLAG_NEW_FINISH;
+        }
+        if (txnCommitAttachment != null) {
+            flags |= COMPACT_FLAG_ATTACHMENT;
+        }
+        out.writeByte(flags);
+
+        VarInt.writeZLong(out, transactionId);
+        VarInt.writeString(out, label);
+        VarInt.writeZLong(out, dbId);
+        VarInt.writeVInt(out, idToTableCommitInfos.size());
+        for (TableCommitInfo info : idToTableCommitInfos.values()) {
+            info.writeCompact(out);
+        }
+        VarInt.writeVInt(out, txnCoordinator.sourceType.value());
+        VarInt.writeString(out, txnCoordinator.ip);
+        VarInt.writeVInt(out, transactionStatus.value());
+        VarInt.writeVInt(out, sourceType.value());
+        VarInt.writeZLong(out, prepareTime);
+        if (commitTime != -1) {
+            VarInt.writeZLong(out, commitTime - prepareTime);
+        }
+        if (finishTime != -1) {
+            VarInt.writeZLong(out, finishTime - prepareTime);
+        }
+        if ((flags & COMPACT_FLAG_NEW_FINISH) != 0) {
+            byte[] bytes = finishState.toBytes();
+            VarInt.writeVInt(out, bytes.length);
+            out.write(bytes);
+        } else if (transactionStatus != TransactionStatus.VISIBLE) {
+            VarInt.writeString(out, reason);
+        }
+        VarInt.writeVInt(out, errorReplicas.size());
+        for (long errorReplicaId : errorReplicas) {
+            VarInt.writeZLong(out, errorReplicaId);
+        }
+        if (txnCommitAttachment != null) {
+            txnCommitAttachment.write(out);
+        }
+        VarInt.writeZLong(out, callbackId);
+        VarInt.writeZLong(out, timeoutMs);
+        VarInt.writeVInt(out, tableIdList.size());
+        for (Long tableId : tableIdList) {
+            VarInt.writeZLong(out, tableId);
+        }
+    }
+
+    public void readFieldsCompact(DataInput in) throws IOException {
+        int version = in.readByte();
+        if (version != COMPACT_VERSION) {
+            throw new IOException("unknown version of compact transaction state: " + version);
+        }
+        int flags = in.readByte();
+
+        transactionId = VarInt.readZLong(in);
+        label = VarInt.readString(in);
+        dbId = VarInt.readZLong(in);
+        int size = VarInt.readVInt(in);
+        for (int i = 0; i < size; i++) {
+            TableCommitInfo info = new TableCommitInfo();
+            info.readFieldsCompact(in);
+            idToTableCommitInfos.put(info.getTableId(), info);
+        }
+        TxnSourceType coordinatorType = TxnSourceType.valueOf(VarInt.readVInt(in));
+        txnCoordinator = new TxnCoordinator(coordinatorType, VarInt.readString(in));
+        transactionStatus = TransactionStatus.valueOf(VarInt.readVInt(in));
+        sourceType = LoadJobSourceType.valueOf(VarInt.readVInt(in));
+        prepareTime = VarInt.readZLong(in);
+        commitTime = (flags & COMPACT_FLAG_COMMIT_TIME) != 0 ? prepareTime + VarInt.readZLong(in) : -1;
+        finishTime = (flags & COMPACT_FLAG_FINISH_TIME) != 0 ? prepareTime + VarInt.readZLong(in) : -1;
+        if ((flags & COMPACT_FLAG_NEW_FINISH) != 0) {
+            byte[] bytes = new byte[VarInt.readVInt(in)];
+            in.readFully(bytes);
+            if (finishState == null) {
+                finishState = new TxnFinishState();
+            }
+            finishState.fromBytes(bytes);
+            newFinish = true;
+        } else if (transactionStatus != TransactionStatus.VISIBLE) {
+            reason = VarInt.readString(in);
+        }
+        int errorReplicaNum = VarInt.readVInt(in);
+        for (int i = 0; i < errorReplicaNum; ++i) {
+            errorReplicas.add(VarInt.readZLong(in));
+        }
+        if ((flags & COMPACT_FLAG_ATTACHMENT) != 0) {
+            txnCommitAttachment = TxnCommitAttachment.read(in);
+        }
+        callbackId = VarInt.readZLong(in);
+        timeoutMs = VarInt.readZLong(in);
+        tableIdList = Lists.newArrayList();
+        int tableListSize = VarInt.readVInt(in);
+        for (int i = 0; i < tableListSize; i++) {
+            tableIdList.add(VarInt.readZLong(in));
+        }
+
+        traceReadState();
+    }
+
+    // trace the state read from the journal or the image
+    private void traceReadState() {
         txnSpan.setAttribute("txn_id", transactionId);
         txnSpan.setAttribute("label", label);
         if (transactionStatus == TransactionStatus.COMMITTED) {
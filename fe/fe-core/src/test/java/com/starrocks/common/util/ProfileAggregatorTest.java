@@ -0,0 +1,120 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.thrift.TCounter;
+import com.starrocks.thrift.TRuntimeProfileNode;
+import com.starrocks.thrift.TRuntimeProfileTree;
+import com.starrocks.thrift.TUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ProfileAggregatorTest {
+
+    private static TRuntimeProfileNode createNode(String name, int numChildren, TCounter... counters) {
+        TRuntimeProfileNode node = new TRuntimeProfileNode();
+        node.name = name;
+        node.num_children = numChildren;
+        node.indent = true;
+        node.counters = Lists.newArrayList(counters);
+        node.child_counters_map = Maps.newHashMap();
+        node.info_strings = Maps.newHashMap();
+        node.info_strings_display_order = Lists.newArrayList();
+        for (TCounter counter : counters) {
+            addChildCounter(node, "", counter.name);
+        }
+        return node;
+    }
+
+    private static void addChildCounter(TRuntimeProfileNode node, String parentName, String childName) {
+        node.child_counters_map.computeIfAbsent(parentName, k -> Sets.newHashSet()).add(childName);
+    }
+
+    /*
+     * Instance(TotalTime)
+     *     Pipeline(DegreeOfParallelism)
+     *         OLAP_SCAN(OperatorTotalTime, PullRowNum[PullChunkNum], ScanTime[__MIN_OF_ScanTime, __MAX_OF_ScanTime])
+     */
+    private static TRuntimeProfileTree createInstanceProfile(long totalTime, long pullRowNum, long scanTime,
+                                                             boolean withChunkNum) {
+        TRuntimeProfileTree tree = new TRuntimeProfileTree();
+        TRuntimeProfileNode instance = createNode("Instance", 1, new TCounter("TotalTime", TUnit.TIME_NS, totalTime));
+        instance.info_strings.put("Status", "OK");
+        instance.info_strings_display_order.add("Status");
+        TRuntimeProfileNode pipeline = createNode("Pipeline (id=0)", 1,
+                new TCounter("DegreeOfParallelism", TUnit.UNIT, 2));
+        TRuntimeProfileNode operator = createNode("OLAP_SCAN (plan_node_id=0)", 0,
+                new TCounter("OperatorTotalTime", TUnit.TIME_NS, totalTime / 2),
+                new TCounter("PullRowNum", TUnit.UNIT, pullRowNum),
+                new TCounter("ScanTime", TUnit.TIME_NS, scanTime));
+        operator.counters.add(new TCounter("__MIN_OF_ScanTime", TUnit.TIME_NS, scanTime / 2));
+        operator.counters.add(new TCounter("__MAX_OF_ScanTime", TUnit.TIME_NS, scanTime * 2));
+        addChildCounter(operator, "ScanTime", "__MIN_OF_ScanTime");
+        addChildCounter(operator, "ScanTime", "__MAX_OF_ScanTime");
+        if (withChunkNum) {
+            operator.counters.add(new TCounter("PullChunkNum", TUnit.UNIT, pullRowNum / 10));
+            addChildCounter(operator, "PullRowNum", "PullChunkNum");
+        }
+        tree.addToNodes(instance);
+        tree.addToNodes(pipeline);
+        tree.addToNodes(operator);
+        return tree;
+    }
+
+    @Test
+    public void testSameAsMergeIsomorphicProfiles() {
+        List<TRuntimeProfileTree> trees = Lists.newArrayList(
+                createInstanceProfile(1000, 100, 300, false),
+                createInstanceProfile(3000, 200, 500, true),
+                createInstanceProfile(2000, 400, 100, false));
+
+        List<RuntimeProfile> profiles = Lists.newArrayList();
+        ProfileAggregator aggregator = new ProfileAggregator();
+        for (int i = 0; i < trees.size(); i++) {
+            RuntimeProfile profile = new RuntimeProfile("Instance");
+            profile.update(trees.get(i));
+            profiles.add(profile);
+            aggregator.add(trees.get(i), "127.0.0." + i + ":9060");
+        }
+        RuntimeProfile.mergeIsomorphicProfiles(profiles);
+        RuntimeProfile mergedProfile = aggregator.build("Instance");
+
+        Assert.assertEquals(3, aggregator.getNumProfiles());
+        Assert.assertEquals(3, aggregator.getAddresses().size());
+        Assert.assertEquals(profiles.get(0).toString(), mergedProfile.toString());
+
+        RuntimeProfile operator = mergedProfile.getChildList().get(0).first.getChildList().get(0).first;
+        Assert.assertEquals(2000, mergedProfile.getCounterTotalTime().getValue());
+        Assert.assertEquals(700, operator.getCounter("PullRowNum").getValue());
+        Assert.assertEquals(100, operator.getCounter("__MIN_OF_PullRowNum").getValue());
+        Assert.assertEquals(400, operator.getCounter("__MAX_OF_PullRowNum").getValue());
+        // the counter only attached to one of the instances
+        Assert.assertEquals(20, operator.getCounter("PullChunkNum").getValue());
+        // min and max merged by BE
+        Assert.assertEquals(300, operator.getCounter("ScanTime").getValue());
+        Assert.assertEquals(50, operator.getCounter("__MIN_OF_ScanTime").getValue());
+        Assert.assertEquals(1000, operator.getCounter("__MAX_OF_ScanTime").getValue());
+    }
+
+    @Test
+    public void testNonIsomorphicCounter() {
+        ProfileAggregator aggregator = new ProfileAggregator();
+        aggregator.add(createInstanceProfile(1000, 100, 300, false), null);
+        TRuntimeProfileTree tree = createInstanceProfile(1000, 100, 300, false);
+        tree.nodes.get(2).counters.get(1).type = TUnit.BYTES;
+        aggregator.add(tree, null);
+
+        RuntimeProfile mergedProfile = aggregator.build("Instance");
+        RuntimeProfile operator = mergedProfile.getChildList().get(0).first.getChildList().get(0).first;
+        // the counter of different type is ignored
+        Assert.assertEquals(TUnit.UNIT, operator.getCounter("PullRowNum").getType());
+        Assert.assertEquals(100, operator.getCounter("PullRowNum").getValue());
+        Assert.assertEquals(300, operator.getCounter("ScanTime").getValue());
+        Assert.assertTrue(aggregator.getAddresses().isEmpty());
+    }
+}
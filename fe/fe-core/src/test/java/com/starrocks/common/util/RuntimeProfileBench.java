@@ -0,0 +1,117 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.starrocks.thrift.TUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the profile retained by ProfileManager in the gzipped pretty printed text, which is how it was
+ * kept before, with the compact form encoded by RuntimeProfileCodec. The bytes retained per profile of both
+ * forms are printed in the setup, and the benchmarks measure the cost to retain and to show a profile.
+ * A profile has the given number of fragments, each fragment has 8 pipelines of 6 operators, and each
+ * operator has 40 counters with their min and max.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RuntimeProfileBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RuntimeProfileBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int PIPELINE_NUM = 8;
+    private static final int OPERATOR_NUM = 6;
+    private static final int COUNTER_NUM = 40;
+
+    @Param({"1", "10", "50"})
+    public int fragments;
+
+    private RuntimeProfile profile;
+    private byte[] textContent;
+    private byte[] compactContent;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(0);
+        profile = new RuntimeProfile("Query");
+        RuntimeProfile summary = new RuntimeProfile("Summary");
+        summary.addInfoString(ProfileManager.QUERY_ID, "8f3a4d2c-1e5b-11ee-9c7a-00163e0a1b2c");
+        profile.addChild(summary);
+        RuntimeProfile execution = new RuntimeProfile("Execution");
+        profile.addChild(execution);
+        for (int f = 0; f < fragments; f++) {
+            RuntimeProfile fragment = new RuntimeProfile("Fragment " + f);
+            fragment.addInfoString("BackendAddresses", "172.26.92.1:9060,172.26.92.2:9060,172.26.92.3:9060");
+            execution.addChild(fragment);
+            for (int p = 0; p < PIPELINE_NUM; p++) {
+                RuntimeProfile pipeline = new RuntimeProfile("Pipeline (id=" + p + ")");
+                pipeline.addCounter("DegreeOfParallelism", TUnit.UNIT).setValue(16);
+                fragment.addChild(pipeline);
+                for (int o = 0; o < OPERATOR_NUM; o++) {
+                    RuntimeProfile operator = new RuntimeProfile("OPERATOR_" + o + " (plan_node_id=" + o + ")");
+                    pipeline.addChild(operator);
+                    for (int c = 0; c < COUNTER_NUM; c++) {
+                        String name = "Counter" + c;
+                        TUnit type = c % 2 == 0 ? TUnit.TIME_NS : TUnit.UNIT;
+                        long value = random.nextInt(1 << 30);
+                        operator.addCounter(name, type).setValue(value);
+                        operator.addCounter("__MIN_OF_" + name, type, name).setValue(value / 2);
+                        operator.addCounter("__MAX_OF_" + name, type, name).setValue(value * 2);
+                    }
+                }
+            }
+        }
+        textContent = CompressionUtils.gzipCompressString(profile.toString());
+        compactContent = RuntimeProfileCodec.encode(profile);
+        System.out.printf("%nfragments=%d, text: %d bytes, gzipped text: %d bytes, compact: %d bytes%n",
+                fragments, profile.toString().length(), textContent.length, compactContent.length);
+    }
+
+    @Benchmark
+    public int retainText() throws IOException {
+        return CompressionUtils.gzipCompressString(profile.toString()).length;
+    }
+
+    @Benchmark
+    public int retainCompact() throws IOException {
+        return RuntimeProfileCodec.encode(profile).length;
+    }
+
+    @Benchmark
+    public int showText() throws IOException {
+        return CompressionUtils.gzipDecompressString(textContent).length();
+    }
+
+    @Benchmark
+    public int showCompact() throws IOException {
+        return RuntimeProfileCodec.decode(compactContent).toString().length();
+    }
+}
@@ -0,0 +1,79 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.starrocks.common.Config;
+import com.starrocks.thrift.TUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class RuntimeProfileCodecTest {
+
+    private static RuntimeProfile createProfile(String queryId) {
+        RuntimeProfile profile = new RuntimeProfile("Query");
+        RuntimeProfile summary = new RuntimeProfile("Summary");
+        summary.addInfoString(ProfileManager.QUERY_ID, queryId);
+        summary.addInfoString(ProfileManager.SQL_STATEMENT, "select * from t0 where v1 = '中文'");
+        summary.addInfoString(ProfileManager.DEFAULT_DB, null);
+        profile.addChild(summary);
+
+        RuntimeProfile fragment = new RuntimeProfile("Fragment 0");
+        fragment.getCounterTotalTime().setValue(3000000000L);
+        fragment.addCounter("InstanceNum", TUnit.UNIT).setValue(3);
+        profile.addChild(fragment);
+        for (int i = 0; i < 2; i++) {
+            RuntimeProfile operator = new RuntimeProfile("OLAP_SCAN (plan_node_id=" + i + ")");
+            operator.getCounterTotalTime().setValue(1000000000L);
+            operator.addCounter("PullRowNum", TUnit.UNIT).setValue(-1);
+            operator.addCounter("PullChunkNum", TUnit.UNIT, "PullRowNum").setValue(Long.MAX_VALUE);
+            operator.addCounter("ScanTime", TUnit.TIME_NS).setValue(Long.MIN_VALUE);
+            operator.addCounter("__MIN_OF_ScanTime", TUnit.TIME_NS, "ScanTime").setValue(0);
+            operator.addCounter("BytesRead", TUnit.BYTES).setValue(123456789L);
+            fragment.addChild(operator);
+        }
+        profile.computeTimeInChildProfile();
+        return profile;
+    }
+
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+        RuntimeProfile profile = createProfile("query_id");
+        byte[] content = RuntimeProfileCodec.encode(profile);
+        RuntimeProfile decoded = RuntimeProfileCodec.decode(content);
+
+        Assert.assertEquals(profile.toString(), decoded.toString());
+        RuntimeProfile operator = decoded.getChild("Fragment 0").getChild("OLAP_SCAN (plan_node_id=1)");
+        Assert.assertEquals(Long.MAX_VALUE, operator.getCounter("PullChunkNum").getValue());
+        Assert.assertEquals(Long.MIN_VALUE, operator.getCounter("ScanTime").getValue());
+        Assert.assertEquals(TUnit.BYTES, operator.getCounter("BytesRead").getType());
+        Assert.assertNull(decoded.getChild("Summary").getInfoString(ProfileManager.DEFAULT_DB));
+    }
+
+    @Test
+    public void testReservedBytes() {
+        ProfileManager manager = ProfileManager.getInstance();
+        int reservedNum = Config.profile_info_reserved_num;
+        long reservedBytes = Config.profile_info_reserved_bytes;
+        try {
+            Config.profile_info_reserved_num = 100;
+            manager.pushProfile(createProfile("query_0"));
+            long bytes = manager.getProfileBytes();
+            Assert.assertNotNull(manager.getProfile("query_0"));
+
+            // only 2 profiles can be reserved
+            Config.profile_info_reserved_bytes = bytes * 2 + bytes / 2;
+            manager.pushProfile(createProfile("query_1"));
+            manager.pushProfile(createProfile("query_2"));
+            Assert.assertNull(manager.getProfile("query_0"));
+            Assert.assertEquals(createProfile("query_1").toString(), manager.getProfile("query_1"));
+            Assert.assertNotNull(manager.getProfile("query_2"));
+            Assert.assertEquals(2, manager.getAllQueries().size());
+            Assert.assertTrue(manager.getProfileBytes() <= Config.profile_info_reserved_bytes);
+        } finally {
+            Config.profile_info_reserved_num = reservedNum;
+            Config.profile_info_reserved_bytes = reservedBytes;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.starrocks.common.Config;
 import com.starrocks.common.io.DataOutputBuffer;
 import com.starrocks.common.io.Text;
 import com.starrocks.journal.bdbje.BDBJEJournal;
+import com.starrocks.persist.OperationType;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.apache.commons.lang3.StringUtils;
@@ -17,6 +18,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 
 public class JournalWriterTest {
     @Mocked
@@ -45,6 +47,7 @@ public class JournalWriterTest {
         Config.edit_log_roll_num = 50000;
         Config.metadata_journal_max_batch_size_mb = 100;
         Config.metadata_journal_max_batch_cnt = 100;
+        Config.metadata_journal_pipelined_commit = false;
     }
 
     private DataOutputBuffer makeBuffer(int size) throws IOException {
@@ -314,4 +317,107 @@ public class JournalWriterTest {
         Assert.assertFalse(task2.get());
         Assert.assertEquals(0, journalQueue.size());
     }
+
+    @Test
+    public void testPipelinedCommit() throws Exception {
+        Config.metadata_journal_pipelined_commit = true;
+        CompletableFuture<Void> commit1 = new CompletableFuture<>();
+        CompletableFuture<Void> commit2 = new CompletableFuture<>();
+        new Expectations(journal) {
+            {
+                journal.batchWriteBegin();
+                times = 3;
+
+                journal.batchWriteAppend(anyLong, (DataOutputBuffer) any);
+                times = 4;
+
+                journal.batchWriteCommitAsync();
+                times = 2;
+                returns(commit1, commit2);
+
+                journal.batchWriteCommit();
+                times = 1;
+            }
+        };
+        JournalTask task1 = new JournalTask(makeBuffer(10), -1);
+        JournalTask task2 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task1);
+        journalQueue.add(task2);
+
+        // batch 1 is handed over, but not committed yet
+        writer.writeOneBatch();
+        Assert.assertEquals(1, writer.nextVisibleJournalId);
+        Assert.assertEquals(0, writer.rollJournalCounter);
+        Assert.assertFalse(task1.isDone());
+        Assert.assertFalse(task2.isDone());
+
+        // batch 2 is written while batch 1 is being committed
+        JournalTask task3 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task3);
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            commit1.complete(null);
+        }).start();
+        writer.writeOneBatch();
+        Assert.assertEquals(3, writer.nextVisibleJournalId);
+        Assert.assertEquals(2, writer.rollJournalCounter);
+        Assert.assertTrue(task1.get());
+        Assert.assertTrue(task2.get());
+        Assert.assertFalse(task3.isDone());
+
+        // batch 2 is finished before switching back to synchronous commit
+        commit2.complete(null);
+        Config.metadata_journal_pipelined_commit = false;
+        JournalTask task4 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task4);
+        writer.writeOneBatch();
+        Assert.assertTrue(task3.get());
+        Assert.assertTrue(task4.get());
+        Assert.assertEquals(5, writer.nextVisibleJournalId);
+        Assert.assertEquals(4, writer.rollJournalCounter);
+    }
+
+    @Test
+    public void testPipelinedCommitException() throws Exception {
+        Config.metadata_journal_pipelined_commit = true;
+        CompletableFuture<Void> commit = new CompletableFuture<>();
+        commit.completeExceptionally(new JournalException("mock batchWriteCommitAsync exception"));
+        new Expectations(journal) {
+            {
+                journal.batchWriteCommitAsync();
+                times = 1;
+                result = commit;
+            }
+        };
+        JournalTask task1 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task1);
+        abortedWriter.writeOneBatch();
+        Assert.assertFalse(task1.isDone());
+
+        // the failed batch is aborted before writing the next one
+        Config.metadata_journal_pipelined_commit = false;
+        JournalTask task2 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task2);
+        abortedWriter.writeOneBatch();
+        Assert.assertFalse(task1.get());
+        Assert.assertTrue(task2.get());
+        Assert.assertEquals(2, abortedWriter.nextVisibleJournalId);
+    }
+
+    @Test
+    public void testOpCode() throws Exception {
+        DataOutputBuffer buffer = new DataOutputBuffer();
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(OperationType.OP_CREATE_STREAM_LOAD_TASK);
+        entity.setData(new Text("x"));
+        entity.write(buffer);
+        JournalTask task = new JournalTask(buffer, -1);
+        Assert.assertEquals(OperationType.OP_CREATE_STREAM_LOAD_TASK, task.getOpCode());
+        Assert.assertEquals("OP_CREATE_STREAM_LOAD_TASK", OperationType.getOpName(task.getOpCode()));
+        Assert.assertEquals("12345", OperationType.getOpName((short) 12345));
+    }
 }
@@ -42,6 +42,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
 
 public class BDBJEJournalTest {
     private static final Logger LOG = LogManager.getLogger(BDBJEJournalTest.class);
@@ -434,6 +435,35 @@ public class BDBJEJournalTest {
         Assert.fail();
     }
 
+    @Test
+    public void testBatchWriteCommitAsync() throws Exception {
+        BDBEnvironment environment = initBDBEnv("testBatchWriteCommitAsync");
+        CloseSafeDatabase database = environment.openDatabase("testBatchWriteCommitAsync");
+        BDBJEJournal journal = new BDBJEJournal(environment, database);
+        String data = "petals on a wet black bough";
+        DataOutputBuffer buffer = new DataOutputBuffer();
+        Text.writeString(buffer, data);
+
+        // hand over batch 1, then write batch 2 while batch 1 is being committed
+        journal.batchWriteBegin();
+        journal.batchWriteAppend(1, buffer);
+        Future<Void> commit1 = journal.batchWriteCommitAsync();
+        Assert.assertNull(journal.currentTrasaction);
+        journal.batchWriteBegin();
+        Assert.assertNotNull(journal.currentTrasaction);
+        journal.batchWriteAppend(2, buffer);
+        journal.batchWriteAppend(3, buffer);
+        commit1.get();
+        Assert.assertTrue(checkKeyExists(1, database.getDb()));
+
+        journal.batchWriteCommitAsync().get();
+        Assert.assertNull(journal.currentTrasaction);
+        for (int i = 1; i != 4; i++) {
+            Assert.assertEquals(data, readDBStringValue(i, database.getDb()));
+        }
+        journal.close();
+    }
+
     // you can count on me. -- abort
     @Test
     public void testAbort() throws Exception {
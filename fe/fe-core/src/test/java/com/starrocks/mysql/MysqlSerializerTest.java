@@ -0,0 +1,92 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.mysql;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Type;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class MysqlSerializerTest {
+    @Test
+    public void testWriteBinaryRow() {
+        MysqlSerializer textRow = MysqlSerializer.newInstance();
+        textRow.writeLenEncodedString("-2");
+        textRow.writeLenEncodedString("123456789012");
+        textRow.writeInt1(0xFB);
+        textRow.writeLenEncodedString("1.5");
+        textRow.writeLenEncodedString("2022-01-02 03:04:05");
+        textRow.writeLenEncodedString("2022-01-02");
+        textRow.writeLenEncodedString("abc");
+
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeBinaryRow(textRow.toByteBuffer(), Lists.newArrayList(Type.INT, Type.BIGINT, Type.INT,
+                Type.DOUBLE, Type.DATETIME, Type.DATE, Type.VARCHAR));
+        ByteBuffer buffer = serializer.toByteBuffer();
+
+        Assert.assertEquals(0x00, MysqlProto.readInt1(buffer));
+        // null bitmap with offset 2, the third column is null
+        Assert.assertEquals(1 << 4, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(0, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(-2, MysqlProto.readInt4(buffer));
+        Assert.assertEquals(123456789012L, MysqlProto.readInt8(buffer));
+        Assert.assertEquals(1.5, Double.longBitsToDouble(MysqlProto.readInt8(buffer)), 1e-9);
+        // datetime
+        Assert.assertEquals(7, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2022, MysqlProto.readInt2(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(3, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(4, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(5, MysqlProto.readInt1(buffer));
+        // date
+        Assert.assertEquals(4, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2022, MysqlProto.readInt2(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2, MysqlProto.readInt1(buffer));
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(buffer)));
+        Assert.assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testWriteBinaryRowFromDirectBuffer() {
+        MysqlSerializer textRow = MysqlSerializer.newInstance();
+        textRow.writeLenEncodedString("-25:01:02.5");
+        textRow.writeLenEncodedString("2022-01-02 00:00:00.000123");
+        textRow.writeLenEncodedString("12.50");
+        byte[] bytes = textRow.toArray();
+        // the values are read from the row buffer in place, not only from a heap buffer
+        ByteBuffer row = ByteBuffer.allocateDirect(bytes.length);
+        row.put(bytes);
+        row.flip();
+
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeBinaryRow(row, Lists.newArrayList(Type.TIME, Type.DATETIME, Type.DEFAULT_DECIMALV2));
+        ByteBuffer buffer = serializer.toByteBuffer();
+        Assert.assertEquals(0, row.position());
+
+        Assert.assertEquals(0x00, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(0, MysqlProto.readInt1(buffer));
+        // time: negative, 1 day, 1:01:02.500000
+        Assert.assertEquals(12, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt4(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(500000, MysqlProto.readInt4(buffer));
+        // datetime with microsecond
+        Assert.assertEquals(11, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2022, MysqlProto.readInt2(buffer));
+        Assert.assertEquals(1, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(2, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(0, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(0, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(0, MysqlProto.readInt1(buffer));
+        Assert.assertEquals(123, MysqlProto.readInt4(buffer));
+        // decimal is sent as string
+        Assert.assertEquals("12.50", new String(MysqlProto.readLenEncodedString(buffer)));
+        Assert.assertEquals(0, buffer.remaining());
+    }
+}
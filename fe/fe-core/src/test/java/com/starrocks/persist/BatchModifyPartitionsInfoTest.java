@@ -5,10 +5,13 @@ package com.starrocks.persist;
 import com.google.common.collect.Lists;
 import com.starrocks.catalog.DataProperty;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.io.DataOutputBuffer;
+import com.starrocks.thrift.TStorageMedium;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
@@ -59,4 +62,34 @@ public class BatchModifyPartitionsInfoTest {
 
         in.close();
     }
+
+    @Test
+    public void testSerializeCompact() throws IOException {
+        List<ModifyPartitionInfo> partitionInfos = Lists.newArrayList();
+        partitionInfos.add(new ModifyPartitionInfo(DB_ID, TB_ID, PARTITION_ID_1,
+                DataProperty.DEFAULT_DATA_PROPERTY, (short) 3, true));
+        partitionInfos.add(new ModifyPartitionInfo(DB_ID, TB_ID, PARTITION_ID_2,
+                new DataProperty(TStorageMedium.SSD, 1670000000000L), (short) -1, false));
+        partitionInfos.add(new ModifyPartitionInfo(DB_ID, TB_ID, PARTITION_ID_3, null, (short) 1, false));
+        BatchModifyPartitionsInfo batchModifyPartitionsInfo = new BatchModifyPartitionsInfo(partitionInfos);
+
+        DataOutputBuffer buffer = new DataOutputBuffer();
+        batchModifyPartitionsInfo.writeCompact(buffer);
+        DataOutputBuffer legacyBuffer = new DataOutputBuffer();
+        batchModifyPartitionsInfo.write(legacyBuffer);
+        Assert.assertTrue(buffer.getLength() < legacyBuffer.getLength());
+
+        BatchModifyPartitionsInfo readInfo = BatchModifyPartitionsInfo.readCompact(
+                new DataInputStream(new ByteArrayInputStream(buffer.getData(), 0, buffer.getLength())));
+        List<ModifyPartitionInfo> readInfos = readInfo.getModifyPartitionInfos();
+        Assert.assertEquals(3, readInfos.size());
+        for (int i = 0; i < 3; i++) {
+            ModifyPartitionInfo expected = partitionInfos.get(i);
+            ModifyPartitionInfo actual = readInfos.get(i);
+            Assert.assertEquals(expected.getPartitionId(), actual.getPartitionId());
+            Assert.assertEquals(expected.getDataProperty(), actual.getDataProperty());
+            Assert.assertEquals(expected.getReplicationNum(), actual.getReplicationNum());
+            Assert.assertEquals(expected.isInMemory(), actual.isInMemory());
+        }
+    }
 }
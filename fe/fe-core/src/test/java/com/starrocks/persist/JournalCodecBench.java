@@ -0,0 +1,195 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.DataProperty;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.io.DataOutputBuffer;
+import com.starrocks.common.io.Writable;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.thrift.TUniqueId;
+import com.starrocks.transaction.PartitionCommitInfo;
+import com.starrocks.transaction.TableCommitInfo;
+import com.starrocks.transaction.TransactionState;
+import com.starrocks.transaction.TransactionState.LoadJobSourceType;
+import com.starrocks.transaction.TransactionState.TxnCoordinator;
+import com.starrocks.transaction.TransactionState.TxnSourceType;
+import com.starrocks.transaction.TransactionStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the legacy encoding of the frequent journals with the compact encoding written if
+ * Config.metadata_journal_compact_encoding is set. The bytes per entry of both encodings are printed in the setup,
+ * and the benchmarks measure the replay throughput, i.e. reading the journal entities of a batch of transaction
+ * states, replica infos or batch modify partitions infos, which is what a follower does for every journal.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JournalCodecBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JournalCodecBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int ENTRY_NUM = 1000;
+
+    // number of partitions committed by a transaction, and modified by a batch modify partitions info
+    @Param({"1", "16"})
+    public int partitions;
+
+    private byte[] legacyTxnStates;
+    private byte[] compactTxnStates;
+    private byte[] legacyReplicas;
+    private byte[] compactReplicas;
+    private byte[] legacyModifyPartitions;
+    private byte[] compactModifyPartitions;
+
+    @Setup
+    public void setup() throws IOException {
+        setMetaContext();
+        List<TransactionState> txnStates = Lists.newArrayList();
+        List<ReplicaPersistInfo> replicas = Lists.newArrayList();
+        List<BatchModifyPartitionsInfo> modifyPartitions = Lists.newArrayList();
+        for (int i = 0; i < ENTRY_NUM; i++) {
+            txnStates.add(createTxnState(i));
+            replicas.add(ReplicaPersistInfo.createForClone(10000, 10001, 10002, 10003, 20000 + i, 10005,
+                    30000 + i, 12 + i, 123456789, 1024L * 1024 * 1024, 1000000, -1, 12 + i, 10));
+            List<ModifyPartitionInfo> infos = Lists.newArrayList();
+            for (int p = 0; p < partitions; p++) {
+                infos.add(new ModifyPartitionInfo(10000, 10001 + i, 40000 + p, DataProperty.DEFAULT_DATA_PROPERTY,
+                        (short) 3, false));
+            }
+            modifyPartitions.add(new BatchModifyPartitionsInfo(infos));
+        }
+
+        legacyTxnStates = encode(OperationType.OP_UPSERT_TRANSACTION_STATE, txnStates, false);
+        compactTxnStates = encode(OperationType.OP_UPSERT_TRANSACTION_STATE_COMPACT, txnStates, true);
+        legacyReplicas = encode(OperationType.OP_UPDATE_REPLICA, replicas, false);
+        compactReplicas = encode(OperationType.OP_UPDATE_REPLICA_COMPACT, replicas, true);
+        legacyModifyPartitions = encode(OperationType.OP_BATCH_MODIFY_PARTITION, modifyPartitions, false);
+        compactModifyPartitions = encode(OperationType.OP_BATCH_MODIFY_PARTITION_COMPACT, modifyPartitions, true);
+        System.out.printf("%nbytes per entry, legacy vs compact: transaction state %d vs %d, replica %d vs %d, " +
+                        "batch modify partitions %d vs %d%n",
+                legacyTxnStates.length / ENTRY_NUM, compactTxnStates.length / ENTRY_NUM,
+                legacyReplicas.length / ENTRY_NUM, compactReplicas.length / ENTRY_NUM,
+                legacyModifyPartitions.length / ENTRY_NUM, compactModifyPartitions.length / ENTRY_NUM);
+    }
+
+    private static void setMetaContext() {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+        metaContext.setThreadLocalInfo();
+    }
+
+    private TransactionState createTxnState(int i) {
+        TransactionState state = new TransactionState(10000, Lists.newArrayList(10001L), 50000 + i,
+                "insert_8f3a4d2c-1e5b-11ee-9c7a-00163e0a1b2c_" + i, new TUniqueId(i, i),
+                LoadJobSourceType.BACKEND_STREAMING, new TxnCoordinator(TxnSourceType.BE, "172.26.92.1"), -1,
+                300000);
+        TableCommitInfo tableCommitInfo = new TableCommitInfo(10001);
+        for (int p = 0; p < partitions; p++) {
+            tableCommitInfo.addPartitionCommitInfo(new PartitionCommitInfo(40000 + p, 100 + i, 0));
+        }
+        state.putIdToTableCommitInfo(10001, tableCommitInfo);
+        state.setPrepareTime(1670000000000L + i);
+        state.setCommitTime(1670000000000L + i + 35);
+        state.setTransactionStatus(TransactionStatus.COMMITTED);
+        return state;
+    }
+
+    private static byte[] encode(short opCode, List<? extends Writable> entries, boolean compact)
+            throws IOException {
+        DataOutputBuffer buffer = new DataOutputBuffer();
+        for (Writable entry : entries) {
+            JournalEntity entity = new JournalEntity();
+            entity.setOpCode(opCode);
+            if (!compact) {
+                entity.setData(entry);
+            } else if (entry instanceof TransactionState) {
+                entity.setData(((TransactionState) entry)::writeCompact);
+            } else if (entry instanceof ReplicaPersistInfo) {
+                entity.setData(((ReplicaPersistInfo) entry)::writeCompact);
+            } else {
+                entity.setData(((BatchModifyPartitionsInfo) entry)::writeCompact);
+            }
+            entity.write(buffer);
+        }
+        byte[] bytes = new byte[buffer.getLength()];
+        System.arraycopy(buffer.getData(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private static int replay(byte[] entries) throws IOException {
+        setMetaContext();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(entries));
+        int hash = 0;
+        for (int i = 0; i < ENTRY_NUM; i++) {
+            JournalEntity entity = new JournalEntity();
+            entity.readFields(in);
+            hash += entity.getData().hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int replayLegacyTxnStates() throws IOException {
+        return replay(legacyTxnStates);
+    }
+
+    @Benchmark
+    public int replayCompactTxnStates() throws IOException {
+        return replay(compactTxnStates);
+    }
+
+    @Benchmark
+    public int replayLegacyReplicas() throws IOException {
+        return replay(legacyReplicas);
+    }
+
+    @Benchmark
+    public int replayCompactReplicas() throws IOException {
+        return replay(compactReplicas);
+    }
+
+    @Benchmark
+    public int replayLegacyModifyPartitions() throws IOException {
+        return replay(legacyModifyPartitions);
+    }
+
+    @Benchmark
+    public int replayCompactModifyPartitions() throws IOException {
+        return replay(compactModifyPartitions);
+    }
+}
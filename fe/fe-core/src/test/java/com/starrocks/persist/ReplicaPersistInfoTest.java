@@ -17,16 +17,20 @@
 
 package com.starrocks.persist;
 
+import com.google.common.collect.Lists;
 import com.starrocks.common.FeConstants;
+import com.starrocks.common.io.DataOutputBuffer;
 import com.starrocks.meta.MetaContext;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.util.List;
 
 public class ReplicaPersistInfoTest {
     @Test
@@ -68,4 +72,26 @@ public class ReplicaPersistInfoTest {
         Assert.assertEquals(0, info.getDataSize());
         Assert.assertEquals(8, info.getRowCount());
     }
+
+    @Test
+    public void testCompactSerialization() throws Exception {
+        List<ReplicaPersistInfo> infos = Lists.newArrayList(
+                ReplicaPersistInfo.createForLoad(10001, 10002, 10003, 10004, 10005, 12, 123456, 1000000, 100),
+                ReplicaPersistInfo.createForClone(10000, 10001, 10002, 10003, 10004, 10007, 10005, 12, 123456,
+                        1000000, 100, 13, 11, 10),
+                ReplicaPersistInfo.createForDelete(10000, 10001, 10002, 10003, 10004, 10007));
+        for (ReplicaPersistInfo info : infos) {
+            DataOutputBuffer buffer = new DataOutputBuffer();
+            info.writeCompact(buffer);
+            DataOutputBuffer legacyBuffer = new DataOutputBuffer();
+            info.write(legacyBuffer);
+            Assert.assertTrue(buffer.getLength() < legacyBuffer.getLength() / 2);
+
+            ReplicaPersistInfo readInfo = ReplicaPersistInfo.readCompact(
+                    new DataInputStream(new ByteArrayInputStream(buffer.getData(), 0, buffer.getLength())));
+            Assert.assertEquals(info, readInfo);
+            Assert.assertEquals(info.getOpType(), readInfo.getOpType());
+            Assert.assertEquals(info.getSchemaHash(), readInfo.getSchemaHash());
+        }
+    }
 }
@@ -0,0 +1,204 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.DataProperty;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.LocalTablet;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.RandomDistributionInfo;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.SinglePartitionInfo;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.jmockit.Deencapsulation;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.thrift.TStorageMedium;
+import com.starrocks.thrift.TStorageType;
+import com.starrocks.thrift.TTabletType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load the databases of a synthetic catalog of 1 million tablets, 3 replicas for each, from the legacy image
+ * sequentially and from a sectioned image by the given number of threads, which is how FE loads the databases
+ * at startup. There are 20 databases, every database has 50 tables of 1000 tablets.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ImageLoadBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ImageLoadBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int DB_NUM = 20;
+    private static final int TABLE_NUM = 50;
+    private static final int TABLET_NUM = 1000;
+    private static final int REPLICA_NUM = 3;
+
+    @Param({"1", "4", "8", "16"})
+    public int parallelism;
+
+    private File dir;
+    private File legacyImage;
+    private File sectionedImage;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() throws IOException {
+        setMetaContext();
+        long nextId = 10000;
+        List<Database> dbs = Lists.newArrayList();
+        for (int d = 0; d < DB_NUM; d++) {
+            Database db = new Database(nextId++, "db" + d);
+            for (int t = 0; t < TABLE_NUM; t++) {
+                db.createTable(createTable(db.getId(), nextId, "tbl" + t));
+                nextId += 3 + TABLET_NUM * (1 + REPLICA_NUM);
+            }
+            dbs.add(db);
+        }
+
+        dir = Files.createTempDirectory("ImageLoadBench").toFile();
+        legacyImage = new File(dir, "image.legacy");
+        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(legacyImage.toPath()))) {
+            dos.writeInt(dbs.size());
+            for (Database db : dbs) {
+                db.write(dos);
+            }
+        }
+        sectionedImage = new File(dir, "image.sectioned");
+        try (SRImageWriter writer = new SRImageWriter(sectionedImage)) {
+            for (Database db : dbs) {
+                writer.writeSection("Database", db::write);
+            }
+        }
+        System.out.printf("%nlegacy image: %d bytes, sectioned image: %d bytes%n",
+                legacyImage.length(), sectionedImage.length());
+        executor = parallelism == 1 ? MoreExecutors.newDirectExecutorService() :
+                Executors.newFixedThreadPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+        MetaContext.remove();
+    }
+
+    private static void setMetaContext() {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+        metaContext.setThreadLocalInfo();
+    }
+
+    private static OlapTable createTable(long dbId, long tableId, String name) {
+        long partitionId = tableId + 1;
+        long indexId = tableId + 2;
+        long nextId = tableId + 3;
+        MaterializedIndex index = new MaterializedIndex(indexId, MaterializedIndex.IndexState.NORMAL);
+        TabletMeta tabletMeta = new TabletMeta(dbId, tableId, partitionId, indexId, 0, TStorageMedium.HDD);
+        for (int i = 0; i < TABLET_NUM; i++) {
+            LocalTablet tablet = new LocalTablet(nextId++);
+            index.addTablet(tablet, tabletMeta, false);
+            for (int r = 0; r < REPLICA_NUM; r++) {
+                tablet.addReplica(new Replica(nextId++, r, Replica.ReplicaState.NORMAL, 10, 0), false);
+            }
+        }
+        RandomDistributionInfo distributionInfo = new RandomDistributionInfo(TABLET_NUM);
+        Partition partition = new Partition(partitionId, name, index, distributionInfo);
+
+        List<Column> columns = Lists.newArrayList();
+        Column k1 = new Column("k1", Type.INT);
+        k1.setIsKey(true);
+        columns.add(k1);
+        columns.add(new Column("v1", Type.BIGINT));
+        SinglePartitionInfo partitionInfo = new SinglePartitionInfo();
+        partitionInfo.setDataProperty(partitionId, DataProperty.DEFAULT_DATA_PROPERTY);
+        partitionInfo.setReplicationNum(partitionId, (short) REPLICA_NUM);
+        partitionInfo.setIsInMemory(partitionId, false);
+        partitionInfo.setTabletType(partitionId, TTabletType.TABLET_TYPE_DISK);
+        OlapTable table = new OlapTable(tableId, name, columns, KeysType.DUP_KEYS, partitionInfo, distributionInfo);
+        Deencapsulation.setField(table, "baseIndexId", indexId);
+        table.addPartition(partition);
+        table.setIndexMeta(indexId, name, columns, 0, 0, (short) 1, TStorageType.COLUMN, KeysType.DUP_KEYS);
+        return table;
+    }
+
+    @Benchmark
+    public int loadLegacy() throws IOException {
+        setMetaContext();
+        int numTables = 0;
+        try (DataInputStream dis = new DataInputStream(Files.newInputStream(legacyImage.toPath()))) {
+            int dbCount = dis.readInt();
+            for (int i = 0; i < dbCount; i++) {
+                Database db = new Database();
+                db.readFields(dis);
+                numTables += db.getTables().size();
+            }
+        }
+        return numTables;
+    }
+
+    @Benchmark
+    public int loadSectioned() throws Exception {
+        setMetaContext();
+        int numTables = 0;
+        try (SRImageReader reader = new SRImageReader(sectionedImage)) {
+            List<Future<Database>> futures = reader.submitSections("Database", executor, dis -> {
+                Database db = new Database();
+                db.readFields(dis);
+                return db;
+            });
+            for (Future<Database> future : futures) {
+                numTables += future.get().getTables().size();
+            }
+        }
+        return numTables;
+    }
+}
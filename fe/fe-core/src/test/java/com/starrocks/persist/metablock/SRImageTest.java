@@ -0,0 +1,252 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.starrocks.common.io.Text;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.Storage;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SRImageTest {
+    private static Path tmpDir;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        tmpDir = Files.createTempDirectory(Paths.get("."), "SRImageTest");
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        FileUtils.deleteDirectory(tmpDir.toFile());
+    }
+
+    private File writeImage(String name, int numItems) throws IOException {
+        File file = new File(tmpDir.toFile(), name);
+        try (SRImageWriter writer = new SRImageWriter(file)) {
+            writer.writeSection("Header", dos -> dos.writeLong(12345L));
+            for (int i = 0; i < numItems; i++) {
+                int value = i;
+                writer.writeSection("Item", dos -> {
+                    dos.writeInt(value);
+                    Text.writeString(dos, "item" + value);
+                });
+            }
+            writer.writeSection("Footer", dos -> dos.writeBoolean(true));
+        }
+        return file;
+    }
+
+    @Test
+    public void testSimple() throws Exception {
+        File file = writeImage("simple", 3);
+        Assert.assertTrue(SRImageReader.isSectionedImage(file));
+        try (SRImageReader reader = new SRImageReader(file)) {
+            Assert.assertEquals(5, reader.getSections().size());
+            Assert.assertEquals(3, reader.getSections("Item").size());
+
+            long[] header = new long[1];
+            reader.loadSection("Header", dis -> header[0] = dis.readLong());
+            Assert.assertEquals(12345L, header[0]);
+
+            // a section that does not exist is skipped
+            reader.loadSection("NotExist", dis -> Assert.fail());
+
+            try {
+                reader.loadSection("Item", dis -> dis.readInt());
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("duplicated section Item"));
+            }
+
+            // the rest of a section not read is skipped
+            String value = reader.decodeSection(reader.getSections("Item").get(1), dis -> {
+                dis.readInt();
+                return "skipped";
+            });
+            Assert.assertEquals("skipped", value);
+        }
+    }
+
+    @Test
+    public void testSubmitSections() throws Exception {
+        File file = writeImage("parallel", 100);
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(100);
+        metaContext.setThreadLocalInfo();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (SRImageReader reader = new SRImageReader(file)) {
+            List<Future<String>> futures = reader.submitSections("Item", executor, dis -> {
+                // the meta context is passed to the loading thread
+                Assert.assertEquals(100, MetaContext.get().getMetaVersion());
+                int value = dis.readInt();
+                return value + ":" + Text.readString(dis);
+            });
+            Assert.assertEquals(100, futures.size());
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(i + ":item" + i, futures.get(i).get());
+            }
+
+            // loaded by the current thread
+            futures = reader.submitSections("Header", MoreExecutors.newDirectExecutorService(),
+                    dis -> String.valueOf(dis.readLong()));
+            Assert.assertEquals("12345", futures.get(0).get());
+            Assert.assertSame(metaContext, MetaContext.get());
+        } finally {
+            executor.shutdown();
+            MetaContext.remove();
+        }
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        File file = writeImage("corrupted", 2);
+        SRImageSection section;
+        try (SRImageReader reader = new SRImageReader(file)) {
+            section = reader.getSections("Item").get(1);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(section.getOffset() + section.getLength() - 1);
+            raf.writeByte('x');
+        }
+        try (SRImageReader reader = new SRImageReader(file)) {
+            reader.decodeSection(reader.getSections("Item").get(0), dis -> dis.readInt());
+            reader.decodeSection(section, dis -> dis.readInt());
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("checksum mismatch"));
+        }
+    }
+
+    @Test
+    public void testMmap() throws Exception {
+        File file = writeImage("mmap", 3);
+        try (SRImageReader reader = new SRImageReader(file, true)) {
+            long[] header = new long[1];
+            reader.loadSection("Header", dis -> header[0] = dis.readLong());
+            Assert.assertEquals(12345L, header[0]);
+            for (int i = 0; i < 3; i++) {
+                String value = reader.decodeSection(reader.getSections("Item").get(i),
+                        dis -> dis.readInt() + ":" + Text.readString(dis));
+                Assert.assertEquals(i + ":item" + i, value);
+            }
+            // the rest of a section not read is skipped
+            Assert.assertEquals(Integer.valueOf(0),
+                    reader.decodeSection(reader.getSections("Item").get(0), dis -> dis.readInt()));
+        }
+
+        SRImageSection section;
+        try (SRImageReader reader = new SRImageReader(file)) {
+            section = reader.getSections("Item").get(2);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(section.getOffset());
+            raf.writeInt(-1);
+        }
+        try (SRImageReader reader = new SRImageReader(file, true)) {
+            // verified before decoding
+            reader.decodeSection(section, dis -> {
+                Assert.fail();
+                return null;
+            });
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("checksum mismatch"));
+        }
+    }
+
+    private File writeDeltaImage(File dir, long version, long baseVersion, String... items) throws IOException {
+        File file = Storage.getImageFile(dir, version);
+        SRImageWriter writer;
+        if (baseVersion > 0) {
+            try (SRImageReader base = new SRImageReader(Storage.getImageFile(dir, baseVersion))) {
+                writer = new SRImageWriter(file, base, baseVersion);
+            }
+        } else {
+            writer = new SRImageWriter(file);
+        }
+        try {
+            writer.writeSection("Header", dos -> dos.writeLong(version));
+            for (int i = 0; i < items.length; i++) {
+                int value = i;
+                writer.writeSection("Item", i, "item" + i, dos -> {
+                    dos.writeInt(value);
+                    Text.writeString(dos, items[value]);
+                });
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testDeltaImage() throws Exception {
+        File dir = Files.createDirectory(tmpDir.resolve("delta")).toFile();
+        File full = writeDeltaImage(dir, 100, -1, "item0", "item1", "item2", "item3", "item4");
+        // item 1 is changed, the others refer to image.100
+        File delta1 = writeDeltaImage(dir, 200, 100, "item0", "changed200", "item2", "item3", "item4");
+        // item 2 is changed and item 5 is added, item 1 refers to image.200, the others refer to image.100
+        File delta2 = writeDeltaImage(dir, 300, 200, "item0", "changed200", "changed300", "item3", "item4", "item5");
+        Assert.assertTrue(delta1.length() < full.length());
+
+        try (SRImageReader reader = new SRImageReader(delta2)) {
+            Assert.assertEquals(Sets.newHashSet(100L, 200L), reader.getReferredVersions());
+            Assert.assertTrue(reader.getInvalidReferredVersions().isEmpty());
+            long[] header = new long[1];
+            reader.loadSection("Header", dis -> header[0] = dis.readLong());
+            Assert.assertEquals(300L, header[0]);
+            List<SRImageSection> items = reader.getSections("Item");
+            Assert.assertEquals(6, items.size());
+            String[] expected = {"item0", "changed200", "changed300", "item3", "item4", "item5"};
+            long[] versions = {100, 200, 0, 100, 100, 0};
+            for (int i = 0; i < items.size(); i++) {
+                Assert.assertEquals(versions[i], items.get(i).getImageVersion());
+                String value = reader.decodeSection(items.get(i), dis -> dis.readInt() + ":" + Text.readString(dis));
+                Assert.assertEquals(i + ":" + expected[i], value);
+            }
+        }
+        try (SRImageReader reader = new SRImageReader(delta2, true)) {
+            Assert.assertEquals("item0", reader.decodeSection(reader.getSections("Item").get(0), dis -> {
+                dis.readInt();
+                return Text.readString(dis);
+            }));
+        }
+        Assert.assertEquals(Sets.newHashSet(100L, 200L), SRImageReader.getReferredVersions(delta2));
+
+        // image.200 is saved again by another leader, and image.100 is lost
+        writeDeltaImage(dir, 200, -1, "item0", "other1", "item2", "item3", "item4");
+        Assert.assertTrue(full.delete());
+        try (SRImageReader reader = new SRImageReader(delta2)) {
+            Assert.assertEquals(Sets.newHashSet(100L, 200L), reader.getInvalidReferredVersions());
+        }
+    }
+
+    @Test
+    public void testInvalidImage() throws Exception {
+        File file = new File(tmpDir.toFile(), "invalid");
+        FileUtils.writeByteArrayToFile(file, new byte[] {0, 0, 0, 1, 2, 3});
+        Assert.assertFalse(SRImageReader.isSectionedImage(file));
+        try (SRImageReader reader = new SRImageReader(file)) {
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("invalid sectioned image"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.pseudocluster;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a connection storm: open a lot of mostly idle connections, and run a query on each of them,
+ * report the p99 latency of the query and the number of threads. It's not run with the unit tests, run it
+ * with more connections and the nio mode to compare:
+ * <p>
+ * mvn test -Dtest=ConnectionStormBench -Dconnection.storm.num=20000 -Dconnection.storm.virtual=false
+ * <p>
+ * The client runs in the same JVM, but it only uses a fixed number of threads.
+ */
+public class ConnectionStormBench {
+    private static final int NUM_CONNECTIONS = Integer.getInteger("connection.storm.num", 2000);
+    private static final int NUM_CLIENT_THREADS = 64;
+
+    private static boolean virtualThreadEnabled;
+    private static int maxConnection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        virtualThreadEnabled = Config.mysql_service_virtual_thread_enabled;
+        maxConnection = Config.qe_max_connection;
+        // must be set before QeService starts
+        Config.mysql_service_virtual_thread_enabled =
+                Boolean.parseBoolean(System.getProperty("connection.storm.virtual", "true"));
+        Config.qe_max_connection = NUM_CONNECTIONS + 100;
+        PseudoCluster.getOrCreateWithRandomPort(true, 1);
+        PseudoCluster.getInstance().runSql(null,
+                "set property for 'root' 'max_user_connections' = '" + (NUM_CONNECTIONS + 100) + "'");
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        PseudoCluster.getInstance().shutdown(true);
+        Config.mysql_service_virtual_thread_enabled = virtualThreadEnabled;
+        Config.qe_max_connection = maxConnection;
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection("jdbc:mysql://127.0.0.1:" + PseudoCluster.getInstance().queryPort +
+                "/?permitMysqlScheme&usePipelineAuth=false&useBatchMultiSend=false", "root", "");
+    }
+
+    @Test
+    public void benchConnectionStorm() throws Exception {
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        ExecutorService clients = Executors.newFixedThreadPool(NUM_CLIENT_THREADS);
+        List<Connection> connections = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<Connection>> connectFutures = new ArrayList<>();
+            for (int i = 0; i < NUM_CONNECTIONS; i++) {
+                connectFutures.add(clients.submit(ConnectionStormBench::connect));
+            }
+            for (Future<Connection> future : connectFutures) {
+                connections.add(future.get());
+            }
+            int threadsConnected = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            List<Future<Long>> queryFutures = new ArrayList<>();
+            for (Connection connection : connections) {
+                queryFutures.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("select 1")) {
+                        Assert.assertTrue(rs.next());
+                    }
+                    return System.nanoTime() - start;
+                }));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<Long> future : queryFutures) {
+                latencies.add(future.get());
+            }
+            Collections.sort(latencies);
+            long p50 = latencies.get(latencies.size() / 2);
+            long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+
+            boolean virtual = Config.mysql_service_virtual_thread_enabled &&
+                    ThreadPoolManager.newVirtualThreadPerTaskExecutor("connection-storm-probe") != null;
+            System.out.printf("connections: %d, virtual thread: %s, query latency p50: %.2fms, p99: %.2fms, " +
+                            "threads before connect: %d, threads after connect: %d%n",
+                    NUM_CONNECTIONS, virtual, p50 / 1e6, p99 / 1e6, threadsBefore, threadsConnected);
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
@@ -21,17 +21,23 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Lists;
 import com.starrocks.common.util.DigitalVersion;
 import com.starrocks.plugin.AuditEvent;
 import com.starrocks.plugin.AuditEvent.EventType;
 import com.starrocks.plugin.PluginInfo;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.utframe.UtFrameUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
 
 public class AuditEventProcessorTest {
 
@@ -116,4 +122,82 @@ public class AuditEventProcessorTest {
         long total = System.currentTimeMillis() - start;
         System.out.println("total(ms): " + total + ", avg: " + total / 10000.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRingBuffer() {
+        AuditEventRingBuffer buffer = new AuditEventRingBuffer(3);
+        Assert.assertEquals(4, buffer.getCapacity());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(new AuditEvent.AuditEventBuilder().setStmtId(i).build()));
+        }
+        // full
+        Assert.assertFalse(buffer.offer(new AuditEvent.AuditEventBuilder().setStmtId(4).build()));
+        Assert.assertEquals(4, buffer.size());
+
+        List<AuditEvent> events = Lists.newArrayList();
+        Assert.assertTrue(buffer.drainTo(events, 3) > 0);
+        Assert.assertEquals(3, events.size());
+        Assert.assertEquals(0, events.get(0).stmtId);
+        Assert.assertEquals(2, events.get(2).stmtId);
+
+        // the slots are reused after drained
+        Assert.assertTrue(buffer.offer(new AuditEvent.AuditEventBuilder().setStmtId(5).build()));
+        events.clear();
+        buffer.drainTo(events, 10);
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(3, events.get(0).stmtId);
+        Assert.assertEquals(5, events.get(1).stmtId);
+        Assert.assertEquals(0, buffer.size());
+        events.clear();
+        Assert.assertEquals(-1, buffer.drainTo(events, 10));
+    }
+
+    @Test
+    public void testBinaryAuditLog() throws IOException {
+        File dir = Files.createTempDirectory("audit_bin").toFile();
+        try {
+            List<AuditEvent> events = Lists.newArrayList();
+            for (int i = 0; i < 100; i++) {
+                events.add(new AuditEvent.AuditEventBuilder().setEventType(EventType.AFTER_QUERY)
+                        .setTimestamp(1000L + i)
+                        .setUser("user" + (i % 3))
+                        .setDb(i % 2 == 0 ? "db1" : null)
+                        .setQueryTime(-1)
+                        .setScanRows(i * 100L)
+                        .setStmtId(i)
+                        .setStmt("select " + i).build());
+            }
+            try (AuditLogBinaryWriter writer = new AuditLogBinaryWriter(dir.getAbsolutePath())) {
+                writer.write(events.subList(0, 60));
+                writer.write(events.subList(60, 100));
+            }
+            File file = new File(dir, AuditLogBinaryWriter.FILE_NAME);
+            // a torn block at the end is ignored
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.write(new byte[] {0x53, 0x52, 0x41});
+            }
+
+            List<AuditEvent> readEvents = Lists.newArrayList();
+            try (AuditLogBinaryReader reader = new AuditLogBinaryReader(file)) {
+                List<AuditEvent> block;
+                while ((block = reader.readBlock()) != null) {
+                    readEvents.addAll(block);
+                }
+            }
+            Assert.assertEquals(100, readEvents.size());
+            for (int i = 0; i < 100; i++) {
+                AuditEvent expect = events.get(i);
+                AuditEvent actual = readEvents.get(i);
+                Assert.assertEquals(expect.timestamp, actual.timestamp);
+                Assert.assertEquals(expect.user, actual.user);
+                Assert.assertEquals(expect.db, actual.db);
+                Assert.assertEquals(expect.queryTime, actual.queryTime);
+                Assert.assertEquals(expect.scanRows, actual.scanRows);
+                Assert.assertEquals(expect.stmtId, actual.stmtId);
+                Assert.assertEquals(expect.stmt, actual.stmt);
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+}
@@ -4,21 +4,33 @@ package com.starrocks.qe;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.BrokerDesc;
 import com.starrocks.analysis.TupleId;
+import com.starrocks.common.jmockit.Deencapsulation;
 import com.starrocks.planner.DataPartition;
 import com.starrocks.planner.EmptySetNode;
+import com.starrocks.planner.ExportSink;
 import com.starrocks.planner.JoinNode;
+import com.starrocks.planner.MultiCastDataSink;
+import com.starrocks.planner.MultiCastPlanFragment;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlanFragmentId;
 import com.starrocks.planner.PlanNodeId;
 import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.system.Backend;
 import com.starrocks.thrift.TDescriptorTable;
+import com.starrocks.thrift.TExecPlanFragmentParams;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPartitionType;
+import com.starrocks.thrift.TPlanFragmentDestination;
 import com.starrocks.thrift.TScanRangeParams;
 import com.starrocks.thrift.TUniqueId;
 import com.starrocks.utframe.UtFrameUtils;
 import org.apache.commons.compress.utils.Lists;
+import org.apache.thrift.TException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +42,10 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 public class CoordinatorTest {
     ConnectContext ctx;
@@ -383,4 +399,108 @@ public class CoordinatorTest {
                 expectedNumScanRangesList, expectedDriverSeq2NumScanRangesList);
 
     }
+
+    @Test
+    public void testSendInParallel() throws Exception {
+        List<Callable<Future<Integer>>> senders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            senders.add(() -> CompletableFuture.completedFuture(value));
+        }
+        // results are in the order of senders
+        List<Future<Integer>> results = Coordinator.sendInParallel(senders);
+        Assert.assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, results.get(i).get().intValue());
+        }
+
+        senders.add(() -> {
+            throw new TException("serialize failed");
+        });
+        Assert.assertThrows(TException.class, () -> Coordinator.sendInParallel(senders));
+    }
+
+    private List<TExecPlanFragmentParams> toThriftForInstances(PlanFragment fragment, List<TNetworkAddress> hosts)
+            throws Exception {
+        Coordinator.FragmentExecParams params = coordinator.new FragmentExecParams(fragment);
+        Set<TUniqueId> instanceIds = Sets.newHashSet();
+        Map<TNetworkAddress, Integer> hostToNumbers = Deencapsulation.getField(coordinator, "hostToNumbers");
+        for (int i = 0; i < hosts.size(); i++) {
+            TUniqueId instanceId = new TUniqueId(0xdeadbeef, i);
+            params.instanceExecParams.add(new Coordinator.FInstanceExecParam(instanceId, hosts.get(i), i, params));
+            instanceIds.add(instanceId);
+            hostToNumbers.merge(hosts.get(i), 1, Integer::sum);
+        }
+        return params.toThrift(instanceIds, new TDescriptorTable(), Sets.newHashSet(), false, 0, 0);
+    }
+
+    @Test
+    public void testToThriftMultiCastFragment() throws Exception {
+        List<TNetworkAddress> hosts = new ArrayList<>();
+        List<TNetworkAddress> rpcHosts = new ArrayList<>();
+        List<Backend> backends = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Backend backend = new Backend(20000 + i, "127.0.0.1", 9050 + i);
+            backend.setBePort(9060 + i);
+            backend.setBeRpcPort(9070 + i);
+            GlobalStateMgr.getCurrentSystemInfo().addBackend(backend);
+            backends.add(backend);
+            hosts.add(new TNetworkAddress("127.0.0.1", 9060 + i));
+            rpcHosts.add(new TNetworkAddress("127.0.0.1", 9070 + i));
+        }
+
+        try {
+            PlanFragment fragment = new PlanFragment(new PlanFragmentId(1),
+                    new EmptySetNode(new PlanNodeId(1), new ArrayList<>(Collections.singletonList(new TupleId(1)))),
+                    new DataPartition(TPartitionType.RANDOM));
+            MultiCastPlanFragment multiCastFragment = new MultiCastPlanFragment(fragment);
+            MultiCastDataSink sink = new MultiCastDataSink();
+            for (int i = 0; i < 2; i++) {
+                List<TPlanFragmentDestination> destinations = new ArrayList<>();
+                for (TNetworkAddress rpcHost : rpcHosts) {
+                    destinations.add(new TPlanFragmentDestination(new TUniqueId(i, destinations.size()), rpcHost));
+                }
+                sink.getDestinations().add(destinations);
+            }
+            multiCastFragment.setSink(sink);
+
+            // each instance only sends to the destinations on its own host, which must not affect the other instances
+            List<TExecPlanFragmentParams> paramsList = toThriftForInstances(multiCastFragment, hosts);
+            Assert.assertEquals(3, paramsList.size());
+            for (int i = 0; i < hosts.size(); i++) {
+                List<List<TPlanFragmentDestination>> destinations = paramsList.get(i).getFragment()
+                        .getOutput_sink().getMulti_cast_stream_sink().getDestinations();
+                Assert.assertEquals(2, destinations.size());
+                for (int j = 0; j < 2; j++) {
+                    Assert.assertEquals(1, destinations.get(j).size());
+                    Assert.assertEquals(rpcHosts.get(i), destinations.get(j).get(0).getServer());
+                    Assert.assertEquals(new TUniqueId(j, i), destinations.get(j).get(0).getFragment_instance_id());
+                }
+            }
+            Assert.assertEquals(3, sink.getDestinations().get(0).size());
+        } finally {
+            backends.forEach(GlobalStateMgr.getCurrentSystemInfo()::dropBackend);
+        }
+    }
+
+    @Test
+    public void testToThriftExportFragment() throws Exception {
+        PlanFragment fragment = new PlanFragment(new PlanFragmentId(1),
+                new EmptySetNode(new PlanNodeId(1), new ArrayList<>(Collections.singletonList(new TupleId(1)))),
+                new DataPartition(TPartitionType.RANDOM));
+        fragment.setSink(new ExportSink("hdfs://127.0.0.1:9000/export/", "data_", ",", "\n",
+                new BrokerDesc("broker", Maps.newHashMap()), null));
+
+        TNetworkAddress host = new TNetworkAddress("host1", 8000);
+        List<TExecPlanFragmentParams> paramsList = toThriftForInstances(fragment, Arrays.asList(host, host, host));
+        Assert.assertEquals(3, paramsList.size());
+        // every instance writes files of its own prefix
+        Set<String> prefixes = Sets.newHashSet();
+        for (int i = 0; i < paramsList.size(); i++) {
+            String prefix = paramsList.get(i).getFragment().getOutput_sink().getExport_sink().getFile_name_prefix();
+            Assert.assertTrue(prefix, prefix.startsWith("data_") && prefix.endsWith(i + "_"));
+            prefixes.add(prefix);
+        }
+        Assert.assertEquals(3, prefixes.size());
+    }
 }
@@ -0,0 +1,60 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.starrocks.planner.PlanFragmentId;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TScanRangeParams;
+import com.starrocks.thrift.TUniqueId;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PointLookupCoordTest extends PlanTestBase {
+    private static final String SQL = "select v1, v2 from tprimary where pk = 1";
+
+    @Before
+    public void setUp() {
+        connectContext.setExecutionId(new TUniqueId(0x33, 0x0));
+        ConnectContext.threadLocalInfo.set(connectContext);
+    }
+
+    private static Coordinator.FInstanceExecParam schedule(boolean pointLookup) throws Exception {
+        ExecPlan execPlan = UtFrameUtils.getPlanAndFragment(connectContext, SQL).second;
+        Assert.assertTrue(execPlan.isPointLookup());
+
+        Coordinator coord = new Coordinator(connectContext, execPlan.getFragments(), execPlan.getScanNodes(),
+                execPlan.getDescTbl().toThrift());
+        coord.setPointLookup(pointLookup);
+        coord.prepareExec();
+
+        PlanFragmentId fragmentId = execPlan.getTopFragment().getFragmentId();
+        List<Coordinator.FInstanceExecParam> instances =
+                coord.getFragmentExecParamsMap().get(fragmentId).instanceExecParams;
+        Assert.assertEquals(1, instances.size());
+        return instances.get(0);
+    }
+
+    @Test
+    public void testScheduleDirectly() throws Exception {
+        Coordinator.FInstanceExecParam direct = schedule(true);
+        Coordinator.FInstanceExecParam general = schedule(false);
+
+        // the direct scheduling assigns the same tablet to a replica, like the general scan range assignment
+        Assert.assertEquals(general.host, direct.host);
+        Assert.assertEquals(general.perNodeScanRanges.keySet(), direct.perNodeScanRanges.keySet());
+        for (Integer scanId : direct.perNodeScanRanges.keySet()) {
+            List<TScanRangeParams> directRanges = direct.perNodeScanRanges.get(scanId);
+            List<TScanRangeParams> generalRanges = general.perNodeScanRanges.get(scanId);
+            Assert.assertEquals(1, directRanges.size());
+            Assert.assertEquals(1, generalRanges.size());
+            Assert.assertEquals(generalRanges.get(0).scan_range.internal_scan_range.tablet_id,
+                    directRanges.get(0).scan_range.internal_scan_range.tablet_id);
+        }
+        Assert.assertNotNull(direct.instanceId);
+    }
+}
@@ -0,0 +1,157 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlSerializer;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TExplainLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PrepareStmtContextTest extends PlanTestBase {
+    private static List<Parameter> newParameters(int num) {
+        List<Parameter> parameters = Lists.newArrayList();
+        for (int i = 0; i < num; i++) {
+            parameters.add(new Parameter(i));
+        }
+        return parameters;
+    }
+
+    @Test
+    public void testBind() throws AnalysisException {
+        PrepareStmtContext context = new PrepareStmtContext("select * from t where a = ? and b = ? and c = ? and d = ?",
+                4, Lists.newArrayList("a"), Lists.newArrayList());
+
+        MysqlSerializer payload = MysqlSerializer.newInstance();
+        // flags, iteration count
+        payload.writeInt1(0);
+        payload.writeInt4(1);
+        // the third parameter is null
+        payload.writeInt1(1 << 2);
+        // new params bound
+        payload.writeInt1(1);
+        payload.writeInt2(MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        payload.writeInt2(MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        payload.writeInt2(MysqlColType.MYSQL_TYPE_NULL.getCode());
+        payload.writeInt2(MysqlColType.MYSQL_TYPE_DATE.getCode());
+        payload.writeInt8(-10);
+        payload.writeLenEncodedString("abc");
+        payload.writeInt1(4);
+        payload.writeInt2(2022);
+        payload.writeInt1(3);
+        payload.writeInt1(4);
+
+        List<Parameter> parameters = newParameters(4);
+        context.bind(payload.toByteBuffer(), parameters);
+        Assert.assertEquals(-10, parameters.get(0).getValue().getLongValue());
+        // the type follows the parameter type, not the value
+        Assert.assertEquals(Type.BIGINT, parameters.get(0).getValue().getType());
+        Assert.assertEquals("abc", parameters.get(1).getValue().getStringValue());
+        Assert.assertTrue(parameters.get(2).getValue() instanceof NullLiteral);
+        Assert.assertTrue(parameters.get(3).getValue() instanceof DateLiteral);
+        Assert.assertEquals("'2022-03-04'", parameters.get(3).toSql());
+
+        // the types are kept for the following executions
+        payload = MysqlSerializer.newInstance();
+        payload.writeInt1(0);
+        payload.writeInt4(1);
+        payload.writeInt1(0);
+        payload.writeInt1(0);
+        payload.writeInt8(20);
+        payload.writeLenEncodedString("d");
+        // long data of the fourth parameter, the value is not in the payload
+        context.appendLongData(3, "x".getBytes(StandardCharsets.UTF_8));
+        context.appendLongData(3, "y".getBytes(StandardCharsets.UTF_8));
+
+        parameters = newParameters(4);
+        context.bind(payload.toByteBuffer(), parameters);
+        Assert.assertEquals(20, parameters.get(0).getValue().getLongValue());
+        Assert.assertEquals("d", parameters.get(1).getValue().getStringValue());
+        Assert.assertTrue(parameters.get(2).getValue() instanceof NullLiteral);
+        Assert.assertTrue(parameters.get(3).getValue() instanceof StringLiteral);
+        Assert.assertEquals("xy", parameters.get(3).getValue().getStringValue());
+    }
+
+    @Test
+    public void testLongDataError() throws AnalysisException {
+        PrepareStmtContext context = new PrepareStmtContext("select ?", 1, Lists.newArrayList("?"),
+                Lists.newArrayList());
+        try {
+            context.appendLongData(1, "x".getBytes(StandardCharsets.UTF_8));
+            Assert.fail();
+        } catch (AnalysisException e) {
+            context.setLongDataError(e.getMessage());
+        }
+
+        MysqlSerializer payload = MysqlSerializer.newInstance();
+        payload.writeInt1(0);
+        payload.writeInt4(1);
+        payload.writeInt1(1);
+        payload.writeInt1(1);
+        payload.writeInt2(MysqlColType.MYSQL_TYPE_NULL.getCode());
+        try {
+            context.readValues(payload.toByteBuffer());
+            Assert.fail();
+        } catch (AnalysisException e) {
+            Assert.assertTrue(e.getMessage().contains("Invalid parameter id 1"));
+        }
+
+        // the error is returned once, the execution resets the long data
+        context.resetLongData();
+        List<LiteralExpr> values = context.readValues(payload.toByteBuffer());
+        Assert.assertTrue(values.get(0) instanceof NullLiteral);
+    }
+
+    @Test
+    public void testReuseAnalyzedStmt() throws Exception {
+        String sql = "select v1, v2 + ? from t0 where v3 = ? order by v2 + ?";
+        PrepareStmtContext context = new PrepareStmtContext(sql, 3, Lists.newArrayList("v1", "v2 + ?"),
+                Lists.newArrayList());
+        List<Parameter> parameters = Lists.newArrayList();
+        QueryStatement stmt = (QueryStatement) SqlParser.parsePrepareStatement(sql,
+                connectContext.getSessionVariable(), parameters);
+        context.bind(parameters, Lists.newArrayList(new IntLiteral(1, Type.INT), new IntLiteral(10, Type.INT),
+                new IntLiteral(1, Type.INT)));
+        StatementPlanner.analyze(stmt, connectContext);
+        context.setAnalyzedStmt(stmt, parameters, connectContext);
+
+        // the values of the same types are bound to the analyzed statement
+        QueryStatement reused = context.bindAnalyzedStmt(Lists.newArrayList(new IntLiteral(2, Type.INT),
+                new IntLiteral(20, Type.INT), new IntLiteral(2, Type.INT)), connectContext);
+        Assert.assertSame(stmt, reused);
+        ExecPlan plan = StatementPlanner.planAnalyzed(reused, connectContext);
+        String explain = plan.getExplainString(TExplainLevel.NORMAL);
+        Assert.assertTrue(explain, explain.contains("3: v3 = 20"));
+        Assert.assertTrue(explain, explain.contains("2: v2 + 2"));
+
+        // the values of other types need analysis again
+        Assert.assertNull(context.bindAnalyzedStmt(Lists.newArrayList(new IntLiteral(2, Type.INT),
+                new StringLiteral("20"), new IntLiteral(2, Type.INT)), connectContext));
+
+        // so does a change of the database
+        String db = connectContext.getDatabase();
+        try {
+            connectContext.setDatabase("");
+            Assert.assertNull(context.bindAnalyzedStmt(Lists.newArrayList(new IntLiteral(2, Type.INT),
+                    new IntLiteral(20, Type.INT), new IntLiteral(2, Type.INT)), connectContext));
+        } finally {
+            connectContext.setDatabase(db);
+        }
+    }
+}
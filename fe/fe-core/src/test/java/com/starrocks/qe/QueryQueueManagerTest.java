@@ -3,7 +3,10 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.ImmutableList;
+import com.starrocks.catalog.ResourceGroup;
+import com.starrocks.catalog.ResourceGroupMgr;
 import com.starrocks.common.UserException;
+import com.starrocks.common.jmockit.Deencapsulation;
 import com.starrocks.planner.ExportSink;
 import com.starrocks.planner.MysqlTableSink;
 import com.starrocks.planner.OlapScanNode;
@@ -17,7 +20,10 @@ import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
 import com.starrocks.thrift.TResultSinkType;
+import com.starrocks.thrift.TWorkGroupType;
 import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
 import mockit.Mocked;
 import org.awaitility.Awaitility;
 import org.junit.After;
@@ -27,6 +33,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class QueryQueueManagerTest {
@@ -383,4 +390,171 @@ public class QueryQueueManagerTest {
         };
         Assert.assertFalse(manager.enableCheckQueue(coordinator));
     }
+
+    @Test
+    public void testPriority(@Mocked ResourceGroup group, @Mocked PlanFragment fragment) {
+        // 1. Query of the short query resource group.
+        new Expectations(coordinator, group) {
+            {
+                coordinator.getResourceGroup();
+                result = group;
+            }
+
+            {
+                group.getResourceGroupType();
+                result = TWorkGroupType.WG_SHORT_QUERY;
+            }
+        };
+        Assert.assertEquals(QueryQueueManager.Priority.HIGH, QueryQueueManager.getPriority(coordinator));
+
+        // 2. Query for statistic.
+        PlanNodeId nodeId = new PlanNodeId(0);
+        ResultSink statisticResultSink = new ResultSink(nodeId, TResultSinkType.STATISTIC);
+        new Expectations(coordinator, group, fragment) {
+            {
+                group.getResourceGroupType();
+                result = TWorkGroupType.WG_NORMAL;
+            }
+
+            {
+                coordinator.getFragments();
+                result = ImmutableList.of(fragment);
+            }
+
+            {
+                fragment.getSink();
+                result = statisticResultSink;
+            }
+        };
+        Assert.assertEquals(QueryQueueManager.Priority.LOW, QueryQueueManager.getPriority(coordinator));
+
+        // 3. Query for select.
+        ResultSink queryResultSink = new ResultSink(nodeId, TResultSinkType.MYSQL_PROTOCAL);
+        new Expectations(fragment) {
+            {
+                fragment.getSink();
+                result = queryResultSink;
+            }
+        };
+        Assert.assertEquals(QueryQueueManager.Priority.NORMAL, QueryQueueManager.getPriority(coordinator));
+    }
+
+    @Test
+    public void testWaitByEstimatedMem() throws InterruptedException {
+        QueryQueueManager manager = QueryQueueManager.getInstance();
+        SystemInfoService service = GlobalStateMgr.getCurrentSystemInfo();
+        Backend be1 = new Backend();
+        be1.setAlive(true);
+        be1.setId(1);
+        new Expectations(service) {
+            {
+                service.getBackends();
+                result = ImmutableList.of(be1);
+            }
+
+            {
+                service.getBackend(be1.getId());
+                result = be1;
+            }
+        };
+        new MockUp<QueryQueueManager>() {
+            @Mock
+            public long estimateMemBytes(Coordinator coord) {
+                return 40;
+            }
+        };
+        mockCoordinatorNeedCheckQueue();
+        mockCoordinatorEnableCheckQueue();
+        mockCanRunMore();
+        GlobalVariable.setQueryQueueSelectEnable(true);
+        GlobalVariable.setQueryQueueMemUsedPctLimit(0.5);
+        GlobalVariable.setQueryQueuePendingTimeoutSecond(300);
+        manager.updateResourceUsage(be1.getId(), 0, 100, 0, 0);
+
+        // Case 1: the first query is admitted, even though BEs are not loaded.
+        ConnectContext connectCtx1 = new ConnectContext();
+        try {
+            manager.maybeWait(connectCtx1, coordinator);
+        } catch (UserException e) {
+            Assert.fail("Unexpected exception");
+        }
+        Assert.assertEquals(1, manager.numRunningQueries());
+
+        // Case 2: the estimated memory of the admitted queries exceeds the limit.
+        ConnectContext connectCtx2 = new ConnectContext();
+        Thread thread = new Thread(() -> {
+            try {
+                manager.maybeWait(connectCtx2, coordinator);
+            } catch (UserException | InterruptedException e) {
+                Assert.fail("Unexpected exception");
+            }
+        });
+        thread.start();
+        Awaitility.await().atMost(1, TimeUnit.SECONDS).until(connectCtx2::isPending);
+        Assert.assertEquals(1, manager.numPendingQueries());
+
+        // Case 3: the pending query is admitted after the first query is finished.
+        manager.releaseQuery(coordinator);
+        Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> !connectCtx2.isPending());
+        thread.join();
+        Assert.assertEquals(0, manager.numPendingQueries());
+        Assert.assertEquals(1, manager.numRunningQueries());
+
+        manager.releaseQuery(coordinator);
+        Assert.assertEquals(0, manager.numRunningQueries());
+    }
+
+    @Test
+    public void testRefreshGroupQueue() throws InterruptedException {
+        QueryQueueManager manager = QueryQueueManager.getInstance();
+        ResourceGroup group = new ResourceGroup();
+        group.setName("rg_refresh");
+        group.setCpuCoreLimit(4);
+        ResourceGroup[] currentGroup = {group};
+        new MockUp<ResourceGroupMgr>() {
+            @Mock
+            public ResourceGroup getResourceGroup(String name) {
+                return name.equals("rg_refresh") ? currentGroup[0] : null;
+            }
+        };
+        new Expectations(coordinator) {
+            {
+                coordinator.getResourceGroup();
+                result = group;
+            }
+        };
+        mockCoordinatorNeedCheckQueue();
+        mockCoordinatorEnableCheckQueue();
+        mockNotCanRunMore();
+        GlobalVariable.setQueryQueueSelectEnable(true);
+        GlobalVariable.setQueryQueuePendingTimeoutSecond(300);
+
+        ConnectContext connectCtx = new ConnectContext();
+        Thread thread = new Thread(() -> Assert.assertThrows("Cancelled", UserException.class,
+                () -> manager.maybeWait(connectCtx, coordinator)));
+        thread.start();
+        Awaitility.await().atMost(1, TimeUnit.SECONDS).until(connectCtx::isPending);
+
+        Map<String, Object> groupQueues = Deencapsulation.getField(manager, "groupQueues");
+        Object groupQueue = groupQueues.get("rg_refresh");
+        Assert.assertEquals(4, (int) Deencapsulation.getField(groupQueue, "weight"));
+
+        // Case 1: the weight follows the altered cpu_core_limit.
+        ResourceGroup alteredGroup = new ResourceGroup();
+        alteredGroup.setName("rg_refresh");
+        alteredGroup.setCpuCoreLimit(8);
+        currentGroup[0] = alteredGroup;
+        manager.maybeNotify();
+        Assert.assertEquals(8, (int) Deencapsulation.getField(groupQueue, "weight"));
+
+        // Case 2: the queue of a dropped group is kept until its pending queries are gone.
+        currentGroup[0] = null;
+        manager.maybeNotify();
+        Assert.assertSame(groupQueue, groupQueues.get("rg_refresh"));
+
+        manager.cancelQuery(connectCtx);
+        thread.join();
+        manager.maybeNotify();
+        Assert.assertFalse(groupQueues.containsKey("rg_refresh"));
+    }
 }
@@ -0,0 +1,86 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.qe;
+
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class ResultCacheTest extends PlanTestBase {
+    private static ResultCache.CacheKey createKey(String sql) throws Exception {
+        StatementBase stmt = SqlParser.parse(sql, connectContext.getSessionVariable()).get(0);
+        ExecPlan execPlan = StatementPlanner.plan(stmt, connectContext);
+        return ResultCache.createKey((QueryStatement) stmt, execPlan, connectContext);
+    }
+
+    private static ResultCache.CachedResult createResult(int rowNum, int rowBytes) {
+        ResultCache.ResultCollector collector = new ResultCache.ResultCollector(Long.MAX_VALUE);
+        for (int i = 0; i < rowNum; i++) {
+            collector.add(ByteBuffer.wrap(new byte[rowBytes]));
+        }
+        return collector.build();
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        ResultCache.CacheKey key = createKey("select v1, sum(v2) from t0 where v3 = 1 group by v1");
+        Assert.assertNotNull(key);
+        Assert.assertEquals(key, createKey("select v1, sum(v2) from t0 where v3 = 1 group by v1"));
+        Assert.assertNotEquals(key, createKey("select v1, sum(v2) from t0 where v3 = 2 group by v1"));
+
+        // a new version of the scanned partition is visible
+        OlapTable table = (OlapTable) GlobalStateMgr.getCurrentState().getDb("test").getTable("t0");
+        Partition partition = table.getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        partition.setVisibleVersion(version + 1, System.currentTimeMillis());
+        try {
+            Assert.assertNotEquals(key, createKey("select v1, sum(v2) from t0 where v3 = 1 group by v1"));
+        } finally {
+            partition.setVisibleVersion(version, System.currentTimeMillis());
+        }
+        Assert.assertEquals(key, createKey("select v1, sum(v2) from t0 where v3 = 1 group by v1"));
+
+        // not cacheable
+        Assert.assertNull(createKey("select v1, now() from t0"));
+        Assert.assertNull(createKey("select v1, rand() from t0"));
+        Assert.assertNull(createKey("select 1"));
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        ResultCache cache = new ResultCache(1000);
+        ResultCache.CacheKey key1 = createKey("select * from t0 where v1 = 1");
+        ResultCache.CacheKey key2 = createKey("select * from t0 where v1 = 2");
+        ResultCache.CacheKey key3 = createKey("select * from t0 where v1 = 3");
+
+        cache.put(key1, createResult(10, 24));
+        cache.put(key2, createResult(10, 24));
+        Assert.assertEquals(800, cache.getUsedBytes());
+        Assert.assertNotNull(cache.get(key1));
+        Assert.assertEquals(10, cache.get(key2).getRows().size());
+
+        cache.put(key3, createResult(10, 24));
+        Assert.assertTrue(cache.getUsedBytes() <= 1000);
+        Assert.assertEquals(1, cache.getStats().evictionCount());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCollectorOverflow() {
+        ResultCache.ResultCollector collector = new ResultCache.ResultCollector(100);
+        collector.add(ByteBuffer.wrap(new byte[50]));
+        Assert.assertFalse(collector.isOverflow());
+        collector.add(ByteBuffer.wrap(new byte[50]));
+        Assert.assertTrue(collector.isOverflow());
+        Assert.assertNull(collector.build());
+    }
+}
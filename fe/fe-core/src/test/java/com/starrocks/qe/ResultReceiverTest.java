@@ -0,0 +1,125 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.qe;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.Status;
+import com.starrocks.proto.PFetchDataResult;
+import com.starrocks.proto.PQueryStatistics;
+import com.starrocks.proto.StatusPB;
+import com.starrocks.rpc.BackendServiceClient;
+import com.starrocks.rpc.PFetchDataRequest;
+import com.starrocks.rpc.RpcException;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TUniqueId;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.thrift.TSerializer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public class ResultReceiverTest {
+    private final List<Long> fetches = new ArrayList<>();
+
+    @After
+    public void after() {
+        Config.enable_result_prefetch = true;
+    }
+
+    // BE returns `batchNum` batches, the fetch of `failedFetch` throws rpc exception
+    private void mockBackend(int batchNum, int failedFetch) {
+        new MockUp<BackendServiceClient>() {
+            @Mock
+            public Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                    throws Exception {
+                long seq = fetches.size();
+                fetches.add(seq);
+                if (seq == failedFetch) {
+                    throw new RpcException(address.getHostname(), "mocked failure");
+                }
+                TResultBatch batch = new TResultBatch();
+                batch.setRows(new ArrayList<>());
+                batch.addToRows(ByteBuffer.wrap(("row" + seq).getBytes()));
+                batch.setPacket_seq(seq);
+                batch.setIs_compressed(false);
+                request.setSerializedResult(new TSerializer().serialize(batch));
+
+                PFetchDataResult result = new PFetchDataResult();
+                result.status = new StatusPB();
+                result.status.statusCode = 0;
+                result.packetSeq = seq;
+                result.eos = seq == batchNum - 1;
+                result.queryStatistics = new PQueryStatistics();
+                return CompletableFuture.completedFuture(result);
+            }
+        };
+    }
+
+    private static ResultReceiver createReceiver() {
+        return new ResultReceiver(new TUniqueId(1, 2), null, new TNetworkAddress("127.0.0.1", 8060), 10000);
+    }
+
+    private static String getRow(RowBatch batch) {
+        ByteBuffer row = batch.getBatch().getRows().get(0);
+        byte[] bytes = new byte[row.remaining()];
+        row.get(bytes);
+        return new String(bytes);
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        mockBackend(3, -1);
+        ResultReceiver receiver = createReceiver();
+        Status status = new Status();
+
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertEquals("row0", getRow(batch));
+        // the next batch is fetched before the current one is consumed, and only one fetch is in flight
+        Assert.assertEquals(2, fetches.size());
+
+        batch = receiver.getNext(status);
+        Assert.assertEquals("row1", getRow(batch));
+        Assert.assertEquals(3, fetches.size());
+
+        batch = receiver.getNext(status);
+        Assert.assertEquals("row2", getRow(batch));
+        Assert.assertTrue(batch.isEos());
+        // no fetch after eos
+        Assert.assertEquals(3, fetches.size());
+        Assert.assertNull(receiver.getNext(status));
+    }
+
+    @Test
+    public void testPrefetchDisabled() throws Exception {
+        Config.enable_result_prefetch = false;
+        mockBackend(2, -1);
+        ResultReceiver receiver = createReceiver();
+        Status status = new Status();
+
+        Assert.assertEquals("row0", getRow(receiver.getNext(status)));
+        Assert.assertEquals(1, fetches.size());
+        Assert.assertEquals("row1", getRow(receiver.getNext(status)));
+        Assert.assertEquals(2, fetches.size());
+    }
+
+    @Test
+    public void testPrefetchFailed() throws Exception {
+        mockBackend(3, 1);
+        ResultReceiver receiver = createReceiver();
+        Status status = new Status();
+
+        // the failure of prefetch is reported after the current batch is returned
+        Assert.assertEquals("row0", getRow(receiver.getNext(status)));
+        Assert.assertTrue(status.ok());
+        receiver.getNext(status);
+        Assert.assertFalse(status.ok());
+    }
+}
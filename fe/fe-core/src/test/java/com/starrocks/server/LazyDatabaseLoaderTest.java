@@ -0,0 +1,109 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.server;
+
+import com.starrocks.catalog.Database;
+import com.starrocks.common.FeConstants;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.metablock.SRImageReader;
+import com.starrocks.persist.metablock.SRImageSection;
+import com.starrocks.persist.metablock.SRImageWriter;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyDatabaseLoaderTest {
+    private static Path tmpDir;
+    private static File imageFile;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+        metaContext.setThreadLocalInfo();
+
+        tmpDir = Files.createTempDirectory(Paths.get("."), "LazyDatabaseLoaderTest");
+        imageFile = new File(tmpDir.toFile(), "image");
+        try (SRImageWriter writer = new SRImageWriter(imageFile)) {
+            for (int i = 0; i < 10; i++) {
+                Database db = new Database(10000 + i, "db" + i);
+                writer.writeSection("Database", db.getId(), db.getFullName(), db::write);
+            }
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        FileUtils.deleteDirectory(tmpDir.toFile());
+        MetaContext.remove();
+    }
+
+    private LazyDatabaseLoader createLoader(Map<Long, Database> loaded, AtomicInteger numFinished)
+            throws Exception {
+        SRImageReader reader = new SRImageReader(imageFile, true);
+        List<SRImageSection> sections = reader.getSections("Database");
+        return new LazyDatabaseLoader(reader, sections, dis -> {
+            Database db = new Database();
+            db.readFields(dis);
+            Assert.assertNull(loaded.put(db.getId(), db));
+            return db;
+        }, numFinished::incrementAndGet);
+    }
+
+    @Test
+    public void testLoadOnDemand() throws Exception {
+        Map<Long, Database> loaded = new ConcurrentHashMap<>();
+        AtomicInteger numFinished = new AtomicInteger();
+        long loadedBytes = LazyDatabaseLoader.LOADED_BYTES.get();
+        long count = LazyDatabaseLoader.FIRST_ACCESS_LATENCY_MS.getCount();
+        LazyDatabaseLoader loader = createLoader(loaded, numFinished);
+        Assert.assertTrue(loaded.isEmpty());
+
+        Database db = loader.getDb("db3");
+        Assert.assertEquals(10003, db.getId());
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertTrue(LazyDatabaseLoader.LOADED_BYTES.get() > loadedBytes);
+        Assert.assertEquals(count + 1, LazyDatabaseLoader.FIRST_ACCESS_LATENCY_MS.getCount());
+
+        // loaded only once, it's found in the catalog afterwards
+        Assert.assertNull(loader.getDb(10003));
+        Assert.assertSame(db, loaded.get(10003L));
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertEquals(count + 1, LazyDatabaseLoader.FIRST_ACCESS_LATENCY_MS.getCount());
+
+        Assert.assertNull(loader.getDb("not_exist"));
+        Assert.assertNull(loader.getDb(1L));
+
+        loader.waitAll();
+        Assert.assertEquals(10, loaded.size());
+        Assert.assertEquals(1, numFinished.get());
+        loader.waitAll();
+        Assert.assertEquals(1, numFinished.get());
+    }
+
+    @Test
+    public void testLoadInBackground() throws Exception {
+        Map<Long, Database> loaded = new ConcurrentHashMap<>();
+        AtomicInteger numFinished = new AtomicInteger();
+        LazyDatabaseLoader loader = createLoader(loaded, numFinished);
+        loader.startLoading(4);
+        // loaded by the current thread, or already in the catalog
+        Database db = loader.getDb(10007);
+        Assert.assertEquals("db7", (db != null ? db : loaded.get(10007L)).getFullName());
+        loader.waitAll();
+        Assert.assertEquals(10, loaded.size());
+        Assert.assertEquals(1, numFinished.get());
+    }
+}
@@ -12,14 +12,30 @@ import com.starrocks.catalog.PartitionInfo;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.FeConstants;
+import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.UUIDUtil;
+import com.starrocks.journal.JournalCursor;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.DatabaseInfo;
+import com.starrocks.persist.OperationType;
+import com.starrocks.persist.metablock.SRImageWriter;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.ast.AlterDatabaseQuotaStmt;
 import com.starrocks.utframe.StarRocksAssert;
 import com.starrocks.utframe.UtFrameUtils;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -75,4 +91,88 @@ public class LocalMetaStoreTest {
 
         Assert.assertEquals(newPartition.getId(), olapTable.getPartition("t1").getId());
     }
+
+    private static JournalEntity newJournal(short opCode, Writable data) {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(opCode);
+        entity.setData(data);
+        return entity;
+    }
+
+    @Test
+    public void testReplayWithPendingLazyDbs() throws Exception {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+        metaContext.setThreadLocalInfo();
+
+        Path tmpDir = Files.createTempDirectory(Paths.get("."), "LocalMetaStoreTest");
+        File imageFile = new File(tmpDir.toFile(), "image");
+        try (SRImageWriter writer = new SRImageWriter(imageFile)) {
+            for (int i = 0; i < 3; i++) {
+                Database db = new Database(900000 + i, "lazy_db" + i);
+                writer.writeSection(LocalMetastore.DB_IMAGE_SECTION, db.getId(), db.getFullName(), db::write);
+            }
+        }
+        // the databases are only loaded on demand
+        MockUp<LazyDatabaseLoader> noBackgroundLoading = new MockUp<LazyDatabaseLoader>() {
+            @Mock
+            public void startLoading(int parallelism) {
+            }
+        };
+
+        GlobalStateMgr globalStateMgr = connectContext.getGlobalStateMgr();
+        LocalMetastore localMetastore = globalStateMgr.getLocalMetastore();
+        try {
+            long pendingDbs = LazyDatabaseLoader.PENDING_DBS.get();
+            Assert.assertTrue(localMetastore.loadDbSectionsLazily(imageFile, 1, () -> { }));
+            Assert.assertEquals(pendingDbs + 3, LazyDatabaseLoader.PENDING_DBS.get());
+
+            Iterator<JournalEntity> journals = Lists.newArrayList(
+                    newJournal(OperationType.OP_CREATE_DB, new Database(900010, "replayed_db")),
+                    newJournal(OperationType.OP_RENAME_DB, new DatabaseInfo("lazy_db1", "lazy_db1_new", -1L,
+                            AlterDatabaseQuotaStmt.QuotaType.NONE))).iterator();
+            JournalCursor cursor = new JournalCursor() {
+                @Override
+                public JournalEntity next() {
+                    return journals.hasNext() ? journals.next() : null;
+                }
+
+                @Override
+                public void refresh() {
+                }
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public void skipNext() {
+                }
+            };
+            Assert.assertTrue(globalStateMgr.replayJournalInner(cursor, false));
+
+            // only the renamed database is loaded by the replay, the others are still pending
+            Assert.assertNotNull(localMetastore.getDb("replayed_db"));
+            Assert.assertEquals(900001, localMetastore.getDb("lazy_db1_new").getId());
+            Assert.assertEquals(pendingDbs + 2, LazyDatabaseLoader.PENDING_DBS.get());
+
+            Assert.assertTrue(localMetastore.waitForLazyDbs());
+            Assert.assertEquals(pendingDbs, LazyDatabaseLoader.PENDING_DBS.get());
+            Assert.assertEquals(900000, localMetastore.getDb("lazy_db0").getId());
+            Assert.assertEquals(900002, localMetastore.getDb(900002).getId());
+            // renamed after it's loaded
+            Assert.assertNull(localMetastore.getDb("lazy_db1"));
+            Assert.assertFalse(localMetastore.waitForLazyDbs());
+        } finally {
+            noBackgroundLoading.tearDown();
+            localMetastore.waitForLazyDbs();
+            for (String dbName : Lists.newArrayList("lazy_db0", "lazy_db1_new", "lazy_db2", "replayed_db")) {
+                if (localMetastore.getDb(dbName) != null) {
+                    localMetastore.replayDropDb(dbName, true);
+                }
+            }
+            FileUtils.deleteDirectory(tmpDir.toFile());
+        }
+    }
 }
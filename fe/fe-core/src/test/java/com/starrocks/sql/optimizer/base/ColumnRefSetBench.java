@@ -0,0 +1,171 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.base;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare ColumnRefSet with the java.util.BitSet it used to wrap, and the set operations which clone the left
+ * set with the ones writing into a caller-supplied result set. A query with N columns has
+ * column ids in [1, N], an operator usually references a few columns close to each other,
+ * e.g. the columns of one scan, so each set holds 8 ids from a random window of the id range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ColumnRefSetBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ColumnRefSetBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int SET_NUM = 64;
+    private static final int SET_SIZE = 8;
+
+    @Param({"10", "1000", "10000"})
+    public int columns;
+
+    private final BitSet[] bitSets = new BitSet[SET_NUM];
+    private final ColumnRefSet[] columnRefSets = new ColumnRefSet[SET_NUM];
+    private final ColumnRefSet result = new ColumnRefSet();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < SET_NUM; i++) {
+            bitSets[i] = new BitSet();
+            columnRefSets[i] = new ColumnRefSet();
+            int window = Math.max(0, columns - SET_SIZE * 2);
+            int start = 1 + (window == 0 ? 0 : random.nextInt(window));
+            for (int j = 0; j < SET_SIZE; j++) {
+                int id = start + random.nextInt(Math.min(columns, SET_SIZE * 2));
+                bitSets[i].set(id);
+                columnRefSets[i].union(id);
+            }
+        }
+    }
+
+    @Benchmark
+    public int bitSetUnion() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            BitSet union = (BitSet) bitSets[i - 1].clone();
+            union.or(bitSets[i]);
+            cardinality += union.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int columnRefSetUnion() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            ColumnRefSet union = columnRefSets[i - 1].clone();
+            union.union(columnRefSets[i]);
+            cardinality += union.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int columnRefSetUnionIntoResult() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            ColumnRefSet.union(columnRefSets[i - 1], columnRefSets[i], result);
+            cardinality += result.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int bitSetIntersect() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            BitSet intersect = (BitSet) bitSets[i - 1].clone();
+            intersect.and(bitSets[i]);
+            cardinality += intersect.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int columnRefSetIntersect() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            ColumnRefSet intersect = columnRefSets[i - 1].clone();
+            intersect.intersect(columnRefSets[i]);
+            cardinality += intersect.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int columnRefSetIntersectIntoResult() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            ColumnRefSet.intersect(columnRefSets[i - 1], columnRefSets[i], result);
+            cardinality += result.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int columnRefSetExceptIntoResult() {
+        int cardinality = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            ColumnRefSet.except(columnRefSets[i - 1], columnRefSets[i], result);
+            cardinality += result.cardinality();
+        }
+        return cardinality;
+    }
+
+    @Benchmark
+    public int bitSetContainsAll() {
+        int count = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            BitSet rhs = bitSets[i];
+            BitSet lhs = bitSets[i - 1];
+            if (rhs.stream().allMatch(lhs::get)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int columnRefSetContainsAll() {
+        int count = 0;
+        for (int i = 1; i < SET_NUM; i++) {
+            if (columnRefSets[i - 1].containsAll(columnRefSets[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,78 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.base;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnRefSetTest {
+    private static ColumnRefSet of(int... ids) {
+        ColumnRefSet set = new ColumnRefSet();
+        for (int id : ids) {
+            set.union(id);
+        }
+        return set;
+    }
+
+    @Test
+    public void testBasicOperations() {
+        ColumnRefSet set = of(1, 3, 100000);
+        Assert.assertEquals(3, set.cardinality());
+        Assert.assertEquals(1, set.getFirstId());
+        Assert.assertArrayEquals(new int[] {1, 3, 100000}, set.getColumnIds());
+        Assert.assertEquals("{1, 3, 100000}", set.toString());
+
+        Assert.assertTrue(set.containsAll(of(1, 100000)));
+        Assert.assertFalse(set.containsAll(of(1, 2)));
+        Assert.assertTrue(set.containsAny(of(2, 3)));
+        Assert.assertTrue(set.isIntersect(of(100000)));
+        Assert.assertFalse(set.isIntersect(of(2, 99999)));
+
+        ColumnRefSet clone = set.clone();
+        clone.except(of(3));
+        Assert.assertEquals(of(1, 100000), clone);
+        Assert.assertEquals(3, set.cardinality());
+
+        clone.intersect(100000);
+        Assert.assertEquals(of(100000), clone);
+        clone.intersect(1);
+        Assert.assertTrue(clone.isEmpty());
+        Assert.assertTrue(set.isSame(of(100000, 3, 1)));
+    }
+
+    @Test
+    public void testWriteIntoResult() {
+        ColumnRefSet left = of(1, 2, 3, 70000);
+        ColumnRefSet right = of(3, 4, 70000);
+        ColumnRefSet result = of(5);
+
+        ColumnRefSet.union(left, right, result);
+        Assert.assertEquals(of(1, 2, 3, 4, 70000), result);
+        ColumnRefSet.intersect(left, right, result);
+        Assert.assertEquals(of(3, 70000), result);
+        ColumnRefSet.except(left, right, result);
+        Assert.assertEquals(of(1, 2), result);
+
+        // result is one of the inputs
+        ColumnRefSet.except(left, right, right);
+        Assert.assertEquals(of(1, 2), right);
+        ColumnRefSet.union(left, right, left);
+        Assert.assertEquals(of(1, 2, 3, 70000), left);
+        ColumnRefSet.intersect(left, right, left);
+        Assert.assertEquals(of(1, 2), left);
+    }
+
+    @Test
+    public void testContainsAll() {
+        ColumnRefSet set = of(1, 2, 3, 70000, 140000);
+        Assert.assertTrue(set.containsAll(of(2, 140000)));
+        Assert.assertTrue(set.containsAll(set));
+        Assert.assertTrue(set.containsAll(new ColumnRefSet()));
+        Assert.assertTrue(new ColumnRefSet().containsAll(new ColumnRefSet()));
+        // the missing id is in a container the set doesn't have
+        Assert.assertFalse(set.containsAll(of(1, 100000)));
+        // the missing id is in a container the set has
+        Assert.assertFalse(set.containsAll(of(1, 70001)));
+        Assert.assertFalse(new ColumnRefSet().containsAll(of(1)));
+    }
+}
@@ -0,0 +1,139 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql.optimizer.cost;
+
+import com.google.common.collect.ImmutableMap;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.thrift.TUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class CostModelCalibratorTest {
+    private static final CostModelCalibrator.Weights DEFAULT_WEIGHTS = new CostModelCalibrator.Weights(
+            CostModel.DEFAULT_CPU_COST_WEIGHT, CostModel.DEFAULT_MEMORY_COST_WEIGHT,
+            CostModel.DEFAULT_NETWORK_COST_WEIGHT);
+    // the estimated average row size of the plan nodes
+    private static final Map<Integer, Float> AVG_ROW_SIZES = ImmutableMap.of(2, 10f, 4, 10f);
+
+    private final CostModelCalibrator calibrator = new CostModelCalibrator();
+
+    @After
+    public void after() {
+        calibrator.reset();
+    }
+
+    private static RuntimeProfile operator(String name, long timeNs, long rows) {
+        RuntimeProfile operator = new RuntimeProfile(name);
+        RuntimeProfile commonMetrics = new RuntimeProfile("CommonMetrics");
+        RuntimeProfile uniqueMetrics = new RuntimeProfile("UniqueMetrics");
+        operator.addChild(commonMetrics);
+        operator.addChild(uniqueMetrics);
+        commonMetrics.addCounter("PushRowNum", TUnit.UNIT).setValue(rows);
+        commonMetrics.addCounter("OperatorTotalTime", TUnit.TIME_NS).setValue(timeNs);
+        return operator;
+    }
+
+    private static RuntimeProfile memoryOperator(String name, long timeNs, long peakMemoryBytes) {
+        RuntimeProfile operator = operator(name, timeNs, 1);
+        operator.getChild("CommonMetrics").addCounter("PeakMemoryUsage", TUnit.BYTES).setValue(peakMemoryBytes);
+        return operator;
+    }
+
+    private static RuntimeProfile exchangeSink(long networkTimeNs, long bytesSent) {
+        RuntimeProfile operator = operator("EXCHANGE_SINK (plan_node_id=3)", 1, 1);
+        RuntimeProfile uniqueMetrics = operator.getChild("UniqueMetrics");
+        uniqueMetrics.addCounter("NetworkTime", TUnit.TIME_NS).setValue(networkTimeNs);
+        uniqueMetrics.addCounter("BytesSent", TUnit.BYTES).setValue(bytesSent);
+        return operator;
+    }
+
+    private static RuntimeProfile query(RuntimeProfile... operators) {
+        RuntimeProfile pipeline = new RuntimeProfile("Pipeline (id=0)");
+        for (RuntimeProfile operator : operators) {
+            pipeline.addChild(operator);
+        }
+        RuntimeProfile fragment = new RuntimeProfile("Fragment 0");
+        fragment.addChild(pipeline);
+        RuntimeProfile query = new RuntimeProfile("Execution Profile");
+        query.addChild(fragment);
+        return query;
+    }
+
+    private static CostModelCalibrator.Weights fitWindows(CostModelCalibrator calibrator,
+                                                          CostModelCalibrator.Weights weights, int windows,
+                                                          RuntimeProfile... operators) {
+        for (int i = 0; i < windows; i++) {
+            Assert.assertTrue(calibrator.addQuery(query(operators), AVG_ROW_SIZES));
+            weights = calibrator.fit(weights).get();
+            calibrator.reset();
+        }
+        return weights;
+    }
+
+    @Test
+    public void testFit() {
+        // the prices differ from the defaults from the first window: cpu 1ns per byte (100 rows of 10 bytes),
+        // memory 2ns per byte and a fast network 0.2ns per byte, they are scaled by 4 / 3.2 to keep the sum
+        // of the default weights, so the fitted weights are cpu 1.25, memory 2.5 and network 0.25
+        RuntimeProfile[] operators = {
+                operator("OLAP_SCAN (plan_node_id=0)", 100000, 10),
+                operator("HASH_JOIN_PROBE (plan_node_id=2)", 1000, 100),
+                memoryOperator("HASH_JOIN_BUILD (plan_node_id=2)", 2000, 1000),
+                exchangeSink(200, 1000)};
+        CostModelCalibrator.Weights weights = fitWindows(calibrator, DEFAULT_WEIGHTS, 1, operators);
+        Assert.assertEquals((0.5 + 1.25) / 2, weights.getCpu(), 1e-6);
+        Assert.assertEquals((2 + 2.5) / 2, weights.getMemory(), 1e-6);
+        Assert.assertEquals((1.5 + 0.25) / 2, weights.getNetwork(), 1e-6);
+        Assert.assertTrue(weights.getNetwork() / weights.getCpu() <
+                CostModel.DEFAULT_NETWORK_COST_WEIGHT / CostModel.DEFAULT_CPU_COST_WEIGHT);
+
+        // the weights converge to the fitted weights if the prices are stable
+        weights = fitWindows(calibrator, weights, 20, operators);
+        Assert.assertEquals(1.25, weights.getCpu(), 1e-3);
+        Assert.assertEquals(2.5, weights.getMemory(), 1e-3);
+        Assert.assertEquals(0.25, weights.getNetwork(), 1e-3);
+    }
+
+    @Test
+    public void testFitBound() {
+        // cpu 0.1ns per byte and network 10000ns per byte, no memory operator
+        CostModelCalibrator.Weights weights = fitWindows(calibrator, DEFAULT_WEIGHTS, 20,
+                operator("HASH_JOIN_PROBE (plan_node_id=2)", 100, 100),
+                exchangeSink(1000000, 100));
+        Assert.assertEquals(CostModel.DEFAULT_CPU_COST_WEIGHT / 10, weights.getCpu(), 1e-6);
+        // keep the current weight of the resource without samples
+        Assert.assertEquals(CostModel.DEFAULT_MEMORY_COST_WEIGHT, weights.getMemory(), 1e-6);
+        Assert.assertEquals(CostModel.DEFAULT_CPU_COST_WEIGHT + CostModel.DEFAULT_NETWORK_COST_WEIGHT,
+                weights.getNetwork(), 1e-3);
+    }
+
+    @Test
+    public void testOneResource() {
+        // only the ratios between the prices are fitted, a single resource keeps its weight
+        CostModelCalibrator.Weights weights = fitWindows(calibrator, DEFAULT_WEIGHTS, 1, exchangeSink(100, 1000));
+        Assert.assertEquals(CostModel.DEFAULT_CPU_COST_WEIGHT, weights.getCpu(), 1e-6);
+        Assert.assertEquals(CostModel.DEFAULT_MEMORY_COST_WEIGHT, weights.getMemory(), 1e-6);
+        Assert.assertEquals(CostModel.DEFAULT_NETWORK_COST_WEIGHT, weights.getNetwork(), 1e-6);
+    }
+
+    @Test
+    public void testNoOperator() {
+        // scan and result sink are not collected
+        Assert.assertFalse(calibrator.addQuery(query(
+                operator("OLAP_SCAN (plan_node_id=0)", 1000, 10),
+                operator("RESULT_SINK (plan_node_id=-1)", 1000, 10)), AVG_ROW_SIZES));
+        Assert.assertFalse(calibrator.fit(DEFAULT_WEIGHTS).isPresent());
+
+        // the profile without pipeline metrics is skipped
+        Assert.assertFalse(calibrator.addQuery(query(new RuntimeProfile("HASH_JOIN_PROBE (plan_node_id=2)")),
+                AVG_ROW_SIZES));
+        // the memory operator without peak memory usage is skipped
+        Assert.assertFalse(calibrator.addQuery(query(operator("HASH_JOIN_BUILD (plan_node_id=2)", 1000, 10)),
+                AVG_ROW_SIZES));
+        // the cpu operator without the estimated row size is skipped
+        Assert.assertFalse(calibrator.addQuery(query(operator("PROJECT (plan_node_id=5)", 1000, 10)),
+                AVG_ROW_SIZES));
+    }
+}
@@ -0,0 +1,127 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class ColumnDictTest {
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testLookup() {
+        List<ByteBuffer> strings = Lists.newArrayList(bytes("beijing"), bytes(""), bytes("shanghai"),
+                bytes("bei"), bytes("深圳"));
+        List<Integer> ids = Lists.newArrayList(1, 2, 3, 4, 5);
+        ColumnDict dict = new ColumnDict(strings, ids, 10);
+
+        Assert.assertEquals(5, dict.size());
+        Assert.assertEquals(10, dict.getVersionTime());
+        for (int i = 0; i < strings.size(); i++) {
+            Assert.assertEquals((int) ids.get(i), dict.getId(strings.get(i)));
+        }
+        Assert.assertEquals(-1, dict.getId(bytes("be")));
+        Assert.assertEquals(-1, dict.getId(bytes("beijing1")));
+        Assert.assertEquals(-1, dict.getId(bytes("zz")));
+
+        // strings are sorted by unsigned bytes, multi-byte utf-8 is the greatest
+        Assert.assertEquals("", string(dict.getString(0)));
+        Assert.assertEquals("bei", string(dict.getString(1)));
+        Assert.assertEquals("beijing", string(dict.getString(2)));
+        Assert.assertEquals("shanghai", string(dict.getString(3)));
+        Assert.assertEquals("深圳", string(dict.getString(4)));
+        Assert.assertEquals(5, dict.getId(4));
+
+        // the input buffers are not consumed
+        Assert.assertEquals("beijing", string(strings.get(0)));
+    }
+
+    @Test
+    public void testVersionAndMemory() {
+        List<ByteBuffer> strings = Lists.newArrayList();
+        List<Integer> ids = Lists.newArrayList();
+        for (int i = 0; i < 256; i++) {
+            strings.add(bytes("value_" + i));
+            ids.add(i + 1);
+        }
+        ColumnDict dict = new ColumnDict(strings, ids, 1);
+        ColumnDict newDict = dict.withVersionTime(2);
+        Assert.assertEquals(2, newDict.getVersionTime());
+        Assert.assertEquals(dict.getMemoryUsage(), newDict.getMemoryUsage());
+        Assert.assertEquals(101, newDict.getId(bytes("value_100")));
+
+        long dataSize = strings.stream().mapToLong(ByteBuffer::remaining).sum();
+        // the strings plus two int arrays, no per entry objects
+        Assert.assertTrue(dict.getMemoryUsage() < dataSize + 256 * 8 + 256);
+    }
+
+    @Test
+    public void testMerge() {
+        ColumnDict dict = new ColumnDict(Lists.newArrayList(bytes("a"), bytes("b"), bytes("c")),
+                Lists.newArrayList(1, 2, 3), 1);
+
+        // the ids are assigned again in the order of the strings, a new string shifts the ids after it
+        ColumnDict merged = dict.merge(Lists.newArrayList(bytes("d"), bytes("b"), bytes("aa"), bytes("d")), 2, 255)
+                .get();
+        Assert.assertEquals(5, merged.size());
+        Assert.assertEquals(2, merged.getVersionTime());
+        Assert.assertEquals(1, merged.getId(bytes("a")));
+        Assert.assertEquals(2, merged.getId(bytes("aa")));
+        Assert.assertEquals(3, merged.getId(bytes("b")));
+        Assert.assertEquals(4, merged.getId(bytes("c")));
+        Assert.assertEquals(5, merged.getId(bytes("d")));
+        // the old dict is unchanged
+        Assert.assertEquals(3, dict.size());
+        Assert.assertEquals(2, dict.getId(bytes("b")));
+        Assert.assertEquals(-1, dict.getId(bytes("d")));
+
+        // no new strings, the ids are kept
+        ColumnDict same = dict.merge(Lists.newArrayList(bytes("a")), 3, 255).get();
+        Assert.assertEquals(3, same.size());
+        Assert.assertEquals(3, same.getVersionTime());
+        Assert.assertEquals(2, same.getId(bytes("b")));
+
+        // exceed the low cardinality threshold, need full rebuild
+        Assert.assertFalse(dict.merge(Lists.newArrayList(bytes("d"), bytes("e")), 3, 4).isPresent());
+    }
+
+    @Test
+    public void testOrderByIdsAfterMerge() {
+        List<String> values = Lists.newArrayList("shanghai", "beijing", "hangzhou", "shenzhen");
+        ColumnDict dict = new ColumnDict(Lists.newArrayList(bytes("beijing"), bytes("shanghai")),
+                Lists.newArrayList(1, 2), 1);
+        dict = dict.merge(Lists.newArrayList(bytes("shenzhen"), bytes("hangzhou")), 2, 255).get();
+        dict = dict.merge(Lists.newArrayList(bytes("chengdu"), bytes("")), 3, 255).get();
+        values.add("chengdu");
+        values.add("");
+
+        // a TopN on the dict column sorts the ids, and decodes them after sorting
+        List<Integer> encoded = Lists.newArrayList();
+        for (String value : values) {
+            encoded.add(dict.getId(bytes(value)));
+        }
+        encoded.sort(Integer::compare);
+        List<String> decoded = Lists.newArrayList();
+        for (Integer id : encoded) {
+            for (int i = 0; i < dict.size(); i++) {
+                if (dict.getId(i) == id) {
+                    decoded.add(string(dict.getString(i)));
+                }
+            }
+        }
+        values.sort(String::compareTo);
+        Assert.assertEquals(values, decoded);
+    }
+}
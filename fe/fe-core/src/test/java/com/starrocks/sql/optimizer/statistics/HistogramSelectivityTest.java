@@ -0,0 +1,223 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.InPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.LikePredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+import static com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator.BinaryType.EQ;
+import static com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator.BinaryType.GE;
+import static com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator.BinaryType.GT;
+import static com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator.BinaryType.LE;
+import static com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator.BinaryType.LT;
+
+/**
+ * Compare the estimated row count with the actual row count on skewed generated data,
+ * the histogram is built in the same way as the histogram statistics job: the most common
+ * values are kept in mcv and the other values are put into equal height buckets.
+ */
+public class HistogramSelectivityTest {
+    private static final int ROW_COUNT = 200000;
+    private static final int BUCKET_NUM = 20;
+    private static final int MCV_NUM = 3;
+
+    private static final ColumnRefOperator V1 = new ColumnRefOperator(0, Type.BIGINT, "v1", true);
+    private static final ColumnRefOperator S1 = new ColumnRefOperator(1, Type.VARCHAR, "s1", true);
+
+    private static long[] data;
+    private static Statistics statistics;
+
+    @BeforeClass
+    public static void beforeClass() {
+        // 30% of rows are 7, 15% are 500, 5% are 999 and the others are uniform in [1, 1000]
+        Random random = new Random(7);
+        data = new long[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            double p = random.nextDouble();
+            if (p < 0.3) {
+                data[i] = 7;
+            } else if (p < 0.45) {
+                data[i] = 500;
+            } else if (p < 0.5) {
+                data[i] = 999;
+            } else {
+                data[i] = 1 + random.nextInt(1000);
+            }
+        }
+
+        Map<String, Long> stringMCV = new HashMap<>();
+        stringMCV.put("apple", ROW_COUNT * 4L / 10);
+        stringMCV.put("apricot", ROW_COUNT * 2L / 10);
+        stringMCV.put("banana", ROW_COUNT * 3L / 10);
+        stringMCV.put("cherry", ROW_COUNT / 10L);
+
+        statistics = Statistics.builder()
+                .setOutputRowCount(ROW_COUNT)
+                .addColumnStatistic(V1, ColumnStatistic.builder()
+                        .setMinValue(Arrays.stream(data).min().getAsLong())
+                        .setMaxValue(Arrays.stream(data).max().getAsLong())
+                        .setNullsFraction(0)
+                        .setAverageRowSize(8)
+                        .setDistinctValuesCount(Arrays.stream(data).distinct().count())
+                        .setHistogram(buildHistogram(data))
+                        .build())
+                .addColumnStatistic(S1, ColumnStatistic.builder()
+                        .setMinValue(Double.NEGATIVE_INFINITY)
+                        .setMaxValue(Double.POSITIVE_INFINITY)
+                        .setNullsFraction(0)
+                        .setAverageRowSize(6)
+                        .setDistinctValuesCount(stringMCV.size())
+                        .setHistogram(new Histogram(new ArrayList<>(), stringMCV))
+                        .build())
+                .build();
+    }
+
+    private static Histogram buildHistogram(long[] values) {
+        Map<Long, Long> counts = new TreeMap<>();
+        for (long value : values) {
+            counts.merge(value, 1L, Long::sum);
+        }
+        List<Long> mostCommonValues = counts.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .limit(MCV_NUM).map(Map.Entry::getKey).collect(Collectors.toList());
+
+        Map<String, Long> mcv = new HashMap<>();
+        long bucketRows = 0;
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            if (mostCommonValues.contains(entry.getKey())) {
+                mcv.put(String.valueOf(entry.getKey()), entry.getValue());
+            } else {
+                bucketRows += entry.getValue();
+            }
+        }
+
+        // a value never spans two buckets, the repeats of bucket upper is recorded
+        List<Bucket> buckets = new ArrayList<>();
+        long rowsPerBucket = bucketRows / BUCKET_NUM;
+        long cumulativeRows = 0;
+        long lower = -1;
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            if (mostCommonValues.contains(entry.getKey())) {
+                continue;
+            }
+            if (lower == -1) {
+                lower = entry.getKey();
+            }
+            cumulativeRows += entry.getValue();
+            long previousRows = buckets.isEmpty() ? 0 : buckets.get(buckets.size() - 1).getCount();
+            if (cumulativeRows - previousRows >= rowsPerBucket || cumulativeRows == bucketRows) {
+                buckets.add(new Bucket(lower, entry.getKey(), cumulativeRows, entry.getValue()));
+                lower = -1;
+            }
+        }
+        return new Histogram(buckets, mcv);
+    }
+
+    @Test
+    public void testRange() {
+        check(binary(LT, 300), v -> v < 300, 1.2);
+        check(binary(LE, 500), v -> v <= 500, 1.2);
+        check(binary(GT, 600), v -> v > 600, 1.2);
+        check(binary(GE, 7), v -> v >= 7, 1.2);
+        check(binary(GT, 998), v -> v > 998, 1.2);
+    }
+
+    @Test
+    public void testEqual() {
+        check(binary(EQ, 7), v -> v == 7, 1.05);
+        check(binary(EQ, 999), v -> v == 999, 1.05);
+        check(binary(EQ, 123), v -> v == 123, 1.5);
+        // mcv is looked up by value instead of string, "7.0" hits the key "7"
+        check(new BinaryPredicateOperator(EQ, V1, ConstantOperator.createDouble(7)), v -> v == 7, 1.05);
+    }
+
+    @Test
+    public void testIn() {
+        check(in(false, 7, 500, 123), v -> v == 7 || v == 500 || v == 123, 1.05);
+        check(in(false, 123, 124, 125), v -> v == 123 || v == 124 || v == 125, 1.5);
+        check(in(true, 7, 500), v -> v != 7 && v != 500, 1.05);
+    }
+
+    @Test
+    public void testConjunctionOnSameColumn() {
+        check(and(binary(GT, 100), binary(LT, 600)), v -> v > 100 && v < 600, 1.2);
+        check(and(binary(GE, 500), binary(LE, 500)), v -> v == 500, 1.05);
+        check(and(binary(GE, 1), binary(LT, 8)), v -> v >= 1 && v < 8, 1.2);
+        check(and(in(false, 7, 500), binary(EQ, 7)), v -> v == 7, 1.5);
+    }
+
+    @Test
+    public void testLikePrefix() {
+        Statistics estimated = PredicateStatisticsCalculator.statisticsCalculate(
+                new LikePredicateOperator(S1, ConstantOperator.createVarchar("ap%")), statistics);
+        Assert.assertEquals(ROW_COUNT * 0.6, estimated.getOutputRowCount(), 1);
+
+        estimated = PredicateStatisticsCalculator.statisticsCalculate(
+                new LikePredicateOperator(S1, ConstantOperator.createVarchar("ch%")), statistics);
+        Assert.assertEquals(ROW_COUNT * 0.1, estimated.getOutputRowCount(), 1);
+
+        // not a prefix pattern, use the default coefficient
+        estimated = PredicateStatisticsCalculator.statisticsCalculate(
+                new LikePredicateOperator(S1, ConstantOperator.createVarchar("%an%")), statistics);
+        Assert.assertEquals(ROW_COUNT * StatisticsEstimateCoefficient.PREDICATE_UNKNOWN_FILTER_COEFFICIENT,
+                estimated.getOutputRowCount(), 1);
+    }
+
+    @Test
+    public void testFindBucket() {
+        Histogram histogram = statistics.getColumnStatistic(V1).getHistogram();
+        List<Bucket> buckets = histogram.getBuckets();
+        Assert.assertEquals(0, histogram.findBucket(0));
+        Assert.assertEquals(buckets.size(), histogram.findBucket(1001));
+        for (int i = 0; i < buckets.size(); i++) {
+            Assert.assertEquals(i, histogram.findBucket(buckets.get(i).getLower()));
+            Assert.assertEquals(i, histogram.findBucket(buckets.get(i).getUpper()));
+        }
+    }
+
+    private static BinaryPredicateOperator binary(BinaryPredicateOperator.BinaryType type, long value) {
+        return new BinaryPredicateOperator(type, V1, ConstantOperator.createBigint(value));
+    }
+
+    private static InPredicateOperator in(boolean isNotIn, long... values) {
+        List<ScalarOperator> children = Lists.newArrayList();
+        children.add(V1);
+        for (long value : values) {
+            children.add(ConstantOperator.createBigint(value));
+        }
+        return new InPredicateOperator(isNotIn, children);
+    }
+
+    private static CompoundPredicateOperator and(ScalarOperator left, ScalarOperator right) {
+        return new CompoundPredicateOperator(CompoundPredicateOperator.CompoundType.AND, left, right);
+    }
+
+    private static void check(ScalarOperator predicate, LongPredicate filter, double maxQError) {
+        double actual = Arrays.stream(data).filter(filter).count();
+        double estimated = PredicateStatisticsCalculator.statisticsCalculate(predicate, statistics)
+                .getOutputRowCount();
+        double qError = Math.max(actual, 1) / Math.max(estimated, 1);
+        qError = Math.max(qError, 1 / qError);
+        Assert.assertTrue(predicate + ": actual " + actual + ", estimated " + estimated,
+                qError <= maxQError);
+    }
+}
@@ -5,6 +5,8 @@ package com.starrocks.sql.plan;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.common.FeConstants;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalJoinOperator;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -455,4 +457,64 @@ public class MultiJoinReorderTest extends PlanTestBase {
         String plan = getFragmentPlan(sql);
         Assert.assertTrue(plan.contains("<slot 27> : NULL"));
     }
+
+    @Test
+    public void testParallelJoinReorder() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().enableGreedyJoinReorder();
+        String sql = "select * from t1 join t3 on t1.v4 = t3.v10 join t0 on t0.v2 = t1.v5 " +
+                "join t2 on t0.v1 = t2.v7";
+        String serialPlan = getFragmentPlan(sql);
+        try {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(true);
+            String parallelPlan = getFragmentPlan(sql);
+            Assert.assertEquals(serialPlan, parallelPlan);
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(parallelPlan, getFragmentPlan(sql));
+            }
+            assertContains(parallelPlan, "TABLE: t0", "TABLE: t1", "TABLE: t2", "TABLE: t3");
+        } finally {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(false);
+        }
+    }
+
+    // Count the joins of the plan, and check it's a linear tree: at most one child of every join has joins
+    private static int countJoinsOfLinearTree(OptExpression root) {
+        int joins = 0;
+        int childrenWithJoins = 0;
+        for (OptExpression child : root.getInputs()) {
+            int childJoins = countJoinsOfLinearTree(child);
+            joins += childJoins;
+            childrenWithJoins += childJoins > 0 ? 1 : 0;
+        }
+        if (root.getOp() instanceof PhysicalJoinOperator) {
+            Assert.assertTrue("bushy join: " + root.getOp(), childrenWithJoins <= 1);
+            joins++;
+        }
+        return joins;
+    }
+
+    @Test
+    public void testLinearizedDPJoinReorder() throws Exception {
+        StringBuilder sql = new StringBuilder("select count(*) from t0 a0");
+        for (int i = 1; i < 12; i++) {
+            sql.append(" join t").append(i % 4).append(" a").append(i)
+                    .append(" on a").append(i - 1).append(".v").append((i - 1) % 4 * 3 + 1)
+                    .append(" = a").append(i).append(".v").append(i % 4 * 3 + 1);
+        }
+        connectContext.getSessionVariable().setCboEnableLinearizedDPJoinReorder(true);
+        long planBudget = connectContext.getSessionVariable().getCboJoinReorderPlanBudget();
+        try {
+            String plan = getFragmentPlan(sql.toString());
+            Assert.assertEquals(11, plan.split("HASH JOIN\n").length - 1);
+
+            // degrade to left deep tree when the budget is exhausted
+            connectContext.getSessionVariable().setCboJoinReorderPlanBudget(0);
+            OptExpression physicalPlan = getExecPlan(sql.toString()).getPhysicalPlan();
+            Assert.assertEquals(11, countJoinsOfLinearTree(physicalPlan));
+        } finally {
+            connectContext.getSessionVariable().setCboEnableLinearizedDPJoinReorder(false);
+            connectContext.getSessionVariable().setCboJoinReorderPlanBudget(planBudget);
+        }
+    }
 }
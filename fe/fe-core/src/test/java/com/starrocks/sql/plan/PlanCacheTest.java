@@ -0,0 +1,135 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.sql.PlanCache;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.thrift.TResultSinkType;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlanCacheTest extends PlanTestBase {
+
+    @Before
+    public void before() {
+        connectContext.getSessionVariable().setEnablePlanCache(true);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    private ExecPlan plan(String sql) throws Exception {
+        return UtFrameUtils.getPlanAndFragment(connectContext, sql).second;
+    }
+
+    @Test
+    public void testReuseOptimizedPlan() throws Exception {
+        String sql = "select v1, sum(v2) from t0 join t1 on v1 = v4 where v3 > 10 group by v1";
+        ExecPlan plan1 = plan(sql);
+        ExecPlan plan2 = plan(sql);
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        Assert.assertEquals(plan1.getExplainString(TExplainLevel.NORMAL), plan2.getExplainString(TExplainLevel.NORMAL));
+
+        // whitespace and keyword case are normalized
+        ExecPlan plan3 = plan("SELECT v1, sum(v2) FROM t0 JOIN t1 ON v1 = v4   WHERE v3 > 10 GROUP BY v1");
+        Assert.assertSame(plan1.getPhysicalPlan(), plan3.getPhysicalPlan());
+    }
+
+    @Test
+    public void testDifferentLiterals() throws Exception {
+        ExecPlan plan1 = plan("select v1 from t0 where v3 > 10");
+        ExecPlan plan2 = plan("select v1 from t0 where v3 > 20");
+        // the literal is rebound into the cached plan
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        Assert.assertTrue(plan1.getExplainString(TExplainLevel.NORMAL).contains("3: v3 > 10"));
+        Assert.assertTrue(plan2.getExplainString(TExplainLevel.NORMAL).contains("3: v3 > 20"));
+
+        // literals of the same value are fixed, the optimizer may have merged them
+        ExecPlan plan5 = plan("select v1 from t0 where v1 = 1 and v2 = 1");
+        ExecPlan plan6 = plan("select v1 from t0 where v1 = 1 and v2 = 2");
+        Assert.assertNotSame(plan5.getPhysicalPlan(), plan6.getPhysicalPlan());
+        Assert.assertTrue(plan6.getExplainString(TExplainLevel.NORMAL).contains("2: v2 = 2"));
+
+        ExecPlan plan3 = plan("select v1 from t0 where v3 > 10 limit 1");
+        ExecPlan plan4 = plan("select v1 from t0 where v3 > 10 limit 2");
+        Assert.assertNotSame(plan3.getPhysicalPlan(), plan4.getPhysicalPlan());
+    }
+
+    @Test
+    public void testPartitionPruningLiterals() throws Exception {
+        String sql = "select LO_ORDERKEY from lineorder_flat_for_mv " +
+                "where LO_ORDERDATE >= '1997-01-01' and LO_EXTENDEDPRICE > 100";
+        ExecPlan plan1 = plan(sql);
+        Assert.assertTrue(plan1.getExplainString(TExplainLevel.NORMAL).contains("partitions=2/7"));
+
+        // the literal used by partition pruning is fixed, the other one is rebound
+        QueryStatement stmt = (QueryStatement) UtFrameUtils.parseStmtWithNewParser(sql, connectContext);
+        PlanCache.CacheKey key = PlanCache.createKey(stmt, connectContext, TResultSinkType.MYSQL_PROTOCAL);
+        PlanCache.CachedPlan cachedPlan = PlanCache.getInstance().get(key);
+        Assert.assertNotNull(cachedPlan);
+        Assert.assertTrue(cachedPlan.isFixedLiteral(0));
+        Assert.assertFalse(cachedPlan.isFixedLiteral(1));
+
+        ExecPlan plan2 = plan("select LO_ORDERKEY from lineorder_flat_for_mv " +
+                "where LO_ORDERDATE >= '1997-01-01' and LO_EXTENDEDPRICE > 200");
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+
+        // a different partition literal misses the cache and prunes the partitions again
+        ExecPlan plan3 = plan("select LO_ORDERKEY from lineorder_flat_for_mv " +
+                "where LO_ORDERDATE >= '1995-01-01' and LO_EXTENDEDPRICE > 100");
+        Assert.assertNotSame(plan1.getPhysicalPlan(), plan3.getPhysicalPlan());
+        Assert.assertTrue(plan3.getExplainString(TExplainLevel.NORMAL).contains("partitions=4/7"));
+    }
+
+    @Test
+    public void testUncacheableStatement() throws Exception {
+        String sql = "select v1, now() from t0";
+        ExecPlan plan1 = plan(sql);
+        ExecPlan plan2 = plan(sql);
+        Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+
+        sql = "select v1, rand() from t0";
+        plan1 = plan(sql);
+        plan2 = plan(sql);
+        Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+
+        sql = "explain select v1 from t0";
+        plan(sql);
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testSessionVariableChange() throws Exception {
+        String sql = "select v1 from t0 join t1 on v1 = v4";
+        ExecPlan plan1 = plan(sql);
+        int maxTransformReorderJoins = connectContext.getSessionVariable().getMaxTransformReorderJoins();
+        try {
+            connectContext.getSessionVariable().setMaxTransformReorderJoins(maxTransformReorderJoins + 1);
+            ExecPlan plan2 = plan(sql);
+            Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        } finally {
+            connectContext.getSessionVariable().setMaxTransformReorderJoins(maxTransformReorderJoins);
+        }
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        String sql = "select v1 from t0 where v2 = 1";
+        ExecPlan plan1 = plan(sql);
+        OlapTable t0 = (OlapTable) connectContext.getGlobalStateMgr().getDb("test").getTable("t0");
+        PlanCache.getInstance().invalidateTable(t0.getId());
+        ExecPlan plan2 = plan(sql);
+        Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        ExecPlan plan3 = plan(sql);
+        Assert.assertSame(plan2.getPhysicalPlan(), plan3.getPhysicalPlan());
+    }
+}
@@ -0,0 +1,219 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.ast.QueryRelation;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.thrift.TResultSinkType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the planner phases: parse, analyze, optimize and fragment build, plus the whole
+ * StatementPlanner. Every benchmark only measures its own phase, the inputs are prepared by the
+ * per invocation setup. Run main() to get ns/op and the allocation rate (gc profiler) of each phase.
+ * <p>
+ * Each query runs in its own fork, because the TPC-H and TPC-DS schemas can not live in
+ * the same mocked cluster.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PlannerBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PlannerBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"tpch-q5", "tpch-q9", "tpch-q21", "tpcds-q64", "tpcds-q72", "join-50"})
+    public String query;
+
+    private String sql;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if (query.startsWith("tpcds-")) {
+            TPCDSPlanTestBase.beforeClass();
+            new TPCDSPlanTestBase().setTPCDSFactor(1);
+            sql = (String) TPCDSPlanTestBase.class.getField("Q" + query.substring("tpcds-q".length())).get(null);
+        } else {
+            PlanTestBase.beforeClass();
+            if (query.startsWith("tpch-")) {
+                sql = readSql("tpch/" + query.substring("tpch-".length()));
+            } else {
+                OlapTable t0 = (OlapTable) PlanTestBase.connectContext.getGlobalStateMgr().getDb("test")
+                        .getTable("t0");
+                PlanTestBase.setTableStatistics(t0, 1000000);
+                sql = generateJoin(Integer.parseInt(query.substring("join-".length())));
+            }
+        }
+        FeConstants.runningUnitTest = true;
+    }
+
+    // The inputs are consumed by the phases, so they are rebuilt before every invocation
+    @State(Scope.Thread)
+    public static class PhaseInput {
+        StatementBase parsed;
+        StatementBase analyzed;
+        ColumnRefFactory columnRefFactory;
+        LogicalPlan logicalPlan;
+        OptExpression optimized;
+        List<String> colNames;
+
+        private void prepare(PlannerBench bench, boolean analyze, boolean optimize) {
+            PlanTestBase.connectContext.setThreadLocalInfo();
+            PlanTestBase.connectContext.setDumpInfo(
+                    new QueryDumpInfo(PlanTestBase.connectContext.getSessionVariable()));
+            parsed = bench.parse();
+            if (!analyze) {
+                return;
+            }
+            analyzed = parsed;
+            Analyzer.analyze(analyzed, PlanTestBase.connectContext);
+            QueryRelation relation = ((QueryStatement) analyzed).getQueryRelation();
+            colNames = relation.getColumnOutputNames();
+            columnRefFactory = new ColumnRefFactory();
+            logicalPlan = new RelationTransformer(columnRefFactory, PlanTestBase.connectContext)
+                    .transformWithSelectLimit(relation);
+            if (optimize) {
+                optimized = optimize(logicalPlan, columnRefFactory);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ParseInput extends PhaseInput {
+        @Setup(Level.Invocation)
+        public void setup(PlannerBench bench) {
+            super.prepare(bench, false, false);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LogicalPlanInput extends PhaseInput {
+        @Setup(Level.Invocation)
+        public void setup(PlannerBench bench) {
+            super.prepare(bench, true, false);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PhysicalPlanInput extends PhaseInput {
+        @Setup(Level.Invocation)
+        public void setup(PlannerBench bench) {
+            super.prepare(bench, true, true);
+        }
+    }
+
+    @Benchmark
+    public StatementBase parse() {
+        return SqlParser.parse(sql, PlanTestBase.connectContext.getSessionVariable().getSqlMode()).get(0);
+    }
+
+    @Benchmark
+    public StatementBase analyze(ParseInput input) {
+        Analyzer.analyze(input.parsed, PlanTestBase.connectContext);
+        return input.parsed;
+    }
+
+    @Benchmark
+    public OptExpression optimize(LogicalPlanInput input) {
+        return optimize(input.logicalPlan, input.columnRefFactory);
+    }
+
+    @Benchmark
+    public ExecPlan buildFragment(PhysicalPlanInput input) {
+        return new PlanFragmentBuilder().createPhysicalPlan(input.optimized, PlanTestBase.connectContext,
+                input.logicalPlan.getOutputColumn(), input.columnRefFactory, input.colNames,
+                TResultSinkType.MYSQL_PROTOCAL, true);
+    }
+
+    @Benchmark
+    public ExecPlan plan(ParseInput input) {
+        return StatementPlanner.plan(input.parsed, PlanTestBase.connectContext);
+    }
+
+    private static OptExpression optimize(LogicalPlan logicalPlan, ColumnRefFactory columnRefFactory) {
+        return new Optimizer().optimize(PlanTestBase.connectContext, logicalPlan.getRoot(),
+                new PhysicalPropertySet(), new ColumnRefSet(logicalPlan.getOutputColumn()), columnRefFactory);
+    }
+
+    private static String readSql(String name) throws IOException {
+        String path = Objects.requireNonNull(ClassLoader.getSystemClassLoader().getResource("sql")).getPath();
+        StringBuilder sb = new StringBuilder();
+        boolean inSql = false;
+        try (BufferedReader reader = new BufferedReader(new FileReader(new File(path + "/" + name + ".sql")))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[")) {
+                    if (inSql) {
+                        break;
+                    }
+                    inSql = line.equals("[sql]");
+                    continue;
+                }
+                if (inSql) {
+                    sb.append(line).append("\n");
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    // t0 a0 join t0 a1 on a0.v1 = a1.v1 join t0 a2 on a1.v2 = a2.v1 ...
+    private static String generateJoin(int tables) {
+        StringJoiner from = new StringJoiner(" join ");
+        from.add("t0 a0");
+        for (int i = 1; i < tables; i++) {
+            from.add("t0 a" + i + " on a" + (i - 1) + ".v" + (i % 2 + 1) + " = a" + i + ".v1");
+        }
+        return "select count(*) from " + from;
+    }
+}
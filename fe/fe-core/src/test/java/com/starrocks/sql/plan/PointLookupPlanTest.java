@@ -0,0 +1,38 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql.plan;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PointLookupPlanTest extends PlanTestBase {
+    @Test
+    public void testPointLookup() throws Exception {
+        ExecPlan execPlan = getExecPlan("select v1, v2 from tprimary where pk = 1");
+        Assert.assertTrue(execPlan.isPointLookup());
+        Assert.assertEquals(1, execPlan.getFragments().size());
+        Assert.assertEquals(1, execPlan.getTopFragment().getPipelineDop());
+
+        execPlan = getExecPlan("select v1, v2 + 1 from tprimary where 1 = pk and v2 > 0");
+        Assert.assertTrue(execPlan.isPointLookup());
+    }
+
+    @Test
+    public void testNotPointLookup() throws Exception {
+        // not the full key
+        Assert.assertFalse(getExecPlan("select * from tprimary where pk > 1").isPointLookup());
+        // not primary key table
+        Assert.assertFalse(getExecPlan("select * from t0 where v1 = 1").isPointLookup());
+        // aggregation
+        Assert.assertFalse(getExecPlan("select count(*) from tprimary where pk = 1").isPointLookup());
+        // join
+        Assert.assertFalse(getExecPlan("select * from tprimary join tprimary1 on pk = pk1 where pk = 1")
+                .isPointLookup());
+
+        connectContext.getSessionVariable().setEnablePointLookupDirectSchedule(false);
+        try {
+            Assert.assertFalse(getExecPlan("select v1 from tprimary where pk = 1").isPointLookup());
+        } finally {
+            connectContext.getSessionVariable().setEnablePointLookupDirectSchedule(true);
+        }
+    }
+}
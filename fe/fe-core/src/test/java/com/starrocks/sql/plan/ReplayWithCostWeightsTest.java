@@ -0,0 +1,106 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.FeConstants;
+import com.starrocks.persist.gson.GsonUtils;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.optimizer.cost.CostModel;
+import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.system.BackendCoreStat;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replay query dumps with the default cost weights and the calibrated cost weights, and report the
+ * queries whose plan is changed. It could also be run offline over the dumps collected from a cluster:
+ * <p>
+ * mvn test -Dtest=ReplayWithCostWeightsTest -Dcost.replay.dump.dir=/path/to/dumps
+ * -Dcost.replay.weights=0.5,1.2,0.6
+ * <p>
+ * The weights are the values of cbo_cpu_cost_weight, cbo_memory_cost_weight and cbo_network_cost_weight.
+ */
+public class ReplayWithCostWeightsTest {
+    private static final Logger LOG = LogManager.getLogger(ReplayWithCostWeightsTest.class);
+
+    private static ConnectContext connectContext;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster();
+        connectContext = UtFrameUtils.createDefaultCtx();
+        FeConstants.runningUnitTest = true;
+    }
+
+    private static List<File> getDumpFiles() {
+        String dumpDir = System.getProperty("cost.replay.dump.dir");
+        if (dumpDir != null) {
+            File[] files = Objects.requireNonNull(new File(dumpDir).listFiles((dir, name) -> name.endsWith(".json")));
+            return Lists.newArrayList(files);
+        }
+        String path = Objects.requireNonNull(ClassLoader.getSystemClassLoader().getResource("sql")).getPath();
+        return Lists.newArrayList(new File(path + "/query_dump/tpch01.json"),
+                new File(path + "/query_dump/tpcds02.json"),
+                new File(path + "/query_dump/ssb10.json"));
+    }
+
+    private static double[] getCalibratedWeights() {
+        String weights = System.getProperty("cost.replay.weights");
+        if (weights == null) {
+            // fast network, the network cost is much lower than the default
+            return new double[] {0.5, 2, 0.3};
+        }
+        String[] values = weights.split(",");
+        Assert.assertEquals(3, values.length);
+        return new double[] {Double.parseDouble(values[0]), Double.parseDouble(values[1]),
+                Double.parseDouble(values[2])};
+    }
+
+    private static String replay(String dumpJson, double[] weights) throws Exception {
+        BackendCoreStat.reset();
+        QueryDumpInfo queryDumpInfo = GsonUtils.GSON.fromJson(dumpJson, QueryDumpInfo.class);
+        SessionVariable sessionVariable = queryDumpInfo.getSessionVariable();
+        sessionVariable.setOptimizerExecuteTimeout(30000);
+        sessionVariable.setCboCpuCostWeight(weights[0]);
+        sessionVariable.setCboMemoryCostWeight(weights[1]);
+        sessionVariable.setCboNetworkCostWeight(weights[2]);
+        return UtFrameUtils.getNewPlanAndFragmentFromDump(connectContext, queryDumpInfo).second
+                .getExplainString(TExplainLevel.NORMAL);
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        double[] defaultWeights = new double[] {CostModel.DEFAULT_CPU_COST_WEIGHT,
+                CostModel.DEFAULT_MEMORY_COST_WEIGHT, CostModel.DEFAULT_NETWORK_COST_WEIGHT};
+        double[] calibratedWeights = getCalibratedWeights();
+
+        int changed = 0;
+        List<File> files = getDumpFiles();
+        for (File file : files) {
+            String dumpJson = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            String defaultPlan = replay(dumpJson, defaultWeights);
+            String calibratedPlan = replay(dumpJson, calibratedWeights);
+            // same weights always produce the same plan
+            Assert.assertEquals(defaultPlan, replay(dumpJson, defaultWeights));
+
+            if (!defaultPlan.equals(calibratedPlan)) {
+                changed++;
+                LOG.info("plan of {} is changed by the calibrated cost weights\n[default]\n{}\n[calibrated]\n{}",
+                        file.getName(), defaultPlan, calibratedPlan);
+            }
+        }
+        LOG.info("{} of {} plans are changed by the calibrated cost weights", changed, files.size());
+    }
+}
@@ -21,8 +21,13 @@ import com.baidu.bjf.remoting.protobuf.Codec;
 import com.baidu.bjf.remoting.protobuf.ProtobufProxy;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.starrocks.common.FeConstants;
 import com.starrocks.common.FeMetaVersion;
+import com.starrocks.common.io.DataOutputBuffer;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.lake.compaction.Quantiles;
 import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.OperationType;
 import com.starrocks.proto.TxnFinishStatePB;
 import com.starrocks.thrift.TUniqueId;
 import com.starrocks.transaction.TransactionState.LoadJobSourceType;
@@ -147,4 +152,94 @@ public class TransactionStateTest {
         }
         Assert.assertTrue(readTransactionState.isNewFinish());
     }
+
+    private TransactionState buildCompactTestState() {
+        UUID uuid = UUID.randomUUID();
+        TransactionState transactionState = new TransactionState(1000L, Lists.newArrayList(20000L, 20001L),
+                3000, "label123", new TUniqueId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()),
+                LoadJobSourceType.BACKEND_STREAMING, new TxnCoordinator(TxnSourceType.BE, "127.0.0.1"), 50000L,
+                60 * 1000L);
+        TableCommitInfo tableCommitInfo = new TableCommitInfo(20000L);
+        tableCommitInfo.addPartitionCommitInfo(new PartitionCommitInfo(20002L, 5, 1670000000000L));
+        PartitionCommitInfo lakePartition = new PartitionCommitInfo(20003L, 7, -1670000000000L,
+                Lists.newArrayList("c1"), Lists.newArrayList("c2", "c3"));
+        lakePartition.setCompactionScore(Quantiles.compute(Lists.newArrayList(0.5, 1.0, 3.0)));
+        tableCommitInfo.addPartitionCommitInfo(lakePartition);
+        transactionState.putIdToTableCommitInfo(20000L, tableCommitInfo);
+        transactionState.setPrepareTime(1670000000000L);
+        transactionState.setCommitTime(1670000000100L);
+        transactionState.setTransactionStatus(TransactionStatus.COMMITTED);
+        transactionState.setReason("some reason");
+        transactionState.setErrorReplicas(Sets.newHashSet(30000L));
+        return transactionState;
+    }
+
+    private TransactionState writeAndReadCompact(TransactionState transactionState) throws IOException {
+        DataOutputBuffer buffer = new DataOutputBuffer();
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(OperationType.OP_UPSERT_TRANSACTION_STATE_COMPACT);
+        entity.setData(transactionState::writeCompact);
+        entity.write(buffer);
+
+        DataOutputBuffer legacyBuffer = new DataOutputBuffer();
+        transactionState.write(legacyBuffer);
+        Assert.assertTrue(buffer.getLength() < legacyBuffer.getLength());
+
+        JournalEntity readEntity = new JournalEntity();
+        readEntity.readFields(new DataInputStream(new ByteArrayInputStream(buffer.getData(), 0, buffer.getLength())));
+        Assert.assertEquals(OperationType.OP_UPSERT_TRANSACTION_STATE_COMPACT, readEntity.getOpCode());
+        return (TransactionState) readEntity.getData();
+    }
+
+    @Test
+    public void testSerDeCompact() throws IOException {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+        metaContext.setThreadLocalInfo();
+
+        TransactionState transactionState = buildCompactTestState();
+        TransactionState readState = writeAndReadCompact(transactionState);
+        Assert.assertEquals(3000, readState.getTransactionId());
+        Assert.assertEquals("label123", readState.getLabel());
+        Assert.assertEquals(1000L, readState.getDbId());
+        Assert.assertEquals(TxnSourceType.BE, readState.getCoordinator().sourceType);
+        Assert.assertEquals("127.0.0.1", readState.getCoordinator().ip);
+        Assert.assertEquals(TransactionStatus.COMMITTED, readState.getTransactionStatus());
+        Assert.assertEquals(LoadJobSourceType.BACKEND_STREAMING, readState.getSourceType());
+        Assert.assertEquals(1670000000000L, readState.getPrepareTime());
+        Assert.assertEquals(1670000000100L, readState.getCommitTime());
+        Assert.assertEquals(-1, readState.getFinishTime());
+        Assert.assertEquals("some reason", readState.getReason());
+        Assert.assertEquals(Sets.newHashSet(30000L), readState.getErrorReplicas());
+        Assert.assertNull(readState.getTxnCommitAttachment());
+        Assert.assertEquals(50000L, readState.getCallbackId());
+        Assert.assertEquals(60 * 1000L, readState.getTimeoutMs());
+        Assert.assertEquals(Lists.newArrayList(20000L, 20001L), readState.getTableIdList());
+
+        TableCommitInfo tableCommitInfo = readState.getIdToTableCommitInfos().get(20000L);
+        Assert.assertEquals(2, tableCommitInfo.getIdToPartitionCommitInfo().size());
+        PartitionCommitInfo partition = tableCommitInfo.getPartitionCommitInfo(20002L);
+        Assert.assertEquals(5, partition.getVersion());
+        Assert.assertEquals(1670000000000L, partition.getVersionTime());
+        Assert.assertTrue(partition.getInvalidDictCacheColumns().isEmpty());
+        Assert.assertNull(partition.getCompactionScore());
+        PartitionCommitInfo lakePartition = tableCommitInfo.getPartitionCommitInfo(20003L);
+        Assert.assertEquals(-1670000000000L, lakePartition.getVersionTime());
+        Assert.assertEquals(Lists.newArrayList("c1"), lakePartition.getInvalidDictCacheColumns());
+        Assert.assertEquals(Lists.newArrayList("c2", "c3"), lakePartition.getValidDictCacheColumns());
+        Assert.assertEquals(0, Quantiles.compute(Lists.newArrayList(0.5, 1.0, 3.0))
+                .compareTo(lakePartition.getCompactionScore()));
+
+        // visible with the finish state
+        transactionState.setFinishState(buildTxnFinishState(10));
+        transactionState.setFinishTime(1670000000200L);
+        transactionState.setNewFinish();
+        transactionState.setTransactionStatus(TransactionStatus.VISIBLE);
+        readState = writeAndReadCompact(transactionState);
+        Assert.assertEquals(TransactionStatus.VISIBLE, readState.getTransactionStatus());
+        Assert.assertEquals(1670000000200L, readState.getFinishTime());
+        Assert.assertTrue(readState.isNewFinish());
+        Assert.assertEquals(10, readState.getFinishState().normalReplicas.size());
+    }
 }